@@ -2,17 +2,20 @@ package org.team1251.frc.robot;
 
 /**
  * Represents the left and right power to be applied to the drive base.
+ *
+ * Instances are mutable so that code which runs on every tick can reuse a single instance (see
+ * {@link #set(double, double)}) rather than creating a new one on every tick.
  */
 public class DrivePower {
     /**
      * The amount of power to apply to the left side of the drive base.
      */
-    private final double left;
+    private double left;
 
     /**
      * The amount of power to apply to the right side of the drive base.
      */
-    private final double right;
+    private double right;
 
     /**
      * Creates a new instance.
@@ -25,8 +28,23 @@ public class DrivePower {
      * @param right The amount of power to apply to the left side of the drive base.
      */
     public DrivePower(double left, double right) {
+        set(left, right);
+    }
+
+    /**
+     * Replaces the left and right power values.
+     *
+     * As with the constructor, values outside of the -1..1 range are captured without modification.
+     *
+     * @param left The amount of power to apply to the left side of the drive base.
+     * @param right The amount of power to apply to the right side of the drive base.
+     *
+     * @return This instance, for convenience.
+     */
+    public DrivePower set(double left, double right) {
         this.left = left;
         this.right = right;
+        return this;
     }
 
     /**
@@ -1,22 +1,34 @@
 package org.team1251.frc.robot;
 
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
 import org.team1251.frc.robot.commands.AbandonClimb;
+import org.team1251.frc.robot.commands.AutoAlign;
 import org.team1251.frc.robot.commands.Climb;
 import org.team1251.frc.robot.commands.TeleopDrive;
+import org.team1251.frc.robot.commands.ToggleDriveMode;
 import org.team1251.frc.robot.commands.test.DriveBaseMotorTest;
 import org.team1251.frc.robot.commands.test.LiftTest;
 import org.team1251.frc.robot.commands.test.PneumaticTest;
+import org.team1251.frc.robot.commands.test.VisionCalibrationCapture;
 import org.team1251.frc.robot.humanInterface.input.HumanInput;
 import org.team1251.frc.robot.parts.controllers.ControllerFactory;
 import org.team1251.frc.robot.parts.mechanisms.MechanismFactory;
 import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robot.sim.RobotSimulation;
 import org.team1251.frc.robot.subsystems.Climber;
 import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robot.subsystems.PoseEstimator;
 import org.team1251.frc.robotCore.TigerTimedRobot;
 import org.team1251.frc.robotCore.humanInterface.input.gamepad.XBoxController;
 import org.team1251.frc.robotCore.humanInterface.input.triggers.ButtonTrigger;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryRate;
 import org.team1251.frc.robotCore.parts.sensors.LimeLight;
+import org.team1251.frc.robotCore.util.RobotConfig;
+import org.team1251.frc.robotCore.util.TickClock;
+import org.team1251.frc.robotCore.vision.DistanceEstimator;
+
+import java.io.File;
 
 /**
  * The VM is configured to automatically run this class, and to call the
@@ -32,10 +44,52 @@ public class Robot extends TigerTimedRobot {
      */
     public static final int TICK_PERIOD_MS = 20;
 
-    public static final ControllerFactory controllerFactory = new ControllerFactory();
+    /**
+     * How many milliseconds between pose updates (see {@link PoseEstimator}). The drive train talons send encoder
+     * updates at the same rate, so that every pose update sees fresh wheel distances.
+     */
+    public static final int POSE_UPDATE_PERIOD_MS = 5;
+
+    /**
+     * Settings measured or tuned on the real robot, relative to the deploy directory (`src/main/deploy` in the
+     * project).
+     */
+    private static final String CONFIG_FILE = "robot.properties";
+
+    public static final RobotConfig config = new RobotConfig(new File(Filesystem.getDeployDirectory(), CONFIG_FILE));
+
+    public static final ControllerFactory controllerFactory = new ControllerFactory(config);
     public static final MechanismFactory mechanismFactory = new MechanismFactory();
     public static final SensorFactory sensorFactory = new SensorFactory();
 
+    /**
+     * Where data log files are written on the roboRIO.
+     */
+    private static final String DATA_LOG_DIRECTORY = "/home/lvuser/logs";
+
+    /**
+     * Where data log files are written when running on a desktop (relative to the working directory).
+     */
+    private static final String SIM_DATA_LOG_DIRECTORY = "build/logs";
+
+    /**
+     * The vision calibration, relative to the deploy directory (`src/main/deploy` in the project).
+     */
+    private static final String VISION_CALIBRATION_FILE = "vision-calibration.csv";
+
+    /**
+     * The camera geometry used to estimate target distance until the vision calibration has samples, unless configured
+     * otherwise (`vision.targetHeightAboveCamera`, `vision.cameraPitch`). Inches and degrees.
+     */
+    private static final double DEFAULT_VISION_TARGET_HEIGHT_ABOVE_CAMERA = 20;
+    private static final double DEFAULT_VISION_CAMERA_PITCH = 0;
+
+    /**
+     * Where new vision calibration samples are written on the roboRIO, and when running on a desktop.
+     */
+    private static final String VISION_CAPTURE_FILE = "/home/lvuser/vision-calibration-capture.csv";
+    private static final String SIM_VISION_CAPTURE_FILE = "build/vision-calibration-capture.csv";
+
 
 
     /**
@@ -53,6 +107,11 @@ public class Robot extends TigerTimedRobot {
      */
     private Climber climber;
 
+    /**
+     * Tracks where the robot is on the field.
+     */
+    private PoseEstimator poseEstimator;
+
     /**
      * The command that gives the human players the ability to move the robot around the field.
      */
@@ -60,6 +119,11 @@ public class Robot extends TigerTimedRobot {
 
     private LimeLight limelight;
 
+    /**
+     * Estimates the distance to vision targets.
+     */
+    private DistanceEstimator distanceEstimator;
+
     /**
      * The game pad used as input during test.
      */
@@ -74,13 +138,22 @@ public class Robot extends TigerTimedRobot {
     private boolean wasTestModeActivated = false;
     private PneumaticTest pneumaticsTestCmd;
     private LiftTest liftTestCmd;
+    private VisionCalibrationCapture visionCaptureCmd;
     private AbandonClimb abandonClimb;
+    private AutoAlign autoAlign;
+    private ToggleDriveMode toggleDriveMode;
+
+    /**
+     * The physics model used when running on a desktop. `null` on the real robot.
+     */
+    private RobotSimulation simulation;
 
     /**
      * Creates the robot!
      */
     public Robot() {
         super(TICK_PERIOD_MS / 1000.0);
+        useTigerScheduler();
     }
 
     /**
@@ -94,7 +167,10 @@ public class Robot extends TigerTimedRobot {
      * This is always invoked immediately before {@link #createSharedSensors()}}.
      */
     @Override
-    protected void robotInitPrep() { }
+    protected void robotInitPrep() {
+        // Keep Network Tables writes off of the main robot thread.
+        telemetryTables.getPublisher().startBackgroundPublishing();
+    }
 
     /**
      * Creates all sensors that need to be accessed by multiple parts of the robot. These are different from sensors
@@ -110,6 +186,11 @@ public class Robot extends TigerTimedRobot {
 
         limelight = new LimeLight();
         limelight.setCameraMode(LimeLight.CameraMode.DRIVER);
+        limelight.startListening();
+        distanceEstimator = new DistanceEstimator(limelight,
+                new File(Filesystem.getDeployDirectory(), VISION_CALIBRATION_FILE),
+                config.getDouble("vision.targetHeightAboveCamera", DEFAULT_VISION_TARGET_HEIGHT_ABOVE_CAMERA),
+                config.getDouble("vision.cameraPitch", DEFAULT_VISION_CAMERA_PITCH));
     }
 
     /**
@@ -138,6 +219,7 @@ public class Robot extends TigerTimedRobot {
     protected void createSubsystems() {
         driveBase = new DriveBase();
         climber = new Climber();
+        poseEstimator = new PoseEstimator(driveBase);
     }
 
     /**
@@ -153,6 +235,8 @@ public class Robot extends TigerTimedRobot {
         climbLvl3 = new Climb(driveBase, climber, Climber.LiftTarget.HAB_LVL_3);
         climbLvl2 = new Climb(driveBase, climber, Climber.LiftTarget.HAB_LVL_2);
         abandonClimb = new AbandonClimb(climbLvl2, climbLvl3);
+        autoAlign = new AutoAlign(driveBase, poseEstimator, humanInput, limelight);
+        toggleDriveMode = new ToggleDriveMode(driveBase);
     }
 
     /**
@@ -173,7 +257,47 @@ public class Robot extends TigerTimedRobot {
      */
     @Override
     protected void robotInitFinalize() {
+        // Safety-critical state goes out every tick. Everything else is spread out at slower rates.
         telemetrySender.add(climber);
+        telemetrySender.add(driveBase, TelemetryRate.TEN_PER_SECOND);
+        telemetrySender.add(poseEstimator, TelemetryRate.TEN_PER_SECOND);
+        telemetrySender.add(distanceEstimator, TelemetryRate.TEN_PER_SECOND);
+        telemetrySender.add(climber.getDiagnosticTelemetry(), TelemetryRate.ONCE_PER_SECOND);
+        telemetrySender.add(climbLvl2, TelemetryRate.ONCE_PER_SECOND);
+        telemetrySender.add(climbLvl3, TelemetryRate.ONCE_PER_SECOND);
+
+        // Record everything needed to review a match (or a climb) afterwards.
+        dataLogger.add(driveBase);
+        dataLogger.add(climber);
+        dataLogger.add(poseEstimator);
+        dataLogger.add(climbLvl2);
+        dataLogger.add(climbLvl3);
+        dataLogger.start(new File(isSimulation() ? SIM_DATA_LOG_DIRECTORY : DATA_LOG_DIRECTORY));
+
+        if (isSimulation()) {
+            simulation = new RobotSimulation(controllerFactory, sensorFactory, TICK_PERIOD_MS / 1000.0);
+        }
+    }
+
+    /**
+     * Advances the physics model. Only called when running on a desktop. On virtual time, the pose estimator has no
+     * background thread, so it is stepped here along with the model.
+     */
+    @Override
+    protected void simulationPeriodic() {
+        simulation.update();
+        if (TickClock.getInstance().isVirtual()) {
+            poseEstimator.step();
+        }
+    }
+
+    /**
+     * Provides the physics model used when running on a desktop.
+     *
+     * @return The physics model, or `null` on the real robot.
+     */
+    public RobotSimulation getSimulation() {
+        return simulation;
     }
 
     /**
@@ -225,7 +349,7 @@ public class Robot extends TigerTimedRobot {
      */
     @Override
     protected void onFirstTeleopActivation() {
-        humanInput.attachCommandTriggers(climbLvl3, climbLvl2, abandonClimb);
+        humanInput.attachCommandTriggers(climbLvl3, climbLvl2, abandonClimb, autoAlign, toggleDriveMode);
     }
 
     /**
@@ -250,10 +374,13 @@ public class Robot extends TigerTimedRobot {
         motorTestCmd = new DriveBaseMotorTest(driveBase);
         pneumaticsTestCmd = new PneumaticTest(testerGamePad, climber);
         liftTestCmd = new LiftTest(climber);
+        visionCaptureCmd = new VisionCalibrationCapture(limelight,
+                new File(isSimulation() ? SIM_VISION_CAPTURE_FILE : VISION_CAPTURE_FILE));
 
         (new ButtonTrigger(testerGamePad.lt())).whileHeld(motorTestCmd);
         (new ButtonTrigger(testerGamePad.rt())).whileHeld(pneumaticsTestCmd);
         (new ButtonTrigger(testerGamePad.start())).whileHeld(liftTestCmd);
+        (new ButtonTrigger(testerGamePad.a())).whenPressed(visionCaptureCmd);
     }
 
     /**
@@ -1,11 +1,11 @@
 package org.team1251.frc.robot.commands;
 
-import edu.wpi.first.wpilibj.command.Command;
+import org.team1251.frc.robotCore.commands.TigerCommand;
 
 /**
  * A special command that acts on another command to short-circuit it!
  */
-public class AbandonClimb extends Command {
+public class AbandonClimb extends TigerCommand {
 
     private boolean wasAbandonCalled;
     private final Climb climbLvl2;
@@ -22,7 +22,7 @@ public class AbandonClimb extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void executeTick() {
         // Abandon all the climbs.. don't bother to find out if either is running.
         climbLvl2.abandon();
         climbLvl3.abandon();
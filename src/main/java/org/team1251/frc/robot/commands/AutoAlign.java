@@ -0,0 +1,139 @@
+package org.team1251.frc.robot.commands;
+
+import org.team1251.frc.robot.DrivePower;
+import org.team1251.frc.robot.Robot;
+import org.team1251.frc.robot.humanInterface.input.HumanInput;
+import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robot.subsystems.PoseEstimator;
+import org.team1251.frc.robotCore.commands.TigerCommand;
+import org.team1251.frc.robotCore.odometry.Pose;
+import org.team1251.frc.robotCore.parts.sensors.LimeLight;
+import org.team1251.frc.robotCore.vision.TargetTracker;
+
+/**
+ * Turns the robot to face a vision target while the driver controls how fast it drives forward or back.
+ *
+ * The target's horizontal offset comes from a {@link TargetTracker}, which compensates for camera latency and keeps
+ * the offset current between camera frames by following the gyro. The turn is a PD loop on that offset: the gyro turn
+ * rate provides the damping, since it is far less noisy than the change in the offset. The loop runs on every tick.
+ *
+ * While no target is being tracked, the driver has normal control of the robot. As the tracker gains confidence in a
+ * target, the turn is faded in, so the robot doesn't lurch towards a target that flickered into view.
+ *
+ * This is meant to be held: it never finishes on its own.
+ */
+public class AutoAlign extends TigerCommand {
+
+    /**
+     * Turn power (each side) per degree of horizontal offset, unless configured otherwise (`align.kP`).
+     */
+    private static final double DEFAULT_KP = .006;
+
+    /**
+     * Turn power (each side) per degree per second of turn rate, opposing the turn, unless configured otherwise
+     * (`align.kD`).
+     */
+    private static final double DEFAULT_KD = .0004;
+
+    /**
+     * The most turn power (each side) the loop will apply.
+     */
+    private static final double MAX_TURN = .4;
+
+    private final DriveBase driveBase;
+    private final PoseEstimator poseEstimator;
+    private final HumanInput humanInput;
+    private final LimeLight limeLight;
+    private final TargetTracker tracker;
+
+    /**
+     * The loop gains. See {@link #DEFAULT_KP} and {@link #DEFAULT_KD}.
+     */
+    private final double kP;
+    private final double kD;
+
+    /**
+     * Reused on every tick to avoid creating garbage while driving.
+     */
+    private final DrivePower drivePower = new DrivePower(0, 0);
+    private final Pose pose = new Pose();
+
+    /**
+     * The previous heading (degrees) and when it was measured, for calculating the turn rate.
+     */
+    private double lastHeading;
+    private double lastHeadingTimestamp = Double.NaN;
+    private double turnRate;
+
+    /**
+     * @param driveBase The drive base to steer.
+     * @param poseEstimator Provides the robot's heading and recent history.
+     * @param humanInput Provides the driver's throttle (and full control while there is no target).
+     * @param limeLight The camera. Must be listening (see {@link LimeLight#startListening()}).
+     */
+    public AutoAlign(DriveBase driveBase, PoseEstimator poseEstimator, HumanInput humanInput, LimeLight limeLight) {
+        this.driveBase = driveBase;
+        this.poseEstimator = poseEstimator;
+        this.humanInput = humanInput;
+        this.limeLight = limeLight;
+        this.tracker = new TargetTracker(limeLight, poseEstimator.getHistory());
+
+        kP = Robot.config.getDouble("align.kP", DEFAULT_KP);
+        kD = Robot.config.getDouble("align.kD", DEFAULT_KD);
+
+        this.requires(driveBase);
+    }
+
+    @Override
+    protected void initialize() {
+        limeLight.setCameraMode(LimeLight.CameraMode.CV);
+        tracker.reset();
+        lastHeadingTimestamp = Double.NaN;
+        turnRate = 0;
+    }
+
+    @Override
+    protected void executeTick() {
+        tracker.update();
+        updateTurnRate();
+
+        if (!tracker.hasTarget()) {
+            driveBase.drive(humanInput.getDrivePower(
+                    driveBase.getLeftVelocity(), driveBase.getRightVelocity(), drivePower));
+            return;
+        }
+
+        // A target to the right (positive offset) needs a clockwise (negative) turn.
+        double turn = -kP * tracker.getHorizontalOffset() - kD * turnRate;
+        turn = Math.max(-MAX_TURN, Math.min(MAX_TURN, turn)) * tracker.getConfidence();
+
+        double throttle = humanInput.getAlignThrottle();
+        driveBase.drive(drivePower.set(throttle - turn, throttle + turn));
+    }
+
+    /**
+     * Measures how fast (degrees per second, counter-clockwise positive) the robot is turning.
+     */
+    private void updateTurnRate() {
+        poseEstimator.getPose(pose);
+        double heading = Math.toDegrees(pose.getHeading());
+        double timestamp = pose.getTimestamp();
+
+        if (!Double.isNaN(lastHeadingTimestamp) && timestamp > lastHeadingTimestamp) {
+            turnRate = (heading - lastHeading) / (timestamp - lastHeadingTimestamp);
+        }
+        lastHeading = heading;
+        lastHeadingTimestamp = timestamp;
+    }
+
+    @Override
+    protected void end() {
+        limeLight.setCameraMode(LimeLight.CameraMode.DRIVER);
+        driveBase.drive(drivePower.set(0, 0));
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return false;
+    }
+}
@@ -1,13 +1,36 @@
 package org.team1251.frc.robot.commands;
 
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.networktables.NetworkTable;
 import org.team1251.frc.robot.subsystems.Climber;
 import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robotCore.commands.TigerCommand;
+import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.logging.BinaryDataLogger;
+import org.team1251.frc.robotCore.logging.EventLevel;
+import org.team1251.frc.robotCore.logging.EventLog;
+import org.team1251.frc.robotCore.logging.IDataLogProvider;
+import org.team1251.frc.robotCore.stateMachine.StateMachine;
 
-public class Climb extends Command {
+/**
+ * Climbs onto the HAB platform, one {@link ClimbPhase} at a time.
+ *
+ * The phases are run by a {@link StateMachine}, which also times each phase. Every climb logs how long each phase took
+ * (to the event log when the climb ends, and continuously to the data log) so the climb can be tuned.
+ *
+ * The climb can't be interrupted, so it protects itself while lifting (see {@link #MONITORED_PHASES}): it is
+ * abandoned if a leg stalls (see {@link Climber#isLiftStalled()}), if the legs get out of sync (see
+ * {@link Climber#isLegSyncLost()}) or if a phase takes too long. For each of these phases, the time it took on the last
+ * climb, the longest it has taken to complete, and the number of stalls, sync losses and timeouts are published, so
+ * the timeouts can be tightened safely.
+ */
+public class Climb extends TigerCommand implements IDataLogProvider, ITelemetryProvider {
 
-    private enum ClimbPhase {
+    /**
+     * The phases of a climb, in order. The data log records each phase by its ordinal (-1 when no climb is running).
+     */
+    public enum ClimbPhase {
         INITIALIZING, // Initializing
         LIFTING,  // Raising with elevators
         GAINING_FOOTHOLD, // Driving forward until front wheel is on platform
@@ -23,15 +46,104 @@ public class Climb extends Command {
      * How many seconds to drive forward while finishing the climb. This should be enough to get the
      * rest of the robot onto the platform.
      */
-    private final double FINISHING_DRIVE_DURATION = .10;
+    private static final double FINISHING_DRIVE_DURATION = .10;
+
+    /**
+     * How long (seconds) lifting may take, before counting the lift target's height.
+     */
+    private static final double LIFTING_TIMEOUT_BASE = 1;
+
+    /**
+     * How much longer (seconds) lifting may take for each inch of lift.
+     */
+    private static final double LIFTING_TIMEOUT_PER_INCH = .25;
+
+    /**
+     * How long (seconds) driving the front wheels onto the platform may take.
+     */
+    private static final double GAINING_FOOTHOLD_TIMEOUT = 5;
+
+    /**
+     * Every phase, by ordinal. (`values()` makes a new array on each call.)
+     */
+    private static final ClimbPhase[] ALL_PHASES = ClimbPhase.values();
 
-    private Timer finishingTimer;
+    /**
+     * The phases which can be abandoned. Once the legs start retracting, the climb must be seen through.
+     */
+    private static final ClimbPhase[] ABANDONABLE_PHASES = {
+            ClimbPhase.INITIALIZING, ClimbPhase.LIFTING, ClimbPhase.GAINING_FOOTHOLD
+    };
+
+    /**
+     * The phases which are watched for stalls and sync losses and have timeouts, and whose statistics are published.
+     */
+    private static final ClimbPhase[] MONITORED_PHASES = { ClimbPhase.LIFTING, ClimbPhase.GAINING_FOOTHOLD };
 
     private final DriveBase driveBase;
     private final Climber climber;
     private final Climber.LiftTarget target;
 
-    private ClimbPhase currentPhase;
+    /**
+     * Runs (and times) the phases.
+     */
+    private final StateMachine<ClimbPhase> phases;
+
+    /**
+     * Whether {@link #abandon()} has been called during the current climb.
+     */
+    private boolean isAbandonRequested = false;
+
+    /**
+     * Records phase transitions and timings.
+     */
+    private final EventLog eventLog = EventLog.getInstance();
+
+    /**
+     * The event log source for this climb.
+     */
+    private final int eventSource;
+
+    /**
+     * Data log field handle for the current phase.
+     */
+    private int dataLogPhase;
+
+    /**
+     * Data log field handles for the time spent in each phase, by phase ordinal.
+     */
+    private final int[] dataLogPhaseTimes = new int[ALL_PHASES.length];
+
+    /**
+     * Whether the phase times have been logged since the phases stopped.
+     */
+    private boolean hasLoggedFinalPhaseTimes = false;
+
+    /**
+     * Statistics for each monitored phase, by phase ordinal. Counts are totals over every climb since the robot
+     * started.
+     */
+    private final boolean[] isMonitored = new boolean[ALL_PHASES.length];
+    private final double[] lastPhaseTimes = new double[ALL_PHASES.length];
+    private final double[] longestPhaseTimes = new double[ALL_PHASES.length];
+    private final int[] stallCounts = new int[ALL_PHASES.length];
+    private final int[] syncLossCounts = new int[ALL_PHASES.length];
+    private final int[] timeoutCounts = new int[ALL_PHASES.length];
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is first sent.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles for each monitored phase's statistics, by phase ordinal.
+     */
+    private final int[] telemetryLastTimes = new int[ALL_PHASES.length];
+    private final int[] telemetryLongestTimes = new int[ALL_PHASES.length];
+    private final int[] telemetryTimeouts = new int[ALL_PHASES.length];
+    private final int[] telemetryStallCounts = new int[ALL_PHASES.length];
+    private final int[] telemetrySyncLossCounts = new int[ALL_PHASES.length];
+    private final int[] telemetryTimeoutCounts = new int[ALL_PHASES.length];
 
     public Climb(DriveBase driveBase, Climber climber, Climber.LiftTarget target) {
         this.driveBase = driveBase;
@@ -40,6 +152,68 @@ public class Climb extends Command {
         requires(driveBase);
         requires(climber);
 
+        eventSource = eventLog.registerSource(getName() + "/" + target.name(), 20);
+        phases = new StateMachine<>(ClimbPhase.class, eventSource);
+
+        // Abandoning takes priority over everything else, so its transitions are declared first.
+        for (ClimbPhase phase : ABANDONABLE_PHASES) {
+            phases.transition(phase, () -> isAbandonRequested, ClimbPhase.ABANDON);
+        }
+
+        phases.transition(ClimbPhase.INITIALIZING, () -> true, ClimbPhase.LIFTING);
+
+        phases.whileIn(ClimbPhase.LIFTING, () -> climber.liftTo(target))
+                .transition(ClimbPhase.LIFTING, climber::hasReachedLiftTarget, ClimbPhase.GAINING_FOOTHOLD);
+
+        phases.whileIn(ClimbPhase.GAINING_FOOTHOLD, () -> {
+            climber.liftTo(target);
+            climber.startDrive();
+        }).transition(ClimbPhase.GAINING_FOOTHOLD, climber::isFrontOnSolidGround, ClimbPhase.RETRACTING_FRONT);
+
+        // TODO: Can we consider RETRACTING_FRONT complete sooner?
+        phases.whileIn(ClimbPhase.RETRACTING_FRONT, () -> {
+            climber.stopDrive();
+            climber.retractFrontLeg();
+            climber.relieveFrontPressure();
+        }).transition(ClimbPhase.RETRACTING_FRONT, climber::isFrontLegRetracted, ClimbPhase.GAINING_BALANCE);
+
+        // Go back to sustaining current height and drive forward with the main drive base now that we have wheels on
+        // the platform.
+        phases.whileIn(ClimbPhase.GAINING_BALANCE, () -> {
+            climber.sustain();
+            driveBase.driveOpenLoop(.25);
+        }).transition(ClimbPhase.GAINING_BALANCE, climber::isRearOnSolidGround, ClimbPhase.RETRACTING_BACK);
+
+        // Kill the motors (so there isn't pressure on the leg engager) and issue a retract for the rear leg.
+        phases.whileIn(ClimbPhase.RETRACTING_BACK, () -> {
+            climber.killLiftMotors();
+            climber.retractRear();
+        }).transition(ClimbPhase.RETRACTING_BACK, climber::isRearLegRetracted, ClimbPhase.FINISHING);
+
+        // Give up on a lift which is taking too long (for example, because a leg is slipping rather than stalled).
+        phases.timeout(ClimbPhase.LIFTING, LIFTING_TIMEOUT_BASE + target.height * LIFTING_TIMEOUT_PER_INCH,
+                ClimbPhase.ABANDON);
+        phases.timeout(ClimbPhase.GAINING_FOOTHOLD, GAINING_FOOTHOLD_TIMEOUT, ClimbPhase.ABANDON);
+        for (ClimbPhase phase : MONITORED_PHASES) {
+            isMonitored[phase.ordinal()] = true;
+        }
+
+        phases.whileIn(ClimbPhase.FINISHING, () -> driveBase.driveOpenLoop(.25))
+                .timeout(ClimbPhase.FINISHING, FINISHING_DRIVE_DURATION, ClimbPhase.ALL_THE_POINTS);
+
+        phases.whileIn(ClimbPhase.ALL_THE_POINTS, () -> driveBase.driveOpenLoop(0));
+
+        // Stop lift motors, stop the lift drive motor, and initiate retracts. Once both legs are retracted, advance to
+        // ALL_THE_POINTS (even though we did not get all the points) so that the command will identify itself as being
+        // "finished".
+        phases.whileIn(ClimbPhase.ABANDON, () -> {
+            climber.killLiftMotors();
+            climber.stopDrive();
+            climber.retractFrontLeg();
+            climber.retractRear();
+        }).transition(ClimbPhase.ABANDON, () -> climber.isFrontLegRetracted() && climber.isRearLegRetracted(),
+                ClimbPhase.ALL_THE_POINTS);
+
         this.setInterruptible(false);
     }
 
@@ -48,143 +222,168 @@ public class Climb extends Command {
      */
     @Override
     protected void initialize() {
-        currentPhase = ClimbPhase.INITIALIZING;
-        this.finishingTimer = null;
+        isAbandonRequested = false;
+        phases.start(ClimbPhase.INITIALIZING);
     }
 
+    /**
+     * Abandons the climb, retracting both legs. Ignored once the legs have started retracting, or if no climb is
+     * running.
+     */
     public void abandon() {
-        if (currentPhase == null) {
-            // Never initialized -- nothing to abandon.
-            return;
+        if (isRunning()) {
+            isAbandonRequested = true;
         }
+    }
 
-        // Can not abandon once we've starting leg retractions.
-        if (currentPhase.ordinal() >= ClimbPhase.RETRACTING_FRONT.ordinal()) {
-            return;
+    /**
+     * The execute method is called repeatedly until this Command either finishes or is canceled.
+     */
+    @Override
+    protected void executeTick() {
+        // A jammed leg won't free itself, and the lift motors are pushing as hard as they can against it. Legs which
+        // are out of sync can't be leveled either, since both lift motors drive the same gearbox.
+        ClimbPhase phase = phases.getState();
+        if (isMonitored[phase.ordinal()] && !isAbandonRequested) {
+            if (climber.isLiftStalled()) {
+                stallCounts[phase.ordinal()]++;
+                eventLog.log(eventSource, EventLevel.WARNING, "Lift stalled", phases.getTimeInState());
+                eventLog.log(eventSource, EventLevel.WARNING, "Lift stall peak current",
+                        climber.getLiftStallPeakCurrent());
+                abandon();
+            } else if (climber.isLegSyncLost()) {
+                syncLossCounts[phase.ordinal()]++;
+                eventLog.log(eventSource, EventLevel.WARNING, "Leg sync lost", climber.getLegSyncError());
+                abandon();
+            }
         }
 
-        // Immediately advance phase to "abandon".
-        currentPhase = ClimbPhase.ABANDON;
+        phases.update();
     }
 
     /**
-     * The execute method is called repeatedly until this Command either finishes or is canceled.
+     * @return The current phase. `null` if no climb has been started.
      */
+    public ClimbPhase getPhase() {
+        return phases.getState();
+    }
+
+    /**
+     * @return The phases, and their timings for the current (or last) climb.
+     */
+    public StateMachine<ClimbPhase> getPhases() {
+        return phases;
+    }
+
     @Override
-    protected void execute() {
-        System.out.println("Previous Phase:" + currentPhase.name());
-        advancePhase();
-        System.out.println("next phase" + currentPhase.name());
-        switch (currentPhase) {
-            case ABANDON:
-                // Stop lift motors, stop the lift drive motor, and initiate retracts.
-                climber.killLiftMotors();
-                climber.stopDrive();
-                climber.retractFrontLeg();
-                climber.retractRear();
-                break;
-            case INITIALIZING:
-                break;
-            case LIFTING:
-                climber.liftTo(target);
-                break;
-            case GAINING_FOOTHOLD:
-                climber.liftTo(target);
-                climber.startDrive();
-                break;
-            case RETRACTING_FRONT:
-                climber.stopDrive();
-                climber.retractFrontLeg();
-                climber.relieveFrontPressure();
-                break;
-            case GAINING_BALANCE:
-                // Go back to sustaining current height and drive forward with the main drive base now that we
-                // have wheels on the platform.
-                climber.sustain();
-                driveBase.drive(.25);
-                break;
-            case RETRACTING_BACK:
-                // Kill the motors (so there isn't pressure on the leg engager) and issue a retract for the rear leg.
-                climber.killLiftMotors();
-                climber.retractRear();
-                break;
-            case FINISHING:
-                if (finishingTimer == null) {
-                    finishingTimer = new Timer();
-                    finishingTimer.reset();
-                    finishingTimer.start();
-                }
-
-                driveBase.drive(.25);
-                break;
-            case ALL_THE_POINTS:
-                driveBase.drive(0);
-                if (finishingTimer != null) {
-                    finishingTimer.stop();
-                    finishingTimer = null;
-                }
-                break;
+    public void registerDataLogFields(BinaryDataLogger logger) {
+        String prefix = getName() + "/" + target.name();
+        dataLogPhase = logger.addField(prefix + "/phase");
+        for (ClimbPhase phase : ALL_PHASES) {
+            dataLogPhaseTimes[phase.ordinal()] = logger.addField(prefix + "/phaseTime/" + phase.name());
         }
     }
 
-    private void advancePhase() {
-
-        switch(currentPhase) {
-            case ABANDON:
-                // See if both lifters are fully retracted.
-                if (climber.isFrontLegRetracted() && climber.isRearLegRetracted()) {
-                    // Done. We'll advance to ALL_THE_POINTS (even though we did not get all the points)
-                    // so that the command will identify itself as being "finished".
-                    currentPhase = ClimbPhase.ALL_THE_POINTS;
-                }
-
-                break;
-            case INITIALIZING:
-                currentPhase = ClimbPhase.LIFTING;
-                break;
-            case LIFTING:
-                if (climber.hasReachedLiftTarget()) {
-                    currentPhase = ClimbPhase.GAINING_FOOTHOLD;
-                }
-                break;
-            case GAINING_FOOTHOLD:
-                if (climber.isFrontOnSolidGround()) {
-                    currentPhase = ClimbPhase.RETRACTING_FRONT;
-                }
-
-                break;
-            case RETRACTING_FRONT:
-                // TODO: Can we consider this complete sooner?
-                if (climber.isFrontLegRetracted()) {
-                    currentPhase = ClimbPhase.GAINING_BALANCE;
-                }
-
-                break;
-            case GAINING_BALANCE:
-                if (climber.isRearOnSolidGround()) {
-                    currentPhase = ClimbPhase.RETRACTING_BACK;
-                }
-
-                break;
-            case RETRACTING_BACK:
-                if (climber.isRearLegRetracted()) {
-                    currentPhase = ClimbPhase.FINISHING;
-                }
-
-                break;
-            case FINISHING:
-                if (finishingTimer != null && finishingTimer.hasPeriodPassed(FINISHING_DRIVE_DURATION)) {
-                    currentPhase = ClimbPhase.ALL_THE_POINTS;
-                }
-
-                break;
-            case ALL_THE_POINTS:
-                break;
+    @Override
+    public void logData(BinaryDataLogger logger) {
+        ClimbPhase phase = phases.getState();
+        logger.set(dataLogPhase, isRunning() && phase != null ? phase.ordinal() : -1);
+
+        // Once the climb is over, its phase times are logged one last time and then keep those values.
+        if (!phases.isRunning() && hasLoggedFinalPhaseTimes) {
+            return;
+        }
+        hasLoggedFinalPhaseTimes = !phases.isRunning();
+
+        for (int i = 0; i < ALL_PHASES.length; i++) {
+            logger.set(dataLogPhaseTimes[i], phases.getTimeSpent(ALL_PHASES[i]));
+        }
+    }
+
+    private void registerTelemetry(TelemetryTables telemetryTables) {
+        telemetry = telemetryTables.getPublisher();
+
+        NetworkTable climbTable = telemetryTables.getStateTable().getSubTable(getName()).getSubTable(target.name());
+        for (ClimbPhase phase : MONITORED_PHASES) {
+            NetworkTable phaseTable = climbTable.getSubTable(phase.name());
+            int index = phase.ordinal();
+            telemetryLastTimes[index] = telemetry.addNumber(phaseTable, "lastTime", .01);
+            telemetryLongestTimes[index] = telemetry.addNumber(phaseTable, "longestTime", .01);
+            telemetryTimeouts[index] = telemetry.addNumber(phaseTable, "timeout", .01);
+            telemetryStallCounts[index] = telemetry.addNumber(phaseTable, "stalls", 0);
+            telemetrySyncLossCounts[index] = telemetry.addNumber(phaseTable, "syncLosses", 0);
+            telemetryTimeoutCounts[index] = telemetry.addNumber(phaseTable, "timeouts", 0);
+        }
+    }
+
+    @Override
+    public void sendTelemetryData(TelemetryTables telemetryTables) {
+        if (telemetry == null) {
+            registerTelemetry(telemetryTables);
+        }
+
+        for (ClimbPhase phase : MONITORED_PHASES) {
+            int index = phase.ordinal();
+            telemetry.setNumber(telemetryLastTimes[index], lastPhaseTimes[index]);
+            telemetry.setNumber(telemetryLongestTimes[index], longestPhaseTimes[index]);
+            telemetry.setNumber(telemetryTimeouts[index], phases.getTimeout(phase));
+            telemetry.setNumber(telemetryStallCounts[index], stallCounts[index]);
+            telemetry.setNumber(telemetrySyncLossCounts[index], syncLossCounts[index]);
+            telemetry.setNumber(telemetryTimeoutCounts[index], timeoutCounts[index]);
         }
     }
 
+    @Override
+    protected void end() {
+        phases.stop();
+        logPhaseTimes();
+        updatePhaseStatistics();
+    }
+
+    @Override
+    protected void interrupted() {
+        eventLog.log(eventSource, EventLevel.WARNING, "Interrupted");
+        phases.stop();
+        logPhaseTimes();
+        updatePhaseStatistics();
+    }
+
     @Override
     protected boolean isFinished() {
-        return currentPhase == ClimbPhase.ALL_THE_POINTS;
+        return phases.isIn(ClimbPhase.ALL_THE_POINTS);
+    }
+
+    /**
+     * Adds the climb that just ended to the statistics of each monitored phase it entered. Only phases which were
+     * completed (the climb went on from them to anything but {@link ClimbPhase#ABANDON}) count towards the longest
+     * time, so that the longest time is a guide to how tight the timeout can be.
+     */
+    private void updatePhaseStatistics() {
+        for (ClimbPhase phase : MONITORED_PHASES) {
+            if (phases.getEntryCount(phase) == 0) {
+                continue;
+            }
+
+            int index = phase.ordinal();
+            double time = phases.getTimeSpent(phase);
+            lastPhaseTimes[index] = time;
+            timeoutCounts[index] += phases.getTimeoutCount(phase);
+
+            ClimbPhase next = phases.getNextState(phase);
+            if (next != null && next != ClimbPhase.ABANDON) {
+                longestPhaseTimes[index] = Math.max(longestPhaseTimes[index], time);
+            }
+        }
+    }
+
+    /**
+     * Logs the time spent in each phase that was entered during the climb.
+     */
+    private void logPhaseTimes() {
+        for (ClimbPhase phase : ALL_PHASES) {
+            if (phases.getEntryCount(phase) > 0) {
+                eventLog.log(eventSource, EventLevel.INFO, phase.name(), phases.getTimeSpent(phase));
+            }
+        }
     }
 }
@@ -1,15 +1,20 @@
 package org.team1251.frc.robot.commands;
 
-import edu.wpi.first.wpilibj.command.Command;
 import org.team1251.frc.robot.DrivePower;
 import org.team1251.frc.robot.humanInterface.input.HumanInput;
 import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robotCore.commands.TigerCommand;
 
-public class TeleopDrive extends Command {
+public class TeleopDrive extends TigerCommand {
 
     private final DriveBase driveBase;
     private final HumanInput humanInput;
 
+    /**
+     * Reused on every tick to avoid creating garbage while driving.
+     */
+    private final DrivePower drivePower = new DrivePower(0, 0);
+
     public TeleopDrive(DriveBase driveBase, HumanInput humanInput) {
         this.driveBase = driveBase;
         this.humanInput = humanInput;
@@ -19,13 +24,13 @@ public class TeleopDrive extends Command {
 
     @Override
     protected void end() {
-        driveBase.drive(new DrivePower(0,0));
+        driveBase.drive(drivePower.set(0, 0));
     }
 
 
     @Override
-    protected void execute() {
-        driveBase.drive(humanInput.getDrivePower(driveBase.getLeftVelocity(), driveBase.getRightVelocity()));
+    protected void executeTick() {
+        driveBase.drive(humanInput.getDrivePower(driveBase.getLeftVelocity(), driveBase.getRightVelocity(), drivePower));
     }
 
     @Override
@@ -0,0 +1,36 @@
+package org.team1251.frc.robot.commands;
+
+import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robotCore.commands.TigerCommand;
+
+/**
+ * Switches the drive base between open loop and closed loop driving (see {@link DriveBase.DriveMode}).
+ *
+ * This doesn't require the drive base: it only changes how drive power is applied, so whatever command is driving
+ * keeps running and picks up the new mode on its next tick.
+ */
+public class ToggleDriveMode extends TigerCommand {
+
+    private final DriveBase driveBase;
+    private boolean wasToggled;
+
+    public ToggleDriveMode(DriveBase driveBase) {
+        this.driveBase = driveBase;
+    }
+
+    @Override
+    protected void initialize() {
+        wasToggled = false;
+    }
+
+    @Override
+    protected void executeTick() {
+        driveBase.toggleDriveMode();
+        wasToggled = true; // Only toggle once per press.
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return wasToggled;
+    }
+}
@@ -1,8 +1,8 @@
 package org.team1251.frc.robot.commands.test;
 
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.command.Command;
 import org.team1251.frc.robot.subsystems.DriveBase;
+import org.team1251.frc.robotCore.commands.TigerCommand;
 
 /**
  * A command used to test each motor, one at a time.
@@ -13,7 +13,7 @@ import org.team1251.frc.robot.subsystems.DriveBase;
  * There is a 1000 tick delay at the start of the command and again after the final motor in the test before starting
  * the sequence over again.
  */
-public class DriveBaseMotorTest extends Command {
+public class DriveBaseMotorTest extends TigerCommand {
 
     /**
      * How long (seconds) to rest between each motor.
@@ -86,7 +86,7 @@ public class DriveBaseMotorTest extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void executeTick() {
         // Decide which motor we should be testing right now and initiate the test.
         selectMotor();
         driveBase.testMotor(currentMotor);
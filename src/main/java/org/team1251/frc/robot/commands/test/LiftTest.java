@@ -1,9 +1,9 @@
 package org.team1251.frc.robot.commands.test;
 
-import edu.wpi.first.wpilibj.command.Command;
 import org.team1251.frc.robot.subsystems.Climber;
+import org.team1251.frc.robotCore.commands.TigerCommand;
 
-public class LiftTest extends Command {
+public class LiftTest extends TigerCommand {
 
     private final Climber climber;
 
@@ -19,7 +19,7 @@ public class LiftTest extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void executeTick() {
         climber.liftTo(Climber.LiftTarget.TEST);
     }
 
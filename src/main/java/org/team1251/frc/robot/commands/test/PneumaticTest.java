@@ -1,10 +1,10 @@
 package org.team1251.frc.robot.commands.test;
 
-import edu.wpi.first.wpilibj.command.Command;
 import org.team1251.frc.robot.subsystems.Climber;
+import org.team1251.frc.robotCore.commands.TigerCommand;
 import org.team1251.frc.robotCore.humanInterface.input.gamepad.XBoxController;
 
-public class PneumaticTest extends Command {
+public class PneumaticTest extends TigerCommand {
 
 
     private final XBoxController testerGamePad;
@@ -24,7 +24,7 @@ public class PneumaticTest extends Command {
     }
 
     @Override
-    protected void execute() {
+    protected void executeTick() {
         if (testerGamePad.a().isPressed()) {
             climber.testFrontLegEngager(true);
         } else {
@@ -0,0 +1,147 @@
+package org.team1251.frc.robot.commands.test;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.team1251.frc.robotCore.commands.TigerCommand;
+import org.team1251.frc.robotCore.logging.EventLevel;
+import org.team1251.frc.robotCore.logging.EventLog;
+import org.team1251.frc.robotCore.parts.sensors.LimeLight;
+import org.team1251.frc.robotCore.parts.sensors.VisionFrame;
+import org.team1251.frc.robotCore.util.TickClock;
+import org.team1251.frc.robotCore.vision.DistanceEstimator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records one vision calibration sample (see {@link DistanceEstimator}).
+ *
+ * To calibrate: place the robot a measured distance from the target, enter the distance in the "measuredDistance"
+ * entry of the "VisionCalibration" Network Table, and run this command. It averages the vertical offset and area over
+ * several camera frames and appends them, along with the distance and the pipeline the frames were taken with, to the
+ * capture file. Repeat at distances covering the whole range the robot will see the target from, then copy the capture
+ * file into `src/main/deploy` and deploy.
+ *
+ * The result of the last capture is shown in the "lastCapture" entry of the same table, and logged to the event log.
+ */
+public class VisionCalibrationCapture extends TigerCommand {
+
+    /**
+     * The number of camera frames averaged into each sample.
+     */
+    private static final int FRAMES_PER_SAMPLE = 25;
+
+    /**
+     * Seconds to wait for enough frames with a target before giving up.
+     */
+    private static final double TIMEOUT = 3;
+
+    private final LimeLight limeLight;
+    private final File captureFile;
+
+    private final NetworkTableEntry measuredDistanceEntry;
+    private final NetworkTableEntry lastCaptureEntry;
+    private final TickClock clock = TickClock.getInstance();
+    private final EventLog eventLog = EventLog.getInstance();
+    private final int eventSource;
+
+    private double deadline;
+    private long lastFrameSequence;
+    private double measuredDistance;
+
+    /**
+     * The pipeline of the first frame with a target. Frames from any other pipeline are left out of the sample.
+     */
+    private int pipeline;
+    private int frameCount;
+    private double verticalOffsetSum;
+    private double areaSum;
+
+    /**
+     * @param limeLight The camera. Must be listening (see {@link LimeLight#startListening()}).
+     * @param captureFile The file to append samples to.
+     */
+    public VisionCalibrationCapture(LimeLight limeLight, File captureFile) {
+        this.limeLight = limeLight;
+        this.captureFile = captureFile;
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("VisionCalibration");
+        measuredDistanceEntry = table.getEntry("measuredDistance");
+        measuredDistanceEntry.setDefaultDouble(0);
+        lastCaptureEntry = table.getEntry("lastCapture");
+        lastCaptureEntry.setDefaultString("");
+
+        eventSource = eventLog.registerSource(getName(), 5);
+    }
+
+    @Override
+    protected void initialize() {
+        deadline = clock.getDeadline(TIMEOUT);
+        limeLight.setCameraMode(LimeLight.CameraMode.CV);
+
+        measuredDistance = measuredDistanceEntry.getDouble(0);
+        lastFrameSequence = limeLight.getLatestFrame().getSequence();
+        frameCount = 0;
+        verticalOffsetSum = 0;
+        areaSum = 0;
+    }
+
+    @Override
+    protected void executeTick() {
+        VisionFrame frame = limeLight.getLatestFrame();
+        if (!frame.isNewerThan(lastFrameSequence)) {
+            return;
+        }
+        lastFrameSequence = frame.getSequence();
+
+        if (frame.hasTarget() && (frameCount == 0 || frame.getPipeline() == pipeline)) {
+            pipeline = frame.getPipeline();
+            frameCount++;
+            verticalOffsetSum += frame.getVerticalOffset();
+            areaSum += frame.getTargetArea();
+        }
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return measuredDistance <= 0 || frameCount >= FRAMES_PER_SAMPLE || clock.hasPassed(deadline);
+    }
+
+    @Override
+    protected void end() {
+        limeLight.setCameraMode(LimeLight.CameraMode.DRIVER);
+
+        if (measuredDistance <= 0) {
+            eventLog.log(eventSource, EventLevel.WARNING, "Not captured: no measured distance");
+            lastCaptureEntry.setString("Not captured: enter a measured distance first.");
+            return;
+        }
+        if (frameCount < FRAMES_PER_SAMPLE) {
+            eventLog.log(eventSource, EventLevel.WARNING, "Not captured: too few frames with a target", frameCount);
+            lastCaptureEntry.setString("Not captured: only saw the target in " + frameCount + " frames.");
+            return;
+        }
+
+        double verticalOffset = verticalOffsetSum / frameCount;
+        double area = areaSum / frameCount;
+        try {
+            DistanceEstimator.appendSample(captureFile, pipeline, measuredDistance, verticalOffset, area);
+        } catch (IOException e) {
+            eventLog.log(eventSource, EventLevel.ERROR, "Not captured: unable to write the capture file");
+            lastCaptureEntry.setString("Not captured: unable to write " + captureFile + ": " + e.getMessage());
+            return;
+        }
+
+        eventLog.log(eventSource, EventLevel.INFO, "Captured a sample at distance", measuredDistance);
+        lastCaptureEntry.setString(String.format("Captured pipeline %d at %.2f: ty=%.3f, ta=%.4f", pipeline,
+                measuredDistance, verticalOffset, area));
+    }
+
+    @Override
+    protected void interrupted() {
+        limeLight.setCameraMode(LimeLight.CameraMode.DRIVER);
+        eventLog.log(eventSource, EventLevel.WARNING, "Not captured: interrupted");
+        lastCaptureEntry.setString("Not captured: interrupted.");
+    }
+}
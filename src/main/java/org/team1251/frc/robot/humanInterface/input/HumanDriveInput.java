@@ -6,7 +6,18 @@ import org.team1251.frc.robot.DrivePower;
  * Interface for classes which are able to provide drive power based on human input.
  *
  * This interface makes it easier to swap out control schemes if we decide to.
+ *
+ * Implementations are called on every tick, so they write into a `DrivePower` owned by the caller instead of creating
+ * a new one. Implementations should avoid allocating anything while calculating drive power.
  */
 interface HumanDriveInput {
-    DrivePower getDrivePower(HumanInput humanInput, double leftVelocity, double rightVelocity);
+    /**
+     * Calculates the drive power based on human input.
+     *
+     * @param humanInput The source of the input values.
+     * @param leftVelocity The current velocity of the left drive train
+     * @param rightVelocity The current velocity of the right drive train
+     * @param drivePower Receives the calculated left and right power.
+     */
+    void getDrivePower(HumanInput humanInput, double leftVelocity, double rightVelocity, DrivePower drivePower);
 }
@@ -4,7 +4,9 @@ import edu.wpi.first.wpilibj.Joystick;
 import edu.wpi.first.wpilibj.buttons.Button;
 import org.team1251.frc.robot.DrivePower;
 import org.team1251.frc.robot.commands.AbandonClimb;
+import org.team1251.frc.robot.commands.AutoAlign;
 import org.team1251.frc.robot.commands.Climb;
+import org.team1251.frc.robot.commands.ToggleDriveMode;
 import org.team1251.frc.robotCore.humanInterface.input.gamepad.XBoxController;
 import org.team1251.frc.robotCore.humanInterface.input.triggers.ButtonTrigger;
 import org.team1251.frc.robotCore.humanInterface.input.triggers.DualButtonTrigger;
@@ -28,6 +30,8 @@ public class HumanInput {
     private final Button climbLvl3Trigger;
     private final Button climbLvl2Trigger;
     private final DualButtonTrigger abandonClimbTrigger;
+    private final Button autoAlignTrigger;
+    private final Button toggleDriveModeTrigger;
 
 
     /**
@@ -52,6 +56,10 @@ public class HumanInput {
         climbLvl2Trigger = new LongPressTrigger(new ButtonTrigger(driverPad.select()), .25);
 
         abandonClimbTrigger = new DualButtonTrigger(driverPad.rb(), driverPad.lb());
+
+        autoAlignTrigger = new ButtonTrigger(driverPad.a());
+
+        toggleDriveModeTrigger = new ButtonTrigger(driverPad.y());
     }
 
     /**
@@ -75,7 +83,9 @@ public class HumanInput {
     public void attachCommandTriggers(
             Climb climbLvl3,
             Climb climbLvl2,
-            AbandonClimb abandonClimb) {
+            AbandonClimb abandonClimb,
+            AutoAlign autoAlign,
+            ToggleDriveMode toggleDriveMode) {
 
         // This is the typical way to prevent duplicate bindings.
         if (commandTriggersAttached) {
@@ -88,6 +98,8 @@ public class HumanInput {
         climbLvl3Trigger.whenPressed(climbLvl3);
         climbLvl2Trigger.whenPressed(climbLvl2);
         abandonClimbTrigger.whenPressed(abandonClimb);
+        autoAlignTrigger.whileHeld(autoAlign);
+        toggleDriveModeTrigger.whenPressed(toggleDriveMode);
     }
 
     /**
@@ -95,10 +107,23 @@ public class HumanInput {
      *
      * @param leftVelocity The current velocity of the left drive train
      * @param rightVelocity the current velocity of the right drive train
+     * @param drivePower A `DrivePower` instance which will be updated with the power to be applied to the left and
+     *                   right drive trains. Callers should reuse the same instance on every tick.
+     *
+     * @return The given `drivePower` instance, for convenience.
+     */
+    public DrivePower getDrivePower(double leftVelocity, double rightVelocity, DrivePower drivePower) {
+        humanDriveInput.getDrivePower(this, leftVelocity, rightVelocity, drivePower);
+        return drivePower;
+    }
+
+    /**
+     * Provides the forward/backward power requested by the driver while the robot steers itself (see
+     * {@link AutoAlign}).
      *
-     * @return A `DrivePower` instance representing the power to be applied ot the left and right drive trains.
+     * @return Value between -1 (full speed backwards) and 1 (full speed forward).
      */
-    public DrivePower getDrivePower(double leftVelocity, double rightVelocity) {
-        return humanDriveInput.getDrivePower(this, leftVelocity, rightVelocity);
+    public double getAlignThrottle() {
+        return driverPad.ls().getVertical();
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,9 @@
 package org.team1251.frc.robot.humanInterface.input;
 
-import edu.wpi.first.wpilibj.Timer;
 import org.team1251.frc.robot.DrivePower;
+import org.team1251.frc.robotCore.util.TickClock;
 import org.team1251.frc.robotCore.util.ValueSmoother;
+import org.team1251.frc.robotCore.util.filters.MovingAverageFilter;
 
 public class TigerDriveInput implements HumanDriveInput{
 
@@ -62,22 +63,34 @@ public class TigerDriveInput implements HumanDriveInput{
      *
      * This hysteresis auto-resets if it is not fed within .10 seconds or if it is fed a value which changes signs from
      * the previously fed value.
+     *
+     * A moving average is used (rather than a cheaper filter) because it ramps linearly down to zero over a fixed
+     * number of ticks once the throttle is released.
      */
-    private ValueSmoother throttleHysteresis = new ValueSmoother(10, .10, true);
+    private ValueSmoother throttleHysteresis = new ValueSmoother(new MovingAverageFilter(10), .10, true);
 
     /**
      * The most recently applied throttle value. Used to avoid abrupt changes in throttle signs when applying
-     * implicit throttle.
+     * implicit throttle. Only meaningful when {@link #hasPreviousThrottleValue} is `true`.
+     *
+     * This is a primitive (rather than a nullable `Double`) to avoid boxing a new value on every tick.
+     */
+    private double previousThrottleValue = 0;
+
+    /**
+     * Whether or not a throttle value has been previously applied.
      */
-    private Double previousThrottleValue = null;
+    private boolean hasPreviousThrottleValue = false;
 
     /**
-     * A timer which is reset every time an throttle is calculated. This is used to make stale values are not used
-     * to influence implicit throttle values.
+     * When (seconds, see {@link TickClock}) a throttle was last calculated. This is used to make sure stale values
+     * are not used to influence implicit throttle values.
      *
      * @see #PREVIOUS_THROTTLE_VALUE_TIMEOUT
      */
-    private final Timer previousThrottleExpiryTimer = new Timer();
+    private double previousThrottleTime;
+
+    private final TickClock clock = TickClock.getInstance();
 
     /**
      * The amount of time (seconds) before the lastImplicitThrottle is considered "stale" and discarded.
@@ -86,31 +99,35 @@ public class TigerDriveInput implements HumanDriveInput{
 
     /**
      * Local representation of interpreted input values.
+     *
+     * A single instance is reused for every tick (see {@link #inputValues}), so the values are not final.
      */
     class InputValues {
         /**
          * Value between -1 and 1 representing throttle input value where -1 is full speed backwards and 1 is
          * full speed forward.
          */
-        final double throttle;
+        double throttle;
 
         /**
          * Value between -1 and 1 representing turning input value where -1 is full left turn and 1 is full
          * right turn.
          */
-        final double turn;
+        double turn;
 
         /** Represents whether or not a quick turn has been activated. */
-        final boolean isQuickTurn;
-
-        final double hysteresisThrottle;
+        boolean isQuickTurn;
 
-
-        InputValues(double throttle, double turn, boolean isQuickTurn) {
+        /**
+         * Replaces all of the input values.
+         *
+         * @return This instance, for convenience.
+         */
+        InputValues set(double throttle, double turn, boolean isQuickTurn) {
             this.throttle = throttle;
             this.turn = turn;
             this.isQuickTurn = isQuickTurn;
-            this.hysteresisThrottle = 0;
+            return this;
         }
 
         @Override
@@ -119,17 +136,24 @@ public class TigerDriveInput implements HumanDriveInput{
         }
     }
 
+    /**
+     * The interpreted input values. Reused on every tick to avoid creating garbage while driving.
+     */
+    private final InputValues inputValues = new InputValues();
+
     /**
      * Default constructor
      */
     TigerDriveInput() {
-        previousThrottleExpiryTimer.start();
+        previousThrottleTime = clock.getTime();
     }
 
     /**
-     * Helper method for packaging throttle, turn, and quick turn inputs into an InputValues instance.
+     * Helper method for packaging throttle, turn, and quick turn inputs into the reusable InputValues instance.
      *
      * @param humanInput The source of the input values.
+     *
+     * @return The reusable InputValues instance, updated with the current input values.
      */
     private InputValues getInputValues(HumanInput humanInput, double leftVelocity, double rightVelocity) {
 
@@ -140,7 +164,7 @@ public class TigerDriveInput implements HumanDriveInput{
         // Net trigger value for quick turn power. If it is high enough, trigger a quick turn.
         double quickTurnPower = humanInput.getDriverPad().lt().getValue() - humanInput.getDriverPad().rt().getValue();
         if (Math.abs(quickTurnPower) > quickTurnThreshold) {
-            return new InputValues(throttle, quickTurnPower * QUICK_TURN_SENSITIVITY, true);
+            return inputValues.set(throttle, quickTurnPower * QUICK_TURN_SENSITIVITY, true);
         }
 
         // Not a quick turn. Look at the stick for turn power.
@@ -160,7 +184,7 @@ public class TigerDriveInput implements HumanDriveInput{
             } else {
                 // They let go of the throttle a while ago, but they clearly still want to turn. Give them
                 // a little juice. See if there is a valid, previous throttle value that needs to be considered.
-                if (previousThrottleValue != null && previousThrottleExpiryTimer.get() < PREVIOUS_THROTTLE_VALUE_TIMEOUT) {
+                if (hasPreviousThrottleValue && clock.getElapsed(previousThrottleTime) < PREVIOUS_THROTTLE_VALUE_TIMEOUT) {
                     // Keep the sign of the last throttle value so that the robot does not abruptly change direction.
                     throttle = previousThrottleValue < 0 ? -IMPLICIT_THROTTLE_FOR_TURNING : IMPLICIT_THROTTLE_FOR_TURNING;
                 } else {
@@ -171,12 +195,13 @@ public class TigerDriveInput implements HumanDriveInput{
         }
 
         previousThrottleValue = throttle;
-        previousThrottleExpiryTimer.reset();
-        return new InputValues(throttle, turn, false);
+        hasPreviousThrottleValue = true;
+        previousThrottleTime = clock.getTime();
+        return inputValues.set(throttle, turn, false);
     }
 
     @Override
-    public DrivePower getDrivePower(HumanInput humanInput, double leftVelocity, double rightVelocity) {
+    public void getDrivePower(HumanInput humanInput, double leftVelocity, double rightVelocity, DrivePower drivePower) {
         InputValues input = getInputValues(humanInput, leftVelocity, rightVelocity);
 
         // Calculate the maximum power adjustment to be made to the right and left drive trains based on driver inputs.
@@ -195,7 +220,8 @@ public class TigerDriveInput implements HumanDriveInput{
             double quickTurn = input.throttle < reverseQuickturnThreshold ? -input.turn : input.turn;
 
             // Set the sides of the drive train to exact opposites of each other.
-            return new DrivePower(-quickTurn, quickTurn);
+            drivePower.set(-quickTurn, quickTurn);
+            return;
         }
 
         // Apply the adjustment. Always add it to the right side and remove it from the left side. The sign of the adjustment
@@ -206,7 +232,7 @@ public class TigerDriveInput implements HumanDriveInput{
         //       drive train never drops below zero (even at low throttle) because the turn adjustment power can never exceed
         //       the turn throttle since the formula is `turn * throttle` -- at a turn value of 1 (maximum), the turning
         //       adjustment would be equal to the throttle.
-        return new DrivePower(input.throttle + turningPowerAdjustment, input.throttle - turningPowerAdjustment);
+        drivePower.set(input.throttle + turningPowerAdjustment, input.throttle - turningPowerAdjustment);
     }
 
     /**
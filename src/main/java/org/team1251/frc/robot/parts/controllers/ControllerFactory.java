@@ -1,20 +1,144 @@
 package org.team1251.frc.robot.parts.controllers;
 
+import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.can.*;
 import edu.wpi.first.wpilibj.DoubleSolenoid;
+import edu.wpi.first.wpilibj.RobotBase;
 import org.team1251.frc.robot.Robot;
+import org.team1251.frc.robot.parts.sensors.SensorFactory;
 import org.team1251.frc.robot.robotMap.CanDevice;
 import org.team1251.frc.robot.robotMap.PcmDevice;
+import org.team1251.frc.robotCore.parts.controllers.IMotorController;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
+import org.team1251.frc.robotCore.parts.controllers.PhoenixMotorController;
+import org.team1251.frc.robotCore.parts.controllers.PhoenixTalonController;
+import org.team1251.frc.robotCore.parts.controllers.SimMotorController;
+import org.team1251.frc.robotCore.util.RobotConfig;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Factory for control devices such as motor controllers and solenoids.
  *
  * These are devices that receive signals and interpret them to control an actuator.
+ *
+ * When the robot code is running on a desktop (see `RobotBase.isSimulation()`), simulated motor controllers are
+ * created instead of Phoenix controllers. These can be looked up with {@link #getSimMotorController(CanDevice)} so that
+ * a physics model can drive them. Solenoids are always real WPI Lib objects; on a desktop they are backed by the
+ * WPI Lib HAL simulation.
  */
 public class ControllerFactory {
+
+    /**
+     * The fastest (counts per 100ms) a drive train encoder turns at full power on the carpet, used when the robot
+     * config (`drive.maxVelocity`, see `robot.properties`) doesn't say. This is an estimate from the gearing and motor
+     * free speed; the measured value belongs in the config.
+     */
+    private static final double DEFAULT_DRIVE_TRAIN_MAX_VELOCITY = 4000;
+
+    /**
+     * Velocity closed loop gains for the lead drive train controllers. These are in Talon SRX units, where an output
+     * of 1023 is full power and the error is measured in counts per 100ms.
+     *
+     * The feed forward gain (see {@link #driveTrainVelocityKf}) does almost all of the work: it maps a target velocity
+     * straight to the output needed to reach it. The other gains only correct for what the feed forward gets wrong
+     * (battery sag, friction, etc.)
+     */
+    private static final double DRIVE_TRAIN_VELOCITY_KP = .1;
+    private static final double DRIVE_TRAIN_VELOCITY_KI = 0;
+    private static final double DRIVE_TRAIN_VELOCITY_KD = 0;
+
+    /**
+     * Whether each side of the drive train is inverted. The right side's motors are mirrored, so it is inverted to
+     * drive forward on the same output as the left. The simulated lead controllers are inverted the same way so that
+     * their raw encoder readings count the way the robot's do.
+     */
+    private static final boolean IS_LEFT_DRIVE_TRAIN_INVERTED = false;
+    private static final boolean IS_RIGHT_DRIVE_TRAIN_INVERTED = true;
+
+    /**
+     * The fastest (counts per 100ms) a lift leg encoder turns at full power while lifting the robot, used when the
+     * robot config (`lift.maxVelocity`, see `robot.properties`) doesn't say. This is an estimate from the gearing and
+     * motor free speed; the measured value belongs in the config.
+     */
+    private static final double DEFAULT_LIFT_LEG_MAX_VELOCITY = 2800;
+
+    /**
+     * The Motion Magic cruise velocity of the lift controllers, as a fraction of the lift leg max velocity. This
+     * leaves the closed loop some headroom to correct with while cruising.
+     */
+    private static final double LIFT_LEG_CRUISE_FRACTION = .8;
+
+    /**
+     * How long (seconds) a Motion Magic lift takes to reach cruising speed.
+     */
+    private static final double LIFT_LEG_RAMP_TIME = .5;
+
+    /**
+     * Motion Magic closed loop gains for the lift controllers, in Talon SRX units (output of 1023 = full power, error
+     * in counts). The feed forward gain is calculated from the lift leg max velocity. The proportional gain also
+     * provides the power needed to hold the robot up once the profile ends.
+     */
+    private static final double LIFT_LEG_KP = .2;
+    private static final double LIFT_LEG_KI = 0;
+    private static final double LIFT_LEG_KD = 0;
+
+    /**
+     * How far (inches) past the highest lift target, or below fully retracted, a lift leg may travel before the lift
+     * talon's soft limit stops driving it further.
+     */
+    private static final double LIFT_LEG_SOFT_LIMIT_MARGIN = .5;
+
+    /**
+     * Whether simulated controllers should be created.
+     */
+    private final boolean isSimulation = RobotBase.isSimulation();
+
+    /**
+     * The fastest (counts per 100ms) a drive train encoder turns at full power, and the matching velocity feed
+     * forward gain.
+     */
+    private final double driveTrainMaxVelocity;
+    private final double driveTrainVelocityKf;
+
+    /**
+     * The lift leg Motion Magic feed forward gain, cruise velocity (counts per 100ms) and acceleration (counts per
+     * 100ms per second), all derived from the lift leg max velocity.
+     */
+    private final double liftLegKf;
+    private final int liftLegCruiseVelocity;
+    private final int liftLegAcceleration;
+
+    /**
+     * Every simulated motor controller that has been created, by device.
+     */
+    private final Map<CanDevice, SimMotorController> simMotorControllers = new EnumMap<>(CanDevice.class);
+
+    /**
+     * @param config Provides the measured drive train and lift leg velocities.
+     */
+    public ControllerFactory(RobotConfig config) {
+        driveTrainMaxVelocity = config.getDouble("drive.maxVelocity", DEFAULT_DRIVE_TRAIN_MAX_VELOCITY);
+        driveTrainVelocityKf = 1023 / driveTrainMaxVelocity;
+
+        double liftLegMaxVelocity = config.getDouble("lift.maxVelocity", DEFAULT_LIFT_LEG_MAX_VELOCITY);
+        liftLegKf = 1023 / liftLegMaxVelocity;
+        liftLegCruiseVelocity = (int) Math.round(liftLegMaxVelocity * LIFT_LEG_CRUISE_FRACTION);
+        liftLegAcceleration = (int) Math.round(liftLegCruiseVelocity / LIFT_LEG_RAMP_TIME);
+    }
+
+    /**
+     * @return The fastest (counts per 100ms) a drive train encoder turns at full power on the carpet. Closed loop
+     *         driving treats full drive power as this velocity.
+     */
+    public double getDriveTrainMaxVelocity() {
+        return driveTrainMaxVelocity;
+    }
+
     /**
      * The motor controller that controls the top motor on the left side of the robot.
      *
@@ -27,10 +151,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_TalonSRX createLeftTopDriveTrainController() {
+    public ITalonController createLeftTopDriveTrainController() {
+        if (isSimulation) {
+            return createSimLeadDriveTrainController(CanDevice.MC_DRIVE_LEFT_TOP, IS_LEFT_DRIVE_TRAIN_INVERTED);
+        }
+
         WPI_TalonSRX controller = new WPI_TalonSRX(CanDevice.MC_DRIVE_LEFT_TOP.deviceNum);
-        configureLeadDriveTrainController(controller, false);
-        return controller;
+        configureLeadDriveTrainController(controller, IS_LEFT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixTalonController(controller);
     }
 
     /**
@@ -45,10 +173,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_VictorSPX createLeftFrontDriveTrainController() {
+    public IMotorController createLeftFrontDriveTrainController() {
+        if (isSimulation) {
+            return createSimMotorController(CanDevice.MC_DRIVE_LEFT_FRONT);
+        }
+
         WPI_VictorSPX controller = new WPI_VictorSPX(CanDevice.MC_DRIVE_LEFT_FRONT.deviceNum);
-        configureFollowerDriveTrainController(controller, false);
-        return controller;
+        configureFollowerDriveTrainController(controller, IS_LEFT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixMotorController(controller);
     }
 
     /**
@@ -63,10 +195,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_VictorSPX createLeftRearDriveTrainController() {
+    public IMotorController createLeftRearDriveTrainController() {
+        if (isSimulation) {
+            return createSimMotorController(CanDevice.MC_DRIVE_LEFT_REAR);
+        }
+
         WPI_VictorSPX controller = new WPI_VictorSPX(CanDevice.MC_DRIVE_LEFT_REAR.deviceNum);
-        configureFollowerDriveTrainController(controller, false);
-        return controller;
+        configureFollowerDriveTrainController(controller, IS_LEFT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixMotorController(controller);
     }
     /**
      * The motor controller that controls the top motor on the right side of the robot.
@@ -80,10 +216,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_TalonSRX createRightTopDriveTrainController() {
+    public ITalonController createRightTopDriveTrainController() {
+        if (isSimulation) {
+            return createSimLeadDriveTrainController(CanDevice.MC_DRIVE_RIGHT_TOP, IS_RIGHT_DRIVE_TRAIN_INVERTED);
+        }
+
         WPI_TalonSRX controller = new WPI_TalonSRX(CanDevice.MC_DRIVE_RIGHT_TOP.deviceNum);
-        configureLeadDriveTrainController(controller, true);
-        return controller;
+        configureLeadDriveTrainController(controller, IS_RIGHT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixTalonController(controller);
     }
 
     /**
@@ -98,10 +238,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_VictorSPX createRightFrontDriveTrainController() {
+    public IMotorController createRightFrontDriveTrainController() {
+        if (isSimulation) {
+            return createSimMotorController(CanDevice.MC_DRIVE_RIGHT_FRONT);
+        }
+
         WPI_VictorSPX controller = new WPI_VictorSPX(CanDevice.MC_DRIVE_RIGHT_FRONT.deviceNum);
-        configureFollowerDriveTrainController(controller, true);
-        return controller;
+        configureFollowerDriveTrainController(controller, IS_RIGHT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixMotorController(controller);
     }
 
     /**
@@ -116,10 +260,14 @@ public class ControllerFactory {
      *  ---   ---
      * ```
      */
-    public WPI_VictorSPX createRightRearDriveTrainController() {
+    public IMotorController createRightRearDriveTrainController() {
+        if (isSimulation) {
+            return createSimMotorController(CanDevice.MC_DRIVE_RIGHT_REAR);
+        }
+
         WPI_VictorSPX controller = new WPI_VictorSPX(CanDevice.MC_DRIVE_RIGHT_REAR.deviceNum);
-        configureFollowerDriveTrainController(controller, true);
-        return controller;
+        configureFollowerDriveTrainController(controller, IS_RIGHT_DRIVE_TRAIN_INVERTED);
+        return new PhoenixMotorController(controller);
     }
 
     /**
@@ -134,9 +282,10 @@ public class ControllerFactory {
         // Apply common configuration
         this.configureDriveTrainController(controller, isInverted);
 
-        // Set how often we want encoder updates sent over CAN. Send the interval to half the robot tick.
-        // This means our info shouldn't more than half a tick old (excluding sensor-read lag).
-        controller.setStatusFramePeriod(StatusFrameEnhanced.Status_3_Quadrature, Robot.TICK_PERIOD_MS / 2 ); // default 20
+        // Set how often we want encoder updates sent over CAN. The pose is updated from the live wheel distances
+        // several times per robot tick, so send updates as often as it reads them. Otherwise most pose updates would
+        // reuse a stale distance and the odometry would advance in steps.
+        controller.setStatusFramePeriod(StatusFrameEnhanced.Status_3_Quadrature, Robot.POSE_UPDATE_PERIOD_MS); // default 20
 
         // Set current limiting
         controller.configPeakCurrentLimit(30, 20);
@@ -144,6 +293,28 @@ public class ControllerFactory {
         controller.configContinuousCurrentLimit(30, 20);
         controller.enableCurrentLimit(true);
 
+        // Velocity closed loop. This runs on the talon itself (every 1ms) rather than in our robot tick. The followers
+        // simply mirror whatever output the talon's closed loop calculates.
+        controller.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, 0, 20);
+        controller.config_kF(0, driveTrainVelocityKf, 20);
+        controller.config_kP(0, DRIVE_TRAIN_VELOCITY_KP, 20);
+        controller.config_kI(0, DRIVE_TRAIN_VELOCITY_KI, 20);
+        controller.config_kD(0, DRIVE_TRAIN_VELOCITY_KD, 20);
+    }
+
+    /**
+     * Creates a simulated lead drive train controller with the same inversion and velocity gains as the real ones.
+     *
+     * @param device The device the controller stands in for.
+     * @param isInverted Set to `true` to adjust for reversed polarity on the corresponding motor.
+     *
+     * @return The simulated controller.
+     */
+    private ITalonController createSimLeadDriveTrainController(CanDevice device, boolean isInverted) {
+        SimMotorController controller = createSimMotorController(device);
+        controller.setSimInverted(isInverted);
+        controller.setSimVelocityGains(driveTrainVelocityKf, DRIVE_TRAIN_VELOCITY_KP);
+        return controller;
     }
 
     /**
@@ -177,19 +348,34 @@ public class ControllerFactory {
         controller.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, 100);
     }
 
-    public WPI_TalonSRX createFrontLifterMotorController() {
+    /**
+     * @param maxLiftHeight The highest lift target (inches). The talon's forward soft limit is set just past it.
+     */
+    public ITalonController createFrontLifterMotorController(double maxLiftHeight) {
+        if (isSimulation) {
+            return createSimLifterMotorController(CanDevice.MC_CLIMB_ELEVATOR_FRONT, maxLiftHeight);
+        }
+
         WPI_TalonSRX controller = new WPI_TalonSRX(CanDevice.MC_CLIMB_ELEVATOR_FRONT.deviceNum);
-        configureClimberLifterMotorController(controller, false);
-        return controller;
+        configureClimberLifterMotorController(controller, false, maxLiftHeight);
+        return new PhoenixTalonController(controller);
     }
 
-    public WPI_TalonSRX createRearLifterMotorController() {
+    /**
+     * @param maxLiftHeight The highest lift target (inches). The talon's forward soft limit is set just past it.
+     */
+    public ITalonController createRearLifterMotorController(double maxLiftHeight) {
+        if (isSimulation) {
+            return createSimLifterMotorController(CanDevice.MC_CLIMB_LIFTER_REAR, maxLiftHeight);
+        }
+
         WPI_TalonSRX controller = new WPI_TalonSRX(CanDevice.MC_CLIMB_LIFTER_REAR.deviceNum);
-        configureClimberLifterMotorController(controller, false);
-        return controller;
+        configureClimberLifterMotorController(controller, false, maxLiftHeight);
+        return new PhoenixTalonController(controller);
     }
 
-    private void configureClimberLifterMotorController(TalonSRX liftMotorControllerFront, boolean isInverted) {
+    private void configureClimberLifterMotorController(TalonSRX liftMotorControllerFront, boolean isInverted,
+                                                       double maxLiftHeight) {
         // Reset to defaults to avoid unexpected behavior from previous runs.
         liftMotorControllerFront.configFactoryDefault(20);
         liftMotorControllerFront.setInverted(isInverted);
@@ -202,9 +388,68 @@ public class ControllerFactory {
         // Decrease some things on the follower that aren't important in that context. This helps offset the bandwidth
         // cost of increasing important things.
         liftMotorControllerFront.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, 100); // default 10
+
+        // Motion Magic. The profile is generated and followed on the talon itself, so stopping at (and holding) the
+        // lift target doesn't depend on how often the robot tick checks the leg height.
+        liftMotorControllerFront.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative, 0, 20);
+        liftMotorControllerFront.config_kF(0, liftLegKf, 20);
+        liftMotorControllerFront.config_kP(0, LIFT_LEG_KP, 20);
+        liftMotorControllerFront.config_kI(0, LIFT_LEG_KI, 20);
+        liftMotorControllerFront.config_kD(0, LIFT_LEG_KD, 20);
+        liftMotorControllerFront.configMotionCruiseVelocity(liftLegCruiseVelocity, 20);
+        liftMotorControllerFront.configMotionAcceleration(liftLegAcceleration, 20);
+
+        // Soft limits. The talon refuses to drive the leg past these positions on its own, without waiting for the
+        // robot tick (or the limit switch) to catch it.
+        liftMotorControllerFront.configForwardSoftLimitThreshold(getLiftLegForwardSoftLimit(maxLiftHeight), 20);
+        liftMotorControllerFront.configReverseSoftLimitThreshold(getLiftLegReverseSoftLimit(), 20);
+        liftMotorControllerFront.configForwardSoftLimitEnable(true, 20);
+        liftMotorControllerFront.configReverseSoftLimitEnable(true, 20);
+    }
+
+    /**
+     * @param maxLiftHeight The highest lift target (inches).
+     *
+     * @return The lift leg encoder position (counts) just past the highest lift target.
+     */
+    private static int getLiftLegForwardSoftLimit(double maxLiftHeight) {
+        return getLiftLegPosition(maxLiftHeight + LIFT_LEG_SOFT_LIMIT_MARGIN);
+    }
+
+    /**
+     * @return The lift leg encoder position (counts) just below fully retracted.
+     */
+    private static int getLiftLegReverseSoftLimit() {
+        return getLiftLegPosition(-LIFT_LEG_SOFT_LIMIT_MARGIN);
+    }
+
+    /**
+     * Converts a lift leg height into lift leg encoder counts.
+     */
+    private static int getLiftLegPosition(double height) {
+        return (int) Math.round(height / SensorFactory.LIFT_LEG_ENCODER_REV_DISTANCE * 4096);
+    }
+
+    /**
+     * Creates a simulated lift controller with the same Motion Magic configuration as the real ones.
+     *
+     * @param device The device the controller stands in for.
+     * @param maxLiftHeight The highest lift target (inches).
+     *
+     * @return The simulated controller.
+     */
+    private ITalonController createSimLifterMotorController(CanDevice device, double maxLiftHeight) {
+        SimMotorController controller = createSimMotorController(device);
+        controller.setSimMotionMagicGains(liftLegKf, LIFT_LEG_KP, liftLegCruiseVelocity, liftLegAcceleration);
+        controller.setSimSoftLimits(getLiftLegForwardSoftLimit(maxLiftHeight), getLiftLegReverseSoftLimit());
+        return controller;
     }
 
-    public WPI_TalonSRX createLifterDriveMotorController() {
+    public IMotorController createLifterDriveMotorController() {
+        if (isSimulation) {
+            return createSimMotorController(CanDevice.MC_CLIMB_DRIVE);
+        }
+
         WPI_TalonSRX controller = new WPI_TalonSRX(CanDevice.MC_CLIMB_DRIVE.deviceNum);
 
         // Just configure it here since there there is only one drive motor controller.
@@ -213,7 +458,7 @@ public class ControllerFactory {
         controller.setNeutralMode(NeutralMode.Coast);
 
         // Return the configured controller.
-        return controller;
+        return new PhoenixMotorController(controller);
     }
 
     public DoubleSolenoid createClimberFrontLiftLegEngagerSolenoid() {
@@ -232,4 +477,28 @@ public class ControllerFactory {
         );
     }
 
+    /**
+     * Provides a simulated motor controller so that a physics model can read its output and feed back sensor
+     * readings.
+     *
+     * @param device The device the controller stands in for.
+     *
+     * @return The simulated controller, or `null` if it has not been created (or the robot is not simulated).
+     */
+    public SimMotorController getSimMotorController(CanDevice device) {
+        return simMotorControllers.get(device);
+    }
+
+    /**
+     * Creates a simulated motor controller and records it for lookup.
+     *
+     * @param device The device the controller stands in for.
+     *
+     * @return The simulated controller.
+     */
+    private SimMotorController createSimMotorController(CanDevice device) {
+        SimMotorController controller = new SimMotorController();
+        simMotorControllers.put(device, controller);
+        return controller;
+    }
 }
@@ -1,12 +1,11 @@
 package org.team1251.frc.robot.parts.mechanisms;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
-import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
 import org.team1251.frc.robot.Robot;
 import org.team1251.frc.robot.parts.controllers.ControllerFactory;
-import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
 import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robotCore.parts.controllers.IMotorController;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
+import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
 
 /**
  * The mechanism that drives one side of the drive base.
@@ -38,17 +37,17 @@ public class DriveTrain {
     /**
      * The top controller.
      */
-    private final WPI_TalonSRX topMotorController;
+    private final ITalonController topMotorController;
 
     /**
      * The front controller
      */
-    private final WPI_VictorSPX frontMotorController;
+    private final IMotorController frontMotorController;
 
     /**
      * The rear controller
      */
-    private final WPI_VictorSPX rearMotorController;
+    private final IMotorController rearMotorController;
 
     /**
      * Whether or not the motor controllers are operating in follower mode in this drive train.
@@ -109,8 +108,8 @@ public class DriveTrain {
             rearMotorController.follow(topMotorController);
         } else {
             // Turn off following by explicitly setting speed on follower controllers
-            frontMotorController.set(ControlMode.PercentOutput, 0);
-            rearMotorController.set(ControlMode.PercentOutput, 0);
+            frontMotorController.setPercentOutput(0);
+            rearMotorController.setPercentOutput(0);
         }
     }
 
@@ -123,7 +122,19 @@ public class DriveTrain {
      */
     public void set(double speed) {
         setFollowerMode(true);
-        topMotorController.set(ControlMode.PercentOutput, speed);
+        topMotorController.setPercentOutput(speed);
+    }
+
+    /**
+     * Drive the entire drive train at a target velocity. The velocity is held by the closed loop on the top (lead)
+     * controller, so it stays the same as the battery sags. This will force the drive train into follower-mode if it
+     * isn't already.
+     *
+     * @param velocity The target velocity in encoder units per 100ms, with negative values being backwards.
+     */
+    public void setVelocity(double velocity) {
+        setFollowerMode(true);
+        topMotorController.setVelocity(velocity);
     }
 
     /**
@@ -137,9 +148,9 @@ public class DriveTrain {
      */
     public void setTop(double speed) {
         setFollowerMode(false);
-        topMotorController.set(ControlMode.PercentOutput, speed);
-        frontMotorController.set(ControlMode.PercentOutput, 0);
-        rearMotorController.set(ControlMode.PercentOutput, 0);
+        topMotorController.setPercentOutput(speed);
+        frontMotorController.setPercentOutput(0);
+        rearMotorController.setPercentOutput(0);
     }
 
     /**
@@ -153,9 +164,9 @@ public class DriveTrain {
      */
     public void setFront(double speed) {
         setFollowerMode(false);
-        topMotorController.set(ControlMode.PercentOutput, 0);
-        frontMotorController.set(ControlMode.PercentOutput, speed);
-        rearMotorController.set(ControlMode.PercentOutput, 0);
+        topMotorController.setPercentOutput(0);
+        frontMotorController.setPercentOutput(speed);
+        rearMotorController.setPercentOutput(0);
     }
 
     /**
@@ -169,9 +180,9 @@ public class DriveTrain {
      */
     public void setRear(double speed) {
         setFollowerMode(false);
-        topMotorController.set(ControlMode.PercentOutput, 0);
-        frontMotorController.set(ControlMode.PercentOutput, 0);
-        rearMotorController.set(ControlMode.PercentOutput, speed);
+        topMotorController.setPercentOutput(0);
+        frontMotorController.setPercentOutput(0);
+        rearMotorController.setPercentOutput(speed);
     }
 
     /**
@@ -182,4 +193,14 @@ public class DriveTrain {
     public double getVelocity() {
         return encoder.getVelocity();
     }
+
+    /**
+     * Provides the total distance travelled by this drive train, read directly from the Talon rather than latched at
+     * the start of the tick. Safe to call from threads other than the main robot thread.
+     *
+     * @return Distance travelled in encoder revolutions.
+     */
+    public double getLiveDistance() {
+        return encoder.getLiveDistance();
+    }
 }
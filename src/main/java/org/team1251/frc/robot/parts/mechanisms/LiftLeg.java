@@ -1,13 +1,14 @@
 package org.team1251.frc.robot.parts.mechanisms;
 
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.DoubleSolenoid;
 import org.team1251.frc.robot.Robot;
 import org.team1251.frc.robot.parts.controllers.ControllerFactory;
-import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
-import org.team1251.frc.robotCore.parts.sensors.NormallyOpenSwitch;
 import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
+import org.team1251.frc.robotCore.parts.sensors.NormallyOpenSwitch;
+import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
 
 /**
  * An individual leg of the lifter.
@@ -15,14 +16,26 @@ import org.team1251.frc.robot.parts.sensors.SensorFactory;
 public class LiftLeg {
 
     private final TalonMagEncoder encoder;
+    private final ITalonController encoderController;
     private final NormallyOpenSwitch lowerLimitSwitch;
     private DoubleSolenoid engagerSolenoid;
     private boolean isEngagerSolenoidInverted;
 
-    private String telemetryLabelEncoderDistance;
-    private String telemetryLabelEncoderVelocity;
-    private String telemetryLabelEncoderPosition;
-    private String telemetryLabelLowerLimitSwitch;
+    private final Identifier identifier;
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is registered.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles.
+     */
+    private int telemetryEncoderDistance;
+    private int telemetryEncoderVelocity;
+    private int telemetryEncoderPosition;
+    private int telemetryLowerLimitSwitch;
+    private int telemetryMotorCurrent;
 
     private static final double RETRACTED_DISTANCE_THRESHOLD = .10;
 
@@ -37,39 +50,49 @@ public class LiftLeg {
      * Creates either the front or rear lift leg.
      *
      * @param identifier Identifies which lift leg this is
-     * @param encoderTalon The talon to which this lift leg's encoder is attached. This is an unusual case where
+     * @param encoderController The controller (a talon) to which this lift leg's encoder is attached. This is an unusual case where
      *                     the lift leg is not exclusively controlled by the same talon that its encoder is attached
      *                     to. Each of the two lift legs is monitored using an encoder attached to one of the TWO
      *                     talons controlling it, but controlled by BOTH talons.
      */
-    public LiftLeg(Identifier identifier, TalonSRX encoderTalon) {
+    public LiftLeg(Identifier identifier, ITalonController encoderController) {
         ControllerFactory controllerFactory = Robot.controllerFactory;
         SensorFactory sensorFactory = Robot.sensorFactory;
 
+        this.identifier = identifier;
+        this.encoderController = encoderController;
         if (identifier == Identifier.FRONT) {
             engagerSolenoid = controllerFactory.createClimberFrontLiftLegEngagerSolenoid();
             isEngagerSolenoidInverted = true;
 
             lowerLimitSwitch = sensorFactory.createFrontLiftLegLowerLimitSwitch();
-            encoder = sensorFactory.createFrontLiftLegEncoder(encoderTalon);
+            encoder = sensorFactory.createFrontLiftLegEncoder(encoderController);
             encoder.reset();
         } else {
             engagerSolenoid = controllerFactory.createClimberRearLiftLegEngagerSolenoid();
             isEngagerSolenoidInverted = true;
 
             lowerLimitSwitch = sensorFactory.createRearLiftLegLowerLimitSwitch();
-            encoder = sensorFactory.createRearLiftLegEncoder(encoderTalon);
+            encoder = sensorFactory.createRearLiftLegEncoder(encoderController);
             encoder.reset();
         }
     }
 
-    private void setTelemetryLabels(Identifier identifier) {
-        String prefix = identifier.name().toLowerCase() + "LiftLeg";
+    /**
+     * Registers this leg's telemetry values with a publisher.
+     *
+     * @param telemetry The publisher to send telemetry values through.
+     * @param sensorTable The table that sensor values are written to.
+     */
+    public void registerTelemetry(TelemetryPublisher telemetry, NetworkTable sensorTable) {
+        this.telemetry = telemetry;
 
-        telemetryLabelLowerLimitSwitch = prefix + "LowerLimitSwitch";
-        telemetryLabelEncoderDistance = prefix + "EncoderDistance";
-        telemetryLabelEncoderPosition = prefix + "EncoderPosition";
-        telemetryLabelEncoderVelocity = prefix + "EncoderVelocity";
+        String prefix = identifier.name().toLowerCase() + "LiftLeg";
+        telemetryLowerLimitSwitch = telemetry.addBoolean(sensorTable, prefix + "LowerLimitSwitch");
+        telemetryEncoderDistance = telemetry.addNumber(sensorTable, prefix + "EncoderDistance", .01);
+        telemetryEncoderPosition = telemetry.addNumber(sensorTable, prefix + "EncoderPosition", 10);
+        telemetryEncoderVelocity = telemetry.addNumber(sensorTable, prefix + "EncoderVelocity", 1);
+        telemetryMotorCurrent = telemetry.addNumber(sensorTable, prefix + "MotorCurrent", .5);
     }
 
 
@@ -82,13 +105,24 @@ public class LiftLeg {
     }
 
     public boolean isEngaged() {
-        return (engagerSolenoid.get() == DoubleSolenoid.Value.kForward || isEngagerSolenoidInverted);
+        return engagerSolenoid.get()
+                == (isEngagerSolenoidInverted ? DoubleSolenoid.Value.kReverse : DoubleSolenoid.Value.kForward);
     }
 
     public boolean isAtMechanicalMax() {
         return lowerLimitSwitch.isActive();
     }
 
+    /**
+     * Runs a handler the moment the leg reaches its mechanical max (the lower limit switch trips), without waiting for
+     * the next robot tick.
+     *
+     * @param handler What to do. Runs on an interrupt thread, so it must be fast and thread safe.
+     */
+    public void onMechanicalMax(Runnable handler) {
+        lowerLimitSwitch.onActivate(handler);
+    }
+
     // Indicates that the leg is retracted (enough).
     public boolean isRetracted() {
         return (liftDistance() <= RETRACTED_DISTANCE_THRESHOLD);
@@ -98,17 +132,60 @@ public class LiftLeg {
         return encoder.getDistance();
     }
 
-    public void sendTelemetryData(NetworkTable sensorTable) {
+    /**
+     * @return How fast (inches per second) the leg is extending, as of the start of the tick. Negative while
+     *         retracting.
+     */
+    public double liftVelocity() {
+        return encoder.getRate();
+    }
+
+    /**
+     * Provides the current drawn by the talon this leg's encoder is wired into. The leg is driven by both lift talons,
+     * so this is only an indication of how hard the leg is being pushed. NOT latched; it is read from the talon on
+     * every call.
+     *
+     * @return The current (amps).
+     */
+    public double motorCurrent() {
+        return encoderController.getOutputCurrent();
+    }
 
-        sensorTable.getEntry(telemetryLabelEncoderDistance).setDouble(encoder.getDistance());
-        sensorTable.getEntry(telemetryLabelEncoderVelocity).setDouble(encoder.getVelocity());
-        sensorTable.getEntry(telemetryLabelEncoderPosition).setDouble(encoder.getPosition());
+    /**
+     * Converts a lift distance into the encoder position (counts) the leg's talon reads at that distance.
+     *
+     * @param distance The lift distance (inches).
+     *
+     * @return The equivalent encoder position, for use as a closed loop target.
+     */
+    public double getEncoderPositionForDistance(double distance) {
+        return encoder.getPositionForDistance(distance);
+    }
 
-        sensorTable.getEntry(telemetryLabelLowerLimitSwitch).setBoolean(lowerLimitSwitch.isActive());
+    /**
+     * Sends this leg's telemetry values. Does nothing until {@link #registerTelemetry} has been called.
+     */
+    public void sendTelemetryData() {
+        if (telemetry == null) {
+            return;
+        }
 
+        telemetry.setNumber(telemetryEncoderDistance, encoder.getDistance());
+        telemetry.setNumber(telemetryEncoderVelocity, encoder.getVelocity());
 
+        telemetry.setBoolean(telemetryLowerLimitSwitch, lowerLimitSwitch.isActive());
     }
 
+    /**
+     * Sends this leg's diagnostic telemetry values (raw sensor readings). Does nothing until
+     * {@link #registerTelemetry} has been called.
+     */
+    public void sendDiagnosticTelemetryData() {
+        if (telemetry == null) {
+            return;
+        }
 
-
+        telemetry.setNumber(telemetryEncoderPosition, encoder.getPosition());
+        telemetry.setNumber(telemetryMotorCurrent, motorCurrent());
+    }
 }
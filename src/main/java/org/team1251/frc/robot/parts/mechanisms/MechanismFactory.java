@@ -1,6 +1,6 @@
 package org.team1251.frc.robot.parts.mechanisms;
 
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
 
 public class MechanismFactory {
     public DriveTrain createLeftDriveTrain() {
@@ -11,11 +11,11 @@ public class MechanismFactory {
         return new DriveTrain(DriveTrain.Identifier.RIGHT);
     }
 
-    public LiftLeg createFrontLiftLeg(TalonSRX encoderTalon) {
-        return new LiftLeg(LiftLeg.Identifier.FRONT, encoderTalon);
+    public LiftLeg createFrontLiftLeg(ITalonController encoderController) {
+        return new LiftLeg(LiftLeg.Identifier.FRONT, encoderController);
     }
 
-    public LiftLeg createRearLiftLeg(TalonSRX encoderTalon) {
-        return new LiftLeg(LiftLeg.Identifier.REAR, encoderTalon);
+    public LiftLeg createRearLiftLeg(ITalonController encoderController) {
+        return new LiftLeg(LiftLeg.Identifier.REAR, encoderController);
     }
 }
@@ -1,30 +1,51 @@
 package org.team1251.frc.robot.parts.sensors;
 
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.kauailabs.navx.frc.AHRS;
 import edu.wpi.first.wpilibj.AnalogInput;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.SPI;
 import org.team1251.frc.robot.robotMap.AnalogDevice;
 import org.team1251.frc.robot.robotMap.DioDevice;
-import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
+import org.team1251.frc.robotCore.parts.sensors.IGyro;
+import org.team1251.frc.robotCore.parts.sensors.NavXGyro;
 import org.team1251.frc.robotCore.parts.sensors.NormallyOpenSwitch;
+import org.team1251.frc.robotCore.parts.sensors.SimGyro;
+import org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder;
 
 public class SensorFactory {
 
-    private static final double DRIVE_TRAIN_ENCODER_REV_DISTANCE = 1;
-    private static final double LIFT_LEG_ENCODER_REV_DISTANCE = 1.185;
+    public static final double DRIVE_TRAIN_ENCODER_REV_DISTANCE = 1;
+    public static final double LIFT_LEG_ENCODER_REV_DISTANCE = 1.185;
+
+    /**
+     * How often (per second) the navX sends updates. The navX supports up to 200.
+     */
+    private static final byte NAVX_UPDATE_RATE = (byte) 200;
+
+    /**
+     * Whether simulated sensors should be created for sensors that WPI Lib can't simulate.
+     */
+    private final boolean isSimulation = RobotBase.isSimulation();
+
+    /**
+     * The gyro. `null` until first requested.
+     */
+    private IGyro gyro;
 
-    public TalonMagEncoder createRightDriveTrainEncoder(TalonSRX attachedTalon) {
+    public TalonMagEncoder createRightDriveTrainEncoder(ITalonController attachedTalon) {
         return new TalonMagEncoder(attachedTalon, DRIVE_TRAIN_ENCODER_REV_DISTANCE, false);
     }
 
-    public TalonMagEncoder createLeftDriveTrainEncoder(TalonSRX attachedTalon) {
+    public TalonMagEncoder createLeftDriveTrainEncoder(ITalonController attachedTalon) {
         return new TalonMagEncoder(attachedTalon, DRIVE_TRAIN_ENCODER_REV_DISTANCE, false);
     }
 
-    public TalonMagEncoder createFrontLiftLegEncoder(TalonSRX attachedTalon) {
+    public TalonMagEncoder createFrontLiftLegEncoder(ITalonController attachedTalon) {
         return new TalonMagEncoder(attachedTalon, LIFT_LEG_ENCODER_REV_DISTANCE, false);
     }
 
-    public TalonMagEncoder createRearLiftLegEncoder(TalonSRX attachedTalon) {
+    public TalonMagEncoder createRearLiftLegEncoder(ITalonController attachedTalon) {
         return new TalonMagEncoder(attachedTalon, LIFT_LEG_ENCODER_REV_DISTANCE, false);
     }
 
@@ -43,4 +64,24 @@ public class SensorFactory {
     public GroundDetector createRearGroundDetector() {
         return new GroundDetector(new AnalogInput(AnalogDevice.IR_CLIMB_GROUND_SENSOR_REAR.channel));
     }
+
+    /**
+     * The navX on the roboRIO's MXP port. A simulated gyro when running on a desktop.
+     */
+    public IGyro getGyro() {
+        if (gyro == null) {
+            gyro = isSimulation ? new SimGyro() : new NavXGyro(new AHRS(SPI.Port.kMXP, NAVX_UPDATE_RATE));
+        }
+
+        return gyro;
+    }
+
+    /**
+     * Provides the simulated gyro so that a physics model can drive it.
+     *
+     * @return The simulated gyro, or `null` if it has not been created (or the robot is not simulated).
+     */
+    public SimGyro getSimGyro() {
+        return gyro instanceof SimGyro ? (SimGyro) gyro : null;
+    }
 }
@@ -0,0 +1,236 @@
+package org.team1251.frc.robot.sim;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.sim.DriverStationSim;
+import edu.wpi.first.hal.sim.mockdata.DriverStationDataJNI;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import org.team1251.frc.robot.Robot;
+import org.team1251.frc.robotCore.util.TickClock;
+
+/**
+ * Runs the full robot code on a desktop without a driver station, GUI or real-time pacing.
+ *
+ * The robot ticks as fast as the desktop allows. A short script plays the part of the driver: the robot sits disabled
+ * for a second, is enabled in teleop, and then the driver holds the start button to begin a level 3 climb. The run
+ * ends once the robot is resting on the platform or after {@link #SIM_TIMEOUT} seconds of simulated time.
+ *
+ * Run with the argument `align` for a different script: a vision target is placed ahead and to the left of the robot,
+ * and the driver holds A (auto-align) without touching the sticks. The run reports how far the robot ended up from
+ * facing the target.
+ *
+ * Desktop support is enabled in `build.gradle`, so this can be run directly from an IDE. The same scripts are run (and
+ * their outcomes checked) by the tests in `src/test/java/org/team1251/frc/robot/sim`.
+ *
+ * The robot's {@link TickClock} runs on virtual time, advanced by one tick period per step, so time-based behavior (for
+ * example, the long press behind the climb buttons) works without real-time pacing. The pose estimator is stepped once
+ * per step rather than on its background thread, and every step waits for the simulated camera's values to reach the
+ * robot's `LimeLight`, so poses and camera frames are timestamped in virtual time too. Every run of a script is the
+ * same, however fast the desktop is.
+ */
+public class HeadlessSimulation {
+
+    /**
+     * Simulated seconds to sit disabled before enabling.
+     */
+    private static final double DISABLED_TIME = 1;
+
+    /**
+     * Simulated seconds to hold the start button. Must exceed the climb long-press duration.
+     */
+    private static final double BUTTON_HOLD_TIME = .5;
+
+    /**
+     * Simulated seconds after which the run is abandoned.
+     */
+    public static final double SIM_TIMEOUT = 30;
+
+    /**
+     * Simulated seconds to hold the auto-align button.
+     */
+    private static final double ALIGN_TIME = 3;
+
+    /**
+     * How long (seconds) each step waits for camera values to reach the NetworkTables listener.
+     */
+    private static final double LISTENER_TIMEOUT = 1;
+
+    /**
+     * Where (inches) the align script places the vision target, relative to the robot's starting position.
+     */
+    private static final double ALIGN_TARGET_X = 120;
+    private static final double ALIGN_TARGET_Y = 40;
+
+    /**
+     * The driver gamepad's start button (button 8) as a bit in the joystick button mask.
+     */
+    private static final int START_BUTTON_MASK = 1 << 7;
+
+    /**
+     * The driver gamepad's A button (button 1) as a bit in the joystick button mask.
+     */
+    private static final int A_BUTTON_MASK = 1;
+    private static final int BUTTON_COUNT = 10;
+
+    /**
+     * A robot whose ticks are driven by the script rather than by a timer.
+     */
+    private static class SimulatedRobot extends Robot {
+
+        /**
+         * Runs one tick of the robot code.
+         */
+        void step() {
+            loopFunc();
+        }
+    }
+
+    private final SimulatedRobot robot = new SimulatedRobot();
+    private final DriverStationSim driverStation = new DriverStationSim();
+    private final double tickPeriod = Robot.TICK_PERIOD_MS / 1000.0;
+    private final TickClock clock = TickClock.getInstance();
+    private int ticks = 0;
+
+    public static void main(String... args) {
+        initialize();
+        HeadlessSimulation headlessSimulation = new HeadlessSimulation();
+        RobotSimulation simulation = headlessSimulation.getSimulation();
+
+        if (args.length > 0 && args[0].equals("align")) {
+            headlessSimulation.runAlign();
+            System.out.printf("Heading: %.2f deg, error: %.2f deg%n",
+                    Math.toDegrees(simulation.getHeading()), Math.toDegrees(headlessSimulation.getAlignError()));
+        } else {
+            long wallStart = System.nanoTime();
+            headlessSimulation.runClimb();
+            double wallTime = (System.nanoTime() - wallStart) / 1e9;
+            double simTime = headlessSimulation.getSimTime();
+
+            System.out.printf("%s after %.2fs simulated (%.2fs wall, %.1fx real time)%n",
+                    simulation.isOnPlatform() ? "Reached the platform" : "Timed out",
+                    simTime, wallTime, simTime / wallTime);
+            System.out.printf("Front height: %.2f\", rear height: %.2f\", x: %.2f\"%n",
+                    simulation.getFrontHeight(), simulation.getRearHeight(), simulation.getX());
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Prepares the HAL and the robot's clock. Must be called once, before the first instance is created.
+     */
+    public static void initialize() {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL.");
+        }
+
+        TickClock.getInstance().useVirtualTime();
+    }
+
+    /**
+     * Creates the robot and runs its initialization. Only one instance can be created per process, since the robot
+     * claims HAL resources (solenoid channels, etc.) which are never released.
+     */
+    public HeadlessSimulation() {
+        robot.robotInit();
+    }
+
+    /**
+     * Runs the climb script: the driver holds start to begin a level 3 climb. Returns once the robot is resting on the
+     * platform or after {@link #SIM_TIMEOUT} seconds of simulated time.
+     */
+    public void runClimb() {
+        driverStation.setDsAttached(true);
+        setDriverStation(false, 0);
+        while (getSimTime() < DISABLED_TIME) {
+            step();
+        }
+
+        // Hold start long enough for the long press to trigger the climb.
+        setDriverStation(true, START_BUTTON_MASK);
+        double holdStart = getSimTime();
+        while (getSimTime() - holdStart < BUTTON_HOLD_TIME) {
+            step();
+        }
+        setDriverStation(true, 0);
+
+        RobotSimulation simulation = getSimulation();
+        while (!simulation.isOnPlatform() && getSimTime() < SIM_TIMEOUT) {
+            step();
+        }
+    }
+
+    /**
+     * Runs the align script: a vision target is placed ahead and to the left, and the driver holds A (auto-align) for
+     * {@link #ALIGN_TIME} seconds of simulated time without touching the sticks.
+     */
+    public void runAlign() {
+        RobotSimulation simulation = getSimulation();
+
+        // Move the platform out of the way, so the robot is free to turn.
+        simulation.setPlatform(19, 1000);
+        simulation.getCamera().setTarget(ALIGN_TARGET_X, ALIGN_TARGET_Y);
+
+        driverStation.setDsAttached(true);
+        setDriverStation(false, 0);
+        while (getSimTime() < DISABLED_TIME) {
+            step();
+        }
+
+        setDriverStation(true, A_BUTTON_MASK);
+        double holdStart = getSimTime();
+        while (getSimTime() - holdStart < ALIGN_TIME) {
+            step();
+        }
+        setDriverStation(true, 0);
+    }
+
+    /**
+     * @return The physics model of the robot.
+     */
+    public RobotSimulation getSimulation() {
+        return robot.getSimulation();
+    }
+
+    /**
+     * @return How far (radians) the robot is from facing the align script's vision target. Positive when the robot is
+     *         turned too far counter-clockwise.
+     */
+    public double getAlignError() {
+        RobotSimulation simulation = getSimulation();
+        double bearing = Math.atan2(ALIGN_TARGET_Y - simulation.getY(), ALIGN_TARGET_X - simulation.getX());
+        return simulation.getHeading() - bearing;
+    }
+
+    /**
+     * Updates the simulated driver station and waits for the robot code to see the change.
+     *
+     * @param isEnabled Whether the robot is enabled (in teleop).
+     * @param driverButtons The button mask of the driver gamepad.
+     */
+    private void setDriverStation(boolean isEnabled, int driverButtons) {
+        driverStation.setAutonomous(false);
+        driverStation.setTest(false);
+        driverStation.setEnabled(isEnabled);
+        DriverStationDataJNI.setJoystickButtons((byte) 0, driverButtons, BUTTON_COUNT);
+        driverStation.notifyNewData();
+        DriverStation.getInstance().waitForData(.1);
+    }
+
+    /**
+     * Runs one tick, then waits for the camera values the physics model published at the end of it to reach the robot
+     * (they are delivered on the NetworkTables listener thread), so that the next tick always sees them.
+     */
+    private void step() {
+        clock.advance(tickPeriod);
+        robot.step();
+        NetworkTableInstance.getDefault().waitForEntryListenerQueue(LISTENER_TIMEOUT);
+        ticks++;
+    }
+
+    /**
+     * @return The simulated time (seconds) since the run started.
+     */
+    public double getSimTime() {
+        return ticks * tickPeriod;
+    }
+}
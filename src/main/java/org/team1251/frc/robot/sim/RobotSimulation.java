@@ -0,0 +1,346 @@
+package org.team1251.frc.robot.sim;
+
+import edu.wpi.first.hal.sim.AnalogInSim;
+import edu.wpi.first.hal.sim.DIOSim;
+import edu.wpi.first.hal.sim.PCMSim;
+import org.team1251.frc.robot.parts.controllers.ControllerFactory;
+import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robot.robotMap.AnalogDevice;
+import org.team1251.frc.robot.robotMap.CanDevice;
+import org.team1251.frc.robot.robotMap.DioDevice;
+import org.team1251.frc.robot.robotMap.PcmDevice;
+import org.team1251.frc.robotCore.parts.controllers.SimMotorController;
+import org.team1251.frc.robotCore.parts.sensors.SimGyro;
+
+/**
+ * A simple physics model of the robot, used when the robot code runs on a desktop.
+ *
+ * On each step, the model reads the outputs of the simulated motor controllers (see `ControllerFactory`) and the
+ * simulated solenoids, moves the robot, and then writes the resulting encoder readings, limit switch states and ground
+ * detector voltages back into the simulated hardware.
+ *
+ * The model is deliberately crude. It is meant to exercise the robot code (commands, subsystems, telemetry) end to
+ * end, not to predict exactly how the real robot moves. The robot drives along a single line towards a HAB platform:
+ *
+ * ```
+ *            rear             front
+ *             |  [  robot  ]   |
+ *           -----         -----        +----------------
+ *  (legs)   |   |         |   |        |   platform
+ * ======================================+
+ *                 x ------>            platformEdge
+ * ```
+ *
+ * Each end of the robot rests on whichever is higher: its leg or the surface below it. Legs only extend while their
+ * engager is engaged; a disengaged leg retracts quickly. The drive base wheels only move the robot when an end of the
+ * robot is resting on a surface; the climber drive wheels (on the rear leg) only move it while the rear leg is
+ * extended.
+ *
+ * The robot can also turn, moving off of the line. A vision target can be placed anywhere on the field for the
+ * simulated camera to see (see {@link SimLimeLight}).
+ */
+public class RobotSimulation {
+
+    /**
+     * Counts per revolution of a CTRE Mag Encoder.
+     */
+    private static final double COUNTS_PER_REVOLUTION = 4096;
+
+    /**
+     * Drive train model.
+     */
+    private static final double DRIVE_FREE_SPEED = 10; // Encoder revolutions per second at full power.
+    private static final double DRIVE_TIME_CONSTANT = .15; // Seconds to reach ~63% of a new speed.
+    private static final double DRIVE_WHEEL_CIRCUMFERENCE = 6 * Math.PI; // Inches per encoder revolution.
+    private static final double TRACK_WIDTH = 24; // Inches between the left and right wheels.
+    private static final double DRIVE_STALL_CURRENT = 130; // Amps per drive train.
+
+    /**
+     * Lift leg model.
+     */
+    private static final double LIFT_FREE_SPEED = 8; // Inches per second at full power.
+    private static final double LIFT_HOLD_POWER = .08; // Power needed to hold the robot up.
+    private static final double LEG_RETRACT_SPEED = 20; // Inches per second while disengaged.
+    private static final double LEG_MAX_EXTENSION = 22; // Inches. The lower limit switch trips here.
+    private static final double LIFT_STALL_CURRENT = 130; // Amps.
+    private static final double CLIMB_DRIVE_SPEED = 10; // Inches per second at full power.
+
+    /**
+     * Geometry.
+     */
+    private static final double LEG_OFFSET = 14; // Inches from the center of the robot to each leg.
+    private static final double BUMPER_OFFSET = 17; // Inches from the center of the robot to the front bumper.
+    private static final double GROUND_DETECTOR_OFFSET = 16; // Inches from the center of the robot to each detector.
+    private static final double GROUND_DETECTOR_MOUNT_HEIGHT = 1; // Inches above the bottom of the robot.
+    private static final double RESTING_TOLERANCE = .25; // Inches.
+
+    /**
+     * Ground detector (Sharp IR) voltages.
+     */
+    private static final double GROUND_DETECTOR_RANGE = 3; // Inches within which the ground is detected.
+    private static final double GROUND_DETECTED_VOLTAGE = 2.0;
+    private static final double NO_GROUND_VOLTAGE = .4;
+
+    private final double tickPeriod;
+
+    private final SimMotorController leftTop;
+    private final SimMotorController leftFront;
+    private final SimMotorController leftRear;
+    private final SimMotorController rightTop;
+    private final SimMotorController rightFront;
+    private final SimMotorController rightRear;
+    private final SimMotorController frontLift;
+    private final SimMotorController rearLift;
+    private final SimMotorController climbDrive;
+    private final SimGyro gyro;
+    private final SimLimeLight camera;
+
+    private final PCMSim pcm = new PCMSim(PcmDevice.DSOL_CLIMB_FRONT_LEG_ENGAGER_REV.module);
+    private final DIOSim frontLowerLimitSwitch = new DIOSim(DioDevice.LS_FRONT_LIFT_LEG_LOWER.channel);
+    private final DIOSim rearLowerLimitSwitch = new DIOSim(DioDevice.LS_REAR_LIFT_LEG_LOWER.channel);
+    private final AnalogInSim frontGroundDetector = new AnalogInSim(AnalogDevice.IR_CLIMB_GROUND_SENSOR_FRONT.channel);
+    private final AnalogInSim rearGroundDetector = new AnalogInSim(AnalogDevice.IR_CLIMB_GROUND_SENSOR_REAR.channel);
+
+    /**
+     * The height (inches) of the platform in front of the robot.
+     */
+    private double platformHeight;
+
+    /**
+     * Where the platform starts (inches along the field).
+     */
+    private double platformEdge;
+
+    /**
+     * Robot state.
+     */
+    private double x = 0; // Inches along the field.
+    private double y = 0; // Inches across the field, positive to the robot's starting left.
+    private double heading = 0; // Radians
+    private double leftSpeed = 0; // Encoder revolutions per second.
+    private double rightSpeed = 0; // Encoder revolutions per second.
+    private double frontLegExtension = 0; // Inches
+    private double rearLegExtension = 0; // Inches
+
+    /**
+     * @param controllerFactory The factory that created the simulated motor controllers.
+     * @param sensorFactory The factory that created the simulated sensors.
+     * @param tickPeriod The amount of time (seconds) simulated by each step.
+     */
+    public RobotSimulation(ControllerFactory controllerFactory, SensorFactory sensorFactory, double tickPeriod) {
+        this.tickPeriod = tickPeriod;
+        this.gyro = sensorFactory.getSimGyro();
+        this.camera = new SimLimeLight(tickPeriod);
+
+        leftTop = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_LEFT_TOP);
+        leftFront = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_LEFT_FRONT);
+        leftRear = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_LEFT_REAR);
+        rightTop = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_RIGHT_TOP);
+        rightFront = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_RIGHT_FRONT);
+        rightRear = controllerFactory.getSimMotorController(CanDevice.MC_DRIVE_RIGHT_REAR);
+        frontLift = controllerFactory.getSimMotorController(CanDevice.MC_CLIMB_ELEVATOR_FRONT);
+        rearLift = controllerFactory.getSimMotorController(CanDevice.MC_CLIMB_LIFTER_REAR);
+        climbDrive = controllerFactory.getSimMotorController(CanDevice.MC_CLIMB_DRIVE);
+
+        // Start with the front of the robot against a level 3 platform.
+        setPlatform(19, BUMPER_OFFSET + 1);
+        update();
+    }
+
+    /**
+     * Places a platform in front of the robot.
+     *
+     * @param height The height (inches) of the platform.
+     * @param edge How far (inches) the platform edge is from the robot's starting position.
+     */
+    public void setPlatform(double height, double edge) {
+        platformHeight = height;
+        platformEdge = edge;
+    }
+
+    /**
+     * Advances the model by one tick and updates all simulated sensors.
+     */
+    public void update() {
+        double dt = tickPeriod;
+
+        // Drive trains: first-order response towards the speed commanded by the average output of each train.
+        double leftPower = (leftTop.getMotorOutputPercent() + leftFront.getMotorOutputPercent()
+                + leftRear.getMotorOutputPercent()) / 3;
+        double rightPower = (rightTop.getMotorOutputPercent() + rightFront.getMotorOutputPercent()
+                + rightRear.getMotorOutputPercent()) / 3;
+
+        double response = dt / (DRIVE_TIME_CONSTANT + dt);
+        leftSpeed += (leftPower * DRIVE_FREE_SPEED - leftSpeed) * response;
+        rightSpeed += (rightPower * DRIVE_FREE_SPEED - rightSpeed) * response;
+
+        // Legs: engaged legs are driven by their lift motor, disengaged legs retract.
+        boolean isFrontEngaged = isEngaged(PcmDevice.DSOL_CLIMB_FRONT_LEG_ENGAGER_REV);
+        boolean isRearEngaged = isEngaged(PcmDevice.DSOL_CLIMB_REAR_LEG_ENGAGER_REV);
+        frontLegExtension = updateLeg(frontLegExtension, frontLift, isFrontEngaged, dt);
+        rearLegExtension = updateLeg(rearLegExtension, rearLift, isRearEngaged, dt);
+
+        // Robot motion: the drive base only moves the robot when it is resting on something. The climber drive wheels
+        // only move the robot when the rear leg is down.
+        double forwardSpeed = 0;
+        if (isFrontResting() || isRearResting()) {
+            forwardSpeed += (leftSpeed + rightSpeed) / 2 * DRIVE_WHEEL_CIRCUMFERENCE;
+            heading += (rightSpeed - leftSpeed) * DRIVE_WHEEL_CIRCUMFERENCE / TRACK_WIDTH * dt;
+        }
+        if (rearLegExtension > RESTING_TOLERANCE) {
+            forwardSpeed += climbDrive.getMotorOutputPercent() * CLIMB_DRIVE_SPEED;
+        }
+
+        // The platform is a wall for anything below its top.
+        double newX = x + forwardSpeed * Math.cos(heading) * dt;
+        if (newX + BUMPER_OFFSET > platformEdge && getFrontHeight() < platformHeight - RESTING_TOLERANCE
+                && x + BUMPER_OFFSET <= platformEdge) {
+            newX = platformEdge - BUMPER_OFFSET;
+        }
+        x = newX;
+        y += forwardSpeed * Math.sin(heading) * dt;
+
+        // Sensors
+        updateDriveEncoder(leftTop, leftSpeed, dt);
+        updateDriveEncoder(rightTop, rightSpeed, dt);
+        leftTop.setSimOutputCurrent(motorCurrent(leftPower, leftSpeed / DRIVE_FREE_SPEED, DRIVE_STALL_CURRENT / 3));
+        rightTop.setSimOutputCurrent(motorCurrent(rightPower, rightSpeed / DRIVE_FREE_SPEED, DRIVE_STALL_CURRENT / 3));
+
+        if (gyro != null) {
+            gyro.setSimHeading(heading);
+        }
+        camera.update(x, y, heading);
+
+        // Normally open switches read high until they are pressed.
+        frontLowerLimitSwitch.setValue(frontLegExtension < LEG_MAX_EXTENSION);
+        rearLowerLimitSwitch.setValue(rearLegExtension < LEG_MAX_EXTENSION);
+
+        frontGroundDetector.setVoltage(groundDetectorVoltage(getFrontHeight(), x + GROUND_DETECTOR_OFFSET));
+        rearGroundDetector.setVoltage(groundDetectorVoltage(getRearHeight(), x - GROUND_DETECTOR_OFFSET));
+    }
+
+    /**
+     * Moves a leg and updates its encoder.
+     *
+     * @return The new extension (inches) of the leg.
+     */
+    private double updateLeg(double extension, SimMotorController liftMotor, boolean isEngaged, double dt) {
+        double power = liftMotor.getMotorOutputPercent();
+        double speed;
+        if (!isEngaged) {
+            speed = -LEG_RETRACT_SPEED;
+        } else if (Math.abs(power) <= LIFT_HOLD_POWER) {
+            speed = 0;
+        } else {
+            speed = (power - Math.signum(power) * LIFT_HOLD_POWER) * LIFT_FREE_SPEED;
+        }
+
+        double newExtension = Math.max(0, Math.min(LEG_MAX_EXTENSION, extension + speed * dt));
+        double actualSpeed = (newExtension - extension) / dt;
+
+        double countsPerInch = COUNTS_PER_REVOLUTION / SensorFactory.LIFT_LEG_ENCODER_REV_DISTANCE;
+        liftMotor.addSimSensorMovement((newExtension - extension) * countsPerInch, actualSpeed * countsPerInch / 10);
+        liftMotor.setSimOutputCurrent(motorCurrent(power, isEngaged ? actualSpeed / LIFT_FREE_SPEED : power,
+                LIFT_STALL_CURRENT));
+
+        return newExtension;
+    }
+
+    /**
+     * Moves a drive train encoder forward at the given speed. The right side's controller is inverted, so its raw
+     * counts run backwards just like they do on the robot.
+     */
+    private void updateDriveEncoder(SimMotorController controller, double speed, double dt) {
+        double countsPerRevolution = COUNTS_PER_REVOLUTION / SensorFactory.DRIVE_TRAIN_ENCODER_REV_DISTANCE;
+        controller.addSimSensorMovement(speed * dt * countsPerRevolution, speed * countsPerRevolution / 10);
+    }
+
+    /**
+     * Estimates motor current from the applied power and how fast the motor is actually turning (as a fraction of its
+     * free speed). A stalled motor draws the most current.
+     */
+    private static double motorCurrent(double power, double speedFraction, double stallCurrent) {
+        return Math.abs(power - speedFraction) * stallCurrent;
+    }
+
+    /**
+     * Reads a leg engager from the simulated PCM. The engagers are plumbed inverted (see `LiftLeg`), so a leg is
+     * engaged while its reverse channel is energized.
+     */
+    private boolean isEngaged(PcmDevice reverseChannel) {
+        return pcm.getSolenoidOutput(reverseChannel.channel);
+    }
+
+    /**
+     * Provides the voltage a ground detector reads at a given height above the surface beneath it.
+     */
+    private double groundDetectorVoltage(double robotHeight, double detectorX) {
+        double distance = robotHeight + GROUND_DETECTOR_MOUNT_HEIGHT - surfaceHeight(detectorX);
+        return distance <= GROUND_DETECTOR_RANGE ? GROUND_DETECTED_VOLTAGE : NO_GROUND_VOLTAGE;
+    }
+
+    /**
+     * @return The height (inches) of whatever is beneath a point on the field.
+     */
+    private double surfaceHeight(double position) {
+        return position >= platformEdge ? platformHeight : 0;
+    }
+
+    private boolean isFrontResting() {
+        return getFrontHeight() <= surfaceHeight(x + LEG_OFFSET) + RESTING_TOLERANCE;
+    }
+
+    private boolean isRearResting() {
+        return getRearHeight() <= surfaceHeight(x - LEG_OFFSET) + RESTING_TOLERANCE;
+    }
+
+    /**
+     * @return The height (inches) of the bottom of the front of the robot.
+     */
+    public double getFrontHeight() {
+        return Math.max(frontLegExtension, surfaceHeight(x + LEG_OFFSET));
+    }
+
+    /**
+     * @return The height (inches) of the bottom of the rear of the robot.
+     */
+    public double getRearHeight() {
+        return Math.max(rearLegExtension, surfaceHeight(x - LEG_OFFSET));
+    }
+
+    /**
+     * @return The position (inches) of the center of the robot along the field.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return The position (inches) of the center of the robot across the field.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return The heading (radians) of the robot. Positive is counter-clockwise.
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return The simulated camera, for placing a vision target.
+     */
+    public SimLimeLight getCamera() {
+        return camera;
+    }
+
+    /**
+     * @return Whether the robot is completely on the platform with both legs retracted.
+     */
+    public boolean isOnPlatform() {
+        return x - LEG_OFFSET >= platformEdge && frontLegExtension <= RESTING_TOLERANCE
+                && rearLegExtension <= RESTING_TOLERANCE;
+    }
+}
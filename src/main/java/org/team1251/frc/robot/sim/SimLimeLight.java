@@ -0,0 +1,165 @@
+package org.team1251.frc.robot.sim;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+import java.util.Random;
+
+/**
+ * A stand-in for the LimeLight camera, used when the robot code runs on a desktop.
+ *
+ * On each step, the camera "sees" a single vision target placed on the field and publishes what a real LimeLight would
+ * into the same NetworkTables table, so the robot code's `LimeLight` cannot tell the difference. Like the real camera:
+ *
+ *   - Each frame describes where the robot was one step ago, and the reported latency says so.
+ *   - Offsets have a little noise in them.
+ *   - The target is only seen while it is within the camera's field of view.
+ *
+ * The camera is mounted at the center of the robot, looking straight ahead.
+ */
+public class SimLimeLight {
+
+    /**
+     * Half of the LimeLight's horizontal and vertical fields of view (degrees).
+     */
+    private static final double HALF_HORIZONTAL_FOV = 29.8;
+    private static final double HALF_VERTICAL_FOV = 24.85;
+
+    /**
+     * How far (inches) the target is above the camera.
+     */
+    private static final double TARGET_HEIGHT_ABOVE_CAMERA = 20;
+
+    /**
+     * The target area (percent of the image) seen from one inch away. Area falls off with the square of distance.
+     */
+    private static final double TARGET_AREA_AT_ONE_INCH = 4000;
+
+    /**
+     * Standard deviation (degrees) of the noise in each offset.
+     */
+    private static final double OFFSET_NOISE = .15;
+
+    /**
+     * The part of the latency (milliseconds) that the LimeLight adds on its own before the pipeline runs. It is not
+     * included in the reported pipeline latency (see `LimeLight`).
+     */
+    private static final double IMAGE_CAPTURE_LATENCY = 11;
+
+    private final double tickPeriod;
+
+    private final NetworkTableEntry tv;
+    private final NetworkTableEntry tx;
+    private final NetworkTableEntry ty;
+    private final NetworkTableEntry ta;
+    private final NetworkTableEntry ts;
+    private final NetworkTableEntry tl;
+
+    /**
+     * Seeded, so that every run is the same.
+     */
+    private final Random random = new Random(1251);
+
+    /**
+     * Where the target is on the field (inches). Only meaningful when {@link #hasTarget} is `true`.
+     */
+    private boolean hasTarget = false;
+    private double targetX;
+    private double targetY;
+
+    /**
+     * The robot's pose as of the previous step, which is what the next frame shows.
+     */
+    private boolean hasPreviousPose = false;
+    private double previousX;
+    private double previousY;
+    private double previousHeading;
+
+    /**
+     * @param tickPeriod The amount of time (seconds) simulated by each step.
+     */
+    public SimLimeLight(double tickPeriod) {
+        this.tickPeriod = tickPeriod;
+
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("limelight");
+        tv = table.getEntry("tv");
+        tx = table.getEntry("tx");
+        ty = table.getEntry("ty");
+        ta = table.getEntry("ta");
+        ts = table.getEntry("ts");
+        tl = table.getEntry("tl");
+
+        // The simulated camera only ever runs the default pipeline.
+        table.getEntry("getpipe").setDouble(0);
+    }
+
+    /**
+     * Places the vision target on the field.
+     *
+     * @param x The x position (inches) of the target.
+     * @param y The y position (inches) of the target.
+     */
+    public void setTarget(double x, double y) {
+        hasTarget = true;
+        targetX = x;
+        targetY = y;
+    }
+
+    /**
+     * Removes the vision target from the field.
+     */
+    public void clearTarget() {
+        hasTarget = false;
+    }
+
+    /**
+     * Publishes the next camera frame.
+     *
+     * @param x The robot's current x position (inches).
+     * @param y The robot's current y position (inches).
+     * @param heading The robot's current heading (radians, counter-clockwise positive).
+     */
+    public void update(double x, double y, double heading) {
+        if (hasPreviousPose) {
+            publishFrame(previousX, previousY, previousHeading);
+        }
+
+        hasPreviousPose = true;
+        previousX = x;
+        previousY = y;
+        previousHeading = heading;
+    }
+
+    /**
+     * Publishes what the camera saw from a pose.
+     */
+    private void publishFrame(double x, double y, double heading) {
+        boolean isVisible = false;
+        double horizontalOffset = 0;
+        double verticalOffset = 0;
+        double area = 0;
+
+        if (hasTarget) {
+            double dx = targetX - x;
+            double dy = targetY - y;
+            double distance = Math.max(1, Math.hypot(dx, dy));
+
+            // Positive offsets are to the right, which is clockwise.
+            horizontalOffset = -Math.toDegrees(Math.IEEEremainder(Math.atan2(dy, dx) - heading, 2 * Math.PI));
+            verticalOffset = Math.toDegrees(Math.atan2(TARGET_HEIGHT_ABOVE_CAMERA, distance));
+            area = Math.min(100, TARGET_AREA_AT_ONE_INCH / (distance * distance));
+
+            isVisible = Math.abs(horizontalOffset) < HALF_HORIZONTAL_FOV && verticalOffset < HALF_VERTICAL_FOV;
+            horizontalOffset += random.nextGaussian() * OFFSET_NOISE;
+            verticalOffset += random.nextGaussian() * OFFSET_NOISE;
+        }
+
+        tv.setDouble(isVisible ? 1 : 0);
+        tx.setDouble(isVisible ? horizontalOffset : 0);
+        ty.setDouble(isVisible ? verticalOffset : 0);
+        ta.setDouble(isVisible ? area : 0);
+        ts.setDouble(0);
+        tl.setDouble(tickPeriod * 1000 - IMAGE_CAPTURE_LATENCY);
+    }
+}
@@ -1,7 +1,5 @@
 package org.team1251.frc.robot.subsystems;
 
-import com.ctre.phoenix.motorcontrol.ControlMode;
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import edu.wpi.first.networktables.NetworkTable;
 import org.team1251.frc.robot.Robot;
 import org.team1251.frc.robot.parts.controllers.ControllerFactory;
@@ -9,14 +7,22 @@ import org.team1251.frc.robot.parts.mechanisms.LiftLeg;
 import org.team1251.frc.robot.parts.mechanisms.MechanismFactory;
 import org.team1251.frc.robot.parts.sensors.GroundDetector;
 import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robotCore.diagnostics.StallMonitor;
 import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
 import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.logging.BinaryDataLogger;
+import org.team1251.frc.robotCore.logging.IDataLogProvider;
+import org.team1251.frc.robotCore.parts.controllers.IMotorController;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
 import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * The subsystem that is responsible for making the Robot climb.
  */
-public class Climber extends TigerSubsystem implements ITelemetryProvider {
+public class Climber extends TigerSubsystem implements ITelemetryProvider, IDataLogProvider {
 
     /**
      * All possible lift targets.
@@ -35,8 +41,47 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
             this.isSlow = isSlow;
         }
 
+        /**
+         * @return The height (inches) of the highest lift target.
+         */
+        public static double getMaxHeight() {
+            double maxHeight = 0;
+            for (LiftTarget target : values()) {
+                maxHeight = Math.max(maxHeight, target.height);
+            }
+            return maxHeight;
+        }
+    }
+
+    /**
+     * How the lift motors are driven to the lift target.
+     */
+    public enum LiftMode {
+        /**
+         * Full (or slow) power until the lift target is reached, then sustain power. The legs overshoot by however far
+         * they travel before the next robot tick notices they have arrived.
+         */
+        POWER,
+
+        /**
+         * The lift target is sent to one lift talon as a Motion Magic setpoint, and the other talon follows it. The
+         * talons accelerate, cruise, slow down and then hold the target height on their own. Slow lift targets still
+         * use {@link #POWER} because the profile's cruise velocity is fixed when the talons are configured.
+         *
+         * Both talons drive the same gearbox, so only one closed loop may run: two loops, each on its own leg's
+         * encoder, would fight each other whenever the legs were at different heights. The loop runs on the front
+         * leg's encoder while the front leg is engaged, and on the rear leg's encoder once it isn't (a disengaged leg
+         * no longer moves with the gearbox).
+         */
+        PROFILED
     }
 
+    /**
+     * How close (inches) a profiled lift needs to be to the target height to be considered there. The profile
+     * approaches the target gradually so it may never quite exceed it.
+     */
+    private static final double PROFILED_LIFT_TOLERANCE = .25;
+
     /**
      * The motor power to use for a slow lift
      */
@@ -53,21 +98,137 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
      */
     private static final double SUSTAIN_POWER = .10;
 
+    /**
+     * How long (seconds) a leg that is being lifted may make no progress before it is considered stalled.
+     */
+    private static final double LIFT_STALL_WINDOW = .5;
+
+    /**
+     * The slowest a leg can extend (inches per second) and still be making progress.
+     */
+    private static final double LIFT_STALL_MIN_VELOCITY = .5;
+
+    /**
+     * The least current (amps) which counts as a lift motor pushing against a stalled leg. Holding the robot up at
+     * sustain power draws less than this.
+     */
+    private static final double LIFT_STALL_MIN_CURRENT = 20;
+
+    /**
+     * How far (inches) apart the leg heights may get before the legs are out of sync, used when the robot config
+     * (`lift.maxSyncError`, see `robot.properties`) doesn't say.
+     */
+    private static final double DEFAULT_MAX_LEG_SYNC_ERROR = 2;
+
     /**
      * The current height limit. Set by changing the lift target.
      */
     private double maxHeight = 0;
 
+    /**
+     * The power most recently applied to the lift motors in a power lift.
+     */
+    private double liftPower = 0;
+
+    /**
+     * The output the front lift motor is actually applying, as of the start of the tick. Unlike {@link #liftPower},
+     * this includes the output decided by the talons themselves during a profiled lift.
+     */
+    private double liftOutput = 0;
+
+    /**
+     * The lift talon running the Motion Magic loop during a profiled lift (the other one follows it). `null` while
+     * not holding a lift target.
+     */
+    private ITalonController liftLeader;
+
+    /**
+     * Latched by the limit switch interrupt thread when a leg reaches its mechanical max (see {@link #cutOffLift()}).
+     * Every lift output checks it first and keeps the lift motors neutral until {@link #periodic()} handles it at the
+     * start of the next tick.
+     */
+    private final AtomicBoolean isLiftCutOff = new AtomicBoolean(false);
+
+    /**
+     * How the lift motors are driven. Set by the robot config (`lift.profiled`).
+     */
+    private final LiftMode liftMode;
+
+    /**
+     * How far (inches) apart the leg heights may get before the legs are out of sync. Set by the robot config
+     * (`lift.maxSyncError`).
+     */
+    private final double maxLegSyncError;
+
+    /**
+     * Whether the current lift is being driven by Motion Magic on the talons.
+     */
+    private boolean isProfiledLift = false;
+
     private final LiftLeg frontLeg;
     private final LiftLeg rearLeg;
 
     private final GroundDetector frontGroundDetector;
     private final GroundDetector rearGroundDetector;
 
-    private final TalonSRX frontLiftController;
-    private final TalonSRX rearLiftController;
+    private final ITalonController frontLiftController;
+    private final ITalonController rearLiftController;
 
-    private final TalonSRX driveController;
+    private final IMotorController driveController;
+
+    /**
+     * Watch for a leg which is being lifted but isn't moving (for example, because it is jammed).
+     */
+    private final StallMonitor frontLegStallMonitor =
+            new StallMonitor(LIFT_STALL_WINDOW, LIFT_STALL_MIN_VELOCITY, LIFT_STALL_MIN_CURRENT);
+    private final StallMonitor rearLegStallMonitor =
+            new StallMonitor(LIFT_STALL_WINDOW, LIFT_STALL_MIN_VELOCITY, LIFT_STALL_MIN_CURRENT);
+
+    /**
+     * The current (amps) drawn by each leg's lift motor, as of the start of the tick.
+     */
+    private double frontLiftCurrent = 0;
+    private double rearLiftCurrent = 0;
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is first sent.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles.
+     */
+    private int telemetryRearGroundDetectState;
+    private int telemetryRearGroundDetectVoltage;
+    private int telemetryHasReachedLiftTarget;
+    private int telemetryLiftTargetHeight;
+    private int telemetryIsProfiledLift;
+    private int telemetryLegSyncError;
+    private int telemetryIsFrontRetracted;
+    private int telemetryIsFrontOnSolidGround;
+    private int telemetryIsRearRetracted;
+    private int telemetryIsRearOnSolidGround;
+    private int telemetryIsLiftStalled;
+    private int telemetryIsLegSyncLost;
+
+    /**
+     * Data log field handles.
+     */
+    private int dataLogFrontLegDistance;
+    private int dataLogRearLegDistance;
+    private int dataLogFrontGroundDetectVoltage;
+    private int dataLogRearGroundDetectVoltage;
+    private int dataLogLiftOutput;
+    private int dataLogLiftTargetHeight;
+    private int dataLogLegSyncError;
+    private int dataLogFrontLiftCurrent;
+    private int dataLogRearLiftCurrent;
+    private int dataLogIsLiftStalled;
+
+    /**
+     * Sends the slower-changing diagnostic telemetry (raw sensor readings).
+     */
+    private final ITelemetryProvider diagnosticTelemetry = new ClimberDiagnostics();
 
     /**
      * Creates a Climber instance.
@@ -79,14 +240,43 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
 
         driveController = controllerFactory.createLifterDriveMotorController();
 
-        frontLiftController = controllerFactory.createFrontLifterMotorController();
-        rearLiftController = controllerFactory.createRearLifterMotorController();
+        frontLiftController = controllerFactory.createFrontLifterMotorController(LiftTarget.getMaxHeight());
+        rearLiftController = controllerFactory.createRearLifterMotorController(LiftTarget.getMaxHeight());
 
         frontLeg = mechanismFactory.createFrontLiftLeg(frontLiftController);
         rearLeg = mechanismFactory.createRearLiftLeg(rearLiftController);
 
+        // Overtravel protection: stop lifting the instant either leg hits its mechanical max instead of waiting for
+        // the next tick to notice.
+        frontLeg.onMechanicalMax(this::cutOffLift);
+        rearLeg.onMechanicalMax(this::cutOffLift);
+
         frontGroundDetector = sensorFactory.createFrontGroundDetector();
         rearGroundDetector = sensorFactory.createRearGroundDetector();
+
+        liftMode = Robot.config.getBoolean("lift.profiled", false) ? LiftMode.PROFILED : LiftMode.POWER;
+        maxLegSyncError = Robot.config.getDouble("lift.maxSyncError", DEFAULT_MAX_LEG_SYNC_ERROR);
+    }
+
+    /**
+     * Handles a lift cut off by the limit switch interrupt, and checks both legs for a stall. The readings are taken
+     * once here, at the start of the tick, so that the commands using this subsystem all see the same values.
+     */
+    @Override
+    public void periodic() {
+        // The lift logic which runs after this sees the limit switch and falls back to sustain power.
+        if (isLiftCutOff.getAndSet(false)) {
+            liftLeader = null;
+            liftPower = 0;
+        }
+
+        frontLiftCurrent = frontLeg.motorCurrent();
+        rearLiftCurrent = rearLeg.motorCurrent();
+        liftOutput = frontLiftController.getMotorOutputPercent();
+
+        boolean isLiftDriven = isLiftDriven();
+        frontLegStallMonitor.update(isLiftDriven && frontLeg.isEngaged(), frontLeg.liftVelocity(), frontLiftCurrent);
+        rearLegStallMonitor.update(isLiftDriven && rearLeg.isEngaged(), rearLeg.liftVelocity(), rearLiftCurrent);
     }
 
     /**
@@ -96,9 +286,17 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
      */
     public void liftTo(LiftTarget target) {
         this.maxHeight = target.height;
+        this.isProfiledLift = liftMode == LiftMode.PROFILED && !target.isSlow;
         this.lift(target.isSlow);
     }
 
+    /**
+     * @return How the lift motors are currently driven.
+     */
+    public LiftMode getLiftMode() {
+        return liftMode;
+    }
+
     /**
      * Runs lift motors until fully lifted and then reduces motor power to sustain position.
      *
@@ -109,8 +307,20 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
         frontLeg.engage();
         rearLeg.engage();
 
-        // Stop when we have reached the current lift target or when one of the legs reach its mechanical max.
-        if (hasReachedLiftTarget() || frontLeg.isAtMechanicalMax() || rearLeg.isAtMechanicalMax()) {
+        // Never push against the mechanical max, or tilt the robot any further, regardless of the lift mode.
+        if (frontLeg.isAtMechanicalMax() || rearLeg.isAtMechanicalMax() || isLegSyncLost()) {
+            setLiftPower(SUSTAIN_POWER);
+            return;
+        }
+
+        // A profiled lift stops itself; just (re)send the setpoint.
+        if (isProfiledLift) {
+            holdLiftTarget();
+            return;
+        }
+
+        // Stop when we have reached the current lift target.
+        if (hasReachedLiftTarget()) {
             sustain();
         } else {
             setLiftPower(isSlowLift ? SLOW_LIFT_POWER : NORMAL_LIFT_POWER);
@@ -121,7 +331,46 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
      * Runs lift motors enough to sustain the current lift position.
      */
     public void sustain() {
-        setLiftPower(SUSTAIN_POWER);
+        if (isProfiledLift) {
+            holdLiftTarget();
+        } else {
+            setLiftPower(SUSTAIN_POWER);
+        }
+    }
+
+    /**
+     * Sends the lift target height as a Motion Magic setpoint to the talon whose leg is engaged (the front one, if
+     * both are), and has the other talon follow it. The talons hold the target height once they get there. Both
+     * talons are stopped if neither leg is engaged, since neither leg can move.
+     */
+    private void holdLiftTarget() {
+        if (frontLeg.isEngaged()) {
+            holdLiftTarget(frontLiftController, frontLeg, rearLiftController);
+        } else if (rearLeg.isEngaged()) {
+            holdLiftTarget(rearLiftController, rearLeg, frontLiftController);
+        } else {
+            neutralizeLift();
+        }
+    }
+
+    /**
+     * Runs the Motion Magic loop on one lift talon, and has the other one follow it.
+     *
+     * @param leader The talon to run the loop on.
+     * @param leg The leg whose encoder is wired into the leader.
+     * @param follower The other lift talon.
+     */
+    private void holdLiftTarget(ITalonController leader, LiftLeg leg, ITalonController follower) {
+        if (checkLiftCutOff()) {
+            return;
+        }
+
+        leader.setMotionMagicPosition(leg.getEncoderPositionForDistance(maxHeight));
+        if (liftLeader != leader) {
+            follower.follow(leader);
+            liftLeader = leader;
+        }
+        checkLiftCutOff();
     }
 
     /**
@@ -133,8 +382,16 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
             /* NOTE: This isn't what was originally intended, but it works! Because this is only ever called after
              *   the lift height has been obtained, both motors are running at sustain power (+.10) before this
              *   logic runs. ONE of the motors is set to -.25 power creating competition between the two motors.
+             *   The rear motor is set to sustain power explicitly, since it may have been following the front one.
              */
-            frontLiftController.set(ControlMode.PercentOutput, -.25);
+            if (checkLiftCutOff()) {
+                return;
+            }
+
+            liftLeader = null;
+            rearLiftController.setPercentOutput(SUSTAIN_POWER);
+            frontLiftController.setPercentOutput(-.25);
+            checkLiftCutOff();
         }
     }
 
@@ -142,14 +399,14 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
      * Starts the climber's drive motor.
      */
     public void startDrive() {
-        driveController.set(ControlMode.PercentOutput, 1);
+        driveController.setPercentOutput(1);
     }
 
     /**
      * Stops the climber's driver motor.
      */
     public void stopDrive() {
-        driveController.set(ControlMode.PercentOutput, 0);
+        driveController.setPercentOutput(0);
     }
 
     /**
@@ -207,7 +464,37 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
     public boolean hasReachedLiftTarget() {
         // if either front or rear is at the maximum height, consider the whole bot as lifted. If legs were to become
         // unsynchronized (one higher than the other), this makes sure that there isn't an accidental overrun.
-        return frontLeg.liftDistance() >= maxHeight || frontLeg.liftDistance() >= maxHeight;
+        double targetHeight = isProfiledLift ? maxHeight - PROFILED_LIFT_TOLERANCE : maxHeight;
+        return frontLeg.liftDistance() >= targetHeight || rearLeg.liftDistance() >= targetHeight;
+    }
+
+    /**
+     * Indicates whether either leg has stalled: the lift motors have been pushing it towards the lift target, but it
+     * has not been moving (see {@link StallMonitor}).
+     *
+     * @return Whether either leg has stalled.
+     */
+    public boolean isLiftStalled() {
+        return frontLegStallMonitor.isStalled() || rearLegStallMonitor.isStalled();
+    }
+
+    /**
+     * @return The highest current (amps) either lift motor has drawn while its leg was making no progress. `0` while
+     *         both legs are making progress.
+     */
+    public double getLiftStallPeakCurrent() {
+        return Math.max(frontLegStallMonitor.getPeakCurrent(), rearLegStallMonitor.getPeakCurrent());
+    }
+
+    /**
+     * Indicates whether the lift motors are currently being driven to raise the legs (as opposed to holding them, or
+     * being stopped).
+     */
+    private boolean isLiftDriven() {
+        if (isProfiledLift) {
+            return liftLeader != null && !hasReachedLiftTarget();
+        }
+        return liftPower > SUSTAIN_POWER;
     }
 
     /**
@@ -256,35 +543,197 @@ public class Climber extends TigerSubsystem implements ITelemetryProvider {
         }
     }
 
+    /**
+     * Neutralizes both lift motors. Called from the limit switch interrupt thread when a leg reaches its mechanical
+     * max.
+     *
+     * Only the cut off flag is shared with the main thread. Any lift output the main thread sends during the rest of
+     * the tick sees the flag and neutralizes the motors again, so the cut off can't be undone before
+     * {@link #periodic()} handles it.
+     *
+     * Package-private so that tests can play the part of the interrupt.
+     */
+    void cutOffLift() {
+        isLiftCutOff.set(true);
+        frontLiftController.neutralOutput();
+        rearLiftController.neutralOutput();
+    }
+
+    /**
+     * Keeps the lift motors neutral while a cut off (see {@link #cutOffLift()}) hasn't been handled yet. Every lift
+     * output checks this before sending anything, and again afterwards in case the interrupt fired while it was being
+     * sent.
+     *
+     * @return Whether the lift is cut off.
+     */
+    private boolean checkLiftCutOff() {
+        if (!isLiftCutOff.get()) {
+            return false;
+        }
+
+        neutralizeLift();
+        return true;
+    }
+
+    /**
+     * Stops both lift motors.
+     */
+    private void neutralizeLift() {
+        liftPower = 0;
+        liftLeader = null;
+        frontLiftController.neutralOutput();
+        rearLiftController.neutralOutput();
+    }
+
+    /**
+     * Indicates how far out of level the legs are.
+     *
+     * @return The height difference (inches) between the front and rear legs. Positive when the front leg is higher.
+     */
+    public double getLegSyncError() {
+        return frontLeg.liftDistance() - rearLeg.liftDistance();
+    }
+
+    /**
+     * Indicates whether the legs are further out of level than the robot config allows (`lift.maxSyncError`). Both
+     * lift motors drive the same gearbox, so one leg can't be slowed down to let the other catch up; a lift stops
+     * lifting (and holds at sustain power) once the legs are out of sync. Only counts while both legs are engaged,
+     * since a disengaged leg retracts on its own.
+     *
+     * @return Whether the legs are out of sync.
+     */
+    public boolean isLegSyncLost() {
+        return frontLeg.isEngaged() && rearLeg.isEngaged() && Math.abs(getLegSyncError()) > maxLegSyncError;
+    }
+
     /**
      * Internal helper to set the same output power to both lift motors.
      *
      * @param power A value between -1 and 1 to use as the motor power.
      */
     private void setLiftPower(double power) {
-        frontLiftController.set(ControlMode.PercentOutput, power);
-        rearLiftController.set(ControlMode.PercentOutput, power);
+        if (checkLiftCutOff()) {
+            return;
+        }
+
+        liftPower = power;
+        liftLeader = null;
+        frontLiftController.setPercentOutput(power);
+        rearLiftController.setPercentOutput(power);
+        checkLiftCutOff();
     }
 
 
-    @Override
-    public void sendTelemetryData(TelemetryTables telemetryTables) {
+    /**
+     * Registers this subsystem's telemetry values with the publisher. This happens once, the first time telemetry
+     * data is sent.
+     *
+     * @param telemetryTables The tables the values are written to.
+     */
+    private void registerTelemetry(TelemetryTables telemetryTables) {
+        telemetry = telemetryTables.getPublisher();
+
         // Sensor Data
         NetworkTable sensorTable = telemetryTables.getSensorTable().getSubTable(getName());
-        sensorTable.getEntry("rearGroundDetectState").setBoolean(rearGroundDetector.isGroundDetected());
-        sensorTable.getEntry("rearGroundDetectVoltage").setNumber(rearGroundDetector.getVoltage());
+        telemetryRearGroundDetectState = telemetry.addBoolean(sensorTable, "rearGroundDetectState");
+        telemetryRearGroundDetectVoltage = telemetry.addNumber(sensorTable, "rearGroundDetectVoltage", .01);
 
         // Subsystem state data
         NetworkTable stateTable = telemetryTables.getStateTable().getSubTable(getName());
-        stateTable.getEntry("hasReachedLiftTarget").setBoolean(hasReachedLiftTarget());
-        stateTable.getEntry("liftTargetHeight").setDouble(maxHeight);
-        stateTable.getEntry("isFrontRetracted").setBoolean(isFrontLegRetracted());
-        stateTable.getEntry("isFrontOnSolidGround").setBoolean(isFrontOnSolidGround());
-        stateTable.getEntry("isRearRetracted").setBoolean(isRearLegRetracted());
-        stateTable.getEntry("isRearOnSolidGround").setBoolean(isRearOnSolidGround());
+        telemetryHasReachedLiftTarget = telemetry.addBoolean(stateTable, "hasReachedLiftTarget");
+        telemetryLiftTargetHeight = telemetry.addNumber(stateTable, "liftTargetHeight", 0);
+        telemetryIsProfiledLift = telemetry.addBoolean(stateTable, "isProfiledLift");
+        telemetryLegSyncError = telemetry.addNumber(stateTable, "legSyncError", .01);
+        telemetryIsFrontRetracted = telemetry.addBoolean(stateTable, "isFrontRetracted");
+        telemetryIsFrontOnSolidGround = telemetry.addBoolean(stateTable, "isFrontOnSolidGround");
+        telemetryIsRearRetracted = telemetry.addBoolean(stateTable, "isRearRetracted");
+        telemetryIsRearOnSolidGround = telemetry.addBoolean(stateTable, "isRearOnSolidGround");
+        telemetryIsLiftStalled = telemetry.addBoolean(stateTable, "isLiftStalled");
+        telemetryIsLegSyncLost = telemetry.addBoolean(stateTable, "isLegSyncLost");
+
+        // Indirect telemetry data.
+        frontLeg.registerTelemetry(telemetry, sensorTable);
+        rearLeg.registerTelemetry(telemetry, sensorTable);
+    }
+
+    @Override
+    public void sendTelemetryData(TelemetryTables telemetryTables) {
+        if (telemetry == null) {
+            registerTelemetry(telemetryTables);
+        }
+
+        // Sensor Data
+        telemetry.setBoolean(telemetryRearGroundDetectState, rearGroundDetector.isGroundDetected());
+
+        // Subsystem state data
+        telemetry.setBoolean(telemetryHasReachedLiftTarget, hasReachedLiftTarget());
+        telemetry.setNumber(telemetryLiftTargetHeight, maxHeight);
+        telemetry.setBoolean(telemetryIsProfiledLift, isProfiledLift);
+        telemetry.setNumber(telemetryLegSyncError, getLegSyncError());
+        telemetry.setBoolean(telemetryIsFrontRetracted, isFrontLegRetracted());
+        telemetry.setBoolean(telemetryIsFrontOnSolidGround, isFrontOnSolidGround());
+        telemetry.setBoolean(telemetryIsRearRetracted, isRearLegRetracted());
+        telemetry.setBoolean(telemetryIsRearOnSolidGround, isRearOnSolidGround());
+        telemetry.setBoolean(telemetryIsLiftStalled, isLiftStalled());
+        telemetry.setBoolean(telemetryIsLegSyncLost, isLegSyncLost());
 
         // Indirect telemetry data.
-        frontLeg.sendTelemetryData(sensorTable);
-        rearLeg.sendTelemetryData(sensorTable);
+        frontLeg.sendTelemetryData();
+        rearLeg.sendTelemetryData();
+    }
+
+    @Override
+    public void registerDataLogFields(BinaryDataLogger logger) {
+        dataLogFrontLegDistance = logger.addField(getName() + "/frontLegDistance");
+        dataLogRearLegDistance = logger.addField(getName() + "/rearLegDistance");
+        dataLogFrontGroundDetectVoltage = logger.addField(getName() + "/frontGroundDetectVoltage");
+        dataLogRearGroundDetectVoltage = logger.addField(getName() + "/rearGroundDetectVoltage");
+        dataLogLiftOutput = logger.addField(getName() + "/liftOutput");
+        dataLogLiftTargetHeight = logger.addField(getName() + "/liftTargetHeight");
+        dataLogLegSyncError = logger.addField(getName() + "/legSyncError");
+        dataLogFrontLiftCurrent = logger.addField(getName() + "/frontLiftCurrent");
+        dataLogRearLiftCurrent = logger.addField(getName() + "/rearLiftCurrent");
+        dataLogIsLiftStalled = logger.addField(getName() + "/isLiftStalled");
+    }
+
+    @Override
+    public void logData(BinaryDataLogger logger) {
+        logger.set(dataLogFrontLegDistance, frontLeg.liftDistance());
+        logger.set(dataLogRearLegDistance, rearLeg.liftDistance());
+        logger.set(dataLogFrontGroundDetectVoltage, frontGroundDetector.getVoltage());
+        logger.set(dataLogRearGroundDetectVoltage, rearGroundDetector.getVoltage());
+        logger.set(dataLogLiftOutput, liftOutput);
+        logger.set(dataLogLiftTargetHeight, maxHeight);
+        logger.set(dataLogLegSyncError, getLegSyncError());
+        logger.set(dataLogFrontLiftCurrent, frontLiftCurrent);
+        logger.set(dataLogRearLiftCurrent, rearLiftCurrent);
+        logger.set(dataLogIsLiftStalled, isLiftStalled() ? 1 : 0);
+    }
+
+    /**
+     * Provides a telemetry provider for raw sensor readings that are only useful for diagnostics (for example,
+     * ground detector voltage and encoder positions). These do not need to be sent as often as the subsystem's
+     * state, so they are provided separately to allow them to be added with a slower rate.
+     *
+     * @return The diagnostic telemetry provider.
+     */
+    public ITelemetryProvider getDiagnosticTelemetry() {
+        return diagnosticTelemetry;
+    }
+
+    /**
+     * Sends the climber's diagnostic telemetry data.
+     */
+    private class ClimberDiagnostics implements ITelemetryProvider {
+        @Override
+        public void sendTelemetryData(TelemetryTables telemetryTables) {
+            if (telemetry == null) {
+                registerTelemetry(telemetryTables);
+            }
+
+            telemetry.setNumber(telemetryRearGroundDetectVoltage, rearGroundDetector.getVoltage());
+            frontLeg.sendDiagnosticTelemetryData();
+            rearLeg.sendDiagnosticTelemetryData();
+        }
     }
 }
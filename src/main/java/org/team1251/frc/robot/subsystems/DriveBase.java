@@ -6,13 +6,16 @@ import org.team1251.frc.robot.Robot;
 import org.team1251.frc.robot.parts.mechanisms.DriveTrain;
 import org.team1251.frc.robot.parts.mechanisms.MechanismFactory;
 import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
 import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.logging.BinaryDataLogger;
+import org.team1251.frc.robotCore.logging.IDataLogProvider;
 import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
 
 /**
  * The subsystem which moves the robot around the field.
  */
-public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
+public class DriveBase extends TigerSubsystem implements ITelemetryProvider, IDataLogProvider {
 
     /**
      * An enumeration of all motors within the drive train.
@@ -24,6 +27,22 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
         RIGHT_TOP, RIGHT_FRONT, RIGHT_REAR
     }
 
+    /**
+     * How drive power is applied to the drive trains.
+     */
+    public enum DriveMode {
+        /**
+         * Drive power is applied directly as motor output. The robot slows down as the battery sags.
+         */
+        OPEN_LOOP,
+
+        /**
+         * Drive power is treated as a fraction of the maximum drive train velocity, which the lead motor controllers
+         * hold using their onboard closed loop.
+         */
+        CLOSED_LOOP
+    }
+
     /**
      * The mechanism that drives the left side of the robot.
      */
@@ -34,11 +53,63 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
      */
     private final DriveTrain rightTrain;
 
+    /**
+     * How drive power is currently applied. Starts out as set by the robot config (`drive.closedLoop`), and can be
+     * toggled by the driver (see `ToggleDriveMode`).
+     */
+    private DriveMode driveMode;
+
+    /**
+     * The drive train velocity (counts per 100ms) that full drive power maps to in closed loop.
+     */
+    private final double maxVelocity;
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is first sent.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles.
+     */
+    private int telemetryLeftTrainVelocity;
+    private int telemetryRightTrainVelocity;
+    private int telemetryIsClosedLoop;
+
+    /**
+     * Data log field handles.
+     */
+    private int dataLogLeftTrainVelocity;
+    private int dataLogRightTrainVelocity;
+
     @Override
     public void sendTelemetryData(TelemetryTables telemetryTables) {
-        NetworkTable sensorTable = telemetryTables.getSensorTable().getSubTable(getName());
-        sensorTable.getEntry("leftTrainVelocity").setDouble(rightTrain.getVelocity());
-        sensorTable.getEntry("rightTrainVelocity").setDouble(leftTrain.getVelocity());
+        if (telemetry == null) {
+            telemetry = telemetryTables.getPublisher();
+
+            NetworkTable sensorTable = telemetryTables.getSensorTable().getSubTable(getName());
+            telemetryLeftTrainVelocity = telemetry.addNumber(sensorTable, "leftTrainVelocity", 1);
+            telemetryRightTrainVelocity = telemetry.addNumber(sensorTable, "rightTrainVelocity", 1);
+
+            NetworkTable stateTable = telemetryTables.getStateTable().getSubTable(getName());
+            telemetryIsClosedLoop = telemetry.addBoolean(stateTable, "isClosedLoop");
+        }
+
+        telemetry.setNumber(telemetryLeftTrainVelocity, leftTrain.getVelocity());
+        telemetry.setNumber(telemetryRightTrainVelocity, rightTrain.getVelocity());
+        telemetry.setBoolean(telemetryIsClosedLoop, driveMode == DriveMode.CLOSED_LOOP);
+    }
+
+    @Override
+    public void registerDataLogFields(BinaryDataLogger logger) {
+        dataLogLeftTrainVelocity = logger.addField(getName() + "/leftTrainVelocity");
+        dataLogRightTrainVelocity = logger.addField(getName() + "/rightTrainVelocity");
+    }
+
+    @Override
+    public void logData(BinaryDataLogger logger) {
+        logger.set(dataLogLeftTrainVelocity, leftTrain.getVelocity());
+        logger.set(dataLogRightTrainVelocity, rightTrain.getVelocity());
     }
 
     /**
@@ -49,6 +120,9 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
         leftTrain = mechansimFactory.createLeftDriveTrain();
         rightTrain = mechansimFactory.createRightDriveTrain();
 
+        maxVelocity = Robot.controllerFactory.getDriveTrainMaxVelocity();
+        driveMode = Robot.config.getBoolean("drive.closedLoop", false) ? DriveMode.CLOSED_LOOP : DriveMode.OPEN_LOOP;
+
     }
 
 
@@ -98,11 +172,36 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
     }
 
     /**
-     * Drive straight forward or backwards.
+     * Switches between open loop and closed loop driving. Takes effect the next time the robot is driven.
+     *
+     * @param driveMode How drive power should be applied.
+     */
+    public void setDriveMode(DriveMode driveMode) {
+        this.driveMode = driveMode;
+    }
+
+    /**
+     * @return How drive power is currently applied.
+     */
+    public DriveMode getDriveMode() {
+        return driveMode;
+    }
+
+    /**
+     * Switches from open loop to closed loop driving, or back. Takes effect the next time the robot is driven.
+     */
+    public void toggleDriveMode() {
+        setDriveMode(driveMode == DriveMode.CLOSED_LOOP ? DriveMode.OPEN_LOOP : DriveMode.CLOSED_LOOP);
+    }
+
+    /**
+     * Drive straight forward or backwards, applying power directly as motor output whatever the drive mode. Used where
+     * the robot must push with a fixed effort (for example, against the platform while climbing) rather than hold a
+     * speed, which closed loop would do by pushing harder as the wheels stall.
      *
      * @param power The power at which to drive. Negative drives backwards.
      */
-    public void drive(double power) {
+    public void driveOpenLoop(double power) {
         leftTrain.set(power);
         rightTrain.set(power);
     }
@@ -113,8 +212,22 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
      * @param power The power to apply to each train.
      */
     public void drive(DrivePower power) {
-        leftTrain.set(power.getLeft());
-        rightTrain.set(power.getRight());
+        drive(leftTrain, power.getLeft());
+        drive(rightTrain, power.getRight());
+    }
+
+    /**
+     * Applies power to a single drive train according to the current drive mode.
+     *
+     * @param train The train to drive.
+     * @param power The power, between -1 and 1.
+     */
+    private void drive(DriveTrain train, double power) {
+        if (driveMode == DriveMode.CLOSED_LOOP) {
+            train.setVelocity(power * maxVelocity);
+        } else {
+            train.set(power);
+        }
     }
 
     public double getLeftVelocity() {
@@ -124,4 +237,24 @@ public class DriveBase extends TigerSubsystem implements ITelemetryProvider {
     public double getRightVelocity() {
         return rightTrain.getVelocity();
     }
+
+    /**
+     * Provides the total distance travelled by the left wheels, read live from the Talon. Safe to call from threads
+     * other than the main robot thread.
+     *
+     * @return Distance travelled in encoder revolutions.
+     */
+    public double getLiveLeftDistance() {
+        return leftTrain.getLiveDistance();
+    }
+
+    /**
+     * Provides the total distance travelled by the right wheels, read live from the Talon. Safe to call from threads
+     * other than the main robot thread.
+     *
+     * @return Distance travelled in encoder revolutions.
+     */
+    public double getLiveRightDistance() {
+        return rightTrain.getLiveDistance();
+    }
 }
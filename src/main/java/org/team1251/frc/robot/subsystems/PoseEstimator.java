@@ -0,0 +1,177 @@
+package org.team1251.frc.robot.subsystems;
+
+import edu.wpi.first.networktables.NetworkTable;
+import org.team1251.frc.robot.Robot;
+import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.logging.BinaryDataLogger;
+import org.team1251.frc.robotCore.logging.IDataLogProvider;
+import org.team1251.frc.robotCore.odometry.DifferentialOdometry;
+import org.team1251.frc.robotCore.odometry.Pose;
+import org.team1251.frc.robotCore.odometry.PoseHistory;
+import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
+import org.team1251.frc.robotCore.util.TickClock;
+
+/**
+ * The subsystem that keeps track of where the robot is on the field.
+ *
+ * The pose is estimated from the drive base wheel distances and the navX heading, 200 times per second on a
+ * background thread (see {@link DifferentialOdometry}). Commands read it with {@link #getPose(Pose)}, which never
+ * blocks the robot tick. When the robot's clock runs on virtual time (see {@link TickClock}), there is no background
+ * thread; the simulation calls {@link #step()} instead.
+ *
+ * The last second or so of poses is kept (see {@link PoseHistory}) so that measurements which were taken in the past,
+ * such as camera frames, can be matched up with where the robot was when they were taken.
+ *
+ * Positions are in inches and headings in radians (counter-clockwise positive), relative to wherever the pose was last
+ * reset. The pose starts at the origin, facing along the x axis.
+ */
+public class PoseEstimator extends TigerSubsystem implements ITelemetryProvider, IDataLogProvider {
+
+    /**
+     * How often (seconds) the pose is updated.
+     */
+    private static final double UPDATE_PERIOD = Robot.POSE_UPDATE_PERIOD_MS / 1000.0;
+
+    /**
+     * Inches travelled per drive train encoder revolution, unless configured otherwise (`drive.wheelCircumference`).
+     * This assumes the encoders turn with 6" wheels.
+     */
+    private static final double DEFAULT_WHEEL_CIRCUMFERENCE = 6 * Math.PI;
+
+    /**
+     * How many poses to keep in the history. At 200 updates per second, this covers about 1.3 seconds -- several
+     * times the worst camera latency.
+     */
+    private static final int HISTORY_SIZE = 256;
+
+    private final PoseHistory history = new PoseHistory(HISTORY_SIZE);
+
+    private final DifferentialOdometry odometry;
+
+    /**
+     * The pose as of the start of the current tick, for telemetry and logging. Reused to avoid creating garbage.
+     */
+    private final Pose tickPose = new Pose();
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is first sent.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles.
+     */
+    private int telemetryX;
+    private int telemetryY;
+    private int telemetryHeading;
+
+    /**
+     * Data log field handles.
+     */
+    private int dataLogX;
+    private int dataLogY;
+    private int dataLogHeading;
+
+    /**
+     * @param driveBase The drive base whose wheel distances are tracked.
+     */
+    public PoseEstimator(DriveBase driveBase) {
+        double wheelCircumference = Robot.config.getDouble("drive.wheelCircumference", DEFAULT_WHEEL_CIRCUMFERENCE);
+
+        odometry = new DifferentialOdometry(
+                Robot.sensorFactory.getGyro(),
+                () -> driveBase.getLiveLeftDistance() * wheelCircumference,
+                () -> driveBase.getLiveRightDistance() * wheelCircumference,
+                UPDATE_PERIOD,
+                history
+        );
+
+        if (!TickClock.getInstance().isVirtual()) {
+            odometry.start();
+        }
+    }
+
+    /**
+     * Updates the pose right away, on the calling thread. Only used when the clock runs on virtual time: a simulation
+     * stepping faster (or slower) than real time calls this once per step, after moving the simulated sensors, so that
+     * every pose is recorded at the virtual time.
+     */
+    public void step() {
+        odometry.update();
+    }
+
+    /**
+     * Copies the most recent pose. This never blocks and never allocates, so it is safe to call from any command.
+     *
+     * @param pose The pose to fill in.
+     *
+     * @return The given pose, for convenience.
+     */
+    public Pose getPose(Pose pose) {
+        return odometry.getPose(pose);
+    }
+
+    /**
+     * Looks up the pose the robot had at some moment in the recent past. This never blocks and never allocates.
+     *
+     * @param timestamp The moment (seconds, see `TickClock.getTimestamp()`) to look up.
+     * @param pose The pose to fill in.
+     *
+     * @return `true` if the pose was found, `false` if the moment is too far in the past.
+     */
+    public boolean getPoseAt(double timestamp, Pose pose) {
+        return history.getPoseAt(timestamp, pose);
+    }
+
+    /**
+     * @return The history of recent poses, for consumers that do their own lookups (for example, a vision tracker).
+     */
+    public PoseHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Declares the robot's current pose, for example at the start of a match.
+     *
+     * @param x The x position (inches).
+     * @param y The y position (inches).
+     * @param heading The heading (radians, counter-clockwise positive).
+     */
+    public void resetPose(double x, double y, double heading) {
+        odometry.reset(x, y, heading);
+    }
+
+    @Override
+    public void sendTelemetryData(TelemetryTables telemetryTables) {
+        if (telemetry == null) {
+            telemetry = telemetryTables.getPublisher();
+
+            NetworkTable stateTable = telemetryTables.getStateTable().getSubTable(getName());
+            telemetryX = telemetry.addNumber(stateTable, "x", .1);
+            telemetryY = telemetry.addNumber(stateTable, "y", .1);
+            telemetryHeading = telemetry.addNumber(stateTable, "headingDegrees", .1);
+        }
+
+        getPose(tickPose);
+        telemetry.setNumber(telemetryX, tickPose.getX());
+        telemetry.setNumber(telemetryY, tickPose.getY());
+        telemetry.setNumber(telemetryHeading, Math.toDegrees(tickPose.getHeading()));
+    }
+
+    @Override
+    public void registerDataLogFields(BinaryDataLogger logger) {
+        dataLogX = logger.addField(getName() + "/x");
+        dataLogY = logger.addField(getName() + "/y");
+        dataLogHeading = logger.addField(getName() + "/heading");
+    }
+
+    @Override
+    public void logData(BinaryDataLogger logger) {
+        getPose(tickPose);
+        logger.set(dataLogX, tickPose.getX());
+        logger.set(dataLogY, tickPose.getY());
+        logger.set(dataLogHeading, tickPose.getHeading());
+    }
+}
@@ -3,8 +3,13 @@ package org.team1251.frc.robotCore;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.command.Scheduler;
+import org.team1251.frc.robotCore.commands.TigerScheduler;
+import org.team1251.frc.robotCore.diagnostics.LoopProfiler;
 import org.team1251.frc.robotCore.humanInterface.output.TelemetryProviderList;
 import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.logging.BinaryDataLogger;
+import org.team1251.frc.robotCore.parts.sensors.SensorLatch;
+import org.team1251.frc.robotCore.util.TickClock;
 
 /**
  * This abstract base creates additional structure to the way the robot is initialized during various phases.
@@ -33,8 +38,12 @@ import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
  * The behavior of the {@link #autonomousPeriodic()}, {@link #teleopPeriodic()}, {@link #testPeriodic()},
  * and {@link #disabledPeriodic()} are not modified by this class.
  *
- * A default implementation of {@link #robotPeriodic()} is provided by this class which runs the command scheduler,
- * then sends telemetry data.
+ * A default implementation of {@link #robotPeriodic()} is provided by this class which latches the clock (see
+ * {@link TickClock}) and sensor readings, runs the command scheduler, then records a data log entry, then sends
+ * telemetry data. Each of these steps is measured by the {@link LoopProfiler}.
+ *
+ * The WPI Lib `Scheduler` is used unless the robot opts in to the {@link TigerScheduler} by calling
+ * {@link #useTigerScheduler()} from its constructor.
  */
 abstract public class TigerTimedRobot extends TimedRobot {
 
@@ -63,11 +72,76 @@ abstract public class TigerTimedRobot extends TimedRobot {
     protected final TelemetryTables telemetryTables = new TelemetryTables();
 
     /**
-     * A list of telemetry providers. Each will be asked to send their telemetry data every robot period.
+     * A list of telemetry providers. Each will be asked to send their telemetry data at the rate it was added with
+     * (every robot period, by default).
      *
      * Specifically, each will be called, in the order they are added, during `robotPeriodic()`
      */
-    protected final TelemetryProviderList telemetrySender = new TelemetryProviderList();
+    protected final TelemetryProviderList telemetrySender;
+
+    /**
+     * The size (bytes) of each data log file. At 50 ticks per second, this holds several hours of data for a typical
+     * number of fields.
+     */
+    private static final long DATA_LOG_FILE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The number of data log files kept on the roboRIO, including the current one. Older files are deleted at boot.
+     */
+    private static final int DATA_LOG_FILE_COUNT = 3;
+
+    /**
+     * Records values from each data log provider into a binary log file on every tick. Robots add their providers and
+     * then start the logger during {@link #robotInitFinalize()}; nothing is logged until it is started.
+     *
+     * @see org.team1251.frc.robotCore.logging.IDataLogProvider
+     */
+    protected final BinaryDataLogger dataLogger = new BinaryDataLogger(DATA_LOG_FILE_SIZE, DATA_LOG_FILE_COUNT);
+
+    /**
+     * Measures the time spent in each part of the robot tick.
+     */
+    protected final LoopProfiler loopProfiler = LoopProfiler.getInstance();
+
+    /**
+     * Whether the robot code is running on a desktop rather than a roboRIO.
+     */
+    private final boolean isSimulation = isSimulation();
+
+    /**
+     * The command scheduler. `null` if the WPI Lib `Scheduler` is used.
+     */
+    private TigerScheduler tigerScheduler = null;
+
+    /**
+     * The clock, latched at the start of each tick.
+     */
+    private final TickClock tickClock = TickClock.getInstance();
+
+    /**
+     * Latches sensors at the start of each tick.
+     */
+    private final SensorLatch sensorLatch = SensorLatch.getInstance();
+
+    /**
+     * Profiler channel for the sensor latch.
+     */
+    private final int sensorLatchProfilerChannel = loopProfiler.registerChannel("SensorLatch");
+
+    /**
+     * Profiler channel for the command scheduler.
+     */
+    private final int schedulerProfilerChannel = loopProfiler.registerChannel("Scheduler");
+
+    /**
+     * Profiler channel for the telemetry sender.
+     */
+    private final int telemetryProfilerChannel = loopProfiler.registerChannel("Telemetry");
+
+    /**
+     * Profiler channel for the data logger.
+     */
+    private final int dataLogProfilerChannel = loopProfiler.registerChannel("DataLog");
 
     /**
      * Creates a new instance with a particular tick period.
@@ -76,6 +150,17 @@ abstract public class TigerTimedRobot extends TimedRobot {
      */
     public TigerTimedRobot(double tickPeriod) {
         super(tickPeriod);
+        loopProfiler.setTickPeriod(tickPeriod);
+        telemetrySender = new TelemetryProviderList(tickPeriod);
+    }
+
+    /**
+     * Runs commands with the {@link TigerScheduler} instead of the WPI Lib `Scheduler`. This must be called from the
+     * robot's constructor, before any command is started or bound to a trigger.
+     */
+    protected final void useTigerScheduler() {
+        tigerScheduler = TigerScheduler.getInstance();
+        tigerScheduler.enable();
     }
 
     @Override
@@ -271,7 +356,47 @@ abstract public class TigerTimedRobot extends TimedRobot {
 
     @Override
     public void robotPeriodic() {
-        Scheduler.getInstance().run();
+        loopProfiler.beginTick();
+
+        // Read the clock and sensors once, so that everything during this tick sees the same values.
+        loopProfiler.begin(sensorLatchProfilerChannel);
+        tickClock.latch();
+        sensorLatch.latchAll();
+        loopProfiler.end(sensorLatchProfilerChannel);
+
+        loopProfiler.begin(schedulerProfilerChannel);
+        if (tigerScheduler != null) {
+            tigerScheduler.run();
+        } else {
+            Scheduler.getInstance().run();
+        }
+        loopProfiler.end(schedulerProfilerChannel);
+
+        loopProfiler.begin(dataLogProfilerChannel);
+        dataLogger.logTick();
+        loopProfiler.end(dataLogProfilerChannel);
+
+        loopProfiler.begin(telemetryProfilerChannel);
         telemetrySender.sendTelemetryData(telemetryTables);
+        telemetryTables.getPublisher().publish();
+        loopProfiler.end(telemetryProfilerChannel);
+
+        loopProfiler.endTick();
+
+        // Publishes at most once per second. This is done outside of the tick measurement so that it does not skew
+        // the numbers it is reporting.
+        loopProfiler.sendTelemetryData(telemetryTables);
+
+        if (isSimulation) {
+            simulationPeriodic();
+        }
     }
+
+    /**
+     * Called at the end of every tick when the robot code is running on a desktop rather than a roboRIO. This is where
+     * a physics model should update the simulated sensors based on the outputs that were set during the tick.
+     *
+     * By default, this method does nothing.
+     */
+    protected void simulationPeriodic() { }
 }
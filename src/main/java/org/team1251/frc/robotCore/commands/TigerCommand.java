@@ -0,0 +1,239 @@
+package org.team1251.frc.robotCore.commands;
+
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import org.team1251.frc.robotCore.diagnostics.LoopProfiler;
+import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
+import org.team1251.frc.robotCore.util.TickClock;
+
+/**
+ * A command that follows the patterns used by Team 1251, Tech Tigers.
+ *
+ * ### Profiled execution
+ *
+ *   Every call to `execute()` is measured by the {@link LoopProfiler} so that slow commands can be found when the
+ *   robot tick overruns. To make this possible, `execute()` is sealed by this class; implement {@link #executeTick()}
+ *   instead. Commands of the same class share a single profiler channel.
+ *
+ * ### Scheduling
+ *
+ *   Commands can be run by the WPI Lib `Scheduler` or, if the robot opts in, by the {@link TigerScheduler}. In the
+ *   latter case, `start()`, `cancel()`, `isRunning()` and `isCanceled()` go through the `TigerScheduler`. Required
+ *   subsystems must be {@link TigerSubsystem}s, so that they can be tracked as bits.
+ *
+ * ### Timeouts
+ *
+ *   The WPI Lib `setTimeout()` and `timeSinceInitialized()` are final, and only work when the WPI Lib `Scheduler`
+ *   starts the command's timer. Use {@link #setTimeLimit(double)}, {@link #isTimedOut()} and
+ *   {@link #getTimeSinceInitialized()} instead; they work under either scheduler. Under the `TigerScheduler`, they
+ *   are measured on the {@link TickClock}.
+ */
+public abstract class TigerCommand extends Command {
+
+    /**
+     * The profiler used to measure execution time.
+     */
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+
+    /**
+     * The profiler channel for this command.
+     */
+    private final int profilerChannel;
+
+    private final TigerScheduler scheduler = TigerScheduler.getInstance();
+
+    private final TickClock clock = TickClock.getInstance();
+
+    /**
+     * How long (seconds) the command may run before {@link #isTimedOut()}, under the {@link TigerScheduler}. `NaN` if
+     * there is no limit.
+     */
+    private double timeLimit = Double.NaN;
+
+    /**
+     * When (seconds, see {@link TickClock}) the command was last initialized by the {@link TigerScheduler}.
+     */
+    private double initializedTime;
+
+    /**
+     * The requirement bits of every subsystem this command requires (see {@link TigerScheduler}).
+     */
+    private long requirementBits = 0;
+
+    /**
+     * State used by the {@link TigerScheduler}.
+     */
+    private boolean isScheduled = false;
+    private boolean isPending = false;
+    private boolean isInitialized = false;
+    private boolean isCanceled = false;
+
+    public TigerCommand() {
+        super();
+        profilerChannel = profiler.registerChannel("Command/" + getName());
+    }
+
+    @Override
+    protected final void execute() {
+        profiler.begin(profilerChannel);
+        executeTick();
+        profiler.end(profilerChannel);
+    }
+
+    /**
+     * The work to be done on every tick while the command is running. This takes the place of `execute()`.
+     */
+    protected abstract void executeTick();
+
+    @Override
+    protected synchronized void requires(Subsystem subsystem) {
+        if (!(subsystem instanceof TigerSubsystem)) {
+            throw new IllegalArgumentException("A TigerCommand can only require a TigerSubsystem.");
+        }
+
+        super.requires(subsystem);
+        requirementBits |= ((TigerSubsystem) subsystem).getRequirementBit();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler.isEnabled()) {
+            scheduler.add(this);
+        } else {
+            super.start();
+        }
+    }
+
+    @Override
+    public synchronized void cancel() {
+        if (!scheduler.isEnabled()) {
+            super.cancel();
+            return;
+        }
+
+        // A running command can also be queued to start again (see TigerScheduler#add()). Cancel both.
+        if (isPending) {
+            scheduler.removePending(this);
+        }
+        if (isScheduled) {
+            isCanceled = true;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler.isEnabled() ? isScheduled : super.isRunning();
+    }
+
+    @Override
+    public synchronized boolean isCanceled() {
+        return scheduler.isEnabled() ? isCanceled : super.isCanceled();
+    }
+
+    /**
+     * Sets how long the command may run (from when it is initialized) before {@link #isTimedOut()} reports `true`. Use
+     * this instead of the WPI Lib `setTimeout()`, which the {@link TigerScheduler} can't see.
+     *
+     * @param seconds The time limit.
+     */
+    protected final synchronized void setTimeLimit(double seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("A time limit can't be negative: " + seconds);
+        }
+
+        timeLimit = seconds;
+        if (!scheduler.isEnabled()) {
+            setTimeout(seconds);
+        }
+    }
+
+    /**
+     * @return Whether the time limit (see {@link #setTimeLimit(double)}) has been reached. Always `false` if there is
+     *         no time limit.
+     */
+    @Override
+    protected synchronized boolean isTimedOut() {
+        if (!scheduler.isEnabled()) {
+            return super.isTimedOut();
+        }
+
+        return !Double.isNaN(timeLimit) && getTimeSinceInitialized() >= timeLimit;
+    }
+
+    /**
+     * Use this instead of the WPI Lib `timeSinceInitialized()`, which the {@link TigerScheduler} can't see.
+     *
+     * @return The time (seconds) since the command was initialized. `0` if it has not been initialized.
+     */
+    public final synchronized double getTimeSinceInitialized() {
+        if (!scheduler.isEnabled()) {
+            return timeSinceInitialized();
+        }
+
+        return isInitialized ? clock.getElapsed(initializedTime) : 0;
+    }
+
+    /**
+     * @return The requirement bits of every subsystem this command requires.
+     */
+    long getRequirementBits() {
+        return requirementBits;
+    }
+
+    boolean isScheduled() {
+        return isScheduled;
+    }
+
+    boolean isPending() {
+        return isPending;
+    }
+
+    void setPending(boolean isPending) {
+        this.isPending = isPending;
+    }
+
+    /**
+     * Called by the {@link TigerScheduler} when this command is added to the running commands.
+     */
+    void scheduled() {
+        isScheduled = true;
+        isInitialized = false;
+        isCanceled = false;
+    }
+
+    /**
+     * Runs one tick of this command for the {@link TigerScheduler}.
+     *
+     * @return `false` if the command should be removed (it finished or was canceled).
+     */
+    boolean runTick() {
+        if (isCanceled) {
+            return false;
+        }
+
+        if (!isInitialized) {
+            isInitialized = true;
+            initializedTime = clock.getTime();
+            initialize();
+        }
+        execute();
+        return !isFinished();
+    }
+
+    /**
+     * Called by the {@link TigerScheduler} when this command is removed from the running commands.
+     */
+    void removed() {
+        if (isInitialized) {
+            if (isCanceled) {
+                interrupted();
+            } else {
+                end();
+            }
+        }
+
+        isScheduled = false;
+        isInitialized = false;
+        isCanceled = false;
+    }
+}
@@ -0,0 +1,395 @@
+package org.team1251.frc.robotCore.commands;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.buttons.Trigger;
+import edu.wpi.first.wpilibj.command.Command;
+import org.team1251.frc.robotCore.humanInterface.input.triggers.TigerTrigger;
+import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
+
+import java.util.Arrays;
+
+/**
+ * A replacement for the WPI Lib `Scheduler` which never allocates while the robot is running.
+ *
+ * The WPI Lib scheduler keeps its commands, requirements and button bindings in `Vector`s and `Hashtable`s, and
+ * creates iterators over them on every tick. This scheduler keeps everything in arrays that are sized when the robot
+ * starts, and tracks which subsystems are in use as a bit set: each {@link TigerSubsystem} gets one bit, and each
+ * {@link TigerCommand} knows the bits of the subsystems it requires. Checking for conflicts is a single `&`.
+ *
+ * Commands behave the same as under the WPI Lib scheduler. On each tick ({@link #run()}):
+ *
+ *   1. Each subsystem's `periodic()` is called.
+ *   2. Trigger bindings are polled. Commands they start are queued.
+ *   3. Each running command runs: `initialize()` on its first tick, then `execute()` and `isFinished()`. A finished
+ *      command is removed and `end()` is called; a canceled command is removed and `interrupted()` is called. While
+ *      the robot is disabled, commands which do not run when disabled are canceled.
+ *   4. Queued commands are added. A command which requires a subsystem that is in use interrupts the command using it,
+ *      unless that command is not interruptible, in which case the new command is not added. Since this happens after
+ *      finished commands are removed, a command which is started on the tick it finishes (for example, by a trigger)
+ *      runs again.
+ *   5. Every subsystem that is not in use gets its default command.
+ *
+ * Each subsystem's current command (`getCurrentCommand()`) is kept up to date as commands are added and removed.
+ *
+ * Only {@link TigerCommand}s can be run, and they can only require {@link TigerSubsystem}s. Command groups are not
+ * supported. The WPI Lib timeout methods (`setTimeout()` and `timeSinceInitialized()`) never fire under this
+ * scheduler; use the {@link TigerCommand} replacements, which are measured on the `TickClock`.
+ *
+ * The robot opts in with `TigerTimedRobot.useTigerScheduler()`, which must be called from the robot's constructor.
+ * Once enabled, `start()`, `cancel()` and `isRunning()` on a `TigerCommand`, and the bindings of a {@link TigerTrigger},
+ * go through this scheduler instead of the WPI Lib one.
+ *
+ * Like the WPI Lib `Scheduler`, there is one scheduler for the whole robot; use {@link #getInstance()} to get it.
+ * This class is NOT thread-safe. It must only be used from the main robot thread.
+ */
+public class TigerScheduler {
+
+    /**
+     * The most subsystems that can be registered -- one for each bit of a `long`.
+     */
+    private static final int MAX_SUBSYSTEMS = 64;
+
+    /**
+     * The most commands that can be running (or waiting to be added) at once.
+     */
+    private static final int MAX_COMMANDS = 32;
+
+    /**
+     * Initial number of trigger bindings that space is reserved for. Space grows as needed during binding.
+     */
+    private static final int INITIAL_BINDING_CAPACITY = 8;
+
+    /**
+     * The ways a trigger can be bound to a command. These match the methods of the WPI Lib `Trigger`.
+     */
+    public enum BindingType {
+        /** Start the command when the trigger becomes active. */
+        WHEN_ACTIVE,
+        /** Start the command while the trigger is active, cancel it when the trigger becomes inactive. */
+        WHILE_ACTIVE,
+        /** Start the command when the trigger becomes inactive. */
+        WHEN_INACTIVE,
+        /** Start (or cancel, if it is running) the command when the trigger becomes active. */
+        TOGGLE_WHEN_ACTIVE,
+        /** Cancel the command when the trigger becomes active. */
+        CANCEL_WHEN_ACTIVE
+    }
+
+    /**
+     * The one and only instance.
+     */
+    private static TigerScheduler instance;
+
+    private final DriverStation driverStation = DriverStation.getInstance();
+
+    /**
+     * Whether the robot has opted in to this scheduler.
+     */
+    private boolean isEnabled = false;
+
+    /**
+     * The registered subsystems. A subsystem's bit is `1 << index`.
+     */
+    private final TigerSubsystem[] subsystems = new TigerSubsystem[MAX_SUBSYSTEMS];
+    private int subsystemCount = 0;
+
+    /**
+     * The running commands, and the bits of every subsystem they require.
+     */
+    private final TigerCommand[] running = new TigerCommand[MAX_COMMANDS];
+    private int runningCount = 0;
+    private long requirementsInUse = 0;
+
+    /**
+     * The command using each subsystem, by subsystem index. `null` for idle subsystems.
+     */
+    private final TigerCommand[] currentCommands = new TigerCommand[MAX_SUBSYSTEMS];
+
+    /**
+     * Commands waiting to be added at the end of the current tick.
+     */
+    private final TigerCommand[] pending = new TigerCommand[MAX_COMMANDS];
+    private int pendingCount = 0;
+
+    /**
+     * Trigger bindings, as parallel arrays.
+     */
+    private Trigger[] bindingTriggers = new Trigger[INITIAL_BINDING_CAPACITY];
+    private TigerCommand[] bindingCommands = new TigerCommand[INITIAL_BINDING_CAPACITY];
+    private BindingType[] bindingTypes = new BindingType[INITIAL_BINDING_CAPACITY];
+    private boolean[] bindingWasActive = new boolean[INITIAL_BINDING_CAPACITY];
+    private int bindingCount = 0;
+
+    /**
+     * Provides the robot's scheduler.
+     *
+     * @return The one and only scheduler instance.
+     */
+    public static synchronized TigerScheduler getInstance() {
+        if (instance == null) {
+            instance = new TigerScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    private TigerScheduler() { }
+
+    /**
+     * Opts in to this scheduler. Must be called before any command is started or bound to a trigger.
+     */
+    public void enable() {
+        isEnabled = true;
+    }
+
+    /**
+     * @return Whether the robot has opted in to this scheduler.
+     */
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Registers a subsystem. Subsystems register themselves when they are created.
+     *
+     * @param subsystem The subsystem.
+     *
+     * @return The subsystem's requirement bit.
+     */
+    public long registerSubsystem(TigerSubsystem subsystem) {
+        if (subsystemCount == MAX_SUBSYSTEMS) {
+            throw new IllegalStateException("No more than " + MAX_SUBSYSTEMS + " subsystems can be registered.");
+        }
+
+        subsystems[subsystemCount] = subsystem;
+        return 1L << subsystemCount++;
+    }
+
+    /**
+     * Provides the command using a subsystem. Normally called through `TigerSubsystem.getCurrentCommand()`.
+     *
+     * @param requirementBit The subsystem's requirement bit.
+     *
+     * @return The running command which requires the subsystem. `null` if the subsystem is idle.
+     */
+    public TigerCommand getCurrentCommand(long requirementBit) {
+        return currentCommands[Long.numberOfTrailingZeros(requirementBit)];
+    }
+
+    /**
+     * Binds a command to a trigger. Normally called through a {@link TigerTrigger}.
+     *
+     * @param trigger The trigger.
+     * @param type How the trigger controls the command.
+     * @param command The command. Must be a {@link TigerCommand}.
+     */
+    public void bind(Trigger trigger, BindingType type, Command command) {
+        if (!(command instanceof TigerCommand)) {
+            throw new IllegalArgumentException("Only a TigerCommand can be bound to a trigger.");
+        }
+
+        if (bindingCount == bindingTriggers.length) {
+            int capacity = bindingTriggers.length * 2;
+            bindingTriggers = Arrays.copyOf(bindingTriggers, capacity);
+            bindingCommands = Arrays.copyOf(bindingCommands, capacity);
+            bindingTypes = Arrays.copyOf(bindingTypes, capacity);
+            bindingWasActive = Arrays.copyOf(bindingWasActive, capacity);
+        }
+
+        bindingTriggers[bindingCount] = trigger;
+        bindingCommands[bindingCount] = (TigerCommand) command;
+        bindingTypes[bindingCount] = type;
+        bindingWasActive[bindingCount] = trigger.get();
+        bindingCount++;
+    }
+
+    /**
+     * Runs one tick. See the class description for what happens.
+     */
+    public void run() {
+        for (int i = 0; i < subsystemCount; i++) {
+            subsystems[i].periodic();
+        }
+
+        pollTriggers();
+
+        // Run the commands, compacting the array as finished commands are removed.
+        boolean isDisabled = driverStation.isDisabled();
+        int kept = 0;
+        for (int i = 0; i < runningCount; i++) {
+            TigerCommand command = running[i];
+            if (isDisabled && !command.willRunWhenDisabled()) {
+                command.cancel();
+            }
+
+            if (command.runTick()) {
+                running[kept++] = command;
+            } else {
+                release(command);
+                command.removed();
+            }
+        }
+        Arrays.fill(running, kept, runningCount, null);
+        runningCount = kept;
+
+        // Add the new commands.
+        for (int i = 0; i < pendingCount; i++) {
+            TigerCommand command = pending[i];
+            pending[i] = null;
+            command.setPending(false);
+            schedule(command);
+        }
+        pendingCount = 0;
+
+        // Give every idle subsystem its default command.
+        for (int i = 0; i < subsystemCount; i++) {
+            if ((requirementsInUse & (1L << i)) == 0) {
+                Command defaultCommand = subsystems[i].getDefaultCommand();
+                if (defaultCommand instanceof TigerCommand) {
+                    schedule((TigerCommand) defaultCommand);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks every trigger binding, starting or canceling commands as needed.
+     */
+    private void pollTriggers() {
+        for (int i = 0; i < bindingCount; i++) {
+            boolean isActive = bindingTriggers[i].get();
+            boolean wasActive = bindingWasActive[i];
+            bindingWasActive[i] = isActive;
+            TigerCommand command = bindingCommands[i];
+
+            switch (bindingTypes[i]) {
+                case WHEN_ACTIVE:
+                    if (isActive && !wasActive) {
+                        command.start();
+                    }
+                    break;
+                case WHILE_ACTIVE:
+                    if (isActive) {
+                        command.start();
+                    } else if (wasActive) {
+                        command.cancel();
+                    }
+                    break;
+                case WHEN_INACTIVE:
+                    if (!isActive && wasActive) {
+                        command.start();
+                    }
+                    break;
+                case TOGGLE_WHEN_ACTIVE:
+                    if (isActive && !wasActive) {
+                        if (command.isRunning()) {
+                            command.cancel();
+                        } else {
+                            command.start();
+                        }
+                    }
+                    break;
+                case CANCEL_WHEN_ACTIVE:
+                    if (isActive && !wasActive) {
+                        command.cancel();
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Queues a command to be added at the end of the current tick. Normally called through
+     * {@link TigerCommand#start()}.
+     *
+     * @param command The command. Nothing happens if it is already queued. A command which is running is queued anyway,
+     *                so that it starts again if it finishes during this tick; otherwise, adding it does nothing.
+     */
+    void add(TigerCommand command) {
+        if (command.isPending()) {
+            return;
+        }
+        if (pendingCount == MAX_COMMANDS) {
+            throw new IllegalStateException("No more than " + MAX_COMMANDS + " commands can be started per tick.");
+        }
+
+        command.setPending(true);
+        pending[pendingCount++] = command;
+    }
+
+    /**
+     * Removes a command from the queue of commands waiting to be added. Normally called through
+     * {@link TigerCommand#cancel()}.
+     */
+    void removePending(TigerCommand command) {
+        for (int i = 0; i < pendingCount; i++) {
+            if (pending[i] == command) {
+                System.arraycopy(pending, i + 1, pending, i, pendingCount - i - 1);
+                pending[--pendingCount] = null;
+                command.setPending(false);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds a command to the running commands right away, interrupting any command using the subsystems it needs.
+     */
+    private void schedule(TigerCommand command) {
+        if (command.isScheduled()) {
+            return;
+        }
+
+        long requirements = command.getRequirementBits();
+        if ((requirements & requirementsInUse) != 0) {
+            // Make sure every conflicting command can be interrupted before interrupting any of them.
+            for (int i = 0; i < runningCount; i++) {
+                if ((running[i].getRequirementBits() & requirements) != 0 && !running[i].isInterruptible()) {
+                    return;
+                }
+            }
+
+            int kept = 0;
+            for (int i = 0; i < runningCount; i++) {
+                TigerCommand other = running[i];
+                if ((other.getRequirementBits() & requirements) == 0) {
+                    running[kept++] = other;
+                } else {
+                    release(other);
+                    other.cancel();
+                    other.removed();
+                }
+            }
+            Arrays.fill(running, kept, runningCount, null);
+            runningCount = kept;
+        }
+
+        if (runningCount == MAX_COMMANDS) {
+            throw new IllegalStateException("No more than " + MAX_COMMANDS + " commands can run at once.");
+        }
+
+        running[runningCount++] = command;
+        requirementsInUse |= requirements;
+        setCurrentCommand(requirements, command);
+        command.scheduled();
+    }
+
+    /**
+     * Frees the subsystems a command which is being removed was using.
+     */
+    private void release(TigerCommand command) {
+        requirementsInUse &= ~command.getRequirementBits();
+        setCurrentCommand(command.getRequirementBits(), null);
+    }
+
+    /**
+     * Records the command using each of the given subsystems.
+     */
+    private void setCurrentCommand(long requirements, TigerCommand command) {
+        for (long bits = requirements; bits != 0; bits &= bits - 1) {
+            currentCommands[Long.numberOfTrailingZeros(bits)] = command;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package org.team1251.frc.robotCore.diagnostics;
+
+import edu.wpi.first.networktables.NetworkTable;
+import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long each part of the robot tick takes so that tick overruns can be traced back to their source.
+ *
+ * Work is measured in "spans". Each span is recorded against a named "channel" -- for example, the command scheduler,
+ * a single telemetry provider, or a single command's `execute()`. Channels are registered once (usually during robot
+ * initialization) and are identified by the integer handle returned from {@link #registerChannel(String)}.
+ *
+ * Span durations are kept in preallocated ring buffers, so recording a span never allocates. Once per second, the
+ * percentiles (p50/p99) and maximum span of each channel are published to the `Telemetry/LoopTiming` Network Table
+ * along with the number of ticks which overran the tick budget. The statistics are staged on the robot's
+ * {@link TelemetryPublisher}, so they are written with the rest of the telemetry.
+ *
+ * Like the WPI Lib `Scheduler`, there is one profiler for the whole robot; use {@link #getInstance()} to get it. The
+ * profiler is NOT thread-safe. All spans must be recorded from the main robot thread.
+ */
+public class LoopProfiler implements ITelemetryProvider {
+
+    /**
+     * The maximum number of channels which may be registered.
+     */
+    private static final int MAX_CHANNELS = 64;
+
+    /**
+     * The number of span samples retained for each channel. This must cover at least one publish period worth of
+     * ticks (50 at the default tick rate) to produce accurate percentiles.
+     */
+    private static final int SAMPLES_PER_CHANNEL = 64;
+
+    /**
+     * How often (nanoseconds) the statistics are published.
+     */
+    private static final long PUBLISH_PERIOD_NANOS = 1_000_000_000L;
+
+    /**
+     * Conversion factor for publishing nanosecond durations as milliseconds.
+     */
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
+    /**
+     * The one and only instance.
+     */
+    private static LoopProfiler instance;
+
+    /**
+     * The name of each registered channel. Indexed by channel handle.
+     */
+    private final String[] channelNames = new String[MAX_CHANNELS];
+
+    /**
+     * Ring buffer of recorded span durations (nanoseconds) for each channel. Indexed by channel handle.
+     */
+    private final long[][] samples = new long[MAX_CHANNELS][SAMPLES_PER_CHANNEL];
+
+    /**
+     * The next write position in each channel's ring buffer.
+     */
+    private final int[] sampleWriteIndex = new int[MAX_CHANNELS];
+
+    /**
+     * The number of samples recorded for each channel since the last time statistics were published.
+     */
+    private final int[] samplesSincePublish = new int[MAX_CHANNELS];
+
+    /**
+     * The start time (nanoseconds) of the span which is currently open on each channel.
+     */
+    private final long[] spanStart = new long[MAX_CHANNELS];
+
+    /**
+     * Scratch space used to sort samples when calculating percentiles. Reused for every channel.
+     */
+    private final long[] sortScratch = new long[SAMPLES_PER_CHANNEL];
+
+    /**
+     * The publisher which the statistics are staged on. Resolved the first time statistics are published.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Publisher channels for each profiler channel, registered the first time a channel is published.
+     */
+    private final int[] p50Channels = new int[MAX_CHANNELS];
+    private final int[] p99Channels = new int[MAX_CHANNELS];
+    private final int[] maxChannels = new int[MAX_CHANNELS];
+
+    private int overrunChannel;
+    private int totalOverrunChannel;
+
+    /**
+     * The number of registered channels.
+     */
+    private int channelCount = 0;
+
+    /**
+     * The number of channels whose Network Table entries have been resolved.
+     */
+    private int resolvedChannelCount = 0;
+
+    /**
+     * The channel which measures the full span of the robot's periodic work.
+     */
+    private final int tickChannel;
+
+    /**
+     * The channel which measures the time between the start of one tick and the start of the next.
+     */
+    private final int loopPeriodChannel;
+
+    /**
+     * The amount of time (nanoseconds) a tick may take before it is considered to be an overrun.
+     */
+    private long tickBudgetNanos = 20_000_000L;
+
+    /**
+     * Start time (nanoseconds) of the previous tick. Zero if no tick has started yet.
+     */
+    private long previousTickStart = 0;
+
+    /**
+     * Number of overruns since the last time statistics were published.
+     */
+    private int overrunsSincePublish = 0;
+
+    /**
+     * Number of overruns since the robot code started.
+     */
+    private long totalOverruns = 0;
+
+    /**
+     * The last time (nanoseconds) statistics were published.
+     */
+    private long lastPublishTime = System.nanoTime();
+
+    /**
+     * Provides the robot's profiler.
+     *
+     * @return The one and only profiler instance.
+     */
+    public static synchronized LoopProfiler getInstance() {
+        if (instance == null) {
+            instance = new LoopProfiler();
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    private LoopProfiler() {
+        tickChannel = registerChannel("Tick");
+        loopPeriodChannel = registerChannel("LoopPeriod");
+    }
+
+    /**
+     * Sets the amount of time that a tick may take before it is counted as an overrun.
+     *
+     * @param tickPeriod The robot's tick period (seconds).
+     */
+    public void setTickPeriod(double tickPeriod) {
+        tickBudgetNanos = (long) (tickPeriod * 1_000_000_000L);
+    }
+
+    /**
+     * Registers a named channel which spans can be recorded against.
+     *
+     * Registering a name that has already been registered provides the existing channel. This allows multiple
+     * instances of the same class (for example, two `Climb` commands) to share a channel.
+     *
+     * This should be done during initialization, never from the robot tick.
+     *
+     * @param name The name of the channel. This is used as the name of the channel's Network Table.
+     *
+     * @return The channel handle to use when recording spans.
+     */
+    public int registerChannel(String name) {
+        for (int i = 0; i < channelCount; i++) {
+            if (channelNames[i].equals(name)) {
+                return i;
+            }
+        }
+
+        if (channelCount == MAX_CHANNELS) {
+            throw new IllegalStateException("Unable to register profiler channel \"" + name + "\". The maximum of "
+                    + MAX_CHANNELS + " channels have already been registered.");
+        }
+
+        channelNames[channelCount] = name;
+        return channelCount++;
+    }
+
+    /**
+     * Opens a span on the given channel.
+     *
+     * @param channel The channel handle, as provided by {@link #registerChannel(String)}
+     */
+    public void begin(int channel) {
+        spanStart[channel] = System.nanoTime();
+    }
+
+    /**
+     * Closes the span which is open on the given channel and records its duration.
+     *
+     * @param channel The channel handle, as provided by {@link #registerChannel(String)}
+     */
+    public void end(int channel) {
+        record(channel, System.nanoTime() - spanStart[channel]);
+    }
+
+    /**
+     * Marks the start of a robot tick. Must be followed by a call to {@link #endTick()} at the end of the tick.
+     */
+    public void beginTick() {
+        long now = System.nanoTime();
+        if (previousTickStart != 0) {
+            record(loopPeriodChannel, now - previousTickStart);
+        }
+
+        previousTickStart = now;
+        spanStart[tickChannel] = now;
+    }
+
+    /**
+     * Marks the end of a robot tick. Ticks which took longer than the tick budget are counted as overruns.
+     */
+    public void endTick() {
+        long duration = System.nanoTime() - spanStart[tickChannel];
+        record(tickChannel, duration);
+
+        if (duration > tickBudgetNanos) {
+            overrunsSincePublish++;
+            totalOverruns++;
+        }
+    }
+
+    /**
+     * Records a span duration into a channel's ring buffer.
+     *
+     * @param channel The channel handle.
+     * @param duration The duration of the span (nanoseconds)
+     */
+    private void record(int channel, long duration) {
+        int writeIndex = sampleWriteIndex[channel];
+        samples[channel][writeIndex] = duration;
+        sampleWriteIndex[channel] = (writeIndex + 1) % SAMPLES_PER_CHANNEL;
+        samplesSincePublish[channel]++;
+    }
+
+    /**
+     * Publishes the statistics for all channels, at most once per second. Calls made before a second has passed
+     * since the last publish return immediately.
+     *
+     * @param networkTables The telemetry tables to publish to.
+     */
+    @Override
+    public void sendTelemetryData(TelemetryTables networkTables) {
+        long now = System.nanoTime();
+        if (now - lastPublishTime < PUBLISH_PERIOD_NANOS) {
+            return;
+        }
+        lastPublishTime = now;
+
+        NetworkTable timingTable = null;
+        if (resolvedChannelCount < channelCount || telemetry == null) {
+            timingTable = networkTables.getTelemetryTable().getSubTable("LoopTiming");
+        }
+
+        if (telemetry == null) {
+            telemetry = networkTables.getPublisher();
+            overrunChannel = telemetry.addNumber(timingTable, "overruns", 0);
+            totalOverrunChannel = telemetry.addNumber(timingTable, "totalOverruns", 0);
+        }
+
+        // Register publisher channels for any profiler channels which were registered since the last publish.
+        while (resolvedChannelCount < channelCount) {
+            NetworkTable channelTable = timingTable.getSubTable(channelNames[resolvedChannelCount]);
+            p50Channels[resolvedChannelCount] = telemetry.addNumber(channelTable, "p50Ms", 0);
+            p99Channels[resolvedChannelCount] = telemetry.addNumber(channelTable, "p99Ms", 0);
+            maxChannels[resolvedChannelCount] = telemetry.addNumber(channelTable, "maxMs", 0);
+            resolvedChannelCount++;
+        }
+
+        for (int channel = 0; channel < channelCount; channel++) {
+            publishChannel(channel);
+        }
+
+        telemetry.setNumber(overrunChannel, overrunsSincePublish);
+        telemetry.setNumber(totalOverrunChannel, totalOverruns);
+        overrunsSincePublish = 0;
+    }
+
+    /**
+     * Calculates and stages the statistics for a single channel using the samples recorded since the last publish.
+     *
+     * Channels which recorded nothing since the last publish are left alone.
+     *
+     * @param channel The channel handle.
+     */
+    private void publishChannel(int channel) {
+        int count = Math.min(samplesSincePublish[channel], SAMPLES_PER_CHANNEL);
+        if (count == 0) {
+            return;
+        }
+
+        // Copy the most recent `count` samples, walking backwards from the write position.
+        int readIndex = sampleWriteIndex[channel];
+        for (int i = 0; i < count; i++) {
+            readIndex = (readIndex + SAMPLES_PER_CHANNEL - 1) % SAMPLES_PER_CHANNEL;
+            sortScratch[i] = samples[channel][readIndex];
+        }
+        Arrays.sort(sortScratch, 0, count);
+
+        telemetry.setNumber(p50Channels[channel], sortScratch[(count - 1) * 50 / 100] / NANOS_PER_MS);
+        telemetry.setNumber(p99Channels[channel], sortScratch[(count - 1) * 99 / 100] / NANOS_PER_MS);
+        telemetry.setNumber(maxChannels[channel], sortScratch[count - 1] / NANOS_PER_MS);
+
+        samplesSincePublish[channel] = 0;
+    }
+}
@@ -0,0 +1,110 @@
+package org.team1251.frc.robotCore.diagnostics;
+
+import org.team1251.frc.robotCore.util.TickClock;
+
+/**
+ * Watches a motor-driven mechanism for a stall: being driven, drawing current, and not moving.
+ *
+ * Call {@link #update(boolean, double, double)} once per tick with the mechanism's latest readings. A tick counts
+ * towards a stall when the mechanism is being driven, is moving slower than the minimum velocity, and its motor is
+ * drawing at least the minimum current. The mechanism is considered stalled once every tick for the whole window has
+ * counted. Any tick which doesn't count (for example, the mechanism speeds up, or is no longer driven) starts the
+ * window over.
+ *
+ * Requiring current keeps a mechanism which is being held still on purpose (low power, low current) from looking
+ * stalled, while the window allows for the moment it takes a mechanism to get moving.
+ *
+ * Times come from the {@link TickClock}. This class is NOT thread-safe. It must only be used from the main robot
+ * thread.
+ */
+public class StallMonitor {
+
+    private final TickClock clock = TickClock.getInstance();
+
+    /**
+     * How long (seconds) the mechanism must make no progress before it is considered stalled.
+     */
+    private final double window;
+
+    /**
+     * The slowest (absolute) velocity which still counts as progress.
+     */
+    private final double minVelocity;
+
+    /**
+     * The least (absolute) current (amps) which counts as pushing.
+     */
+    private final double minCurrent;
+
+    /**
+     * When (seconds, see {@link TickClock}) the current stretch without progress began. `NaN` while making progress.
+     */
+    private double noProgressSince = Double.NaN;
+
+    /**
+     * The highest current (amps) seen during the current stretch without progress.
+     */
+    private double peakCurrent = 0;
+
+    /**
+     * @param window How long (seconds) the mechanism must make no progress before it is considered stalled.
+     * @param minVelocity The slowest velocity (in whatever units are given to {@link #update}) which still counts as
+     *                    progress.
+     * @param minCurrent The least current (amps) which counts as pushing.
+     */
+    public StallMonitor(double window, double minVelocity, double minCurrent) {
+        this.window = window;
+        this.minVelocity = minVelocity;
+        this.minCurrent = minCurrent;
+    }
+
+    /**
+     * Checks the mechanism's latest readings.
+     *
+     * @param isDriven Whether the mechanism is currently being driven (and so should be moving).
+     * @param velocity The mechanism's velocity.
+     * @param current The current (amps) drawn by the mechanism's motor.
+     */
+    public void update(boolean isDriven, double velocity, double current) {
+        boolean isPushing = isDriven && Math.abs(velocity) < minVelocity && Math.abs(current) >= minCurrent;
+        if (!isPushing) {
+            reset();
+            return;
+        }
+
+        if (Double.isNaN(noProgressSince)) {
+            noProgressSince = clock.getTime();
+            peakCurrent = 0;
+        }
+        peakCurrent = Math.max(peakCurrent, Math.abs(current));
+    }
+
+    /**
+     * Starts the window over.
+     */
+    public void reset() {
+        noProgressSince = Double.NaN;
+        peakCurrent = 0;
+    }
+
+    /**
+     * @return Whether the mechanism has made no progress for the whole window.
+     */
+    public boolean isStalled() {
+        return getTimeWithoutProgress() >= window;
+    }
+
+    /**
+     * @return How long (seconds) the mechanism has been making no progress. `0` while making progress.
+     */
+    private double getTimeWithoutProgress() {
+        return Double.isNaN(noProgressSince) ? 0 : clock.getElapsed(noProgressSince);
+    }
+
+    /**
+     * @return The highest current (amps) seen while making no progress. `0` while making progress.
+     */
+    public double getPeakCurrent() {
+        return peakCurrent;
+    }
+}
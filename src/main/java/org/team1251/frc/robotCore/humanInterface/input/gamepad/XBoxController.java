@@ -8,10 +8,38 @@ import org.team1251.frc.robotCore.humanInterface.input.StickConfig;
 import org.team1251.frc.robotCore.humanInterface.input.hid.HIDAnalogButton;
 import org.team1251.frc.robotCore.humanInterface.input.hid.HIDButton;
 import org.team1251.frc.robotCore.humanInterface.input.hid.HIDStick;
-
+import org.team1251.frc.robotCore.humanInterface.input.hid.LatchedHID;
+
+/**
+ * An XBox game pad.
+ *
+ * The game pad is read once per tick (see {@link LatchedHID}): every button, stick and trigger reports the same
+ * reading for the whole tick, no matter how many commands or triggers look at it. The buttons that were pressed or
+ * released since the previous tick are also available, as bit masks of the button numbers below.
+ */
 public class XBoxController {
 
+    /**
+     * Button numbers. In the button bit masks, button `n` is bit `n - 1`.
+     */
+    public static final int BUTTON_A = 1;
+    public static final int BUTTON_B = 2;
+    public static final int BUTTON_X = 3;
+    public static final int BUTTON_Y = 4;
+    public static final int BUTTON_LB = 5;
+    public static final int BUTTON_RB = 6;
+    public static final int BUTTON_SELECT = 7;
+    public static final int BUTTON_START = 8;
+    public static final int BUTTON_LS_CLICK = 9;
+    public static final int BUTTON_RS_CLICK = 10;
+
+    /**
+     * The number of axes on the game pad: both sticks (2 each) and both triggers.
+     */
+    private static final int AXIS_COUNT = 6;
+
     private final GenericHID rawDevice;
+    private final LatchedHID latchedDevice;
     Button a;
     Button b;
     Button x;
@@ -49,23 +77,63 @@ public class XBoxController {
                           AnalogButtonConfig rightTriggerConfig) {
 
         this.rawDevice = rawDevice;
+        this.latchedDevice = new LatchedHID(rawDevice, AXIS_COUNT);
+
+        this.a = new HIDButton(latchedDevice, BUTTON_A);
+        this.b = new HIDButton(latchedDevice, BUTTON_B);
+        this.x = new HIDButton(latchedDevice, BUTTON_X);
+        this.y = new HIDButton(latchedDevice, BUTTON_Y);
+        this.lb = new HIDButton(latchedDevice, BUTTON_LB);
+        this.rb = new HIDButton(latchedDevice, BUTTON_RB);
+        this.select = new HIDButton(latchedDevice, BUTTON_SELECT);
+        this.start = new HIDButton(latchedDevice, BUTTON_START);
+        this.rsClick = new HIDButton(latchedDevice, BUTTON_RS_CLICK);
+        this.lsClick = new HIDButton(latchedDevice, BUTTON_LS_CLICK);
+
+        this.lt = new HIDAnalogButton(latchedDevice, 2, leftTriggerConfig);
+        this.rt = new HIDAnalogButton(latchedDevice, 3, rightTriggerConfig);
+
+        this.ls = new HIDStick(latchedDevice, 0, 1, leftStickConfig);
+        this.rs = new HIDStick(latchedDevice, 4, 5, rightStickConfig);
+    }
+
+    /**
+     * @return The buttons which are pressed, as a bit mask.
+     */
+    public int getButtons() {
+        return latchedDevice.getButtons();
+    }
 
-        this.a = new HIDButton(rawDevice, 1);
-        this.b = new HIDButton(rawDevice, 2);
-        this.x = new HIDButton(rawDevice, 3);
-        this.y = new HIDButton(rawDevice, 4);
-        this.lb = new HIDButton(rawDevice, 5);
-        this.rb = new HIDButton(rawDevice, 6);
-        this.select = new HIDButton(rawDevice, 7);
-        this.start = new HIDButton(rawDevice, 8);
-        this.rsClick = new HIDButton(rawDevice, 10);
-        this.lsClick = new HIDButton(rawDevice, 9);
-
-        this.lt = new HIDAnalogButton(rawDevice, 2, leftTriggerConfig);
-        this.rt = new HIDAnalogButton(rawDevice, 3, rightTriggerConfig);
-
-        this.ls = new HIDStick(rawDevice, 0, 1, leftStickConfig);
-        this.rs = new HIDStick(rawDevice, 4, 5, rightStickConfig);
+    /**
+     * @return The buttons which were pressed between the previous tick and this one, as a bit mask.
+     */
+    public int getPressedButtons() {
+        return latchedDevice.getPressedButtons();
+    }
+
+    /**
+     * @return The buttons which were released between the previous tick and this one, as a bit mask.
+     */
+    public int getReleasedButtons() {
+        return latchedDevice.getReleasedButtons();
+    }
+
+    /**
+     * Indicates whether a button was pressed between the previous tick and this one.
+     *
+     * @param button The button number (for example, {@link #BUTTON_A}).
+     */
+    public boolean wasPressed(int button) {
+        return latchedDevice.getRawButtonPressed(button);
+    }
+
+    /**
+     * Indicates whether a button was released between the previous tick and this one.
+     *
+     * @param button The button number (for example, {@link #BUTTON_A}).
+     */
+    public boolean wasReleased(int button) {
+        return latchedDevice.getRawButtonReleased(button);
     }
 
     public void rumbleLeft(double value) {
@@ -0,0 +1,143 @@
+package org.team1251.frc.robotCore.humanInterface.input.hid;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.GenericHID;
+import org.team1251.frc.robotCore.parts.sensors.ILatchedSensor;
+import org.team1251.frc.robotCore.parts.sensors.SensorLatch;
+
+/**
+ * A human input device whose buttons and axes are read once per tick (see {@link SensorLatch}).
+ *
+ * Every {@link #getRawButton(int)} and {@link #getRawAxis(int)} during the tick returns the latched values, so all of
+ * the buttons, sticks and triggers built on this device -- and every command and trigger reading them -- agree on the
+ * state of the device for the whole tick. All of the buttons are read with a single Driver Station call.
+ *
+ * The buttons which changed since the previous tick are also kept, as bit masks: button `n` is bit `n - 1`, as in
+ * {@link DriverStation#getStickButtons(int)}.
+ *
+ * Outputs (rumble, etc.) are not affected; they go straight to the Driver Station as usual.
+ */
+public class LatchedHID extends GenericHID implements ILatchedSensor {
+
+    private final DriverStation driverStation = DriverStation.getInstance();
+
+    /**
+     * The device being latched. Only used for the few readings which are not latched.
+     */
+    private final GenericHID device;
+
+    /**
+     * Axis values as of the last latch.
+     */
+    private final double[] axes;
+
+    /**
+     * Button states as of the last latch, and the buttons that changed at the last latch.
+     */
+    private int buttons = 0;
+    private int pressedButtons = 0;
+    private int releasedButtons = 0;
+
+    /**
+     * @param device The device to latch.
+     * @param axisCount The number of axes to latch (axes `0` through `axisCount - 1`). Other axes are read live.
+     */
+    public LatchedHID(GenericHID device, int axisCount) {
+        super(device.getPort());
+        this.device = device;
+        this.axes = new double[axisCount];
+
+        // Make sure there are valid readings before the first tick.
+        latch();
+        SensorLatch.getInstance().register(this);
+    }
+
+    @Override
+    public void latch() {
+        int port = getPort();
+
+        int current = driverStation.getStickButtons(port);
+        pressedButtons = current & ~buttons;
+        releasedButtons = buttons & ~current;
+        buttons = current;
+
+        for (int i = 0; i < axes.length; i++) {
+            axes[i] = driverStation.getStickAxis(port, i);
+        }
+    }
+
+    @Override
+    public boolean getRawButton(int button) {
+        return (buttons & getMask(button)) != 0;
+    }
+
+    /**
+     * Indicates whether a button was pressed between the previous tick and this one.
+     *
+     * Unlike the WPI Lib version of this method, this does not depend on how often it is called: it returns the same
+     * value for the whole tick, no matter how many readers ask.
+     */
+    @Override
+    public boolean getRawButtonPressed(int button) {
+        return (pressedButtons & getMask(button)) != 0;
+    }
+
+    /**
+     * Indicates whether a button was released between the previous tick and this one.
+     *
+     * Like {@link #getRawButtonPressed(int)}, this returns the same value for the whole tick.
+     */
+    @Override
+    public boolean getRawButtonReleased(int button) {
+        return (releasedButtons & getMask(button)) != 0;
+    }
+
+    @Override
+    public double getRawAxis(int axis) {
+        return axis >= 0 && axis < axes.length ? axes[axis] : super.getRawAxis(axis);
+    }
+
+    /**
+     * NOT latched.
+     */
+    @Override
+    public double getX(Hand hand) {
+        return device.getX(hand);
+    }
+
+    /**
+     * NOT latched.
+     */
+    @Override
+    public double getY(Hand hand) {
+        return device.getY(hand);
+    }
+
+    /**
+     * @return The buttons which are pressed, as a bit mask.
+     */
+    public int getButtons() {
+        return buttons;
+    }
+
+    /**
+     * @return The buttons which were pressed between the previous tick and this one, as a bit mask.
+     */
+    public int getPressedButtons() {
+        return pressedButtons;
+    }
+
+    /**
+     * @return The buttons which were released between the previous tick and this one, as a bit mask.
+     */
+    public int getReleasedButtons() {
+        return releasedButtons;
+    }
+
+    /**
+     * @return The bit mask for a button number.
+     */
+    private static int getMask(int button) {
+        return 1 << (button - 1);
+    }
+}
@@ -5,7 +5,7 @@ import org.team1251.frc.robotCore.humanInterface.input.Button;
 /**
  * A WPI Lib Trigger based on any 1251 human-input button.
  */
-public class ButtonTrigger extends edu.wpi.first.wpilibj.buttons.Button {
+public class ButtonTrigger extends TigerTrigger {
 
     private final Button button;
 
@@ -2,7 +2,7 @@ package org.team1251.frc.robotCore.humanInterface.input.triggers;
 
 import org.team1251.frc.robotCore.humanInterface.input.Button;
 
-public class DualButtonTrigger extends edu.wpi.first.wpilibj.buttons.Button {
+public class DualButtonTrigger extends TigerTrigger {
     private final Button button1;
     private final Button button2;
 
@@ -1,41 +1,44 @@
 package org.team1251.frc.robotCore.humanInterface.input.triggers;
 
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.buttons.Button;
+import org.team1251.frc.robotCore.util.TickClock;
 
-public class LongPressTrigger extends Button {
+public class LongPressTrigger extends TigerTrigger {
 
     private final edu.wpi.first.wpilibj.buttons.Button trigger;
     private final double duration;
     private boolean isCandidate = false;
-    private final Timer timer;
+
+    /**
+     * When (seconds, see {@link TickClock}) the wrapped trigger became active. Only meaningful while
+     * {@link #isCandidate} is `true`.
+     */
+    private double candidateTime;
+
+    private final TickClock clock = TickClock.getInstance();
 
     public LongPressTrigger(Button trigger, double duration) {
         this.duration = duration;
         this.trigger = trigger;
-        timer = new Timer();
     }
 
     @Override
     public boolean get() {
         // If the wrapped trigger is not active, reset everything before returning false.
         if (!trigger.get()) {
-            timer.stop();
-            timer.reset();
             isCandidate = false;
             return false;
         }
 
         // The wrapped trigger is active. See if it was previously marked as a candidate (previously active)
         if (!isCandidate) {
-            // Not previously a candidate. Make a candidate and and reset/start the timer.
-            timer.reset();
-            timer.start();
+            // Not previously a candidate. Make a candidate and note the time.
+            candidateTime = clock.getTime();
             isCandidate = true;
         }
 
         // In all cases, we are a candidate for being active. (Either was one previously, or just now became one).
         // If the configured duration has passed since we became a candidate, then we are active.
-        return timer.get() >= duration;
+        return clock.getElapsed(candidateTime) >= duration;
     }
 }
@@ -0,0 +1,62 @@
+package org.team1251.frc.robotCore.humanInterface.input.triggers;
+
+import edu.wpi.first.wpilibj.buttons.Button;
+import edu.wpi.first.wpilibj.command.Command;
+import org.team1251.frc.robotCore.commands.TigerScheduler;
+import org.team1251.frc.robotCore.commands.TigerScheduler.BindingType;
+
+/**
+ * A WPI Lib Button whose command bindings work with either scheduler.
+ *
+ * If the robot has opted in to the {@link TigerScheduler}, commands bound with `whenPressed()`, `whileHeld()`, etc. are
+ * bound through it. Otherwise, they are bound through the WPI Lib `Scheduler` as usual.
+ */
+public abstract class TigerTrigger extends Button {
+
+    private final TigerScheduler scheduler = TigerScheduler.getInstance();
+
+    @Override
+    public void whenActive(Command command) {
+        if (scheduler.isEnabled()) {
+            scheduler.bind(this, BindingType.WHEN_ACTIVE, command);
+        } else {
+            super.whenActive(command);
+        }
+    }
+
+    @Override
+    public void whileActive(Command command) {
+        if (scheduler.isEnabled()) {
+            scheduler.bind(this, BindingType.WHILE_ACTIVE, command);
+        } else {
+            super.whileActive(command);
+        }
+    }
+
+    @Override
+    public void whenInactive(Command command) {
+        if (scheduler.isEnabled()) {
+            scheduler.bind(this, BindingType.WHEN_INACTIVE, command);
+        } else {
+            super.whenInactive(command);
+        }
+    }
+
+    @Override
+    public void toggleWhenActive(Command command) {
+        if (scheduler.isEnabled()) {
+            scheduler.bind(this, BindingType.TOGGLE_WHEN_ACTIVE, command);
+        } else {
+            super.toggleWhenActive(command);
+        }
+    }
+
+    @Override
+    public void cancelWhenActive(Command command) {
+        if (scheduler.isEnabled()) {
+            scheduler.bind(this, BindingType.CANCEL_WHEN_ACTIVE, command);
+        } else {
+            super.cancelWhenActive(command);
+        }
+    }
+}
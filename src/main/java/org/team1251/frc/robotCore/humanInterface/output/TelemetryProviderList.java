@@ -1,11 +1,147 @@
 package org.team1251.frc.robotCore.humanInterface.output;
 
-import java.util.ArrayList;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import org.team1251.frc.robotCore.diagnostics.LoopProfiler;
+
+import java.util.Arrays;
 
 /**
  * A Telemetry Provider implementation that simply delegates to a list of other Telemetry Providers
+ *
+ * Each provider is added with a {@link TelemetryRate} which controls how often it is asked to send its data. Providers
+ * with a slower rate are spread out across ticks so that they do not all send on the same tick. For example, with a
+ * 20ms tick, providers sent ten times per second are asked on one of every five ticks, and each is assigned a
+ * different one of those five ticks (as far as possible).
+ *
+ * The time spent by each provider is measured by the {@link LoopProfiler}.
  */
-public class TelemetryProviderList extends ArrayList<ITelemetryProvider> implements ITelemetryProvider {
+public class TelemetryProviderList implements ITelemetryProvider {
+
+    /**
+     * Initial number of providers that space is reserved for. Space grows as needed when providers are added.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The profiler used to measure each provider.
+     */
+    private final LoopProfiler profiler = LoopProfiler.getInstance();
+
+    /**
+     * The robot's tick period (seconds). Used to convert rates into a number of ticks.
+     */
+    private final double tickPeriod;
+
+    /**
+     * The providers, in the order they were added.
+     */
+    private ITelemetryProvider[] providers = new ITelemetryProvider[INITIAL_CAPACITY];
+
+    /**
+     * The rate of each provider.
+     */
+    private TelemetryRate[] rates = new TelemetryRate[INITIAL_CAPACITY];
+
+    /**
+     * The number of ticks between sends for each provider. Only used for periodic rates.
+     */
+    private int[] tickIntervals = new int[INITIAL_CAPACITY];
+
+    /**
+     * The tick (modulo the interval) on which each provider sends. Only used for periodic rates.
+     */
+    private int[] tickOffsets = new int[INITIAL_CAPACITY];
+
+    /**
+     * Whether or not each on-change provider needs to send on the next tick.
+     */
+    private boolean[] isChanged = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Profiler channel for each provider.
+     */
+    private int[] profilerChannels = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of providers which have been added for each rate. Used to spread providers across ticks.
+     */
+    private final int[] providersPerRate = new int[TelemetryRate.values().length];
+
+    /**
+     * The number of providers.
+     */
+    private int providerCount = 0;
+
+    /**
+     * The number of times telemetry has been sent.
+     */
+    private long tickCount = 0;
+
+    /**
+     * @param tickPeriod The robot's tick period (seconds).
+     */
+    public TelemetryProviderList(double tickPeriod) {
+        this.tickPeriod = tickPeriod;
+    }
+
+    /**
+     * Adds a provider which is sent on every tick.
+     *
+     * @param provider The provider to add.
+     */
+    public void add(ITelemetryProvider provider) {
+        add(provider, TelemetryRate.EVERY_TICK);
+    }
+
+    /**
+     * Adds a provider which is sent at a particular rate.
+     *
+     * Providers should be added during robot initialization.
+     *
+     * @param provider The provider to add.
+     * @param rate How often the provider should send its data.
+     */
+    public void add(ITelemetryProvider provider, TelemetryRate rate) {
+        if (providerCount == providers.length) {
+            int capacity = providers.length * 2;
+            providers = Arrays.copyOf(providers, capacity);
+            rates = Arrays.copyOf(rates, capacity);
+            tickIntervals = Arrays.copyOf(tickIntervals, capacity);
+            tickOffsets = Arrays.copyOf(tickOffsets, capacity);
+            isChanged = Arrays.copyOf(isChanged, capacity);
+            profilerChannels = Arrays.copyOf(profilerChannels, capacity);
+        }
+
+        int interval = rate.frequency > 0 ? Math.max(1, (int) Math.round(1 / (rate.frequency * tickPeriod))) : 1;
+
+        providers[providerCount] = provider;
+        rates[providerCount] = rate;
+        tickIntervals[providerCount] = interval;
+        tickOffsets[providerCount] = providersPerRate[rate.ordinal()]++ % interval;
+        isChanged[providerCount] = true; // Everything is sent at least once.
+
+        String name = provider instanceof Subsystem
+                ? ((Subsystem) provider).getName()
+                : provider.getClass().getSimpleName();
+        profilerChannels[providerCount] = profiler.registerChannel("Telemetry/" + name);
+
+        providerCount++;
+    }
+
+    /**
+     * Marks an {@link TelemetryRate#ON_CHANGE} provider as changed so that it is sent on the next tick.
+     *
+     * Marking a provider that was not added with the on-change rate has no effect.
+     *
+     * @param provider The provider which has new data to send.
+     */
+    public void markChanged(ITelemetryProvider provider) {
+        for (int i = 0; i < providerCount; i++) {
+            if (providers[i] == provider) {
+                isChanged[i] = true;
+            }
+        }
+    }
 
     /**
      * Send the telemetry.
@@ -13,9 +149,35 @@ public class TelemetryProviderList extends ArrayList<ITelemetryProvider> impleme
      * @param networkTables - The network tables that each ITelemetryProvider should write its data to.
      */
     public void sendTelemetryData(TelemetryTables networkTables) {
-        // Loop over each provider, and send its data.
-        for (ITelemetryProvider provider:this) {
-            provider.sendTelemetryData(networkTables);
+        // Loop over each provider, and send its data if it is due.
+        for (int i = 0; i < providerCount; i++) {
+            if (isDue(i)) {
+                profiler.begin(profilerChannels[i]);
+                providers[i].sendTelemetryData(networkTables);
+                profiler.end(profilerChannels[i]);
+            }
+        }
+
+        tickCount++;
+    }
+
+    /**
+     * Decides whether a provider should send its data on the current tick.
+     *
+     * @param index The provider's index
+     *
+     * @return `true` if the provider should send, otherwise `false`.
+     */
+    private boolean isDue(int index) {
+        switch (rates[index]) {
+            case EVERY_TICK:
+                return true;
+            case ON_CHANGE:
+                boolean changed = isChanged[index];
+                isChanged[index] = false;
+                return changed;
+            default:
+                return tickCount % tickIntervals[index] == tickOffsets[index];
         }
     }
 }
@@ -0,0 +1,333 @@
+package org.team1251.frc.robotCore.humanInterface.output;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes telemetry values to Network Tables, but only when they have changed.
+ *
+ * Each value is written to a "channel". Channels are registered once, which is when the Network Table entry is looked
+ * up. After that, telemetry providers just set values on their channels using the integer handle from registration,
+ * with no string keys or table lookups involved.
+ *
+ * Setting a value only stages it. Staged values are written to Network Tables by {@link #publish()}, which is called
+ * once per tick by `TigerTimedRobot`. A value is only written if it has changed by more than its channel's epsilon
+ * since the last time it was written. The number of values written per tick is capped; channels that miss out because
+ * of the cap are first in line on the next tick.
+ *
+ * ### Background publishing
+ *
+ *   By default, values are written to Network Tables from within {@link #publish()}, on the main robot thread. After
+ *   {@link #startBackgroundPublishing()} is called, `publish()` only copies the staged values into a preallocated
+ *   snapshot and hands it to a low-priority publisher thread, which does all of the Network Tables work. A slow
+ *   Network Tables write can then never delay the robot tick.
+ *
+ *   Snapshots are handed over with a lock-free triple buffer: the robot thread always has a snapshot to fill, the
+ *   publisher thread always has a snapshot to read, and the third holds the most recent complete snapshot. If the
+ *   publisher thread falls behind, older snapshots are simply replaced by newer ones.
+ *
+ * Registering channels and setting values is NOT thread-safe. These must only be done from the main robot thread.
+ */
+public class TelemetryPublisher {
+
+    /**
+     * Initial number of channels that space is reserved for. Space grows as needed during registration.
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * Flag (combined with a snapshot index) which marks the shared snapshot as not yet taken by the publisher thread.
+     */
+    private static final int FRESH_SNAPSHOT = 0x4;
+
+    /**
+     * Mask used to extract the snapshot index from the shared snapshot value.
+     */
+    private static final int SNAPSHOT_INDEX_MASK = 0x3;
+
+    /**
+     * The maximum number of values which will be written to Network Tables per tick.
+     */
+    private final int maxUpdatesPerTick;
+
+    /**
+     * The Network Table entry for each channel.
+     */
+    private NetworkTableEntry[] entries = new NetworkTableEntry[INITIAL_CAPACITY];
+
+    /**
+     * Whether each channel holds a boolean (`true`) or a number (`false`). Booleans are staged as 1 or 0.
+     */
+    private boolean[] isBoolean = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * How much each channel's value must change before it is written again.
+     */
+    private double[] epsilons = new double[INITIAL_CAPACITY];
+
+    /**
+     * The most recently set value of each channel.
+     */
+    private double[] stagedValues = new double[INITIAL_CAPACITY];
+
+    /**
+     * Whether each channel has ever had a value set.
+     */
+    private boolean[] isStaged = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * The number of registered channels.
+     */
+    private int channelCount = 0;
+
+    /**
+     * The value of each channel that was last written to Network Tables. Only touched by whichever thread is doing
+     * the writing.
+     */
+    private double[] publishedValues = new double[INITIAL_CAPACITY];
+
+    /**
+     * Whether each channel has ever been written to Network Tables. Only touched by whichever thread is doing the
+     * writing.
+     */
+    private boolean[] isPublished = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * The channel at which the next publish starts looking for changes. Only touched by whichever thread is doing the
+     * writing.
+     */
+    private int publishCursor = 0;
+
+    /**
+     * The three snapshots used to hand values to the publisher thread. `null` until background publishing starts.
+     */
+    private Snapshot[] snapshots;
+
+    /**
+     * The index of the snapshot the robot thread fills next.
+     */
+    private int fillingSnapshot = 0;
+
+    /**
+     * The index of the snapshot the publisher thread reads. Only touched by the publisher thread.
+     */
+    private int readingSnapshot = 1;
+
+    /**
+     * The index of the most recently completed snapshot, combined with {@link #FRESH_SNAPSHOT} if it has not been
+     * taken by the publisher thread yet.
+     */
+    private final AtomicInteger sharedSnapshot = new AtomicInteger(2);
+
+    /**
+     * The background publisher thread. `null` unless background publishing has been started.
+     */
+    private Thread publisherThread;
+
+    /**
+     * A copy of the values the robot thread has staged, along with everything needed to write them.
+     *
+     * The channel arrays are shared with the publisher (not copied) since registration only ever appends to them or
+     * replaces them with larger copies.
+     */
+    private static class Snapshot {
+        NetworkTableEntry[] entries;
+        boolean[] isBoolean;
+        double[] epsilons;
+        double[] values = new double[INITIAL_CAPACITY];
+        boolean[] isStaged = new boolean[INITIAL_CAPACITY];
+        int channelCount;
+    }
+
+    /**
+     * @param maxUpdatesPerTick The maximum number of values to write to Network Tables on each tick.
+     */
+    public TelemetryPublisher(int maxUpdatesPerTick) {
+        this.maxUpdatesPerTick = maxUpdatesPerTick;
+    }
+
+    /**
+     * Moves all Network Tables writes onto a dedicated, low-priority publisher thread.
+     *
+     * This should be called once, during robot initialization. Calling it again has no effect.
+     */
+    public void startBackgroundPublishing() {
+        if (publisherThread != null) {
+            return;
+        }
+
+        snapshots = new Snapshot[] {new Snapshot(), new Snapshot(), new Snapshot()};
+
+        publisherThread = new Thread(this::runPublisherThread, "TelemetryPublisher");
+        publisherThread.setDaemon(true);
+        publisherThread.setPriority(Thread.MIN_PRIORITY);
+        publisherThread.start();
+    }
+
+    /**
+     * Registers a numeric channel.
+     *
+     * @param table The table to write the value to.
+     * @param key The key of the value within the table.
+     * @param epsilon How much the value must change (in either direction) before it is written again. Use 0 to write
+     *                every change.
+     *
+     * @return The channel handle used to set the value.
+     */
+    public int addNumber(NetworkTable table, String key, double epsilon) {
+        return addChannel(table.getEntry(key), false, epsilon);
+    }
+
+    /**
+     * Registers a boolean channel.
+     *
+     * @param table The table to write the value to.
+     * @param key The key of the value within the table.
+     *
+     * @return The channel handle used to set the value.
+     */
+    public int addBoolean(NetworkTable table, String key) {
+        return addChannel(table.getEntry(key), true, 0);
+    }
+
+    /**
+     * Stages a new value for a numeric channel.
+     *
+     * @param channel The channel handle from {@link #addNumber(NetworkTable, String, double)}
+     * @param value The value
+     */
+    public void setNumber(int channel, double value) {
+        stagedValues[channel] = value;
+        isStaged[channel] = true;
+    }
+
+    /**
+     * Stages a new value for a boolean channel.
+     *
+     * @param channel The channel handle from {@link #addBoolean(NetworkTable, String)}
+     * @param value The value
+     */
+    public void setBoolean(int channel, boolean value) {
+        stagedValues[channel] = value ? 1 : 0;
+        isStaged[channel] = true;
+    }
+
+    /**
+     * Writes changed values to Network Tables, up to the per-tick cap.
+     *
+     * When background publishing is active, the values are handed to the publisher thread instead.
+     */
+    public void publish() {
+        if (publisherThread == null) {
+            writeChanges(entries, isBoolean, epsilons, stagedValues, isStaged, channelCount);
+            return;
+        }
+
+        // Fill the snapshot owned by this thread.
+        Snapshot snapshot = snapshots[fillingSnapshot];
+        if (snapshot.values.length < channelCount) {
+            // Only happens when channels were registered since the last time this snapshot was used.
+            snapshot.values = new double[stagedValues.length];
+            snapshot.isStaged = new boolean[stagedValues.length];
+        }
+        System.arraycopy(stagedValues, 0, snapshot.values, 0, channelCount);
+        System.arraycopy(isStaged, 0, snapshot.isStaged, 0, channelCount);
+        snapshot.entries = entries;
+        snapshot.isBoolean = isBoolean;
+        snapshot.epsilons = epsilons;
+        snapshot.channelCount = channelCount;
+
+        // Swap it with the shared snapshot and let the publisher thread know there is something new.
+        fillingSnapshot = sharedSnapshot.getAndSet(fillingSnapshot | FRESH_SNAPSHOT) & SNAPSHOT_INDEX_MASK;
+        LockSupport.unpark(publisherThread);
+    }
+
+    /**
+     * The body of the background publisher thread. Waits for fresh snapshots and writes them.
+     */
+    private void runPublisherThread() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if ((sharedSnapshot.get() & FRESH_SNAPSHOT) == 0) {
+                // Nothing new. Wait for the robot thread.
+                LockSupport.park(this);
+                continue;
+            }
+
+            // Swap the snapshot we've finished with for the fresh one.
+            readingSnapshot = sharedSnapshot.getAndSet(readingSnapshot) & SNAPSHOT_INDEX_MASK;
+
+            Snapshot snapshot = snapshots[readingSnapshot];
+            writeChanges(
+                    snapshot.entries, snapshot.isBoolean, snapshot.epsilons,
+                    snapshot.values, snapshot.isStaged, snapshot.channelCount
+            );
+        }
+    }
+
+    /**
+     * Writes changed values to Network Tables, up to the per-tick cap.
+     *
+     * Only one thread ever calls this: the robot thread before background publishing starts, and the publisher thread
+     * after.
+     */
+    private void writeChanges(NetworkTableEntry[] entries, boolean[] isBoolean, double[] epsilons,
+                              double[] values, boolean[] isStaged, int channelCount) {
+        if (publishedValues.length < channelCount) {
+            publishedValues = Arrays.copyOf(publishedValues, entries.length);
+            isPublished = Arrays.copyOf(isPublished, entries.length);
+        }
+
+        int updates = 0;
+        int channel = publishCursor < channelCount ? publishCursor : 0;
+
+        for (int checked = 0; checked < channelCount && updates < maxUpdatesPerTick; checked++) {
+            double value = values[channel];
+            if (isStaged[channel] && (!isPublished[channel]
+                    || Math.abs(value - publishedValues[channel]) > epsilons[channel])) {
+
+                if (isBoolean[channel]) {
+                    entries[channel].setBoolean(value != 0);
+                } else {
+                    entries[channel].setDouble(value);
+                }
+
+                publishedValues[channel] = value;
+                isPublished[channel] = true;
+                updates++;
+            }
+
+            channel++;
+            if (channel == channelCount) {
+                channel = 0;
+            }
+        }
+
+        // Resume where we stopped. If the cap was hit, the channels that missed out are looked at first next time.
+        publishCursor = channel;
+    }
+
+    /**
+     * Registers a channel, growing storage if needed.
+     */
+    private int addChannel(NetworkTableEntry entry, boolean isBooleanChannel, double epsilon) {
+        if (channelCount == entries.length) {
+            // Always grow by copying (never in place) so that the publisher thread can safely keep using the old
+            // arrays until it receives a snapshot which references the new ones.
+            int capacity = entries.length * 2;
+            entries = Arrays.copyOf(entries, capacity);
+            isBoolean = Arrays.copyOf(isBoolean, capacity);
+            epsilons = Arrays.copyOf(epsilons, capacity);
+            stagedValues = Arrays.copyOf(stagedValues, capacity);
+            isStaged = Arrays.copyOf(isStaged, capacity);
+        }
+
+        entries[channelCount] = entry;
+        isBoolean[channelCount] = isBooleanChannel;
+        epsilons[channelCount] = Math.abs(epsilon);
+        return channelCount++;
+    }
+}
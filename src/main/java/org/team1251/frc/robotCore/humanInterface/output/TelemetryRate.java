@@ -0,0 +1,40 @@
+package org.team1251.frc.robotCore.humanInterface.output;
+
+/**
+ * How often a telemetry provider is asked to send its telemetry data.
+ *
+ * Safety-critical state should be sent on every tick. Slower diagnostics (for example, raw sensor voltages or encoder
+ * positions) should use a slower rate so that they do not compete with it for loop time and bandwidth.
+ */
+public enum TelemetryRate {
+    /**
+     * Sent on every tick (50 times per second with a 20ms tick).
+     */
+    EVERY_TICK(0),
+
+    /**
+     * Sent about 10 times per second.
+     */
+    TEN_PER_SECOND(10),
+
+    /**
+     * Sent about once per second.
+     */
+    ONCE_PER_SECOND(1),
+
+    /**
+     * Sent once when the provider is added and then only when the provider is marked as changed.
+     *
+     * @see TelemetryProviderList#markChanged(ITelemetryProvider)
+     */
+    ON_CHANGE(0);
+
+    /**
+     * The number of times per second to send. Zero for rates that are not periodic (or are every tick).
+     */
+    final double frequency;
+
+    TelemetryRate(double frequency) {
+        this.frequency = frequency;
+    }
+}
@@ -13,9 +13,17 @@ import edu.wpi.first.networktables.NetworkTableInstance;
  *
  * For example, whether or not a bumper switch is reporting as being pressed is sensor data but an indicator of
  * whether or not the robot has collected a game piece is state data.
+ *
+ * A shared {@link TelemetryPublisher} is also provided. Telemetry providers which report on every tick should register
+ * their values with it rather than writing to the tables directly.
  */
 public class TelemetryTables {
 
+    /**
+     * The maximum number of values the publisher will write to Network Tables per tick.
+     */
+    private static final int MAX_PUBLISHED_UPDATES_PER_TICK = 40;
+
     /**
      * The top-level table for all telemetry data. Sensor and state tables are each a sub-table of this.
      */
@@ -31,6 +39,11 @@ public class TelemetryTables {
      */
     private final NetworkTable stateTable;
 
+    /**
+     * Publishes changed values to the tables.
+     */
+    private final TelemetryPublisher publisher = new TelemetryPublisher(MAX_PUBLISHED_UPDATES_PER_TICK);
+
     /**
      * The main telemetry table. You usually do not need to get this.
      *
@@ -72,6 +85,17 @@ public class TelemetryTables {
         return sensorTable;
     }
 
+    /**
+     * Use this to publish values which are reported on every tick.
+     *
+     * Register each value once (see {@link TelemetryPublisher#addNumber}) and then set it every tick. Only values that
+     * have changed are written to Network Tables.
+     *
+     * @return The shared telemetry publisher.
+     */
+    public TelemetryPublisher getPublisher() {
+        return publisher;
+    }
 
     public TelemetryTables() {
         telemetryTable = NetworkTableInstance.getDefault().getTable("Telemetry");
@@ -0,0 +1,325 @@
+package org.team1251.frc.robotCore.logging;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Records a fixed set of numeric values on every tick into a binary, memory-mapped log file for review after a match.
+ *
+ * Values are recorded into "fields" which are registered by {@link IDataLogProvider}s before logging starts. Once
+ * started, the log file is created at its full size and mapped into memory. Each tick then writes one fixed-width
+ * record: a timestamp followed by one value per field. Writing a record is nothing more than a handful of memory
+ * writes -- there are no system calls, no allocations, and no locks, so the logger never blocks the robot tick. The
+ * operating system writes the mapped pages to disk in the background.
+ *
+ * When the file is full, further records are dropped (and counted) rather than growing the file.
+ *
+ * A new file is created every time logging starts (that is, on every boot). To keep the roboRIO's flash from filling
+ * up, only the most recent few log files are kept: older ones in the log directory are deleted when logging starts.
+ * At most `maxFileCount * fileSize` bytes of logs are kept on disk.
+ *
+ * Log files are decoded into CSV with {@link BinaryLogDecoder}.
+ *
+ * ### File format
+ *
+ *   All values are big-endian.
+ *
+ *     - Header:
+ *       - `[0]` 8 byte magic: `TIGERLOG`
+ *       - `[8]` int: format version
+ *       - `[12]` int: field count
+ *       - `[16]` int: record size (bytes)
+ *       - `[20]` int: number of records written so far (updated after every record)
+ *       - `[24]` long: wall clock time that logging started (milliseconds since epoch)
+ *       - `[32]` int: offset of the first record
+ *       - `[36]` field names: for each field, a short byte length followed by the UTF-8 name
+ *     - Records (starting at the first record offset):
+ *       - long: nanoseconds since logging started
+ *       - double: the value of each field, in registration order
+ *
+ * This class is NOT thread-safe. All fields must be registered and set from the main robot thread.
+ */
+public class BinaryDataLogger {
+
+    /**
+     * Identifies a file as a log written by this class.
+     */
+    static final byte[] MAGIC = "TIGERLOG".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The version of the file format.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Header positions. See the class documentation.
+     */
+    static final int VERSION_OFFSET = 8;
+    static final int FIELD_COUNT_OFFSET = 12;
+    static final int RECORD_SIZE_OFFSET = 16;
+    static final int RECORD_COUNT_OFFSET = 20;
+    static final int START_TIME_OFFSET = 24;
+    static final int FIRST_RECORD_OFFSET_OFFSET = 32;
+    static final int FIELD_NAMES_OFFSET = 36;
+
+    /**
+     * Log file names start with this prefix and end with {@link #FILE_SUFFIX}.
+     */
+    private static final String FILE_PREFIX = "data-";
+    private static final String FILE_SUFFIX = ".tlog";
+
+    /**
+     * Initial number of fields that space is reserved for. Space grows as needed during registration.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The size (bytes) of the log file. Every record is written into this space.
+     */
+    private final long fileSize;
+
+    /**
+     * The most log files to keep in the log directory, including the one being written.
+     */
+    private final int maxFileCount;
+
+    /**
+     * Providers which record values on every tick.
+     */
+    private IDataLogProvider[] providers = new IDataLogProvider[INITIAL_CAPACITY];
+
+    /**
+     * The number of providers.
+     */
+    private int providerCount = 0;
+
+    /**
+     * The name of each field.
+     */
+    private String[] fieldNames = new String[INITIAL_CAPACITY];
+
+    /**
+     * The current value of each field.
+     */
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    /**
+     * The number of registered fields.
+     */
+    private int fieldCount = 0;
+
+    /**
+     * The mapped log file. `null` if logging has not started (or could not be started).
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The size (bytes) of each record.
+     */
+    private int recordSize;
+
+    /**
+     * The number of records written.
+     */
+    private int recordCount = 0;
+
+    /**
+     * The number of records dropped because the file was full.
+     */
+    private long droppedRecordCount = 0;
+
+    /**
+     * The time (nanoseconds) that logging started.
+     */
+    private long startTime;
+
+    /**
+     * @param fileSize The size (bytes) of each log file. Logging stops when the file is full.
+     * @param maxFileCount The most log files to keep, including the one being written. Older files are deleted when
+     *                     logging starts.
+     */
+    public BinaryDataLogger(long fileSize, int maxFileCount) {
+        if (maxFileCount < 1) {
+            throw new IllegalArgumentException("At least one data log file must be kept.");
+        }
+
+        this.fileSize = fileSize;
+        this.maxFileCount = maxFileCount;
+    }
+
+    /**
+     * Adds a provider which records values on every tick.
+     *
+     * Providers must be added before logging is started.
+     *
+     * @param provider The provider to add.
+     */
+    public void add(IDataLogProvider provider) {
+        if (buffer != null) {
+            throw new IllegalStateException("Data log providers must be added before logging is started.");
+        }
+
+        if (providerCount == providers.length) {
+            providers = Arrays.copyOf(providers, providers.length * 2);
+        }
+
+        providers[providerCount++] = provider;
+    }
+
+    /**
+     * Registers a field. This may only be done from {@link IDataLogProvider#registerDataLogFields(BinaryDataLogger)}.
+     *
+     * @param name The name of the field. This becomes the column name when the log is decoded.
+     *
+     * @return The field handle used to set the field's value.
+     */
+    public int addField(String name) {
+        if (buffer != null) {
+            throw new IllegalStateException("Unable to add data log field \"" + name + "\". Logging has started.");
+        }
+
+        if (fieldCount == fieldNames.length) {
+            fieldNames = Arrays.copyOf(fieldNames, fieldNames.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        fieldNames[fieldCount] = name;
+        return fieldCount++;
+    }
+
+    /**
+     * Sets the value of a field for the current record.
+     *
+     * Values are retained between records, so fields which rarely change do not need to be set on every tick.
+     *
+     * @param field The field handle, as provided by {@link #addField(String)}
+     * @param value The value.
+     */
+    public void set(int field, double value) {
+        values[field] = value;
+    }
+
+    /**
+     * Registers the fields of all providers, deletes old log files, then creates and maps a new log file. This should
+     * be done once, at the end of robot initialization.
+     *
+     * If the file can not be created, a warning is printed and logging is disabled. The robot is never stopped because
+     * of logging problems.
+     *
+     * @param directory The directory to create the log file in. It is created if it does not exist.
+     */
+    public void start(File directory) {
+        if (buffer != null) {
+            return;
+        }
+
+        for (int i = 0; i < providerCount; i++) {
+            providers[i].registerDataLogFields(this);
+        }
+
+        // Header size, including the field names. Records start at the next 8 byte boundary.
+        int headerSize = FIELD_NAMES_OFFSET;
+        byte[][] encodedNames = new byte[fieldCount][];
+        for (int i = 0; i < fieldCount; i++) {
+            encodedNames[i] = fieldNames[i].getBytes(StandardCharsets.UTF_8);
+            headerSize += 2 + encodedNames[i].length;
+        }
+        int firstRecordOffset = (headerSize + 7) & ~7;
+        recordSize = 8 + 8 * fieldCount;
+
+        File file = new File(directory, FILE_PREFIX + System.currentTimeMillis() + FILE_SUFFIX);
+        try {
+            directory.mkdirs();
+            deleteOldFiles(directory);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // The mapping remains valid after the file is closed.
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to create data log " + file + ". Data will not be logged: " + e.getMessage());
+            buffer = null;
+            return;
+        }
+
+        startTime = System.nanoTime();
+
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION_OFFSET, FORMAT_VERSION);
+        buffer.putInt(FIELD_COUNT_OFFSET, fieldCount);
+        buffer.putInt(RECORD_SIZE_OFFSET, recordSize);
+        buffer.putInt(RECORD_COUNT_OFFSET, 0);
+        buffer.putLong(START_TIME_OFFSET, System.currentTimeMillis());
+        buffer.putInt(FIRST_RECORD_OFFSET_OFFSET, firstRecordOffset);
+
+        buffer.position(FIELD_NAMES_OFFSET);
+        for (byte[] name : encodedNames) {
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+
+        buffer.position(firstRecordOffset);
+    }
+
+    /**
+     * Deletes the oldest log files in a directory, leaving room for one new file within {@link #maxFileCount}.
+     *
+     * Files are ordered by modification time rather than by the time in their names: the roboRIO's clock is not set
+     * until the driver station connects, so the names of files created at boot are unreliable.
+     *
+     * @param directory The log directory.
+     */
+    private void deleteOldFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null || files.length < maxFileCount) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i <= files.length - maxFileCount; i++) {
+            if (!files[i].delete()) {
+                System.err.println("Unable to delete old data log " + files[i] + ".");
+            }
+        }
+    }
+
+    /**
+     * Asks each provider for its values and writes a record. Called once per tick by `TigerTimedRobot`.
+     *
+     * Does nothing if logging has not started.
+     */
+    public void logTick() {
+        if (buffer == null) {
+            return;
+        }
+
+        for (int i = 0; i < providerCount; i++) {
+            providers[i].logData(this);
+        }
+
+        if (buffer.remaining() < recordSize) {
+            droppedRecordCount++;
+            return;
+        }
+
+        buffer.putLong(System.nanoTime() - startTime);
+        for (int i = 0; i < fieldCount; i++) {
+            buffer.putDouble(values[i]);
+        }
+
+        // Only count the record once it is completely written so that the decoder never sees a partial record.
+        buffer.putInt(RECORD_COUNT_OFFSET, ++recordCount);
+    }
+
+    /**
+     * @return The number of records which were dropped because the log file was full.
+     */
+    public long getDroppedRecordCount() {
+        return droppedRecordCount;
+    }
+}
@@ -0,0 +1,87 @@
+package org.team1251.frc.robotCore.logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Converts a log file written by {@link BinaryDataLogger} into CSV.
+ *
+ * This only depends on the Java standard library, so it can be run on a laptop after copying the log file off of the
+ * robot:
+ *
+ *     java -cp <robot jar> org.team1251.frc.robotCore.logging.BinaryLogDecoder data-1234.tlog [data-1234.csv]
+ *
+ * The first column is the time (seconds) since logging started, followed by one column per field. If no output file
+ * is given, the CSV is written to standard out.
+ */
+public class BinaryLogDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: BinaryLogDecoder <log file> [csv file]");
+            System.exit(1);
+        }
+
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0])));
+
+        if (args.length == 2) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[1])))) {
+                decode(log, out);
+            }
+        } else {
+            PrintWriter out = new PrintWriter(System.out);
+            decode(log, out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Decodes a log, writing it as CSV.
+     *
+     * @param log The contents of the log file.
+     * @param out Where to write the CSV.
+     */
+    public static void decode(ByteBuffer log, PrintWriter out) {
+        byte[] magic = new byte[BinaryDataLogger.MAGIC.length];
+        log.get(magic);
+        if (!Arrays.equals(magic, BinaryDataLogger.MAGIC)) {
+            throw new IllegalArgumentException("Not a data log file.");
+        }
+
+        int version = log.getInt(BinaryDataLogger.VERSION_OFFSET);
+        if (version != BinaryDataLogger.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported data log version: " + version);
+        }
+
+        int fieldCount = log.getInt(BinaryDataLogger.FIELD_COUNT_OFFSET);
+        int recordSize = log.getInt(BinaryDataLogger.RECORD_SIZE_OFFSET);
+        int recordCount = log.getInt(BinaryDataLogger.RECORD_COUNT_OFFSET);
+        int firstRecordOffset = log.getInt(BinaryDataLogger.FIRST_RECORD_OFFSET_OFFSET);
+
+        // Column headers
+        log.position(BinaryDataLogger.FIELD_NAMES_OFFSET);
+        StringBuilder line = new StringBuilder("timeSeconds");
+        for (int i = 0; i < fieldCount; i++) {
+            byte[] name = new byte[log.getShort()];
+            log.get(name);
+            line.append(',').append(new String(name, StandardCharsets.UTF_8));
+        }
+        out.println(line);
+
+        // Records
+        log.position(firstRecordOffset);
+        for (int record = 0; record < recordCount && log.remaining() >= recordSize; record++) {
+            line.setLength(0);
+            line.append(log.getLong() / 1_000_000_000.0);
+            for (int i = 0; i < fieldCount; i++) {
+                line.append(',').append(log.getDouble());
+            }
+            out.println(line);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.team1251.frc.robotCore.logging;
+
+/**
+ * The severity of an event in the {@link EventLog}.
+ */
+public enum EventLevel {
+    /**
+     * Fine-grained detail which is only useful while debugging a specific problem.
+     */
+    DEBUG,
+
+    /**
+     * Normal, noteworthy events, such as a command changing phases.
+     */
+    INFO,
+
+    /**
+     * Something unexpected happened, but the robot can carry on.
+     */
+    WARNING,
+
+    /**
+     * Something went wrong which prevents the robot from doing what was asked.
+     */
+    ERROR
+}
@@ -0,0 +1,366 @@
+package org.team1251.frc.robotCore.logging;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A structured event log which never does console I/O on the main robot thread.
+ *
+ * Events are recorded against a named "source" (for example, a command or subsystem). Sources are registered once
+ * (usually during robot initialization) and are identified by the integer handle returned from
+ * {@link #registerSource(String, double)}.
+ *
+ * Logging an event only copies its parts (level, timestamp, and references to constant strings or enum values) into a
+ * preallocated ring buffer; no strings are built and nothing is allocated. A low-priority background thread drains the
+ * ring, formats each event, and writes it to the console. If the ring is full, new events are dropped and counted.
+ *
+ * To avoid flooding the console:
+ *
+ *   - Events below the minimum level (see {@link #setLevel(EventLevel)}) are discarded immediately.
+ *   - Each source may only log a limited number of events per second. Events over the limit are discarded, and the
+ *     number discarded is reported with the next event which makes it through.
+ *
+ * Like the WPI Lib `Scheduler`, there is one event log for the whole robot; use {@link #getInstance()} to get it.
+ * Registering sources and logging events is NOT thread-safe; these must only be done from the main robot thread.
+ */
+public class EventLog {
+
+    /**
+     * The number of events that can be waiting to be written.
+     */
+    private static final int CAPACITY = 256;
+
+    /**
+     * Mask used to turn a sequence number into a ring position. Requires {@link #CAPACITY} to be a power of two.
+     */
+    private static final int INDEX_MASK = CAPACITY - 1;
+
+    /**
+     * Initial number of sources that space is reserved for. Space grows as needed during registration.
+     */
+    private static final int INITIAL_SOURCE_CAPACITY = 16;
+
+    /**
+     * How long (nanoseconds) the writer thread sleeps when there is nothing to write.
+     */
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+
+    /**
+     * The one and only instance.
+     */
+    private static EventLog instance;
+
+    /**
+     * Where formatted events are written.
+     */
+    private final PrintStream out;
+
+    /**
+     * The time (nanoseconds) that the log was created. Event timestamps are relative to this.
+     */
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Events below this level are discarded.
+     */
+    private EventLevel level = EventLevel.INFO;
+
+    /**
+     * The ring of events waiting to be written. Each event is spread across these arrays at the same position.
+     */
+    private final long[] eventTimes = new long[CAPACITY];
+    private final EventLevel[] eventLevels = new EventLevel[CAPACITY];
+    private final int[] eventSources = new int[CAPACITY];
+    private final String[] eventMessages = new String[CAPACITY];
+    private final Enum<?>[] eventFromStates = new Enum<?>[CAPACITY];
+    private final Enum<?>[] eventToStates = new Enum<?>[CAPACITY];
+    private final double[] eventValues = new double[CAPACITY];
+    private final boolean[] eventHasValue = new boolean[CAPACITY];
+    private final int[] eventSuppressedCounts = new int[CAPACITY];
+
+    /**
+     * The sequence number of the next event to be logged. Only written by the main robot thread.
+     */
+    private volatile long writeSequence = 0;
+
+    /**
+     * The sequence number of the next event to be written to the console. Only written by the writer thread.
+     */
+    private volatile long readSequence = 0;
+
+    /**
+     * The number of events dropped because the ring was full. Only written by the main robot thread.
+     */
+    private volatile long droppedEventCount = 0;
+
+    /**
+     * The name of each source.
+     */
+    private String[] sourceNames = new String[INITIAL_SOURCE_CAPACITY];
+
+    /**
+     * The maximum number of events per second for each source.
+     */
+    private double[] sourceRateLimits = new double[INITIAL_SOURCE_CAPACITY];
+
+    /**
+     * The number of events each source may still log right now. Refilled over time, up to the source's rate limit.
+     */
+    private double[] sourceTokens = new double[INITIAL_SOURCE_CAPACITY];
+
+    /**
+     * The last time (nanoseconds) each source's tokens were refilled.
+     */
+    private long[] sourceRefillTimes = new long[INITIAL_SOURCE_CAPACITY];
+
+    /**
+     * The number of events discarded by the rate limit for each source since its last logged event.
+     */
+    private int[] sourceSuppressedCounts = new int[INITIAL_SOURCE_CAPACITY];
+
+    /**
+     * The number of registered sources.
+     */
+    private int sourceCount = 0;
+
+    /**
+     * The thread which writes events to the console.
+     */
+    private final Thread writerThread;
+
+    /**
+     * Provides the robot's event log.
+     *
+     * @return The one and only event log instance.
+     */
+    public static synchronized EventLog getInstance() {
+        if (instance == null) {
+            instance = new EventLog(System.out);
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    private EventLog(PrintStream out) {
+        this.out = out;
+
+        writerThread = new Thread(this::runWriterThread, "EventLog");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        writerThread.start();
+    }
+
+    /**
+     * Sets the minimum level of events that are logged. Events below this level are discarded. Defaults to
+     * {@link EventLevel#INFO}.
+     *
+     * @param level The minimum level.
+     */
+    public void setLevel(EventLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Registers a named source of events.
+     *
+     * Registering a name that has already been registered provides the existing source. This should be done during
+     * initialization, never from the robot tick.
+     *
+     * @param name The name of the source. This is included with each event.
+     * @param maxEventsPerSecond The maximum number of events the source may log per second. Short bursts up to this
+     *                           number are allowed.
+     *
+     * @return The source handle to use when logging events.
+     */
+    public int registerSource(String name, double maxEventsPerSecond) {
+        for (int i = 0; i < sourceCount; i++) {
+            if (sourceNames[i].equals(name)) {
+                return i;
+            }
+        }
+
+        if (sourceCount == sourceNames.length) {
+            int capacity = sourceNames.length * 2;
+            sourceNames = Arrays.copyOf(sourceNames, capacity);
+            sourceRateLimits = Arrays.copyOf(sourceRateLimits, capacity);
+            sourceTokens = Arrays.copyOf(sourceTokens, capacity);
+            sourceRefillTimes = Arrays.copyOf(sourceRefillTimes, capacity);
+            sourceSuppressedCounts = Arrays.copyOf(sourceSuppressedCounts, capacity);
+        }
+
+        sourceNames[sourceCount] = name;
+        sourceRateLimits[sourceCount] = maxEventsPerSecond;
+        sourceTokens[sourceCount] = maxEventsPerSecond;
+        sourceRefillTimes[sourceCount] = System.nanoTime();
+        return sourceCount++;
+    }
+
+    /**
+     * Logs an event.
+     *
+     * @param source The source handle, as provided by {@link #registerSource(String, double)}
+     * @param level The severity of the event.
+     * @param message A description of the event. Use a constant string -- building a string here defeats the
+     *                purpose of the log.
+     */
+    public void log(int source, EventLevel level, String message) {
+        append(source, level, message, null, null, 0, false);
+    }
+
+    /**
+     * Logs an event which has a numeric value.
+     *
+     * @param source The source handle, as provided by {@link #registerSource(String, double)}
+     * @param level The severity of the event.
+     * @param message A description of the event. Use a constant string.
+     * @param value The value associated with the event.
+     */
+    public void log(int source, EventLevel level, String message, double value) {
+        append(source, level, message, null, null, value, true);
+    }
+
+    /**
+     * Logs a change from one state to another (for example, a command moving to its next phase) at the
+     * {@link EventLevel#INFO} level.
+     *
+     * Only call this when the state actually changes.
+     *
+     * @param source The source handle, as provided by {@link #registerSource(String, double)}
+     * @param from The previous state. May be `null` if there was no previous state.
+     * @param to The new state.
+     */
+    public void logTransition(int source, Enum<?> from, Enum<?> to) {
+        append(source, EventLevel.INFO, "Transition", from, to, 0, false);
+    }
+
+    /**
+     * @return The number of events dropped because they were logged faster than they could be written.
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount;
+    }
+
+    /**
+     * Copies an event into the ring, if it passes the level filter and rate limit.
+     */
+    private void append(int source, EventLevel level, String message, Enum<?> from, Enum<?> to, double value,
+                        boolean hasValue) {
+        if (level.ordinal() < this.level.ordinal()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (!takeToken(source, now)) {
+            sourceSuppressedCounts[source]++;
+            return;
+        }
+
+        long sequence = writeSequence;
+        if (sequence - readSequence >= CAPACITY) {
+            droppedEventCount++;
+            return;
+        }
+
+        int index = (int) (sequence & INDEX_MASK);
+        eventTimes[index] = now - startTime;
+        eventLevels[index] = level;
+        eventSources[index] = source;
+        eventMessages[index] = message;
+        eventFromStates[index] = from;
+        eventToStates[index] = to;
+        eventValues[index] = value;
+        eventHasValue[index] = hasValue;
+        eventSuppressedCounts[index] = sourceSuppressedCounts[source];
+        sourceSuppressedCounts[source] = 0;
+
+        // Publishing the new sequence number makes the event visible to the writer thread.
+        writeSequence = sequence + 1;
+    }
+
+    /**
+     * Refills a source's tokens based on the time passed and takes one, if available.
+     *
+     * @return `true` if the source may log an event, otherwise `false`
+     */
+    private boolean takeToken(int source, long now) {
+        double limit = sourceRateLimits[source];
+        double tokens = sourceTokens[source] + (now - sourceRefillTimes[source]) * limit / 1_000_000_000.0;
+        sourceRefillTimes[source] = now;
+
+        if (tokens < 1) {
+            sourceTokens[source] = tokens;
+            return false;
+        }
+
+        sourceTokens[source] = Math.min(tokens, limit) - 1;
+        return true;
+    }
+
+    /**
+     * The body of the writer thread. Formats and writes events as they arrive.
+     */
+    private void runWriterThread() {
+        StringBuilder line = new StringBuilder(128);
+        long reportedDropCount = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long sequence = readSequence;
+            if (sequence == writeSequence) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            int index = (int) (sequence & INDEX_MASK);
+            line.setLength(0);
+            format(index, line);
+
+            // Release references so that the ring does not keep them alive, then hand the slot back.
+            eventMessages[index] = null;
+            eventFromStates[index] = null;
+            eventToStates[index] = null;
+            readSequence = sequence + 1;
+
+            out.println(line);
+
+            long dropCount = droppedEventCount;
+            if (dropCount != reportedDropCount) {
+                out.println("EventLog: " + (dropCount - reportedDropCount) + " event(s) dropped (log full)");
+                reportedDropCount = dropCount;
+            }
+        }
+    }
+
+    /**
+     * Formats a single event as a line of text.
+     */
+    private void format(int index, StringBuilder line) {
+        // [   12.345] INFO    Source: Message FROM -> TO (value) [N suppressed]
+        String seconds = String.format("%9.3f", eventTimes[index] / 1_000_000_000.0);
+        line.append('[').append(seconds).append("] ");
+
+        String levelName = eventLevels[index].name();
+        line.append(levelName);
+        for (int i = levelName.length(); i < 8; i++) {
+            line.append(' ');
+        }
+
+        line.append(sourceNames[eventSources[index]]).append(": ").append(eventMessages[index]);
+
+        if (eventToStates[index] != null) {
+            Enum<?> from = eventFromStates[index];
+            line.append(' ').append(from == null ? "(none)" : from.name()).append(" -> ")
+                    .append(eventToStates[index].name());
+        }
+
+        if (eventHasValue[index]) {
+            line.append(" (").append(eventValues[index]).append(')');
+        }
+
+        if (eventSuppressedCounts[index] > 0) {
+            line.append(" [").append(eventSuppressedCounts[index]).append(" suppressed]");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.team1251.frc.robotCore.logging;
+
+/**
+ * Defines an object which records values into the robot's data log.
+ */
+public interface IDataLogProvider {
+
+    /**
+     * Registers the fields this provider records. Called exactly once, before logging starts.
+     *
+     * @param logger The logger to register fields with, using {@link BinaryDataLogger#addField(String)}.
+     */
+    void registerDataLogFields(BinaryDataLogger logger);
+
+    /**
+     * Sets the current value of each registered field. Called once per tick, on the main robot thread.
+     *
+     * Be fast here! This must not allocate or block.
+     *
+     * @param logger The logger to set values on, using {@link BinaryDataLogger#set(int, double)}.
+     */
+    void logData(BinaryDataLogger logger);
+}
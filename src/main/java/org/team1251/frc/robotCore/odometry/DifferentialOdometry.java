@@ -0,0 +1,180 @@
+package org.team1251.frc.robotCore.odometry;
+
+import edu.wpi.first.wpilibj.Notifier;
+import org.team1251.frc.robotCore.parts.sensors.IGyro;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import java.lang.invoke.VarHandle;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Tracks the field-relative pose of a differential (tank) drive robot by dead reckoning.
+ *
+ * On every update, the distance travelled since the last update is taken from the average of the left and right wheel
+ * distances, and the direction of travel is taken from the gyro (which is far more reliable than the difference
+ * between the wheels). Updates run on a WPI Lib `Notifier` several times per robot tick, so that turns are followed
+ * closely. A simulation running on virtual time (see {@link TickClock}) calls {@link #update()} itself instead, once
+ * per step.
+ *
+ * The latest pose is published through a sequence lock. The update thread is the only writer; readers never block or
+ * allocate. A reader copies the pose and then checks that the sequence number did not change while it was copying,
+ * retrying in the rare case that it did. This always gives readers a pose from a single update, never a mix of two.
+ *
+ * Every update can also be recorded into a {@link PoseHistory}, so that past poses can be looked up.
+ */
+public class DifferentialOdometry {
+
+    private final IGyro gyro;
+    private final DoubleSupplier leftDistance;
+    private final DoubleSupplier rightDistance;
+    private final Notifier notifier;
+    private final double period;
+    private final TickClock clock = TickClock.getInstance();
+
+    /**
+     * Where every update is recorded. `null` if no history is kept.
+     */
+    private final PoseHistory history;
+
+    /**
+     * Odometry state. Only touched by the update thread and by {@link #reset}, which are serialized by `this`.
+     */
+    private double x = 0;
+    private double y = 0;
+    private double headingOffset = 0;
+    private double lastLeftDistance;
+    private double lastRightDistance;
+    private double lastHeading;
+    private boolean isFirstUpdate = true;
+
+    /**
+     * Even while the published pose is stable, odd while it is being written.
+     */
+    private volatile int sequence = 0;
+
+    /**
+     * The published pose. Written only between the two sequence increments.
+     */
+    private double publishedX;
+    private double publishedY;
+    private double publishedHeading;
+    private double publishedTimestamp;
+
+    /**
+     * @param gyro The gyro that provides the robot's heading.
+     * @param leftDistance Provides the total distance (inches) travelled by the left wheels. Must be safe to call from
+     *                     the update thread.
+     * @param rightDistance Provides the total distance (inches) travelled by the right wheels. Must be safe to call from
+     *                      the update thread.
+     * @param period How often (seconds) to update the pose.
+     * @param history Where to record every update, or `null` to keep no history. The odometry becomes the history's
+     *                only writer.
+     */
+    public DifferentialOdometry(IGyro gyro, DoubleSupplier leftDistance, DoubleSupplier rightDistance, double period,
+                                PoseHistory history) {
+        this.gyro = gyro;
+        this.leftDistance = leftDistance;
+        this.rightDistance = rightDistance;
+        this.period = period;
+        this.history = history;
+        this.notifier = new Notifier(this::update);
+    }
+
+    /**
+     * Starts updating the pose in the background.
+     */
+    public void start() {
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Declares the robot's current pose, for example at the start of a match.
+     *
+     * @param x The field-relative x position (inches).
+     * @param y The field-relative y position (inches).
+     * @param heading The field-relative heading (radians, counter-clockwise positive).
+     */
+    public synchronized void reset(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.headingOffset = heading - gyro.getHeading();
+        isFirstUpdate = true;
+        update();
+    }
+
+    /**
+     * Copies the most recent pose. Never blocks and never allocates.
+     *
+     * @param pose The pose to fill in.
+     *
+     * @return The given pose, for convenience.
+     */
+    public Pose getPose(Pose pose) {
+        while (true) {
+            int before = sequence;
+            if ((before & 1) != 0) {
+                // Mid-write. The writer finishes in well under a microsecond.
+                Thread.onSpinWait();
+                continue;
+            }
+
+            double x = publishedX;
+            double y = publishedY;
+            double heading = publishedHeading;
+            double timestamp = publishedTimestamp;
+
+            // Keep the reads above from being moved after the second sequence read.
+            VarHandle.acquireFence();
+            if (sequence == before) {
+                return pose.set(x, y, heading, timestamp);
+            }
+        }
+    }
+
+    /**
+     * Advances the pose using the sensor changes since the last update, then publishes it. Called by the notifier
+     * once the odometry has been started; call it directly instead of starting the odometry to step it by hand.
+     */
+    public synchronized void update() {
+        double timestamp = clock.getTimestamp();
+        double left = leftDistance.getAsDouble();
+        double right = rightDistance.getAsDouble();
+        double heading = gyro.getHeading() + headingOffset;
+
+        if (isFirstUpdate) {
+            isFirstUpdate = false;
+        } else {
+            // Travel along the average of the old and new headings -- a good approximation of an arc at this rate.
+            double distance = ((left - lastLeftDistance) + (right - lastRightDistance)) / 2;
+            double travelHeading = (heading + lastHeading) / 2;
+            x += distance * Math.cos(travelHeading);
+            y += distance * Math.sin(travelHeading);
+        }
+
+        lastLeftDistance = left;
+        lastRightDistance = right;
+        lastHeading = heading;
+
+        publish(x, y, heading, timestamp);
+        if (history != null) {
+            history.record(timestamp, x, y, heading);
+        }
+    }
+
+    /**
+     * Publishes a new pose to readers.
+     */
+    private void publish(double x, double y, double heading, double timestamp) {
+        int current = sequence;
+        sequence = current + 1;
+
+        // Keep the writes below from being moved before the odd sequence number is visible.
+        VarHandle.releaseFence();
+        publishedX = x;
+        publishedY = y;
+        publishedHeading = heading;
+        publishedTimestamp = timestamp;
+
+        sequence = current + 2;
+    }
+}
@@ -0,0 +1,59 @@
+package org.team1251.frc.robotCore.odometry;
+
+/**
+ * Where the robot is on the field and which way it is facing, at a point in time.
+ *
+ * Poses are mutable so that the same instance can be filled in over and over without creating garbage. Code that needs
+ * to keep a pose around should copy it with {@link #set(Pose)} rather than holding on to an instance it was handed.
+ */
+public class Pose {
+
+    /**
+     * Field-relative position (inches).
+     */
+    private double x;
+    private double y;
+
+    /**
+     * Field-relative heading (radians, counter-clockwise positive, continuous).
+     */
+    private double heading;
+
+    /**
+     * When the pose was measured (seconds, see `TickClock.getTimestamp()`).
+     */
+    private double timestamp;
+
+    public Pose set(double x, double y, double heading, double timestamp) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    public Pose set(Pose other) {
+        return set(other.x, other.y, other.heading, other.timestamp);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    public double getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%.2f, %.2f) @ %.1f deg", x, y, Math.toDegrees(heading));
+    }
+}
@@ -0,0 +1,143 @@
+package org.team1251.frc.robotCore.odometry;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed-size history of timestamped poses, used to look up where the robot was at some moment in the recent past.
+ *
+ * This is what makes latency compensation possible: a camera frame describes the world as it was when the frame was
+ * captured, so a measurement from it has to be combined with the pose the robot had at that moment rather than the
+ * pose it has now.
+ *
+ * Poses are stored in parallel primitive arrays used as a ring, so recording never allocates and the oldest poses are
+ * simply overwritten. Lookups binary search the ring by timestamp (O(log n)) and interpolate between the two poses on
+ * either side of the requested time.
+ *
+ * There must be a single writer thread. Any number of threads may look up poses at the same time; like
+ * {@link DifferentialOdometry}, readers never block and retry if a write happened while they were reading.
+ */
+public class PoseHistory {
+
+    private final int capacity;
+    private final int mask;
+
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+
+    /**
+     * Total number of poses ever recorded. The newest pose is at `(recordCount - 1) & mask`.
+     */
+    private long recordCount = 0;
+
+    /**
+     * Even while the history is stable, odd while a pose is being recorded.
+     */
+    private volatile int sequence = 0;
+
+    /**
+     * @param capacity How many poses to keep. Rounded up to a power of two.
+     */
+    public PoseHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+
+        timestamps = new double[size];
+        xs = new double[size];
+        ys = new double[size];
+        headings = new double[size];
+    }
+
+    /**
+     * Records a pose. Must only be called from the writer thread, with timestamps that never go backwards.
+     *
+     * @param timestamp When the pose was measured (seconds).
+     * @param x The x position.
+     * @param y The y position.
+     * @param heading The heading (radians, continuous).
+     */
+    public void record(double timestamp, double x, double y, double heading) {
+        int current = sequence;
+        sequence = current + 1;
+        VarHandle.releaseFence();
+
+        int index = (int) (recordCount & mask);
+        timestamps[index] = timestamp;
+        xs[index] = x;
+        ys[index] = y;
+        headings[index] = heading;
+        recordCount++;
+
+        sequence = current + 2;
+    }
+
+    /**
+     * Looks up the pose the robot had at a given time, interpolating between the recorded poses on either side of it.
+     * Times newer than the newest recorded pose get the newest pose.
+     *
+     * @param timestamp The time (seconds) to look up.
+     * @param pose The pose to fill in.
+     *
+     * @return `true` if the pose was found, `false` if the time is older than the oldest pose still in the history (or
+     *         nothing has been recorded). The given pose is left untouched when `false` is returned.
+     */
+    public boolean getPoseAt(double timestamp, Pose pose) {
+        while (true) {
+            int startSequence = sequence;
+            if ((startSequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long count = recordCount;
+            int size = (int) Math.min(count, capacity);
+            long oldest = count - size;
+
+            // Find the first pose recorded at or after the timestamp.
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[(int) ((oldest + middle) & mask)] < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            boolean isFound;
+            double x = 0;
+            double y = 0;
+            double heading = 0;
+            if (size == 0 || (low == 0 && timestamps[(int) (oldest & mask)] > timestamp)) {
+                isFound = false;
+            } else if (low == size) {
+                // Newer than anything recorded. Use the newest.
+                int newest = (int) ((oldest + size - 1) & mask);
+                isFound = true;
+                x = xs[newest];
+                y = ys[newest];
+                heading = headings[newest];
+            } else {
+                int after = (int) ((oldest + low) & mask);
+                int before = low == 0 ? after : (int) ((oldest + low - 1) & mask);
+                double span = timestamps[after] - timestamps[before];
+                double fraction = span > 0 ? (timestamp - timestamps[before]) / span : 1;
+                isFound = true;
+                x = xs[before] + (xs[after] - xs[before]) * fraction;
+                y = ys[before] + (ys[after] - ys[before]) * fraction;
+                heading = headings[before] + (headings[after] - headings[before]) * fraction;
+            }
+
+            VarHandle.acquireFence();
+            if (sequence == startSequence) {
+                if (isFound) {
+                    pose.set(x, y, heading, timestamp);
+                }
+                return isFound;
+            }
+        }
+    }
+}
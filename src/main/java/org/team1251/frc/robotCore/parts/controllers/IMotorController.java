@@ -0,0 +1,44 @@
+package org.team1251.frc.robotCore.parts.controllers;
+
+/**
+ * Defines a motor controller.
+ *
+ * Mechanisms and subsystems control their motors through this interface rather than through a specific vendor class.
+ * This allows the part factories to hand out real controllers ({@link PhoenixMotorController}) on the robot and
+ * simulated controllers ({@link SimMotorController}) on a desktop.
+ *
+ * Only the outputs are defined here, since every controller supports them. Controllers which also have sensor inputs
+ * and measure their own current (Talon SRXs) are handed out as an {@link ITalonController}, which adds the sensor reads
+ * and the closed loop modes. That way a sensor can never be read from (or a closed loop run on) a controller that
+ * doesn't have one.
+ *
+ * Vendor-specific configuration (current limits, status frame rates, etc.) is not part of this interface. It is
+ * applied by the part factories before the controller is wrapped.
+ */
+public interface IMotorController {
+
+    /**
+     * Drives the motor with a fraction of the available voltage (open loop). This stops the controller from
+     * following another controller.
+     *
+     * @param power A value between -1 and 1 where negative values drive the motor backwards.
+     */
+    void setPercentOutput(double power);
+
+    /**
+     * Makes this controller mirror the output of another controller until it is given a new output.
+     *
+     * @param leader The controller to follow. Must be the same kind of controller (real or simulated) as this one.
+     */
+    void follow(IMotorController leader);
+
+    /**
+     * Stops driving the motor. The motor coasts or brakes according to its configured neutral mode.
+     */
+    void neutralOutput();
+
+    /**
+     * @return The output currently applied to the motor, between -1 and 1.
+     */
+    double getMotorOutputPercent();
+}
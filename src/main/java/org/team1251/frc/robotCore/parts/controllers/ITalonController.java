@@ -0,0 +1,73 @@
+package org.team1251.frc.robotCore.parts.controllers;
+
+/**
+ * Defines a motor controller with sensor inputs (a Talon SRX), along with the sensors wired directly into it and the
+ * closed loop modes which run on those sensors.
+ *
+ * Victor SPXs have no sensor inputs and don't measure their current, so they are only ever handed out as an
+ * {@link IMotorController}. Anything which reads a sensor through its controller (for example, a
+ * {@link org.team1251.frc.robotCore.parts.sensors.TalonMagEncoder}) takes this interface instead.
+ */
+public interface ITalonController extends IMotorController {
+
+    /**
+     * Drives the motor at a target velocity using the controller's onboard closed loop (gain slot 0). The closed loop
+     * runs on the controller itself, so the gains must have been configured by the part factory. This stops the
+     * controller from following another controller.
+     *
+     * @param velocity The target velocity (counts per 100ms) of the sensor wired into the controller.
+     */
+    void setVelocity(double velocity);
+
+    /**
+     * Moves the motor to a target position along a motion profile (Motion Magic) and then holds it there. The profile
+     * and the closed loop both run on the controller itself (gain slot 0), so the gains, cruise velocity and
+     * acceleration must have been configured by the part factory. This stops the controller from following another
+     * controller.
+     *
+     * @param position The target position (counts) of the sensor wired into the controller.
+     */
+    void setMotionMagicPosition(double position);
+
+    /**
+     * Sets whether the attached sensor counts in the opposite direction of the motor output.
+     *
+     * @param isPhaseInverted Set to `true` to invert the sensor phase.
+     */
+    void setSensorPhase(boolean isPhaseInverted);
+
+    /**
+     * @return Whether the motor output is inverted. The quadrature readings ignore the inversion, so an inverted
+     *         controller's sensor counts backwards relative to the output unless its phase is inverted as well.
+     */
+    boolean isInverted();
+
+    /**
+     * @return The current (amps) drawn by the motor.
+     */
+    double getOutputCurrent();
+
+    /**
+     * @return The raw position (counts) of the quadrature encoder wired into the controller. Neither the inversion nor
+     *         the sensor phase is applied.
+     */
+    int getQuadraturePosition();
+
+    /**
+     * @return The raw velocity (counts per 100ms) of the quadrature encoder wired into the controller. Neither the
+     *         inversion nor the sensor phase is applied.
+     */
+    int getQuadratureVelocity();
+
+    /**
+     * @return The absolute (pulse width) position of the encoder wired into the controller.
+     */
+    int getPulseWidthPosition();
+
+    /**
+     * Overwrites the position of the quadrature encoder wired into the controller.
+     *
+     * @param position The new raw position (counts).
+     */
+    void setQuadraturePosition(int position);
+}
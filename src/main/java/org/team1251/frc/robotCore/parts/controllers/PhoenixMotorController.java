@@ -0,0 +1,49 @@
+package org.team1251.frc.robotCore.parts.controllers;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+/**
+ * A CTRE Phoenix motor controller (Talon SRX or Victor SPX), used for its outputs only.
+ *
+ * Talons whose sensors, current or closed loops are needed are wrapped in a {@link PhoenixTalonController} instead.
+ */
+public class PhoenixMotorController implements IMotorController {
+
+    /**
+     * The wrapped controller.
+     */
+    private final BaseMotorController controller;
+
+    /**
+     * @param controller The controller to wrap. It should already be fully configured.
+     */
+    public PhoenixMotorController(BaseMotorController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void setPercentOutput(double power) {
+        controller.set(ControlMode.PercentOutput, power);
+    }
+
+    @Override
+    public void follow(IMotorController leader) {
+        if (!(leader instanceof PhoenixMotorController)) {
+            throw new IllegalArgumentException(
+                    "A Phoenix motor controller can only follow another Phoenix motor controller.");
+        }
+
+        controller.follow(((PhoenixMotorController) leader).controller);
+    }
+
+    @Override
+    public void neutralOutput() {
+        controller.neutralOutput();
+    }
+
+    @Override
+    public double getMotorOutputPercent() {
+        return controller.getMotorOutputPercent();
+    }
+}
@@ -0,0 +1,80 @@
+package org.team1251.frc.robotCore.parts.controllers;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.SensorCollection;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+
+/**
+ * A CTRE Talon SRX, along with the sensors wired into it.
+ */
+public class PhoenixTalonController extends PhoenixMotorController implements ITalonController {
+
+    /**
+     * How long (milliseconds) to wait for the controller to confirm sensor writes.
+     */
+    private static final int TIMEOUT_MS = 2;
+
+    /**
+     * The wrapped talon.
+     */
+    private final TalonSRX talon;
+
+    /**
+     * The sensors wired into the talon.
+     */
+    private final SensorCollection sensorCollection;
+
+    /**
+     * @param talon The talon to wrap. It should already be fully configured.
+     */
+    public PhoenixTalonController(TalonSRX talon) {
+        super(talon);
+        this.talon = talon;
+        this.sensorCollection = talon.getSensorCollection();
+    }
+
+    @Override
+    public void setVelocity(double velocity) {
+        talon.set(ControlMode.Velocity, velocity);
+    }
+
+    @Override
+    public void setMotionMagicPosition(double position) {
+        talon.set(ControlMode.MotionMagic, position);
+    }
+
+    @Override
+    public void setSensorPhase(boolean isPhaseInverted) {
+        talon.setSensorPhase(isPhaseInverted);
+    }
+
+    @Override
+    public boolean isInverted() {
+        return talon.getInverted();
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return talon.getOutputCurrent();
+    }
+
+    @Override
+    public int getQuadraturePosition() {
+        return sensorCollection.getQuadraturePosition();
+    }
+
+    @Override
+    public int getQuadratureVelocity() {
+        return sensorCollection.getQuadratureVelocity();
+    }
+
+    @Override
+    public int getPulseWidthPosition() {
+        return sensorCollection.getPulseWidthPosition();
+    }
+
+    @Override
+    public void setQuadraturePosition(int position) {
+        sensorCollection.setQuadraturePosition(position, TIMEOUT_MS);
+    }
+}
@@ -0,0 +1,292 @@
+package org.team1251.frc.robotCore.parts.controllers;
+
+/**
+ * A simulated motor controller, used when the robot code runs on a desktop.
+ *
+ * The controller simply remembers the output it was asked to apply. A physics model reads that output on each
+ * simulation step and feeds back the resulting sensor readings and current draw using the `addSim*()` and `setSim*()`
+ * methods.
+ *
+ * Simulated controllers stand in for both Talons and Victors. The part factories hand out the ones standing in for
+ * Victors as a plain {@link IMotorController}, just like the real ones.
+ *
+ * The closed loop modes are emulated with the feed forward and proportional gains only (see `setSim*Gains()`); the
+ * output is recalculated whenever the sensor moves, just as a real controller recalculates it on every iteration of its
+ * closed loop. Motion Magic is approximated by a velocity target that ramps down as the position target gets closer.
+ *
+ * The physics model moves the sensor in the direction the output drives it, which is what the closed loops and soft
+ * limits see. Like a real Talon's, the raw quadrature readings ignore the inversion and sensor phase, so they count
+ * backwards when exactly one of the two is set (see {@link #setSimInverted(boolean)}).
+ */
+public class SimMotorController implements ITalonController {
+
+    /**
+     * How the output is decided.
+     */
+    private enum Mode {
+        PERCENT_OUTPUT, VELOCITY, MOTION_MAGIC
+    }
+
+    /**
+     * The current output mode.
+     */
+    private Mode mode = Mode.PERCENT_OUTPUT;
+
+    /**
+     * The output requested by robot code, or calculated by a closed loop (when not following).
+     */
+    private double output = 0;
+
+    /**
+     * The target velocity (counts per 100ms) in velocity mode, or the target position (counts) in Motion Magic mode.
+     */
+    private double target = 0;
+
+    /**
+     * Closed loop gains, in the same units as a Talon SRX (output of 1023 = full power).
+     */
+    private double velocityKf = 0;
+    private double velocityKp = 0;
+    private double motionMagicKf = 0;
+    private double motionMagicKp = 0;
+
+    /**
+     * Motion Magic limits. The cruise velocity is in counts per 100ms and the acceleration is in counts per 100ms per
+     * second.
+     */
+    private double cruiseVelocity = 0;
+    private double acceleration = 0;
+
+    /**
+     * Soft limits (counts). The output is cut off while it would drive the sensor past one of these.
+     */
+    private double forwardSoftLimit = Double.POSITIVE_INFINITY;
+    private double reverseSoftLimit = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The controller being followed. `null` when not following.
+     */
+    private SimMotorController leader;
+
+    /**
+     * Whether the sensor counts in the opposite direction of the output.
+     */
+    private boolean isSensorPhaseInverted = false;
+
+    /**
+     * Whether the output is inverted.
+     */
+    private boolean isInverted = false;
+
+    /**
+     * Sensor readings and current draw, provided by the physics model. The position and velocity count in the
+     * direction of the output; the quadrature position is raw.
+     */
+    private double position = 0;
+    private double velocity = 0;
+    private int quadraturePosition = 0;
+    private int pulseWidthPosition = 0;
+    private double outputCurrent = 0;
+
+    @Override
+    public void setPercentOutput(double power) {
+        leader = null;
+        mode = Mode.PERCENT_OUTPUT;
+        output = Math.max(-1, Math.min(1, power));
+    }
+
+    @Override
+    public void setVelocity(double velocity) {
+        leader = null;
+        mode = Mode.VELOCITY;
+        target = velocity;
+        updateClosedLoop();
+    }
+
+    @Override
+    public void setMotionMagicPosition(double position) {
+        leader = null;
+        mode = Mode.MOTION_MAGIC;
+        target = position;
+        updateClosedLoop();
+    }
+
+    @Override
+    public void follow(IMotorController leader) {
+        if (!(leader instanceof SimMotorController)) {
+            throw new IllegalArgumentException(
+                    "A simulated motor controller can only follow another simulated motor controller.");
+        }
+
+        this.leader = (SimMotorController) leader;
+    }
+
+    @Override
+    public void neutralOutput() {
+        leader = null;
+        mode = Mode.PERCENT_OUTPUT;
+        output = 0;
+    }
+
+    @Override
+    public void setSensorPhase(boolean isPhaseInverted) {
+        isSensorPhaseInverted = isPhaseInverted;
+    }
+
+    @Override
+    public boolean isInverted() {
+        return isInverted;
+    }
+
+    @Override
+    public double getMotorOutputPercent() {
+        if (leader != null) {
+            return leader.getMotorOutputPercent();
+        }
+
+        if ((output > 0 && position >= forwardSoftLimit) || (output < 0 && position <= reverseSoftLimit)) {
+            return 0;
+        }
+
+        return output;
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return outputCurrent;
+    }
+
+    @Override
+    public int getQuadraturePosition() {
+        return quadraturePosition;
+    }
+
+    @Override
+    public int getQuadratureVelocity() {
+        return (int) Math.round(getRawDirection() * velocity);
+    }
+
+    @Override
+    public int getPulseWidthPosition() {
+        return pulseWidthPosition;
+    }
+
+    @Override
+    public void setQuadraturePosition(int position) {
+        this.position = getRawDirection() * position;
+        quadraturePosition = position;
+    }
+
+    /**
+     * @return Whether the sensor phase has been inverted by robot code. Physics models don't need to account for it;
+     *         the raw readings already count in the direction the phase and inversion imply.
+     */
+    public boolean isSensorPhaseInverted() {
+        return isSensorPhaseInverted;
+    }
+
+    /**
+     * Inverts the output. Called by the part factory in place of configuring a real controller.
+     *
+     * The simulated output itself isn't reversed; physics models already treat a positive output as moving the
+     * mechanism forward. Only the raw quadrature readings change direction, just like they do on the robot.
+     *
+     * @param isInverted Set to `true` to invert the output.
+     */
+    public void setSimInverted(boolean isInverted) {
+        this.isInverted = isInverted;
+    }
+
+    /**
+     * Sets the gains used to emulate velocity mode. Called by the part factory in place of configuring a real
+     * controller.
+     *
+     * @param kF The feed forward gain.
+     * @param kP The proportional gain.
+     */
+    public void setSimVelocityGains(double kF, double kP) {
+        velocityKf = kF;
+        velocityKp = kP;
+    }
+
+    /**
+     * Sets the gains and limits used to emulate Motion Magic. Called by the part factory in place of configuring a real
+     * controller.
+     *
+     * @param kF The feed forward gain (applied to the profile velocity).
+     * @param kP The proportional gain (applied to the position error).
+     * @param cruiseVelocity The fastest (counts per 100ms) the profile moves.
+     * @param acceleration How quickly (counts per 100ms per second) the profile speeds up and slows down.
+     */
+    public void setSimMotionMagicGains(double kF, double kP, double cruiseVelocity, double acceleration) {
+        motionMagicKf = kF;
+        motionMagicKp = kP;
+        this.cruiseVelocity = cruiseVelocity;
+        this.acceleration = acceleration;
+    }
+
+    /**
+     * Sets the soft limits. Called by the part factory in place of configuring a real controller.
+     *
+     * @param forwardLimit The position (counts) past which the controller will not drive forward.
+     * @param reverseLimit The position (counts) past which the controller will not drive in reverse.
+     */
+    public void setSimSoftLimits(double forwardLimit, double reverseLimit) {
+        forwardSoftLimit = forwardLimit;
+        reverseSoftLimit = reverseLimit;
+    }
+
+    /**
+     * Moves the simulated encoder. Called by the physics model.
+     *
+     * @param positionChange How far (counts) the encoder moved since the last step, in the direction of the output.
+     * @param velocity The velocity (counts per 100ms) of the encoder, in the direction of the output.
+     */
+    public void addSimSensorMovement(double positionChange, double velocity) {
+        position += positionChange;
+        this.velocity = velocity;
+        quadraturePosition = (int) Math.round(getRawDirection() * position);
+        pulseWidthPosition = quadraturePosition & 0xFFF;
+        updateClosedLoop();
+    }
+
+    /**
+     * Sets the simulated current draw. Called by the physics model.
+     *
+     * @param current The current (amps).
+     */
+    public void setSimOutputCurrent(double current) {
+        outputCurrent = current;
+    }
+
+    /**
+     * @return -1 when the raw quadrature readings count against the output, 1 otherwise.
+     */
+    private int getRawDirection() {
+        return isInverted != isSensorPhaseInverted ? -1 : 1;
+    }
+
+    /**
+     * Recalculates the output from the target, if in a closed loop mode.
+     */
+    private void updateClosedLoop() {
+        double rawOutput;
+        switch (mode) {
+            case VELOCITY:
+                rawOutput = velocityKf * target + velocityKp * (target - velocity);
+                break;
+            case MOTION_MAGIC:
+                // Cruise until it is time to slow down at the configured acceleration. The acceleration is per
+                // second while velocities are per 100ms, hence the factors of 10.
+                double error = target - position;
+                double profileVelocity = Math.signum(error)
+                        * Math.min(cruiseVelocity, Math.sqrt(2 * acceleration * 10 * Math.abs(error)) / 10);
+                rawOutput = motionMagicKf * profileVelocity + motionMagicKp * error;
+                break;
+            default:
+                return;
+        }
+
+        output = Math.max(-1, Math.min(1, rawOutput / 1023));
+    }
+}
@@ -0,0 +1,18 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+/**
+ * Defines a gyro that measures which way the robot is facing.
+ *
+ * Headings follow the usual math convention: radians, counter-clockwise positive, and continuous (they keep counting
+ * past a full turn rather than wrapping).
+ */
+public interface IGyro {
+
+    /**
+     * Provides the current heading. Implementations must be safe to call from any thread.
+     *
+     * @return The heading (radians, counter-clockwise positive) relative to where the robot faced when the gyro was
+     *         last zeroed.
+     */
+    double getHeading();
+}
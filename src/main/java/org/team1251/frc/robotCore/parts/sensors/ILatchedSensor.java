@@ -0,0 +1,14 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+/**
+ * Defines a sensor which reads the hardware once per tick and serves every request during the tick from that reading.
+ *
+ * @see SensorLatch
+ */
+public interface ILatchedSensor {
+
+    /**
+     * Reads the hardware and keeps the values until the next call. Called once at the start of every tick.
+     */
+    void latch();
+}
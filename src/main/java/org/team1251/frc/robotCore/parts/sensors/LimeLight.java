@@ -3,11 +3,31 @@ package org.team1251.frc.robotCore.parts.sensors;
 
 // TODO: Should write operations be part of a subsystem to avoid control conflicts?
 
+import edu.wpi.first.networktables.EntryListenerFlags;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableValue;
+import org.team1251.frc.robotCore.util.TickClock;
 
-public class LimeLight {
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A LimeLight vision camera, read through NetworkTables.
+ *
+ * The individual getters (`getHorizontalOffset()`, `hasTarget()`, etc.) each read the latest value straight from
+ * NetworkTables whenever they are called. For readings that are taken together once per tick, call
+ * {@link #startListening()} once and then use {@link #getLatestFrame()}.
+ *
+ * ### Frame hand-over
+ *
+ *   While listening, frames are built on the NetworkTables listener thread, from the values it is handed, and passed
+ *   to the main robot thread with the same lock-free triple buffer `TelemetryPublisher` uses: the listener thread
+ *   always has a frame to fill, the main thread always has a frame to read, and the third holds the most recent
+ *   complete frame. Latching a frame only swaps the main thread's frame for that one; nothing is read from
+ *   NetworkTables and nothing is allocated on the main thread.
+ */
+public class LimeLight implements ILatchedSensor {
 
     // According to the docs, the image is already (at least) 11 ms old before it makes it to the
     // post-processing pipeline. Added to pipeline latency to get total picture latency
@@ -20,10 +40,69 @@ public class LimeLight {
     private final NetworkTableEntry tv;
     private final NetworkTableEntry ts;
     private final NetworkTableEntry tl;
+    private final NetworkTableEntry getpipe;
     private final NetworkTableEntry pipeline;
     private final NetworkTableEntry camMode;
     private final NetworkTableEntry ledMode;
 
+    private final NetworkTable netTable;
+
+    private final TickClock clock = TickClock.getInstance();
+
+    /**
+     * Flag (combined with a frame index) which marks the shared frame as not yet taken by the main thread.
+     */
+    private static final int FRESH_FRAME = 0x4;
+
+    /**
+     * Mask used to extract the frame index from the shared frame value.
+     */
+    private static final int FRAME_INDEX_MASK = 0x3;
+
+    /**
+     * The NetworkTables listener handle. 0 when not listening.
+     */
+    private int listenerHandle = 0;
+
+    /**
+     * The three frames used to hand camera values to the main thread.
+     */
+    private final VisionFrame[] frames = {new VisionFrame(), new VisionFrame(), new VisionFrame()};
+
+    /**
+     * The index of the frame the listener thread fills next. Only touched by the listener thread.
+     */
+    private int fillingFrame = 0;
+
+    /**
+     * The index of the frame the main thread reads. Only touched by the main robot thread.
+     */
+    private int readingFrame = 1;
+
+    /**
+     * The index of the most recently completed frame, combined with {@link #FRESH_FRAME} if it has not been taken by
+     * the main thread yet.
+     */
+    private final AtomicInteger sharedFrame = new AtomicInteger(2);
+
+    /**
+     * The latest camera values, as handed to the listener thread, and how many frames it has built from them. Only
+     * touched by the listener thread.
+     */
+    private long builtFrameCount = 0;
+    private double receivedTv = 0;
+    private double receivedTx = 0;
+    private double receivedTy = 0;
+    private double receivedTa = 0;
+    private double receivedTs = 0;
+    private double receivedTl = 0;
+    private double receivedGetpipe = 0;
+
+    /**
+     * The most recent latched frame. Only touched by the main robot thread.
+     */
+    private VisionFrame latestFrame = VisionFrame.NONE;
+
 
     public enum LedMode {
         PIPELINE_DEFAULT, OFF, BLINK, ON
@@ -38,7 +117,7 @@ public class LimeLight {
     }
 
     public LimeLight(String id) {
-        NetworkTable netTable = NetworkTableInstance.getDefault().getTable(id);
+        netTable = NetworkTableInstance.getDefault().getTable(id);
 
         tx = netTable.getEntry("tx");
         ty = netTable.getEntry("ty");
@@ -46,13 +125,123 @@ public class LimeLight {
         tv = netTable.getEntry("tv");
         ts = netTable.getEntry("ts");
         tl = netTable.getEntry("tl");
+        getpipe = netTable.getEntry("getpipe");
 
         ledMode = netTable.getEntry("ledMode");
         camMode = netTable.getEntry("camMode");
         pipeline = netTable.getEntry("pipeline");
+
+        SensorLatch.getInstance().register(this);
     }
 
 
+    /**
+     * Starts watching for camera values to arrive, so that a new frame is latched whenever something changed (see
+     * {@link #getLatestFrame()}).
+     *
+     * Every camera value that arrives completes a new frame, made of that value and the latest of the others. This
+     * does not depend on which values arrive or in what order: NetworkTables guarantees neither, and it does not
+     * resend a value that did not change.
+     *
+     * Values written by this program are seen too, so that a simulated camera can publish into the same table.
+     */
+    public void startListening() {
+        if (listenerHandle != 0) {
+            return;
+        }
+
+        listenerHandle = netTable.addEntryListener(
+                (table, key, entry, value, flags) -> onValue(key, value),
+                EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate
+                        | EntryListenerFlags.kLocal
+        );
+    }
+
+    /**
+     * Stops watching for camera values. The last frame remains available.
+     */
+    public void stopListening() {
+        if (listenerHandle != 0) {
+            netTable.removeEntryListener(listenerHandle);
+            listenerHandle = 0;
+        }
+    }
+
+    /**
+     * Provides the camera readings latched at the start of the tick. Requires {@link #startListening()}.
+     *
+     * Every frame is complete when it is latched; a latch never catches the listener thread part way through building
+     * one. NetworkTables does not mark where one camera frame ends and the next begins, though, so if the tick starts
+     * while a camera frame's values are still arriving, the latched frame combines the values of that camera frame
+     * which have arrived with the rest of the one before it. A camera frame that is identical to the one before it
+     * does not produce a new frame.
+     *
+     * The frame is reused once a later frame is latched, so it is only valid during the current tick. To tell whether
+     * a new frame has arrived since the last one a consumer processed, keep the last frame's sequence and check
+     * {@link VisionFrame#isNewerThan(long)}.
+     *
+     * @return The latest frame. Before the first frame arrives, this is a frame with no target.
+     */
+    public VisionFrame getLatestFrame() {
+        return latestFrame;
+    }
+
+    /**
+     * Latches the most recent frame, if one was completed since the last latch.
+     */
+    @Override
+    public void latch() {
+        if ((sharedFrame.get() & FRESH_FRAME) == 0) {
+            return;
+        }
+
+        // Swap the frame we've finished with for the fresh one.
+        readingFrame = sharedFrame.getAndSet(readingFrame) & FRAME_INDEX_MASK;
+        latestFrame = frames[readingFrame];
+    }
+
+    /**
+     * Takes in a camera value and completes a new frame with it. Settings (such as the camera mode) and values which
+     * aren't numbers are ignored. Called on the NetworkTables listener thread.
+     */
+    private void onValue(String key, NetworkTableValue value) {
+        if (!value.isDouble()) {
+            return;
+        }
+
+        switch (key) {
+            case "tv":
+                receivedTv = value.getDouble();
+                break;
+            case "tx":
+                receivedTx = value.getDouble();
+                break;
+            case "ty":
+                receivedTy = value.getDouble();
+                break;
+            case "ta":
+                receivedTa = value.getDouble();
+                break;
+            case "ts":
+                receivedTs = value.getDouble();
+                break;
+            case "tl":
+                receivedTl = value.getDouble();
+                break;
+            case "getpipe":
+                receivedGetpipe = value.getDouble();
+                break;
+            default:
+                return;
+        }
+
+        frames[fillingFrame].set(++builtFrameCount, (int) receivedGetpipe, receivedTv > 0, receivedTx, receivedTy,
+                receivedTa, receivedTs, IMAGE_CAPTURE_LATENCY + receivedTl, clock.getTimestamp());
+
+        // Swap it with the shared frame and let the main thread know there is something new.
+        fillingFrame = sharedFrame.getAndSet(fillingFrame | FRESH_FRAME) & FRAME_INDEX_MASK;
+    }
+
     public boolean hasTarget() {
         return tv.getDouble(0.0) > 0;
     }
@@ -83,6 +272,16 @@ public class LimeLight {
         return IMAGE_CAPTURE_LATENCY + getPipelineLatency();
     }
 
+    /**
+     * Estimates when the image behind the current readings was captured, for looking up the robot's pose at that
+     * moment. This assumes the readings were just received; NetworkTables transport time is not included.
+     *
+     * @return The capture time (seconds, see `TickClock.getTimestamp()`).
+     */
+    public double getCaptureTimestamp() {
+        return clock.getTimestamp() - getLatency() / 1000;
+    }
+
     public double getPipelineLatency() {
         return tl.getDouble(0.0);
     }
@@ -99,7 +298,11 @@ public class LimeLight {
         pipeline.setNumber(number);
     }
 
-    public Number getPipeline() {
-        return pipeline.getNumber(0);
+    /**
+     * @return The pipeline the camera reports it is running. This can lag behind {@link #setPipeline(int)} while the
+     *         camera switches pipelines.
+     */
+    public int getActivePipeline() {
+        return (int) getpipe.getDouble(0);
     }
 }
@@ -0,0 +1,31 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+import com.kauailabs.navx.frc.AHRS;
+
+/**
+ * A Kauai Labs navX-MXP, used as a gyro.
+ *
+ * The navX fuses its own gyro and accelerometer readings and sends updates to the roboRIO on its own thread, so reading
+ * the heading is cheap and safe from any thread.
+ */
+public class NavXGyro implements IGyro {
+
+    /**
+     * The navX reports angles in degrees, clockwise positive.
+     */
+    private static final double RADIANS_PER_NAVX_DEGREE = -Math.PI / 180;
+
+    private final AHRS navX;
+
+    /**
+     * @param navX The navX to read.
+     */
+    public NavXGyro(AHRS navX) {
+        this.navX = navX;
+    }
+
+    @Override
+    public double getHeading() {
+        return navX.getAngle() * RADIANS_PER_NAVX_DEGREE;
+    }
+}
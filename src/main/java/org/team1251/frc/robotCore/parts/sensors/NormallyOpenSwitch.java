@@ -1,6 +1,7 @@
 package org.team1251.frc.robotCore.parts.sensors;
 
 import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.InterruptHandlerFunction;
 
 
 /**
@@ -33,4 +34,25 @@ public class NormallyOpenSwitch {
         // Native DIO is normally HIGH, so a normally open switch appears the sae as an absent switch.
         return nativeInput.get();
     }
+
+    /**
+     * Runs a handler the moment the switch becomes active, using a DIO interrupt rather than waiting for the next
+     * robot tick to poll the switch. Only one handler can be set per switch.
+     *
+     * The handler runs on the HAL's interrupt thread, NOT the main robot thread. It must be fast and thread safe.
+     *
+     * @param handler What to do when the switch becomes active.
+     */
+    public void onActivate(Runnable handler) {
+        nativeInput.requestInterrupts(new InterruptHandlerFunction<Object>() {
+            @Override
+            public void interruptFired(int interruptAssertedMask, Object param) {
+                handler.run();
+            }
+        });
+
+        // The input is pulled low when the switch is pressed.
+        nativeInput.setUpSourceEdge(false, true);
+        nativeInput.enableInterrupts();
+    }
 }
@@ -0,0 +1,78 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+import java.util.Arrays;
+
+/**
+ * Latches every registered sensor at the start of the robot tick.
+ *
+ * Reading some sensors (for example, the encoder on a Talon) goes through JNI and the CAN status frame on every call.
+ * When several commands and telemetry providers read the same sensor during a tick, that work is repeated and each
+ * reader may see a slightly different value. Latched sensors instead read their hardware once, when
+ * {@link #latchAll()} is called by `TigerTimedRobot` at the start of the tick, so every reader during the tick shares
+ * one consistent view of the sensors.
+ *
+ * Like the WPI Lib `Scheduler`, there is one sensor latch for the whole robot; use {@link #getInstance()} to get it.
+ * This class is NOT thread-safe. It must only be used from the main robot thread.
+ */
+public class SensorLatch {
+
+    /**
+     * Initial number of sensors that space is reserved for. Space grows as needed during registration.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The one and only instance.
+     */
+    private static SensorLatch instance;
+
+    /**
+     * The registered sensors.
+     */
+    private ILatchedSensor[] sensors = new ILatchedSensor[INITIAL_CAPACITY];
+
+    /**
+     * The number of registered sensors.
+     */
+    private int sensorCount = 0;
+
+    /**
+     * Provides the robot's sensor latch.
+     *
+     * @return The one and only sensor latch instance.
+     */
+    public static synchronized SensorLatch getInstance() {
+        if (instance == null) {
+            instance = new SensorLatch();
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    private SensorLatch() { }
+
+    /**
+     * Registers a sensor to be latched at the start of every tick. Sensors generally register themselves when they
+     * are created.
+     *
+     * @param sensor The sensor to register.
+     */
+    public void register(ILatchedSensor sensor) {
+        if (sensorCount == sensors.length) {
+            sensors = Arrays.copyOf(sensors, sensors.length * 2);
+        }
+
+        sensors[sensorCount++] = sensor;
+    }
+
+    /**
+     * Latches every registered sensor.
+     */
+    public void latchAll() {
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i].latch();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+/**
+ * A simulated gyro, used when the robot code runs on a desktop. A physics model sets the heading.
+ */
+public class SimGyro implements IGyro {
+
+    private volatile double heading = 0;
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Sets the simulated heading. Called by the physics model.
+     *
+     * @param heading The heading (radians, counter-clockwise positive).
+     */
+    public void setSimHeading(double heading) {
+        this.heading = heading;
+    }
+}
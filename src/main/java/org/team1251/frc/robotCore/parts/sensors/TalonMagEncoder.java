@@ -1,36 +1,112 @@
 package org.team1251.frc.robotCore.parts.sensors;
 
-import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import org.team1251.frc.robotCore.parts.controllers.ITalonController;
 
-public class TalonMagEncoder {
+/**
+ * A CTRE Mag Encoder attached to a Talon.
+ *
+ * The quadrature position and velocity are latched once per tick (see {@link SensorLatch}); every read during the
+ * tick returns those values rather than going back to the Talon.
+ *
+ * The Talon's raw quadrature readings ignore its inversion and sensor phase, so they are flipped here to count in the
+ * direction the motor is driven. This keeps the readings the same as the Talon's own selected sensor (which its closed
+ * loops use), so an inverted drive side counts forward just like the other side.
+ */
+public class TalonMagEncoder implements ILatchedSensor {
 
     private final static int COUNTS_PER_REVOLUTION = 4096;
-    private final TalonSRX talon;
+    private final ITalonController talon;
     private final double distancePerCount;
 
-    public TalonMagEncoder(TalonSRX talon, double distancePerRevolution, boolean isPhaseInverted) {
+    /**
+     * -1 when the raw readings count against the motor output (the Talon is inverted, or its sensor phase is), 1
+     * otherwise.
+     */
+    private final int direction;
+
+    /**
+     * The quadrature position at the time of the last latch, in the direction of the motor output.
+     */
+    private int position;
+
+    /**
+     * The quadrature velocity at the time of the last latch, in the direction of the motor output.
+     */
+    private double velocity;
+
+    /**
+     * @param talon The Talon the encoder is wired into. Its inversion must already be configured.
+     * @param distancePerRevolution The distance travelled per revolution of the encoder.
+     * @param isPhaseInverted Set to `true` if the encoder counts against the (uninverted) motor output.
+     */
+    public TalonMagEncoder(ITalonController talon, double distancePerRevolution, boolean isPhaseInverted) {
         this.talon = talon;
         this.distancePerCount = distancePerRevolution / COUNTS_PER_REVOLUTION;
+        this.direction = talon.isInverted() != isPhaseInverted ? -1 : 1;
         talon.setSensorPhase(isPhaseInverted);
+
+        // Make sure there are valid readings before the first tick.
+        latch();
+        SensorLatch.getInstance().register(this);
+    }
+
+    @Override
+    public void latch() {
+        position = direction * talon.getQuadraturePosition();
+        velocity = direction * talon.getQuadratureVelocity();
     }
 
     public double getVelocity() {
-        return talon.getSensorCollection().getQuadratureVelocity();
+        return velocity;
     }
 
     public int getPosition() {
-        return talon.getSensorCollection().getQuadraturePosition();
+        return position;
     }
 
+    /**
+     * Provides the absolute (pulse width) position. Unlike the other readings, this is NOT latched; it is read from
+     * the Talon on every call.
+     */
     public int getAbsolutePosition() {
-        return talon.getSensorCollection().getPulseWidthPosition();
+        return talon.getPulseWidthPosition();
     }
 
     public double getDistance() {
         return getPosition() * distancePerCount;
     }
 
+    /**
+     * Provides the latched velocity in distance units per second (rather than counts per 100ms).
+     */
+    public double getRate() {
+        return getVelocity() * distancePerCount * 10;
+    }
+
+    /**
+     * Provides the distance read directly from the Talon rather than the latched reading. Only needed by code that
+     * runs more often than once per tick (or outside of the tick entirely).
+     */
+    public double getLiveDistance() {
+        return direction * talon.getQuadraturePosition() * distancePerCount;
+    }
+
+    /**
+     * Converts a distance into the encoder position (counts) that would be read at that distance. Useful for giving
+     * closed loop targets to the Talon.
+     *
+     * @param distance The distance, in the same units as {@link #getDistance()}.
+     *
+     * @return The equivalent encoder position.
+     */
+    public double getPositionForDistance(double distance) {
+        return distance / distancePerCount;
+    }
+
     public void reset() {
-        talon.getSensorCollection().setQuadraturePosition(0, 2);
+        talon.setQuadraturePosition(0);
+
+        // Reflect the reset immediately rather than waiting for the next latch.
+        position = 0;
     }
 }
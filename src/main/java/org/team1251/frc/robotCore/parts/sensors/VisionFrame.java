@@ -0,0 +1,125 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+/**
+ * Everything a LimeLight reported, latched together at the start of a tick.
+ *
+ * Each LimeLight fills a few preallocated frames over and over (see {@link LimeLight}), so a frame is only valid
+ * during the tick it was latched in. To tell whether a new frame has arrived since the last one a consumer processed,
+ * keep that frame's sequence (see {@link #getSequence()}) rather than the frame itself. See
+ * {@link LimeLight#getLatestFrame()} for how closely the values match a single camera frame.
+ */
+public class VisionFrame {
+
+    /**
+     * A frame that stands in until the first real frame arrives. It has no target and is older than every real frame.
+     */
+    static final VisionFrame NONE = new VisionFrame();
+
+    private long sequence = 0;
+    private int pipeline = 0;
+    private boolean hasTarget = false;
+    private double horizontalOffset = 0;
+    private double verticalOffset = 0;
+    private double targetArea = 0;
+    private double targetSkew = 0;
+    private double latency = 0;
+    private double arrivalTimestamp = 0;
+
+    /**
+     * Fills in the frame. Only called by the thread that owns the frame at the time (see {@link LimeLight}).
+     */
+    void set(long sequence, int pipeline, boolean hasTarget, double horizontalOffset, double verticalOffset,
+             double targetArea, double targetSkew, double latency, double arrivalTimestamp) {
+        this.sequence = sequence;
+        this.pipeline = pipeline;
+        this.hasTarget = hasTarget;
+        this.horizontalOffset = horizontalOffset;
+        this.verticalOffset = verticalOffset;
+        this.targetArea = targetArea;
+        this.targetSkew = targetSkew;
+        this.latency = latency;
+        this.arrivalTimestamp = arrivalTimestamp;
+    }
+
+    /**
+     * Indicates whether this frame arrived after another frame. Useful for checking whether a new frame has arrived
+     * since the last one that was processed.
+     *
+     * @param otherSequence The other frame's sequence (see {@link #getSequence()}). Use 0 for no frame, which is
+     *                      older than every real frame.
+     *
+     * @return Whether this frame is newer.
+     */
+    public boolean isNewerThan(long otherSequence) {
+        return sequence > otherSequence;
+    }
+
+    /**
+     * @return The frame's position in the order frames arrived in (the first frame is 1).
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The pipeline the camera was running.
+     */
+    public int getPipeline() {
+        return pipeline;
+    }
+
+    public boolean hasTarget() {
+        return hasTarget;
+    }
+
+    /**
+     * @return Horizontal offset (degrees) from the crosshair to the target. Positive is to the right.
+     */
+    public double getHorizontalOffset() {
+        return horizontalOffset;
+    }
+
+    /**
+     * @return Vertical offset (degrees) from the crosshair to the target. Positive is up.
+     */
+    public double getVerticalOffset() {
+        return verticalOffset;
+    }
+
+    /**
+     * @return Percentage of image occupied by target.
+     */
+    public double getTargetArea() {
+        return targetArea;
+    }
+
+    /**
+     * @return Rotation/Skew of target in view.
+     */
+    public double getTargetSkew() {
+        return targetSkew;
+    }
+
+    /**
+     * @return Total latency (milliseconds) from image capture until the frame's values were published.
+     */
+    public double getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return When the last of the frame's values arrived at the robot (seconds, see
+     *         `TickClock.getTimestamp()`).
+     */
+    public double getArrivalTimestamp() {
+        return arrivalTimestamp;
+    }
+
+    /**
+     * @return An estimate of when the image was captured (seconds, see `TickClock.getTimestamp()`), for looking up
+     *         the robot's pose at that moment.
+     */
+    public double getCaptureTimestamp() {
+        return arrivalTimestamp - latency / 1000;
+    }
+}
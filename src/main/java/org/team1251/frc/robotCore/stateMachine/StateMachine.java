@@ -0,0 +1,407 @@
+package org.team1251.frc.robotCore.stateMachine;
+
+import org.team1251.frc.robotCore.logging.EventLevel;
+import org.team1251.frc.robotCore.logging.EventLog;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A state machine whose states are the values of an enum, and whose behavior is declared as a table.
+ *
+ * Each state may have:
+ *
+ *   - An action ({@link #whileIn(Enum, Runnable)}), run on every tick spent in the state.
+ *   - Any number of transitions ({@link #transition(Enum, BooleanSupplier, Enum)}), each a guard and the state to move
+ *     to when the guard is satisfied. Guards are checked in the order they were declared; the first one satisfied wins.
+ *   - A timeout ({@link #timeout(Enum, double, Enum)}): the state to move to once a certain amount of time has been
+ *     spent in the state. The timeout is checked before any guard.
+ *
+ * Everything is kept in arrays indexed by state ordinal, which are sized while the machine is declared. Running the
+ * machine ({@link #update()}) never allocates and does not search for the current state.
+ *
+ * The machine also records, for each state, when it was last entered, how long was spent there, how many times it
+ * timed out, and which state it was last left for (see {@link #getEnteredTime(Enum)}, {@link #getTimeSpent(Enum)},
+ * {@link #getTimeoutCount(Enum)} and {@link #getNextState(Enum)}). These are reset by {@link #start(Enum)}. Once the run is over, {@link #stop()} the machine: the timings then stay as they
+ * were when it stopped, so they describe that run. If an event log source is given, every transition (and every
+ * timeout) is logged against it.
+ *
+ * Times come from the {@link TickClock}. This class is NOT thread-safe. It must only be used from the main robot
+ * thread.
+ *
+ * @param <S> The enum whose values are the states.
+ */
+public class StateMachine<S extends Enum<S>> {
+
+    /**
+     * Marks an unused state index.
+     */
+    private static final int NONE = -1;
+
+    private final TickClock clock = TickClock.getInstance();
+    private final EventLog eventLog = EventLog.getInstance();
+
+    /**
+     * The event log source transitions are logged against. {@link #NONE} if transitions are not logged.
+     */
+    private final int eventSource;
+
+    /**
+     * Every state, by ordinal.
+     */
+    private final S[] states;
+
+    /**
+     * The action for each state. `null` for states without one.
+     */
+    private final Runnable[] actions;
+
+    /**
+     * The transitions out of each state, as parallel arrays: a guard and the ordinal of the state it leads to.
+     */
+    private final BooleanSupplier[][] guards;
+    private final int[][] guardTargets;
+
+    /**
+     * The timeout (seconds) of each state and the ordinal of the state it leads to. `NaN` and {@link #NONE} for states
+     * without one.
+     */
+    private final double[] timeouts;
+    private final int[] timeoutTargets;
+
+    /**
+     * The time (seconds, see {@link TickClock}) each state was last entered during this run. `NaN` if not entered.
+     */
+    private final double[] enteredTimes;
+
+    /**
+     * The time (seconds) spent in each state during this run, not counting the current visit to the current state.
+     */
+    private final double[] timesSpent;
+
+    /**
+     * The number of times each state has been entered during this run.
+     */
+    private final int[] entryCounts;
+
+    /**
+     * The number of times each state has timed out during this run.
+     */
+    private final int[] timeoutCounts;
+
+    /**
+     * The ordinal of the state each state was last left for during this run. {@link #NONE} if not left.
+     */
+    private final int[] nextStates;
+
+    /**
+     * The current state, or the state the machine stopped in. `null` until started.
+     */
+    private S current;
+
+    /**
+     * Whether the machine has been started and not stopped since.
+     */
+    private boolean isRunning = false;
+
+    /**
+     * The state before the current one. `null` if the current state is the first of the run.
+     */
+    private S previous;
+
+    /**
+     * @param stateType The enum whose values are the states.
+     */
+    public StateMachine(Class<S> stateType) {
+        this(stateType, NONE);
+    }
+
+    /**
+     * @param stateType The enum whose values are the states.
+     * @param eventSource The event log source to log transitions against, as provided by
+     *                    {@link EventLog#registerSource(String, double)}.
+     */
+    public StateMachine(Class<S> stateType, int eventSource) {
+        this.eventSource = eventSource;
+
+        states = stateType.getEnumConstants();
+        int count = states.length;
+
+        actions = new Runnable[count];
+        guards = new BooleanSupplier[count][0];
+        guardTargets = new int[count][0];
+        timeouts = new double[count];
+        timeoutTargets = new int[count];
+        enteredTimes = new double[count];
+        timesSpent = new double[count];
+        entryCounts = new int[count];
+        timeoutCounts = new int[count];
+        nextStates = new int[count];
+
+        Arrays.fill(timeouts, Double.NaN);
+        Arrays.fill(timeoutTargets, NONE);
+        Arrays.fill(enteredTimes, Double.NaN);
+        Arrays.fill(nextStates, NONE);
+    }
+
+    /**
+     * Declares the action for a state. Replaces any action already declared for it.
+     *
+     * @param state The state.
+     * @param action Run on every tick spent in the state, after transitions have been checked.
+     *
+     * @return This machine, so declarations can be chained.
+     */
+    public StateMachine<S> whileIn(S state, Runnable action) {
+        actions[state.ordinal()] = action;
+        return this;
+    }
+
+    /**
+     * Declares a transition. Transitions out of a state are checked in the order they are declared.
+     *
+     * @param from The state the transition leads out of.
+     * @param guard Checked on every tick spent in `from`. When satisfied, the machine moves to `to`.
+     * @param to The state the transition leads to.
+     *
+     * @return This machine, so declarations can be chained.
+     */
+    public StateMachine<S> transition(S from, BooleanSupplier guard, S to) {
+        int index = from.ordinal();
+        int count = guards[index].length;
+
+        guards[index] = Arrays.copyOf(guards[index], count + 1);
+        guardTargets[index] = Arrays.copyOf(guardTargets[index], count + 1);
+        guards[index][count] = guard;
+        guardTargets[index][count] = to.ordinal();
+        return this;
+    }
+
+    /**
+     * Declares a timeout for a state. Replaces any timeout already declared for it.
+     *
+     * @param state The state.
+     * @param seconds How long the machine may stay in the state.
+     * @param to The state to move to once that time has passed.
+     *
+     * @return This machine, so declarations can be chained.
+     */
+    public StateMachine<S> timeout(S state, double seconds, S to) {
+        timeouts[state.ordinal()] = seconds;
+        timeoutTargets[state.ordinal()] = to.ordinal();
+        return this;
+    }
+
+    /**
+     * Starts (or restarts) the machine, clearing the timings of any previous run.
+     *
+     * @param initial The state to start in.
+     */
+    public void start(S initial) {
+        Arrays.fill(enteredTimes, Double.NaN);
+        Arrays.fill(timesSpent, 0);
+        Arrays.fill(entryCounts, 0);
+        Arrays.fill(timeoutCounts, 0);
+        Arrays.fill(nextStates, NONE);
+        current = null;
+        previous = null;
+        isRunning = true;
+
+        enter(initial);
+    }
+
+    /**
+     * Stops the machine. The time spent in the current state is added to its total, and from then on the timings no
+     * longer change. {@link #update()} and {@link #forceTransition(Enum)} do nothing until the machine is started again.
+     *
+     * Does nothing if the machine is not running.
+     */
+    public void stop() {
+        if (!isRunning) {
+            return;
+        }
+
+        int index = current.ordinal();
+        timesSpent[index] += clock.getElapsed(enteredTimes[index]);
+        isRunning = false;
+    }
+
+    /**
+     * @return Whether the machine has been started and not stopped since.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Runs one tick: checks the current state's timeout and transitions, moving to the next state if one applies, then
+     * runs the (possibly new) current state's action. At most one transition happens per tick.
+     *
+     * Does nothing if the machine is not running.
+     *
+     * @return The current state.
+     */
+    public S update() {
+        if (!isRunning) {
+            return current;
+        }
+
+        int index = current.ordinal();
+        int next = NONE;
+
+        if (timeoutTargets[index] != NONE && clock.getElapsed(enteredTimes[index]) >= timeouts[index]) {
+            next = timeoutTargets[index];
+            timeoutCounts[index]++;
+            if (eventSource != NONE) {
+                eventLog.log(eventSource, EventLevel.WARNING, "Timed out", timeouts[index]);
+            }
+        } else {
+            BooleanSupplier[] stateGuards = guards[index];
+            for (int i = 0; i < stateGuards.length; i++) {
+                if (stateGuards[i].getAsBoolean()) {
+                    next = guardTargets[index][i];
+                    break;
+                }
+            }
+        }
+
+        if (next != NONE) {
+            enter(states[next]);
+        }
+
+        Runnable action = actions[current.ordinal()];
+        if (action != null) {
+            action.run();
+        }
+
+        return current;
+    }
+
+    /**
+     * Moves to a state right away, without checking any guard. The new state's action runs on the next
+     * {@link #update()}.
+     *
+     * Does nothing if the machine is not running.
+     *
+     * @param state The state to move to.
+     */
+    public void forceTransition(S state) {
+        if (isRunning) {
+            enter(state);
+        }
+    }
+
+    /**
+     * @return The current state, or the state the machine stopped in. `null` if the machine has not been started.
+     */
+    public S getState() {
+        return current;
+    }
+
+    /**
+     * @return The state before the current one. `null` if the current state is the first of the run.
+     */
+    public S getPreviousState() {
+        return previous;
+    }
+
+    /**
+     * @return Whether the machine has been started and is (or stopped) in the given state.
+     */
+    public boolean isIn(S state) {
+        return current == state;
+    }
+
+    /**
+     * @return The time (seconds) spent in the current state so far. `0` if the machine is not running.
+     */
+    public double getTimeInState() {
+        return isRunning ? clock.getElapsed(enteredTimes[current.ordinal()]) : 0;
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The time (seconds, see {@link TickClock}) the state was last entered during this run. `NaN` if it has
+     *         not been entered.
+     */
+    public double getEnteredTime(S state) {
+        return enteredTimes[state.ordinal()];
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The total time (seconds) spent in the state during this run, including the current visit if the machine
+     *         is running and in it now.
+     */
+    public double getTimeSpent(S state) {
+        int index = state.ordinal();
+        double timeSpent = timesSpent[index];
+        if (isRunning && current == state) {
+            timeSpent += clock.getElapsed(enteredTimes[index]);
+        }
+        return timeSpent;
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The number of times the state has been entered during this run.
+     */
+    public int getEntryCount(S state) {
+        return entryCounts[state.ordinal()];
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The number of times the state has timed out during this run.
+     */
+    public int getTimeoutCount(S state) {
+        return timeoutCounts[state.ordinal()];
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The state the machine moved to the last time it left the given state during this run. `null` if the
+     *         state has not been left.
+     */
+    public S getNextState(S state) {
+        int next = nextStates[state.ordinal()];
+        return next == NONE ? null : states[next];
+    }
+
+    /**
+     * @param state A state.
+     *
+     * @return The state's timeout (seconds). `NaN` if it has none.
+     */
+    public double getTimeout(S state) {
+        return timeouts[state.ordinal()];
+    }
+
+    /**
+     * Moves to a state, recording the time spent in the state being left.
+     */
+    private void enter(S state) {
+        double now = clock.getTime();
+
+        if (current != null) {
+            int index = current.ordinal();
+            timesSpent[index] += now - enteredTimes[index];
+            nextStates[index] = state.ordinal();
+        }
+
+        if (eventSource != NONE) {
+            eventLog.logTransition(eventSource, current, state);
+        }
+
+        previous = current;
+        current = state;
+        enteredTimes[state.ordinal()] = now;
+        entryCounts[state.ordinal()]++;
+    }
+}
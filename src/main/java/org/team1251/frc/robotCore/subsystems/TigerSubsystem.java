@@ -2,6 +2,7 @@ package org.team1251.frc.robotCore.subsystems;
 
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.Subsystem;
+import org.team1251.frc.robotCore.commands.TigerScheduler;
 
 /**
  * A subsystem that follows the patterns used by Team 1251, Tech Tigers.
@@ -15,11 +16,39 @@ import edu.wpi.first.wpilibj.command.Subsystem;
  *
  *   A default command can still be applied using `setDefaultCommand()` after the subsystem has been created.
  *   (see {@link edu.wpi.first.wpilibj.command.Subsystem#setDefaultCommand(Command)})
+ *
+ * ### Requirement bit
+ *
+ *   Every subsystem registers with the {@link TigerScheduler} and gets its own bit, which commands use to track their
+ *   requirements. While the `TigerScheduler` is in use, it also keeps track of the subsystem's current command.
  */
 public abstract class TigerSubsystem extends Subsystem {
 
+    /**
+     * This subsystem's requirement bit (see {@link TigerScheduler}).
+     */
+    private final long requirementBit;
+
+    private final TigerScheduler scheduler = TigerScheduler.getInstance();
+
     public TigerSubsystem() {
         super();
+        requirementBit = scheduler.registerSubsystem(this);
+    }
+
+    /**
+     * @return This subsystem's requirement bit (see {@link TigerScheduler}).
+     */
+    public long getRequirementBit() {
+        return requirementBit;
+    }
+
+    /**
+     * @return The command currently using this subsystem. `null` if the subsystem is idle.
+     */
+    @Override
+    public Command getCurrentCommand() {
+        return scheduler.isEnabled() ? scheduler.getCurrentCommand(requirementBit) : super.getCurrentCommand();
     }
 
     @Override
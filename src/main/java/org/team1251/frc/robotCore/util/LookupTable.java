@@ -0,0 +1,134 @@
+package org.team1251.frc.robotCore.util;
+
+import java.util.Arrays;
+
+/**
+ * A precomputed, piecewise linear function of one value, for replacing calibration curves (or trigonometry) that would
+ * otherwise be evaluated on every tick.
+ *
+ * The table is built once from a set of measured samples, which may be in any order and may repeat keys (repeated keys
+ * are averaged). The samples are resampled onto evenly spaced keys, so a lookup is just an index calculation and a
+ * linear interpolation between two array elements: no searching, no allocation.
+ *
+ * Keys outside of the measured range have no value ({@link #get(double)} returns `NaN`) -- a calibration can't say
+ * anything about values it never saw.
+ */
+public class LookupTable {
+
+    private final double minKey;
+    private final double maxKey;
+
+    /**
+     * The number of table entries per unit of key.
+     */
+    private final double entriesPerKey;
+
+    /**
+     * The value at each evenly spaced key, starting at {@link #minKey}.
+     */
+    private final double[] values;
+
+    /**
+     * Builds a table from measured samples.
+     *
+     * @param keys The sample keys.
+     * @param values The sample values. Must be the same length as `keys`.
+     * @param size The number of evenly spaced entries in the table. More entries follow the samples more closely.
+     *
+     * @throws IllegalArgumentException If there are fewer than 2 distinct keys, or fewer than 2 entries.
+     */
+    public LookupTable(double[] keys, double[] values, int size) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("There must be exactly one value for each key.");
+        }
+        if (size < 2) {
+            throw new IllegalArgumentException("A lookup table needs at least 2 entries.");
+        }
+
+        // Sort the samples by key, averaging samples with the same key.
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+
+        double[] sortedKeys = new double[keys.length];
+        double[] sortedValues = new double[keys.length];
+        int count = 0;
+        for (int i = 0; i < order.length; ) {
+            double key = keys[order[i]];
+            double sum = 0;
+            int repeats = 0;
+            for (; i < order.length && keys[order[i]] == key; i++, repeats++) {
+                sum += values[order[i]];
+            }
+            sortedKeys[count] = key;
+            sortedValues[count] = sum / repeats;
+            count++;
+        }
+
+        if (count < 2) {
+            throw new IllegalArgumentException("A lookup table needs samples at 2 or more distinct keys.");
+        }
+
+        minKey = sortedKeys[0];
+        maxKey = sortedKeys[count - 1];
+        entriesPerKey = (size - 1) / (maxKey - minKey);
+
+        // Resample onto evenly spaced keys.
+        this.values = new double[size];
+        int segment = 0;
+        for (int i = 0; i < size; i++) {
+            double key = i == size - 1 ? maxKey : minKey + i / entriesPerKey;
+            while (segment < count - 2 && key > sortedKeys[segment + 1]) {
+                segment++;
+            }
+            this.values[i] = interpolate(sortedKeys[segment], sortedValues[segment],
+                    sortedKeys[segment + 1], sortedValues[segment + 1], key);
+        }
+    }
+
+    /**
+     * Looks up the value for a key.
+     *
+     * @param key The key.
+     *
+     * @return The value, linearly interpolated between table entries. `NaN` if the key is outside of the range of the
+     *         samples.
+     */
+    public double get(double key) {
+        if (!(key >= minKey && key <= maxKey)) {
+            return Double.NaN;
+        }
+
+        double position = (key - minKey) * entriesPerKey;
+        int index = Math.min((int) position, values.length - 2);
+        double fraction = position - index;
+        return values[index] + (values[index + 1] - values[index]) * fraction;
+    }
+
+    /**
+     * @return Whether the key is within the range of the samples.
+     */
+    public boolean contains(double key) {
+        return key >= minKey && key <= maxKey;
+    }
+
+    /**
+     * @return The smallest sampled key.
+     */
+    public double getMinKey() {
+        return minKey;
+    }
+
+    /**
+     * @return The largest sampled key.
+     */
+    public double getMaxKey() {
+        return maxKey;
+    }
+
+    private static double interpolate(double x0, double y0, double x1, double y1, double x) {
+        return y0 + (y1 - y0) * (x - x0) / (x1 - x0);
+    }
+}
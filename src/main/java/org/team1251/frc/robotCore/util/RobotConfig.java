@@ -0,0 +1,101 @@
+package org.team1251.frc.robotCore.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * Robot settings which are measured or tuned on the real robot (maximum velocities, gains, dimensions), read from a
+ * properties file deployed with the robot code.
+ *
+ * Keeping these in a file rather than in code means a value measured at an event can be changed and redeployed without
+ * touching the code that uses it, and the file documents how each value was (or should be) measured.
+ *
+ * Every setting has a default in code. A missing file, a missing setting or a value which can't be read is reported and
+ * the default is used; the robot can always run. Settings are read once, while the robot is initializing.
+ */
+public class RobotConfig {
+
+    private final Properties properties = new Properties();
+
+    /**
+     * Where the settings came from, for error messages.
+     */
+    private final String source;
+
+    /**
+     * Creates a config from a properties file. If the file can't be read, an error is reported and every setting
+     * takes its default.
+     *
+     * @param file The properties file.
+     */
+    public RobotConfig(File file) {
+        source = file.toString();
+
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to load robot config " + file + ". Defaults will be used: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a config with no settings. Every setting takes its default.
+     */
+    public RobotConfig() {
+        source = "defaults";
+    }
+
+    /**
+     * Reads a numeric setting.
+     *
+     * @param key The setting's name.
+     * @param defaultValue The value to use if the setting is missing or is not a number.
+     *
+     * @return The setting's value.
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Robot config setting " + key + " in " + source + " is not a number (\"" + value
+                    + "\"). Using " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a true/false setting.
+     *
+     * @param key The setting's name.
+     * @param defaultValue The value to use if the setting is missing or is neither `true` nor `false`.
+     *
+     * @return The setting's value.
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        value = value.trim();
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+
+        System.err.println("Robot config setting " + key + " in " + source + " is not true or false (\"" + value
+                + "\"). Using " + defaultValue + ".");
+        return defaultValue;
+    }
+}
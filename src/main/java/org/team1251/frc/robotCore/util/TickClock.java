@@ -0,0 +1,159 @@
+package org.team1251.frc.robotCore.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The robot's clock, read once at the start of every tick.
+ *
+ * A WPI Lib `Timer` reads the FPGA timestamp (through JNI) on every `get()`, so two time checks during the same tick
+ * can disagree. This clock is instead latched by `TigerTimedRobot` at the start of each tick; every time check during
+ * the tick sees the same time, and checking it costs nothing.
+ *
+ * Rather than owning a `Timer`, keep a timestamp (a `double`) and ask the clock about it:
+ *
+ * ```
+ * double start = clock.getTime();            // instead of timer.reset(); timer.start();
+ * clock.getElapsed(start)                    // instead of timer.get()
+ * double deadline = clock.getDeadline(.25);  // ...and then later
+ * clock.hasPassed(deadline)
+ * ```
+ *
+ * The clock can also be switched to virtual time, where it only moves when {@link #advance(double)} is called. This
+ * lets a simulation run the robot code faster (or slower) than real time while time-based behavior stays correct.
+ * {@link #useRealTime()} switches it back.
+ *
+ * Timestamps taken on other threads (for example, for odometry or camera frames) come from
+ * {@link #getTimestamp()} instead, so that they line up with the tick time in virtual time as well as in real time.
+ *
+ * Like the WPI Lib `Scheduler`, there is one clock for the whole robot; use {@link #getInstance()} to get it.
+ * Apart from {@link #getTimestamp()}, this class is NOT thread-safe. It must only be used from the main robot thread.
+ */
+public class TickClock {
+
+    /**
+     * The one and only instance.
+     */
+    private static TickClock instance;
+
+    /**
+     * The time (seconds) as of the last latch. Only written by the main robot thread.
+     */
+    private volatile double time;
+
+    /**
+     * Whether the clock only moves when it is advanced. Only written by the main robot thread.
+     */
+    private volatile boolean isVirtual = false;
+
+    /**
+     * Provides the robot's clock.
+     *
+     * @return The one and only clock instance.
+     */
+    public static synchronized TickClock getInstance() {
+        if (instance == null) {
+            instance = new TickClock();
+        }
+        return instance;
+    }
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    private TickClock() {
+        // Make sure there is a valid time before the first tick.
+        time = Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Reads the FPGA timestamp and keeps it until the next call. Called once at the start of every tick. Does nothing
+     * while the clock is virtual.
+     */
+    public void latch() {
+        if (!isVirtual) {
+            time = Timer.getFPGATimestamp();
+        }
+    }
+
+    /**
+     * @return The time (seconds) as of the start of the current tick.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Provides a timestamp for something happening right now, on any thread. In real time, this is the FPGA timestamp
+     * (which keeps moving during the tick, unlike {@link #getTime()}). In virtual time, this is the virtual time.
+     *
+     * @return The current time (seconds).
+     */
+    public double getTimestamp() {
+        return isVirtual ? time : Timer.getFPGATimestamp();
+    }
+
+    /**
+     * @param since An earlier time (seconds), from {@link #getTime()}.
+     *
+     * @return The time (seconds) which has passed since then.
+     */
+    public double getElapsed(double since) {
+        return time - since;
+    }
+
+    /**
+     * @param duration An amount of time (seconds).
+     *
+     * @return The time (seconds) at which that amount of time will have passed.
+     */
+    public double getDeadline(double duration) {
+        return time + duration;
+    }
+
+    /**
+     * @param deadline A time (seconds), from {@link #getDeadline(double)}.
+     *
+     * @return Whether that time has been reached.
+     */
+    public boolean hasPassed(double deadline) {
+        return time >= deadline;
+    }
+
+    /**
+     * Switches to virtual time. From now on (until {@link #useRealTime()}), the clock only moves when
+     * {@link #advance(double)} is called.
+     */
+    public void useVirtualTime() {
+        isVirtual = true;
+    }
+
+    /**
+     * Switches back to real time, and latches the FPGA timestamp right away. The clock is shared by the whole process,
+     * so tests which switch to virtual time call this when they are done, to leave the clock as they found it.
+     */
+    public void useRealTime() {
+        isVirtual = false;
+        latch();
+    }
+
+    /**
+     * @return Whether the clock only moves when it is advanced.
+     */
+    public boolean isVirtual() {
+        return isVirtual;
+    }
+
+    /**
+     * Moves virtual time forward.
+     *
+     * @param seconds The amount of time to move forward.
+     *
+     * @throws IllegalStateException If the clock is not virtual.
+     */
+    public void advance(double seconds) {
+        if (!isVirtual) {
+            throw new IllegalStateException("Only virtual time can be advanced.");
+        }
+        time += seconds;
+    }
+}
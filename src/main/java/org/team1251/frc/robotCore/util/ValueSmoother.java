@@ -1,15 +1,32 @@
 package org.team1251.frc.robotCore.util;
 
-import edu.wpi.first.wpilibj.Timer;
-
+import org.team1251.frc.robotCore.util.filters.MovingAverageFilter;
+import org.team1251.frc.robotCore.util.filters.IValueFilter;
+
+/**
+ * Smooths a stream of values using an {@link IValueFilter}, discarding the filter's history when it goes stale.
+ *
+ * Any filter from `robotCore.util.filters` may be used. Use the cheapest one that gives acceptable results:
+ *
+ *   - `ExponentialFilter` - cheapest, no history.
+ *   - `SlewRateFilter` - no history, limits how quickly the value may change.
+ *   - `MovingAverageFilter` - constant cost per value regardless of the number of samples.
+ *   - `MedianFilter` - cost grows with the window size, but ignores wild readings.
+ */
 public class ValueSmoother {
 
-    private final Timer timer;
+    private final TickClock clock = TickClock.getInstance();
     private final double idleTimeout;
+
+    /**
+     * When (seconds, see {@link TickClock}) the last value was received.
+     */
+    private double lastValueTime;
+
     /**
-     * A record of past values used to smooth out the latest value.
+     * The filter which does the actual smoothing.
      */
-    private double[] smoothing;
+    private final IValueFilter filter;
 
     /**
      * If true, then a change in sign between two contiguous samples will reset
@@ -17,8 +34,7 @@ public class ValueSmoother {
     private final boolean resetOnSignChange;
 
     /**
-     * Convenience copy of the last received value. Saves the effort of digging it out of the
-     * smoothing array.
+     * Convenience copy of the last received value.
      */
     private double lastRawValue;
 
@@ -28,23 +44,32 @@ public class ValueSmoother {
     private double lastSmoothedValue;
 
     /**
-     * The number of past values to use to smooth out the current value.
+     * Creates a smoother which averages the most recent samples.
+     *
+     * @param numSamples The number of samples to apply
+     * @param idleTimeout The amount of time (seconds) after which past samples are discarded if no new value has been
+     *                    received.
+     * @param resetOnSignChange If true, all past samples will be discarded if the value has changed sign since
+     *                          the last sample.
      */
-    private final int numSamples;
+    public ValueSmoother(int numSamples, double idleTimeout, boolean resetOnSignChange) {
+        this(new MovingAverageFilter(numSamples), idleTimeout, resetOnSignChange);
+    }
 
     /**
+     * Creates a smoother which uses a specific filter.
      *
-     * @param numSamples The number of samples to apply
+     * @param filter The filter used to smooth values. This should not be shared with anything else.
+     * @param idleTimeout The amount of time (seconds) after which past samples are discarded if no new value has been
+     *                    received.
      * @param resetOnSignChange If true, all past samples will be discarded if the value has changed sign since
      *                          the last sample.
      */
-    public ValueSmoother(int numSamples, double idleTimeout, boolean resetOnSignChange) {
-        timer = new Timer();
-        timer.start();
+    public ValueSmoother(IValueFilter filter, double idleTimeout, boolean resetOnSignChange) {
+        lastValueTime = clock.getTime();
 
+        this.filter = filter;
         this.idleTimeout = idleTimeout;
-        this.numSamples = numSamples;
-        this.smoothing = new double[numSamples];
         this.resetOnSignChange = resetOnSignChange;
     }
 
@@ -55,49 +80,25 @@ public class ValueSmoother {
 
         // Check to see if the previous samples are still valid. They are discarded if they are stale or if the
         // sign has changed since the last sample and the resetOnSignChange flag is set.
-        if (timer.get() > idleTimeout || (resetOnSignChange && hasSignChanged(newValue))) {
-            // Re-initialize the sample list.
-            smoothing = new double[numSamples];
+        if (clock.getElapsed(lastValueTime) > idleTimeout || (resetOnSignChange && hasSignChanged(newValue))) {
+            reset();
         }
 
-        timer.reset();
-        return this.applySmoothing(newValue);
+        lastValueTime = clock.getTime();
+
+        lastRawValue = newValue;
+        return lastSmoothedValue = filter.apply(newValue);
     }
 
     /**
-     * Applies smoothing to the current stick value, adding the current value to the history of recent reads.
-     *
-     * @param currentValue The current stick reading.
-     *
-     * @return The current stick value smoothed over past readings.
+     * Discards all past samples.
      */
-    private double applySmoothing(double currentValue) {
-
-
-
-        double sum = 0.0;
-        for (int i = 0; i < numSamples; i++) {
-            // See if this is the last iteration.
-            if (i < numSamples - 1) {
-                // Replace this value with the one after it. If this the first iteration, the existing
-                // value at this index is discarded. All others are preserved by the shifting that occurred
-                // in the previous iteration.
-                smoothing[i] = smoothing[i + 1];
-            } else {
-                // We've reached the last iteration. Nothing more to shift. The new value becomes the last element
-                // (or the "newest") element of the array.
-                smoothing[i] = currentValue;
-            }
-
-            // Aggregate the value as we pass by so that we don't need to loop again.
-            sum += smoothing[i];
-        }
-
-        lastRawValue = currentValue;
-        return lastSmoothedValue = sum / numSamples;
+    public void reset() {
+        filter.reset();
+        lastSmoothedValue = 0;
     }
 
     private boolean hasSignChanged(double currentValue) {
         return (lastSmoothedValue < 0 && currentValue > 0) || (lastSmoothedValue > 0 && currentValue < 0);
     }
-}
\ No newline at end of file
+}
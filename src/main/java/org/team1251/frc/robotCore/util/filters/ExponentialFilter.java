@@ -0,0 +1,55 @@
+package org.team1251.frc.robotCore.util.filters;
+
+/**
+ * An exponential moving average (a.k.a. a "low-pass filter").
+ *
+ * Each new value moves the output part of the way towards that value. This is the cheapest smoothing filter
+ * available: a single multiply-add per value and no history.
+ */
+public class ExponentialFilter implements IValueFilter {
+
+    /**
+     * How much weight the newest value gets.
+     */
+    private final double smoothingFactor;
+
+    /**
+     * The most recent output value.
+     */
+    private double output = 0;
+
+    /**
+     * Whether or not any value has been received since creation (or reset).
+     */
+    private boolean isPrimed = false;
+
+    /**
+     * @param smoothingFactor A value between 0 and 1 indicating how much weight to give each new value. Lower values
+     *                        produce smoother (but slower to respond) output. A value of 1 disables smoothing.
+     */
+    public ExponentialFilter(double smoothingFactor) {
+        if (smoothingFactor <= 0 || smoothingFactor > 1) {
+            throw new IllegalArgumentException("Smoothing factor must be greater than 0 and no more than 1.");
+        }
+        this.smoothingFactor = smoothingFactor;
+    }
+
+    @Override
+    public double apply(double value) {
+        if (!isPrimed) {
+            // Start from the first value rather than ramping up from zero.
+            isPrimed = true;
+            output = value;
+        } else {
+            output += smoothingFactor * (value - output);
+        }
+
+        return output;
+    }
+
+    @Override
+    public void reset() {
+        isPrimed = false;
+        output = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package org.team1251.frc.robotCore.util.filters;
+
+/**
+ * A filter which is fed a stream of values, one at a time, and produces a filtered value for each.
+ *
+ * Filters are expected to be fed from the robot tick, so implementations do a constant (or very small) amount of work
+ * for each value and never allocate after they are created.
+ */
+public interface IValueFilter {
+
+    /**
+     * Feeds a new value into the filter.
+     *
+     * @param value The newest raw value.
+     *
+     * @return The filtered value.
+     */
+    double apply(double value);
+
+    /**
+     * Discards all history, returning the filter to the state it was in when it was created.
+     */
+    void reset();
+}
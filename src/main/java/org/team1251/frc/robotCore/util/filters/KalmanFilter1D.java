@@ -0,0 +1,166 @@
+package org.team1251.frc.robotCore.util.filters;
+
+/**
+ * A constant-velocity Kalman filter for a single value.
+ *
+ * The filter tracks both the value and how fast it is changing. Between measurements it can {@link #predict} where
+ * the value has moved to; when a measurement arrives it {@link #correct}s the estimate, trusting the measurement more or
+ * less depending on how uncertain the estimate had become.
+ *
+ * Unlike the other filters in this package, this does not implement {@link IValueFilter}: measurements don't arrive on
+ * every tick, and predictions need to know how much time has passed.
+ *
+ * The 2x2 covariance is kept in plain fields, so the filter never allocates.
+ */
+public class KalmanFilter1D {
+
+    /**
+     * Variance of a single measurement (units squared).
+     */
+    private final double measurementVariance;
+
+    /**
+     * How unpredictably the rate of change can change (variance of the acceleration, units squared per second^4).
+     */
+    private final double accelerationVariance;
+
+    /**
+     * Estimated value and rate of change (units per second).
+     */
+    private double value = 0;
+    private double rate = 0;
+
+    /**
+     * Estimate covariance: [[p00, p01], [p01, p11]].
+     */
+    private double p00;
+    private double p01;
+    private double p11;
+
+    /**
+     * Whether the filter has received a measurement since creation (or reset).
+     */
+    private boolean isPrimed = false;
+
+    /**
+     * @param measurementVariance Variance of a single measurement (units squared).
+     * @param accelerationVariance How unpredictably the rate of change can change (units squared per second^4). Higher
+     *                             values follow changes faster but smooth less.
+     */
+    public KalmanFilter1D(double measurementVariance, double accelerationVariance) {
+        if (measurementVariance <= 0 || accelerationVariance <= 0) {
+            throw new IllegalArgumentException("Variances must be greater than 0.");
+        }
+        this.measurementVariance = measurementVariance;
+        this.accelerationVariance = accelerationVariance;
+    }
+
+    /**
+     * Moves the estimate forward in time.
+     *
+     * @param dt Time (seconds) since the last prediction.
+     * @param knownChange A change in the value that is known to have happened during that time for reasons other than
+     *                    the value's own motion (for example, the robot turning while tracking a camera target).
+     */
+    public void predict(double dt, double knownChange) {
+        if (!isPrimed) {
+            return;
+        }
+
+        value += rate * dt + knownChange;
+
+        double dt2 = dt * dt;
+        double q = accelerationVariance;
+        p00 += 2 * dt * p01 + dt2 * p11 + q * dt2 * dt2 / 4;
+        p01 += dt * p11 + q * dt2 * dt / 2;
+        p11 += q * dt2;
+    }
+
+    /**
+     * Measures how surprising a measurement would be, without using it. Useful for rejecting outliers.
+     *
+     * @param measurement The measured value.
+     *
+     * @return The squared difference between the measurement and the estimate, in units of its expected variance.
+     *         Values above 9 (three standard deviations) are very unlikely for a genuine measurement. Always 0 before
+     *         the first measurement.
+     */
+    public double getSurprise(double measurement) {
+        if (!isPrimed) {
+            return 0;
+        }
+
+        double innovation = measurement - value;
+        return innovation * innovation / (p00 + measurementVariance);
+    }
+
+    /**
+     * Corrects the estimate with a measurement. The first measurement (since creation or reset) is taken as-is.
+     *
+     * @param measurement The measured value.
+     */
+    public void correct(double measurement) {
+        if (!isPrimed) {
+            reset(measurement);
+            return;
+        }
+
+        double innovation = measurement - value;
+        double s = p00 + measurementVariance;
+        double k0 = p00 / s;
+        double k1 = p01 / s;
+
+        value += k0 * innovation;
+        rate += k1 * innovation;
+
+        p11 -= k1 * p01;
+        p01 *= 1 - k0;
+        p00 *= 1 - k0;
+    }
+
+    /**
+     * Starts the estimate over from a single measurement, with no known rate of change.
+     *
+     * @param measurement The measured value.
+     */
+    public void reset(double measurement) {
+        isPrimed = true;
+        value = measurement;
+        rate = 0;
+        p00 = measurementVariance;
+        p01 = 0;
+        p11 = measurementVariance;
+    }
+
+    /**
+     * Discards everything, returning the filter to the state it was in when it was created.
+     */
+    public void reset() {
+        isPrimed = false;
+        value = 0;
+        rate = 0;
+        p00 = p01 = p11 = 0;
+    }
+
+    public boolean isPrimed() {
+        return isPrimed;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return The estimated rate of change (units per second).
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return The variance (units squared) of the estimated value.
+     */
+    public double getVariance() {
+        return p00;
+    }
+}
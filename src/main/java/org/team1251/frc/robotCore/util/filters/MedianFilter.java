@@ -0,0 +1,93 @@
+package org.team1251.frc.robotCore.util.filters;
+
+/**
+ * Provides the median of the most recent values.
+ *
+ * Unlike an average, a median ignores occasional wild readings entirely, which makes it a good fit for noisy sensors
+ * that sometimes "glitch" (for example, distance sensors).
+ *
+ * Until the window fills up, the median of the values received so far is provided.
+ */
+public class MedianFilter implements IValueFilter {
+
+    /**
+     * Ring buffer of the most recent values, in the order they were received.
+     */
+    private final double[] window;
+
+    /**
+     * The same values as the window, kept in sorted order.
+     */
+    private final double[] sorted;
+
+    /**
+     * The position in the window which will receive the next value.
+     */
+    private int nextIndex = 0;
+
+    /**
+     * The number of values currently in the window.
+     */
+    private int count = 0;
+
+    /**
+     * @param windowSize The number of values to take the median of. Odd sizes are recommended so that the median is
+     *                   always an actual reading.
+     */
+    public MedianFilter(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("A median requires at least one sample.");
+        }
+        window = new double[windowSize];
+        sorted = new double[windowSize];
+    }
+
+    @Override
+    public double apply(double value) {
+        if (count == window.length) {
+            // The window is full, so the oldest value falls out.
+            removeSorted(window[nextIndex]);
+        } else {
+            count++;
+        }
+
+        window[nextIndex] = value;
+        nextIndex = (nextIndex + 1) % window.length;
+        insertSorted(value);
+
+        int middle = count / 2;
+        return (count % 2 == 1) ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    /**
+     * Removes one occurrence of a value from the sorted values. The sorted values must contain `count` values,
+     * including the one being removed.
+     */
+    private void removeSorted(double value) {
+        int i = 0;
+        while (i < count - 1 && sorted[i] != value) {
+            i++;
+        }
+
+        // Shift everything after the removed value down one position.
+        System.arraycopy(sorted, i + 1, sorted, i, count - 1 - i);
+    }
+
+    /**
+     * Inserts a value into the sorted values. The sorted values must contain `count - 1` values before the insert.
+     */
+    private void insertSorted(double value) {
+        int i = count - 1;
+        while (i > 0 && sorted[i - 1] > value) {
+            sorted[i] = sorted[i - 1];
+            i--;
+        }
+        sorted[i] = value;
+    }
+
+    @Override
+    public void reset() {
+        nextIndex = 0;
+        count = 0;
+    }
+}
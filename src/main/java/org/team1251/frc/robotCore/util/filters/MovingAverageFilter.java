@@ -0,0 +1,68 @@
+package org.team1251.frc.robotCore.util.filters;
+
+import java.util.Arrays;
+
+/**
+ * Averages the most recent values.
+ *
+ * The history starts out filled with zeros (and is refilled with zeros on reset), so the output ramps up to the input
+ * over the first few samples instead of jumping straight to it. This makes it useful as a hysteresis.
+ *
+ * Each value costs a constant amount of work regardless of the number of samples: the samples are kept in a ring
+ * buffer along with a running sum.
+ */
+public class MovingAverageFilter implements IValueFilter {
+
+    /**
+     * Ring buffer of the most recent values.
+     */
+    private final double[] samples;
+
+    /**
+     * The position in the ring buffer which will receive the next value. This is also the oldest value.
+     */
+    private int nextIndex = 0;
+
+    /**
+     * Sum of all values in the ring buffer.
+     */
+    private double sum = 0;
+
+    /**
+     * @param numSamples The number of values to average together.
+     */
+    public MovingAverageFilter(int numSamples) {
+        if (numSamples < 1) {
+            throw new IllegalArgumentException("A moving average requires at least one sample.");
+        }
+        samples = new double[numSamples];
+    }
+
+    @Override
+    public double apply(double value) {
+        // Replace the oldest value with the newest one.
+        sum += value - samples[nextIndex];
+        samples[nextIndex] = value;
+
+        nextIndex++;
+        if (nextIndex == samples.length) {
+            nextIndex = 0;
+
+            // Recalculate the sum once per trip around the buffer so that floating point error from the running
+            // sum can not build up over a long match.
+            sum = 0;
+            for (double sample : samples) {
+                sum += sample;
+            }
+        }
+
+        return sum / samples.length;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(samples, 0.0);
+        nextIndex = 0;
+        sum = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package org.team1251.frc.robotCore.util.filters;
+
+/**
+ * Limits how quickly the output may change from one value to the next (a.k.a. a "slew rate limiter").
+ *
+ * The output follows the input exactly, except that it will never move more than the configured amount per value.
+ * This is useful for softening abrupt input changes, such as a driver slamming the throttle from full forward to full
+ * reverse.
+ *
+ * Filters are fed once per robot tick, so the limit is expressed per value rather than per second. For a limit in
+ * units per second, multiply by the tick period.
+ */
+public class SlewRateFilter implements IValueFilter {
+
+    /**
+     * The maximum amount the output may change per value.
+     */
+    private final double maxChangePerValue;
+
+    /**
+     * The most recent output value.
+     */
+    private double output = 0;
+
+    /**
+     * @param maxChangePerValue The maximum amount (always positive) that the output may change per value.
+     */
+    public SlewRateFilter(double maxChangePerValue) {
+        if (maxChangePerValue <= 0) {
+            throw new IllegalArgumentException("The maximum change must be greater than zero.");
+        }
+        this.maxChangePerValue = maxChangePerValue;
+    }
+
+    @Override
+    public double apply(double value) {
+        double change = value - output;
+        if (change > maxChangePerValue) {
+            change = maxChangePerValue;
+        } else if (change < -maxChangePerValue) {
+            change = -maxChangePerValue;
+        }
+
+        return output += change;
+    }
+
+    @Override
+    public void reset() {
+        output = 0;
+    }
+}
@@ -0,0 +1,278 @@
+package org.team1251.frc.robotCore.vision;
+
+import edu.wpi.first.networktables.NetworkTable;
+import org.team1251.frc.robotCore.humanInterface.output.ITelemetryProvider;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryPublisher;
+import org.team1251.frc.robotCore.humanInterface.output.TelemetryTables;
+import org.team1251.frc.robotCore.parts.sensors.LimeLight;
+import org.team1251.frc.robotCore.parts.sensors.VisionFrame;
+import org.team1251.frc.robotCore.util.LookupTable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Estimates how far away a LimeLight target is, from a calibration measured on the real robot.
+ *
+ * Rather than working the distance out from the camera's mounting angle and height (which are never quite what the CAD
+ * says, and amplify the noise in the vertical offset at long range), the distance is looked up in tables built from
+ * samples of the vertical offset and target area taken at measured distances. See {@link #appendSample} for how to
+ * record samples, and `VisionCalibrationCapture` for a command that does it.
+ *
+ * Each pipeline gets its own tables, since pipelines can be zoomed or cropped differently. The pipeline comes from the
+ * frame (see {@link VisionFrame#getPipeline()}).
+ *
+ * The vertical offset is preferred. The target area is used when the vertical offset is outside of the calibrated
+ * range (for example, when the target is partly out of view). The area table is keyed by `1 / sqrt(area)`, which is
+ * nearly proportional to distance, so linear interpolation between samples is accurate.
+ *
+ * A pipeline without a calibration falls back to the camera geometry: the distance at which the target, at its known
+ * height above the camera, would appear at the camera's pitch plus the vertical offset. This is less accurate, but
+ * means a distance is available before the robot has been calibrated.
+ *
+ * The calibration file is a CSV file with one sample per line: `pipeline, distance, ty, ta`. Blank lines and lines
+ * starting with `#` are ignored.
+ */
+public class DistanceEstimator implements ITelemetryProvider {
+
+    /**
+     * The number of pipelines a LimeLight can store.
+     */
+    private static final int PIPELINE_COUNT = 10;
+
+    /**
+     * The number of entries in each lookup table.
+     */
+    private static final int TABLE_SIZE = 256;
+
+    private static final String FILE_HEADER = "# pipeline, distance, ty, ta";
+
+    private final LimeLight limeLight;
+
+    /**
+     * The camera geometry, for pipelines without a calibration. Distances are in the same units as the height.
+     */
+    private final double targetHeightAboveCamera;
+    private final double cameraPitch;
+
+    /**
+     * Lookup tables, indexed by pipeline. An entry is `null` if that pipeline has not been calibrated.
+     */
+    private final LookupTable[] distanceByVerticalOffset = new LookupTable[PIPELINE_COUNT];
+    private final LookupTable[] distanceByArea = new LookupTable[PIPELINE_COUNT];
+
+    /**
+     * The publisher that telemetry values are sent through. `null` until telemetry is first sent.
+     */
+    private TelemetryPublisher telemetry;
+
+    /**
+     * Telemetry channel handles.
+     */
+    private int telemetryDistance;
+
+    /**
+     * Creates an estimator from a calibration file. If the file can't be read, an error is reported and every pipeline
+     * falls back to the camera geometry; the robot can still run without a calibration. A pipeline whose samples can't
+     * be interpolated (fewer than 2 distinct vertical offsets or areas) is reported, and falls back on its own.
+     *
+     * @param limeLight The camera. Must be listening (see {@link LimeLight#startListening()}) for telemetry.
+     * @param calibrationFile The calibration file.
+     * @param targetHeightAboveCamera How far the middle of the target is above the camera lens, in the units distances
+     *                                are estimated in.
+     * @param cameraPitch How far (degrees) the camera is tilted up from horizontal. Negative if tilted down.
+     */
+    public DistanceEstimator(LimeLight limeLight, File calibrationFile, double targetHeightAboveCamera,
+                             double cameraPitch) {
+        this.limeLight = limeLight;
+        this.targetHeightAboveCamera = targetHeightAboveCamera;
+        this.cameraPitch = cameraPitch;
+
+        try {
+            load(calibrationFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to load vision calibration " + calibrationFile
+                    + ". Target distance will be estimated from the camera geometry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the samples from a calibration file and builds the lookup tables.
+     */
+    private void load(File calibrationFile) throws IOException {
+        // Collect the samples for each pipeline.
+        int[] counts = new int[PIPELINE_COUNT];
+        double[][] distances = new double[PIPELINE_COUNT][16];
+        double[][] verticalOffsets = new double[PIPELINE_COUNT][16];
+        double[][] areaKeys = new double[PIPELINE_COUNT][16];
+
+        try (BufferedReader reader = Files.newBufferedReader(calibrationFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] columns = line.split(",");
+                if (columns.length != 4) {
+                    throw new IOException("Line " + lineNumber + " should have 4 columns.");
+                }
+
+                int pipeline = Integer.parseInt(columns[0].trim());
+                if (pipeline < 0 || pipeline >= PIPELINE_COUNT) {
+                    throw new IOException("Line " + lineNumber + " has an invalid pipeline.");
+                }
+
+                int i = counts[pipeline]++;
+                if (i == distances[pipeline].length) {
+                    distances[pipeline] = Arrays.copyOf(distances[pipeline], i * 2);
+                    verticalOffsets[pipeline] = Arrays.copyOf(verticalOffsets[pipeline], i * 2);
+                    areaKeys[pipeline] = Arrays.copyOf(areaKeys[pipeline], i * 2);
+                }
+                distances[pipeline][i] = Double.parseDouble(columns[1].trim());
+                verticalOffsets[pipeline][i] = Double.parseDouble(columns[2].trim());
+                areaKeys[pipeline][i] = getAreaKey(Double.parseDouble(columns[3].trim()));
+            }
+        }
+
+        for (int pipeline = 0; pipeline < PIPELINE_COUNT; pipeline++) {
+            int count = counts[pipeline];
+            if (count == 0) {
+                continue;
+            }
+
+            // A pipeline part way through being calibrated (for example, after its first captured sample) can't be
+            // interpolated yet. It falls back to the camera geometry without affecting the other pipelines.
+            double[] pipelineDistances = Arrays.copyOf(distances[pipeline], count);
+            try {
+                LookupTable byVerticalOffset = new LookupTable(
+                        Arrays.copyOf(verticalOffsets[pipeline], count), pipelineDistances, TABLE_SIZE);
+                LookupTable byArea = new LookupTable(
+                        Arrays.copyOf(areaKeys[pipeline], count), pipelineDistances, TABLE_SIZE);
+                distanceByVerticalOffset[pipeline] = byVerticalOffset;
+                distanceByArea[pipeline] = byArea;
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unable to use the vision calibration for pipeline " + pipeline + " in "
+                        + calibrationFile + ". Its target distance will be estimated from the camera geometry: "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts a target area into the key of the area table.
+     */
+    private static double getAreaKey(double area) {
+        return 1 / Math.sqrt(area);
+    }
+
+    /**
+     * Estimates the distance to a target using a pipeline's calibration, or the camera geometry if the pipeline is not
+     * calibrated.
+     *
+     * @param pipeline The pipeline the target was seen with.
+     * @param verticalOffset The target's vertical offset (degrees).
+     * @param area The target's area (percent of the image).
+     *
+     * @return The estimated distance, in whatever units the calibration was measured in. `NaN` if the target is
+     *         outside of the calibrated range, or (without a calibration) is not above the camera's line of sight.
+     */
+    public double getDistance(int pipeline, double verticalOffset, double area) {
+        if (!isCalibrated(pipeline)) {
+            return getGeometricDistance(verticalOffset);
+        }
+
+        LookupTable byVerticalOffset = distanceByVerticalOffset[pipeline];
+        if (byVerticalOffset.contains(verticalOffset)) {
+            return byVerticalOffset.get(verticalOffset);
+        }
+
+        return area > 0 ? distanceByArea[pipeline].get(getAreaKey(area)) : Double.NaN;
+    }
+
+    /**
+     * Estimates the distance to the target in a camera frame.
+     *
+     * @param frame The frame.
+     *
+     * @return The estimated distance, or `NaN` if the frame has no target or the target can't be estimated (see
+     *         {@link #getDistance(int, double, double)}).
+     */
+    public double getDistance(VisionFrame frame) {
+        return frame.hasTarget()
+                ? getDistance(frame.getPipeline(), frame.getVerticalOffset(), frame.getTargetArea())
+                : Double.NaN;
+    }
+
+    /**
+     * Works out the distance to a target from the camera geometry.
+     *
+     * @param verticalOffset The target's vertical offset (degrees).
+     *
+     * @return The distance, or `NaN` if the target's elevation is not on the same side of horizontal as the target's
+     *         height (so it can't be reached at any distance).
+     */
+    private double getGeometricDistance(double verticalOffset) {
+        double elevation = Math.toRadians(cameraPitch + verticalOffset);
+        double distance = targetHeightAboveCamera / Math.tan(elevation);
+        return distance > 0 && !Double.isInfinite(distance) ? distance : Double.NaN;
+    }
+
+    /**
+     * @return Whether a pipeline has a calibration.
+     */
+    public boolean isCalibrated(int pipeline) {
+        return pipeline >= 0 && pipeline < PIPELINE_COUNT && distanceByVerticalOffset[pipeline] != null;
+    }
+
+    /**
+     * Adds a calibration sample to the end of a calibration file, creating the file if needed.
+     *
+     * @param calibrationFile The file.
+     * @param pipeline The pipeline the sample was taken with.
+     * @param distance The measured distance to the target.
+     * @param verticalOffset The target's vertical offset (degrees).
+     * @param area The target's area (percent of the image).
+     *
+     * @throws IOException If the file can't be written.
+     */
+    public static void appendSample(File calibrationFile, int pipeline, double distance, double verticalOffset,
+                                    double area) throws IOException {
+        boolean isNewFile = !calibrationFile.exists();
+        File directory = calibrationFile.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(calibrationFile, true))) {
+            if (isNewFile) {
+                writer.println(FILE_HEADER);
+            }
+            writer.println(String.format(Locale.ROOT, "%d, %.2f, %.3f, %.4f", pipeline, distance, verticalOffset,
+                    area));
+        }
+    }
+
+    @Override
+    public void sendTelemetryData(TelemetryTables telemetryTables) {
+        if (telemetry == null) {
+            telemetry = telemetryTables.getPublisher();
+
+            NetworkTable stateTable = telemetryTables.getStateTable().getSubTable("Vision");
+            telemetryDistance = telemetry.addNumber(stateTable, "targetDistance", .1);
+        }
+
+        double distance = getDistance(limeLight.getLatestFrame());
+        telemetry.setNumber(telemetryDistance, Double.isNaN(distance) ? -1 : distance);
+    }
+}
@@ -0,0 +1,208 @@
+package org.team1251.frc.robotCore.vision;
+
+import org.team1251.frc.robotCore.odometry.Pose;
+import org.team1251.frc.robotCore.odometry.PoseHistory;
+import org.team1251.frc.robotCore.parts.sensors.LimeLight;
+import org.team1251.frc.robotCore.parts.sensors.VisionFrame;
+import org.team1251.frc.robotCore.util.TickClock;
+import org.team1251.frc.robotCore.util.filters.KalmanFilter1D;
+
+/**
+ * Provides a smooth estimate of where a LimeLight target is on every robot tick, whether or not a new camera frame
+ * has arrived.
+ *
+ * The target's horizontal offset, vertical offset and area are each tracked by a constant-velocity Kalman filter.
+ * Each tick:
+ *
+ *   1. The estimate is predicted forward to the current time. The horizontal offset is also shifted by however much
+ *      the robot turned since the last tick, since that is what makes the target appear to move sideways.
+ *   2. If a new camera frame has arrived, its values are latency compensated: the horizontal offset is shifted by how
+ *      much the robot has turned since the frame was captured (see {@link PoseHistory}).
+ *   3. The compensated values are checked against the prediction. Measurements too far from it are rejected as
+ *      outliers (a reflection, a different target, etc.). If several in a row are rejected, the target really has
+ *      changed and the tracker starts over from the new measurements.
+ *
+ * The tracker also keeps a confidence value between 0 and 1, which rises as measurements are accepted and falls as
+ * frames are missed or rejected. Once no measurement has been accepted for {@link #MAX_COAST_TIME}, the target is
+ * considered lost.
+ *
+ * Call {@link #update()} once per tick, from the main robot thread. Nothing allocates.
+ */
+public class TargetTracker {
+
+    /**
+     * The longest (seconds) the tracker will predict the target without accepting a measurement.
+     */
+    private static final double MAX_COAST_TIME = .5;
+
+    /**
+     * Measurements more surprising than this (squared standard deviations) are rejected as outliers.
+     */
+    private static final double OUTLIER_THRESHOLD = 9;
+
+    /**
+     * How many outliers in a row it takes to decide that the target has changed.
+     */
+    private static final int MAX_CONSECUTIVE_OUTLIERS = 3;
+
+    /**
+     * How far confidence moves towards 1 on an accepted measurement, and the fraction kept on a missed or rejected
+     * frame.
+     */
+    private static final double CONFIDENCE_GAIN = .3;
+    private static final double CONFIDENCE_DECAY = .7;
+
+    private final LimeLight limeLight;
+    private final PoseHistory poseHistory;
+    private final TickClock clock = TickClock.getInstance();
+
+    private final KalmanFilter1D horizontalOffset = new KalmanFilter1D(.25, 400);
+    private final KalmanFilter1D verticalOffset = new KalmanFilter1D(.25, 100);
+    private final KalmanFilter1D targetArea = new KalmanFilter1D(.05, 10);
+
+    /**
+     * Reused poses for heading lookups.
+     */
+    private final Pose currentPose = new Pose();
+    private final Pose capturePose = new Pose();
+
+    private long lastFrameSequence = 0;
+    private double lastUpdateTime = Double.NaN;
+    private double lastHeading = Double.NaN;
+    private double lastAcceptedTime = Double.NEGATIVE_INFINITY;
+    private int consecutiveOutliers = 0;
+    private double confidence = 0;
+
+    /**
+     * @param limeLight The camera. Must be listening (see {@link LimeLight#startListening()}).
+     * @param poseHistory The robot's recent poses, used to account for the robot turning.
+     */
+    public TargetTracker(LimeLight limeLight, PoseHistory poseHistory) {
+        this.limeLight = limeLight;
+        this.poseHistory = poseHistory;
+    }
+
+    /**
+     * Advances the estimate to the current time and takes in a new camera frame, if there is one.
+     */
+    public void update() {
+        double now = clock.getTimestamp();
+
+        // The newest pose is always returned for the current time, once there is one.
+        double heading = poseHistory.getPoseAt(now, currentPose) ? Math.toDegrees(currentPose.getHeading()) : 0;
+
+        // Predict. Turning left (counter-clockwise) makes the target appear further to the right.
+        if (!Double.isNaN(lastUpdateTime)) {
+            double dt = now - lastUpdateTime;
+            horizontalOffset.predict(dt, heading - lastHeading);
+            verticalOffset.predict(dt, 0);
+            targetArea.predict(dt, 0);
+        }
+        lastUpdateTime = now;
+        lastHeading = heading;
+
+        VisionFrame frame = limeLight.getLatestFrame();
+        if (frame.isNewerThan(lastFrameSequence)) {
+            lastFrameSequence = frame.getSequence();
+            takeFrame(frame, heading);
+        }
+
+        if (now - lastAcceptedTime > MAX_COAST_TIME) {
+            confidence = 0;
+            horizontalOffset.reset();
+            verticalOffset.reset();
+            targetArea.reset();
+        }
+    }
+
+    /**
+     * Uses a new camera frame to correct the estimate.
+     *
+     * @param frame The frame.
+     * @param heading The robot's current heading (degrees).
+     */
+    private void takeFrame(VisionFrame frame, double heading) {
+        if (!frame.hasTarget()) {
+            confidence *= CONFIDENCE_DECAY;
+            return;
+        }
+
+        // Bring the horizontal offset from the moment of capture to now.
+        double turnSinceCapture = poseHistory.getPoseAt(frame.getCaptureTimestamp(), capturePose)
+                ? heading - Math.toDegrees(capturePose.getHeading())
+                : 0;
+        double measuredHorizontalOffset = frame.getHorizontalOffset() + turnSinceCapture;
+
+        boolean isOutlier = horizontalOffset.getSurprise(measuredHorizontalOffset) > OUTLIER_THRESHOLD
+                || verticalOffset.getSurprise(frame.getVerticalOffset()) > OUTLIER_THRESHOLD;
+
+        if (isOutlier && ++consecutiveOutliers < MAX_CONSECUTIVE_OUTLIERS) {
+            confidence *= CONFIDENCE_DECAY;
+            return;
+        }
+
+        if (isOutlier) {
+            // Too many in a row to be noise; the target has changed. Start over.
+            horizontalOffset.reset(measuredHorizontalOffset);
+            verticalOffset.reset(frame.getVerticalOffset());
+            targetArea.reset(frame.getTargetArea());
+            confidence = CONFIDENCE_GAIN;
+        } else {
+            horizontalOffset.correct(measuredHorizontalOffset);
+            verticalOffset.correct(frame.getVerticalOffset());
+            targetArea.correct(frame.getTargetArea());
+            confidence += CONFIDENCE_GAIN * (1 - confidence);
+        }
+
+        consecutiveOutliers = 0;
+        lastAcceptedTime = lastUpdateTime;
+    }
+
+    /**
+     * @return Whether a target is being tracked.
+     */
+    public boolean hasTarget() {
+        return confidence > 0;
+    }
+
+    /**
+     * @return How much the estimate can be trusted, between 0 (no target) and 1.
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @return Estimated horizontal offset (degrees) from the crosshair to the target, as of now. Positive is to the
+     *         right.
+     */
+    public double getHorizontalOffset() {
+        return horizontalOffset.getValue();
+    }
+
+    /**
+     * @return Estimated vertical offset (degrees) from the crosshair to the target, as of now. Positive is up.
+     */
+    public double getVerticalOffset() {
+        return verticalOffset.getValue();
+    }
+
+    /**
+     * @return Estimated percentage of the image occupied by the target, as of now.
+     */
+    public double getTargetArea() {
+        return targetArea.getValue();
+    }
+
+    /**
+     * Forgets the current target.
+     */
+    public void reset() {
+        horizontalOffset.reset();
+        verticalOffset.reset();
+        targetArea.reset();
+        confidence = 0;
+        consecutiveOutliers = 0;
+        lastAcceptedTime = Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,124 @@
+package org.team1251.frc.robot.humanInterface.input;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.sim.DriverStationSim;
+import edu.wpi.first.hal.sim.mockdata.DriverStationDataJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robot.DrivePower;
+import org.team1251.frc.robotCore.parts.sensors.SensorLatch;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure that turning driver input into drive power (which happens on every teleop tick) creates no garbage.
+ *
+ * Allocation is measured with the JVM's per-thread allocation counter, so this needs a HotSpot-based JVM. The game
+ * pad is latched once per input scenario, outside of the measurement, since latching talks to the Driver Station.
+ */
+public class HumanInputAllocationTest {
+
+    /**
+     * Calls per scenario to warm up (so the JIT has settled) and to measure.
+     */
+    private static final int WARM_UP_CALLS = 20000;
+    private static final int MEASURED_CALLS = 10000;
+
+    /**
+     * Axis values, in game pad axis order: left stick X/Y, left/right trigger, right stick X/Y.
+     */
+    private static final float[] THROTTLE_AND_TURN = {0, -.8f, 0, 0, .5f, 0};
+    private static final float[] TURN_ONLY = {0, 0, 0, 0, -.6f, 0};
+    private static final float[] QUICK_TURN = {0, 0, .9f, 0, 0, 0};
+    private static final float[] IDLE = {0, 0, 0, 0, 0, 0};
+
+    private static final TickClock clock = TickClock.getInstance();
+    private static com.sun.management.ThreadMXBean threadBean;
+    private static HumanInput humanInput;
+
+    @BeforeClass
+    public static void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+        clock.useVirtualTime();
+        humanInput = new HumanInput();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        clock.useRealTime();
+    }
+
+    @Test
+    public void throttleAndTurnDoesNotAllocate() {
+        assertNoAllocation(THROTTLE_AND_TURN);
+    }
+
+    @Test
+    public void turnWithoutThrottleDoesNotAllocate() {
+        assertNoAllocation(TURN_ONLY);
+    }
+
+    @Test
+    public void quickTurnDoesNotAllocate() {
+        assertNoAllocation(QUICK_TURN);
+    }
+
+    @Test
+    public void idleDoesNotAllocate() {
+        assertNoAllocation(IDLE);
+    }
+
+    /**
+     * Latches the given axis values and checks that repeatedly getting drive power allocates nothing.
+     */
+    private void assertNoAllocation(float[] axes) {
+        setAxes(axes);
+
+        DrivePower drivePower = new DrivePower(0, 0);
+        getDrivePower(drivePower, WARM_UP_CALLS);
+
+        // Reading the counter may itself allocate, so measure an empty stretch first and discount it.
+        long threadId = Thread.currentThread().getId();
+        long overheadStart = threadBean.getThreadAllocatedBytes(threadId);
+        long overhead = threadBean.getThreadAllocatedBytes(threadId) - overheadStart;
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        getDrivePower(drivePower, MEASURED_CALLS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+
+        // Anything allocated per call would add up to at least one byte per call.
+        assertTrue("Getting drive power allocated " + allocated + " bytes over " + MEASURED_CALLS + " calls.",
+                allocated < MEASURED_CALLS);
+    }
+
+    /**
+     * Gets drive power repeatedly, one tick apart.
+     */
+    private void getDrivePower(DrivePower drivePower, int calls) {
+        for (int i = 0; i < calls; i++) {
+            clock.advance(.02);
+            humanInput.getDrivePower(0, 0, drivePower);
+        }
+    }
+
+    /**
+     * Publishes axis values for the driver game pad and latches them.
+     */
+    private void setAxes(float[] axes) {
+        DriverStationDataJNI.setJoystickAxes((byte) 0, axes);
+        new DriverStationSim().notifyNewData();
+        DriverStation.getInstance().waitForData(.1);
+        SensorLatch.getInstance().latchAll();
+    }
+}
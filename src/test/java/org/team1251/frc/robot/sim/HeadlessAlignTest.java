@@ -0,0 +1,45 @@
+package org.team1251.frc.robot.sim;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the full robot code through the headless align script (see {@link HeadlessSimulation}) and checks that the
+ * robot ends up facing the vision target.
+ */
+public class HeadlessAlignTest {
+
+    /**
+     * How far (radians) from facing the target the robot may end up.
+     */
+    private static final double ALIGN_TOLERANCE = Math.toRadians(2);
+
+    private static HeadlessSimulation headlessSimulation;
+
+    @BeforeClass
+    public static void runAlign() {
+        HeadlessSimulation.initialize();
+        headlessSimulation = new HeadlessSimulation();
+        headlessSimulation.runAlign();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        TickClock.getInstance().useRealTime();
+    }
+
+    @Test
+    public void facesTheTarget() {
+        assertEquals(0, headlessSimulation.getAlignError(), ALIGN_TOLERANCE);
+    }
+
+    @Test
+    public void turnsTowardsTheTarget() {
+        // The target is ahead and to the left, so the robot must have turned counter-clockwise to face it.
+        assertEquals(Math.atan2(40, 120), headlessSimulation.getSimulation().getHeading(), ALIGN_TOLERANCE);
+    }
+}
@@ -0,0 +1,53 @@
+package org.team1251.frc.robot.sim;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the full robot code through the headless climb script (see {@link HeadlessSimulation}) and checks that it ends
+ * up on the platform.
+ */
+public class HeadlessClimbTest {
+
+    /**
+     * How far (radians) the robot may turn while climbing. The climb drives straight ahead.
+     */
+    private static final double HEADING_TOLERANCE = Math.toRadians(1);
+
+    private static HeadlessSimulation headlessSimulation;
+
+    @BeforeClass
+    public static void runClimb() {
+        HeadlessSimulation.initialize();
+        headlessSimulation = new HeadlessSimulation();
+        headlessSimulation.runClimb();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        TickClock.getInstance().useRealTime();
+    }
+
+    @Test
+    public void reachesThePlatform() {
+        RobotSimulation simulation = headlessSimulation.getSimulation();
+        assertTrue(String.format("Not on the platform after %.2fs: front %.2f\", rear %.2f\", x %.2f\"",
+                headlessSimulation.getSimTime(), simulation.getFrontHeight(), simulation.getRearHeight(),
+                simulation.getX()), simulation.isOnPlatform());
+    }
+
+    @Test
+    public void finishesBeforeTheTimeout() {
+        assertTrue(headlessSimulation.getSimTime() < HeadlessSimulation.SIM_TIMEOUT);
+    }
+
+    @Test
+    public void climbsStraight() {
+        assertEquals(0, headlessSimulation.getSimulation().getHeading(), HEADING_TOLERANCE);
+    }
+}
@@ -0,0 +1,104 @@
+package org.team1251.frc.robot.subsystems;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robot.Robot;
+import org.team1251.frc.robot.parts.sensors.SensorFactory;
+import org.team1251.frc.robot.robotMap.CanDevice;
+import org.team1251.frc.robotCore.parts.controllers.SimMotorController;
+import org.team1251.frc.robotCore.parts.sensors.SensorLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The climber creates its own (simulated) controllers and claims HAL resources, so only one is created per process.
+ * The simulated limit switches are never pressed, so a lift only stops when the tests cut it off.
+ */
+public class ClimberTest {
+
+    private static final double COUNTS_PER_INCH = 4096 / SensorFactory.LIFT_LEG_ENCODER_REV_DISTANCE;
+
+    /**
+     * Further apart (inches) than the legs may get (`lift.maxSyncError`).
+     */
+    private static final double OUT_OF_SYNC = 2.5;
+
+    private static Climber climber;
+    private static SimMotorController frontLiftController;
+    private static SimMotorController rearLiftController;
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+        climber = new Climber();
+        frontLiftController = Robot.controllerFactory.getSimMotorController(CanDevice.MC_CLIMB_ELEVATOR_FRONT);
+        rearLiftController = Robot.controllerFactory.getSimMotorController(CanDevice.MC_CLIMB_LIFTER_REAR);
+    }
+
+    @Test
+    public void staysCutOffForTheRestOfTheTick() throws InterruptedException {
+        climber.periodic();
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        assertEquals(1, frontLiftController.getMotorOutputPercent(), 0);
+
+        // The interrupt fires part way through the tick, on its own thread.
+        Thread interrupt = new Thread(climber::cutOffLift);
+        interrupt.start();
+        interrupt.join();
+
+        // The commands which run later in the same tick keep lifting.
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        climber.sustain();
+        climber.relieveFrontPressure();
+
+        assertEquals(0, frontLiftController.getMotorOutputPercent(), 0);
+        assertEquals(0, rearLiftController.getMotorOutputPercent(), 0);
+
+        // The next tick handles the cut off, and the lift logic decides what to do from there.
+        climber.periodic();
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        assertEquals(1, frontLiftController.getMotorOutputPercent(), 0);
+        assertEquals(1, rearLiftController.getMotorOutputPercent(), 0);
+
+        climber.killLiftMotors();
+    }
+
+    @Test
+    public void stopsLiftingOnceTheLegsAreOutOfSync() {
+        climber.periodic();
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        assertFalse(climber.isLegSyncLost());
+
+        // The front leg gets ahead of the rear one.
+        moveLeg(frontLiftController, OUT_OF_SYNC);
+        assertTrue(climber.isLegSyncLost());
+        assertEquals(OUT_OF_SYNC, climber.getLegSyncError(), .01);
+
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        assertTrue("The lift holds rather than tilting the robot further.",
+                frontLiftController.getMotorOutputPercent() < .5);
+        assertEquals(frontLiftController.getMotorOutputPercent(), rearLiftController.getMotorOutputPercent(), 0);
+
+        // The rear leg catches up.
+        moveLeg(rearLiftController, OUT_OF_SYNC);
+        assertFalse(climber.isLegSyncLost());
+        climber.liftTo(Climber.LiftTarget.HAB_LVL_3);
+        assertEquals(1, frontLiftController.getMotorOutputPercent(), 0);
+
+        climber.killLiftMotors();
+        moveLeg(frontLiftController, -OUT_OF_SYNC);
+        moveLeg(rearLiftController, -OUT_OF_SYNC);
+    }
+
+    /**
+     * Moves a leg's encoder, and starts a new tick so the climber sees it.
+     */
+    private static void moveLeg(SimMotorController encoderController, double distance) {
+        encoderController.addSimSensorMovement(distance * COUNTS_PER_INCH, 0);
+        SensorLatch.getInstance().latchAll();
+        climber.periodic();
+    }
+}
@@ -0,0 +1,455 @@
+package org.team1251.frc.robotCore.commands;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robotCore.humanInterface.input.triggers.TigerTrigger;
+import org.team1251.frc.robotCore.subsystems.TigerSubsystem;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The scheduler is a singleton, so every test creates its own subsystems, commands and triggers, and cleans them up
+ * afterwards so that they don't affect the next test. The tests run on virtual time, so time limits can be checked.
+ */
+public class TigerSchedulerTest {
+
+    private static final TickClock clock = TickClock.getInstance();
+    private static TigerScheduler scheduler;
+
+    private final List<TestSubsystem> subsystems = new ArrayList<>();
+    private final List<TestCommand> commands = new ArrayList<>();
+    private final List<TestTrigger> triggers = new ArrayList<>();
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+        scheduler = TigerScheduler.getInstance();
+        scheduler.enable();
+    }
+
+    @Before
+    public void useVirtualTime() {
+        clock.useVirtualTime();
+    }
+
+    @After
+    public void tearDown() {
+        for (TestSubsystem subsystem : subsystems) {
+            subsystem.setDefaultCommand(null);
+        }
+        for (TestTrigger trigger : triggers) {
+            trigger.isActive = false;
+        }
+        for (TestCommand command : commands) {
+            command.cancel();
+        }
+        scheduler.run();
+        clock.useRealTime();
+    }
+
+    @Test
+    public void runsACommandUntilItFinishes() {
+        TestCommand command = createCommand(createSubsystem(), 3);
+
+        command.start();
+        assertFalse("Started commands are added at the end of the tick.", command.isRunning());
+        scheduler.run();
+        assertTrue(command.isRunning());
+        assertEquals(0, command.initializeCount);
+
+        runTicks(3);
+
+        assertFalse(command.isRunning());
+        assertEquals(1, command.initializeCount);
+        assertEquals(3, command.executeCount);
+        assertEquals(1, command.endCount);
+        assertEquals(0, command.interruptedCount);
+    }
+
+    @Test
+    public void interruptsACanceledCommand() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+        command.start();
+        runTicks(3);
+
+        command.cancel();
+        assertTrue("Canceled commands are removed on the next tick.", command.isRunning());
+        scheduler.run();
+
+        assertFalse(command.isRunning());
+        assertEquals(2, command.executeCount);
+        assertEquals(0, command.endCount);
+        assertEquals(1, command.interruptedCount);
+    }
+
+    @Test
+    public void neverInitializesACommandCanceledBeforeItIsAdded() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+
+        command.start();
+        command.cancel();
+        runTicks(2);
+
+        assertFalse(command.isRunning());
+        assertEquals(0, command.initializeCount);
+        assertEquals(0, command.interruptedCount);
+    }
+
+    @Test
+    public void interruptsTheCommandUsingARequiredSubsystem() {
+        TestSubsystem subsystem = createSubsystem();
+        TestCommand first = createCommand(subsystem, 0);
+        TestCommand second = createCommand(subsystem, 0);
+        first.start();
+        runTicks(2);
+
+        second.start();
+        scheduler.run();
+
+        assertFalse(first.isRunning());
+        assertEquals(1, first.interruptedCount);
+        assertTrue(second.isRunning());
+    }
+
+    @Test
+    public void runsCommandsWithDifferentSubsystemsTogether() {
+        TestCommand first = createCommand(createSubsystem(), 0);
+        TestCommand second = createCommand(createSubsystem(), 0);
+
+        first.start();
+        second.start();
+        runTicks(3);
+
+        assertTrue(first.isRunning());
+        assertTrue(second.isRunning());
+        assertEquals(2, first.executeCount);
+        assertEquals(2, second.executeCount);
+    }
+
+    @Test
+    public void doesNotInterruptAnUninterruptibleCommand() {
+        TestSubsystem subsystem = createSubsystem();
+        TestCommand first = createCommand(subsystem, 0);
+        first.setInterruptible(false);
+        TestCommand second = createCommand(subsystem, 0);
+        first.start();
+        runTicks(2);
+
+        second.start();
+        runTicks(2);
+
+        assertTrue(first.isRunning());
+        assertEquals(0, first.interruptedCount);
+        assertFalse(second.isRunning());
+    }
+
+    @Test
+    public void runsTheDefaultCommandWhileTheSubsystemIsIdle() {
+        TestSubsystem subsystem = createSubsystem();
+        TestCommand defaultCommand = createCommand(subsystem, 0);
+        TestCommand command = createCommand(subsystem, 2);
+        subsystem.setDefaultCommand(defaultCommand);
+
+        scheduler.run();
+        assertTrue(defaultCommand.isRunning());
+
+        command.start();
+        scheduler.run();
+        assertFalse(defaultCommand.isRunning());
+        assertEquals(1, defaultCommand.interruptedCount);
+
+        runTicks(2);
+        assertFalse(command.isRunning());
+        assertTrue("The default command resumes once the subsystem is idle.", defaultCommand.isRunning());
+    }
+
+    @Test
+    public void callsPeriodicOnEveryTick() {
+        TestSubsystem subsystem = createSubsystem();
+
+        runTicks(3);
+
+        assertEquals(3, subsystem.periodicCount);
+    }
+
+    @Test
+    public void runsACommandWhileItsTriggerIsActive() {
+        TestTrigger trigger = createTrigger();
+        TestCommand command = createCommand(createSubsystem(), 0);
+        trigger.whileActive(command);
+
+        trigger.isActive = true;
+        runTicks(3);
+        assertTrue(command.isRunning());
+        assertEquals(1, command.initializeCount);
+
+        trigger.isActive = false;
+        runTicks(2);
+        assertFalse(command.isRunning());
+        assertEquals(1, command.interruptedCount);
+    }
+
+    @Test
+    public void startsACommandWhenItsTriggerBecomesActive() {
+        TestTrigger trigger = createTrigger();
+        TestCommand command = createCommand(createSubsystem(), 1);
+        trigger.whenActive(command);
+
+        trigger.isActive = true;
+        runTicks(4);
+
+        assertEquals("Staying active does not start the command again.", 1, command.initializeCount);
+        assertEquals(1, command.endCount);
+    }
+
+    @Test
+    public void togglesACommandEachTimeItsTriggerBecomesActive() {
+        TestTrigger trigger = createTrigger();
+        TestCommand command = createCommand(createSubsystem(), 0);
+        trigger.toggleWhenActive(command);
+
+        trigger.isActive = true;
+        runTicks(2);
+        assertTrue(command.isRunning());
+
+        trigger.isActive = false;
+        runTicks(2);
+        assertTrue(command.isRunning());
+
+        trigger.isActive = true;
+        runTicks(2);
+        assertFalse(command.isRunning());
+        assertEquals(1, command.interruptedCount);
+    }
+
+    @Test
+    public void restartsACommandStartedOnTheTickItFinishes() {
+        TestTrigger trigger = createTrigger();
+        TestCommand command = createCommand(createSubsystem(), 2);
+        trigger.whenActive(command);
+        command.start();
+        runTicks(2);
+
+        // The trigger starts the command again while it is still running, on the tick it finishes.
+        trigger.isActive = true;
+        scheduler.run();
+        assertEquals(1, command.endCount);
+        assertTrue(command.isRunning());
+
+        scheduler.run();
+        assertEquals(2, command.initializeCount);
+    }
+
+    @Test
+    public void cancelsACommandWhichIsAlsoQueuedToStartAgain() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+        command.start();
+        runTicks(2);
+
+        command.start();
+        command.cancel();
+        runTicks(2);
+
+        assertFalse(command.isRunning());
+        assertEquals(1, command.interruptedCount);
+        assertEquals(1, command.initializeCount);
+    }
+
+    @Test
+    public void tracksTheCurrentCommandOfEachSubsystem() {
+        TestSubsystem subsystem = createSubsystem();
+        TestSubsystem otherSubsystem = createSubsystem();
+        TestCommand first = createCommand(subsystem, 0);
+        TestCommand second = createCommand(subsystem, 0);
+        assertNull(subsystem.getCurrentCommand());
+
+        first.start();
+        scheduler.run();
+        assertSame(first, subsystem.getCurrentCommand());
+        assertNull(otherSubsystem.getCurrentCommand());
+
+        second.start();
+        scheduler.run();
+        assertSame("An interrupting command takes over.", second, subsystem.getCurrentCommand());
+
+        second.cancel();
+        scheduler.run();
+        assertNull(subsystem.getCurrentCommand());
+    }
+
+    @Test
+    public void timesOutOnTheTickClock() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+        command.limitTime(.1);
+        command.start();
+        scheduler.run();
+        assertEquals("Timing starts when the command is initialized.", 0, command.getTimeSinceInitialized(), 0);
+
+        tick();
+        clock.advance(.06);
+        tick();
+        assertTrue(command.isRunning());
+        assertEquals(.08, command.getTimeSinceInitialized(), 1e-9);
+
+        clock.advance(.04);
+        tick();
+        assertFalse(command.isRunning());
+        assertEquals(1, command.endCount);
+    }
+
+    @Test
+    public void restartsTimingWhenStartedAgain() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+        command.limitTime(.1);
+        command.start();
+        runTicks(2);
+        clock.advance(1);
+        tick();
+        assertFalse(command.isRunning());
+
+        command.start();
+        scheduler.run();
+        tick();
+        tick();
+        assertTrue("The old run's time does not count.", command.isRunning());
+        assertEquals(.02, command.getTimeSinceInitialized(), 1e-9);
+    }
+
+    @Test
+    public void neverTimesOutWithoutATimeLimit() {
+        TestCommand command = createCommand(createSubsystem(), 0);
+        command.start();
+        scheduler.run();
+        clock.advance(1000);
+        tick();
+
+        assertTrue(command.isRunning());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyBindsTigerCommands() {
+        createTrigger().whenActive(new edu.wpi.first.wpilibj.command.InstantCommand());
+    }
+
+    /**
+     * Advances the clock by a tick period, then runs a tick.
+     */
+    private void tick() {
+        clock.advance(.02);
+        scheduler.run();
+    }
+
+    private void runTicks(int count) {
+        for (int i = 0; i < count; i++) {
+            scheduler.run();
+        }
+    }
+
+    private TestSubsystem createSubsystem() {
+        TestSubsystem subsystem = new TestSubsystem();
+        subsystems.add(subsystem);
+        return subsystem;
+    }
+
+    private TestCommand createCommand(TestSubsystem subsystem, int tickLimit) {
+        TestCommand command = new TestCommand(subsystem, tickLimit);
+        commands.add(command);
+        return command;
+    }
+
+    private TestTrigger createTrigger() {
+        TestTrigger trigger = new TestTrigger();
+        triggers.add(trigger);
+        return trigger;
+    }
+
+    private static class TestSubsystem extends TigerSubsystem {
+        private int periodicCount = 0;
+
+        @Override
+        public void periodic() {
+            periodicCount++;
+        }
+    }
+
+    /**
+     * A command which counts the calls it gets. It finishes after a number of ticks, or once it times out.
+     */
+    private static class TestCommand extends TigerCommand {
+
+        /**
+         * How many ticks the command runs for. 0 to run until canceled.
+         */
+        private final int tickLimit;
+
+        private int initializeCount = 0;
+        private int executeCount = 0;
+        private int endCount = 0;
+        private int interruptedCount = 0;
+        private int ticks;
+
+        TestCommand(TestSubsystem subsystem, int tickLimit) {
+            this.tickLimit = tickLimit;
+            requires(subsystem);
+
+            // The simulated Driver Station starts out disabled.
+            setRunWhenDisabled(true);
+        }
+
+        @Override
+        protected void initialize() {
+            initializeCount++;
+            ticks = 0;
+        }
+
+        @Override
+        protected void executeTick() {
+            executeCount++;
+            ticks++;
+        }
+
+        void limitTime(double seconds) {
+            setTimeLimit(seconds);
+        }
+
+        @Override
+        protected boolean isFinished() {
+            return (tickLimit > 0 && ticks >= tickLimit) || isTimedOut();
+        }
+
+        @Override
+        protected void end() {
+            endCount++;
+        }
+
+        @Override
+        protected void interrupted() {
+            interruptedCount++;
+        }
+
+        @Override
+        public synchronized void setInterruptible(boolean interruptible) {
+            super.setInterruptible(interruptible);
+        }
+    }
+
+    private static class TestTrigger extends TigerTrigger {
+        private boolean isActive = false;
+
+        @Override
+        public boolean get() {
+            return isActive;
+        }
+    }
+}
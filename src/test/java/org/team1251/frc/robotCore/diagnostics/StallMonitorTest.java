@@ -0,0 +1,126 @@
+package org.team1251.frc.robotCore.diagnostics;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StallMonitorTest {
+
+    private static final double TICK = .02;
+    private static final double WINDOW = .5;
+    private static final double MIN_VELOCITY = .5;
+    private static final double MIN_CURRENT = 20;
+
+    private static final TickClock clock = TickClock.getInstance();
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+    }
+
+    @Before
+    public void useVirtualTime() {
+        clock.useVirtualTime();
+    }
+
+    @After
+    public void useRealTime() {
+        clock.useRealTime();
+    }
+
+    @Test
+    public void stallsAfterTheWindow() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+
+        monitor.update(true, 0, 30);
+        clock.advance(.48);
+        monitor.update(true, 0, 30);
+        assertFalse(monitor.isStalled());
+
+        clock.advance(.03);
+        monitor.update(true, 0, 30);
+        assertTrue(monitor.isStalled());
+    }
+
+    @Test
+    public void startsOverOnProgress() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+        pushFor(monitor, .4, 30);
+
+        monitor.update(true, 1, 30);
+        pushFor(monitor, .4, 30);
+
+        assertFalse("The window starts over once the mechanism moves.", monitor.isStalled());
+        pushFor(monitor, .12, 30);
+        assertTrue(monitor.isStalled());
+    }
+
+    @Test
+    public void startsOverWhenNotDriven() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+        pushFor(monitor, .6, 30);
+        assertTrue(monitor.isStalled());
+
+        monitor.update(false, 0, 30);
+
+        assertFalse(monitor.isStalled());
+        assertEquals(0, monitor.getPeakCurrent(), 0);
+    }
+
+    @Test
+    public void ignoresAMechanismHeldStillAtLowCurrent() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+
+        pushFor(monitor, 2, 10);
+
+        assertFalse(monitor.isStalled());
+    }
+
+    @Test
+    public void countsReversedVelocityAndCurrent() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+
+        monitor.update(true, -1, -30);
+        clock.advance(1);
+        monitor.update(true, -1, -30);
+        assertFalse("Moving backwards is still moving.", monitor.isStalled());
+
+        pushFor(monitor, .6, -30);
+        assertTrue(monitor.isStalled());
+    }
+
+    @Test
+    public void tracksThePeakCurrent() {
+        StallMonitor monitor = new StallMonitor(WINDOW, MIN_VELOCITY, MIN_CURRENT);
+
+        monitor.update(true, 0, 25);
+        monitor.update(true, 0, -40);
+        monitor.update(true, 0, 30);
+        assertEquals(40, monitor.getPeakCurrent(), 0);
+
+        monitor.reset();
+        assertEquals(0, monitor.getPeakCurrent(), 0);
+        assertFalse(monitor.isStalled());
+
+        monitor.update(true, 0, 22);
+        assertEquals("A new stretch without progress starts a new peak.", 22, monitor.getPeakCurrent(), 0);
+    }
+
+    /**
+     * Pushes without moving, one tick at a time, for (about) the given time.
+     */
+    private void pushFor(StallMonitor monitor, double time, double current) {
+        monitor.update(true, 0, current);
+        for (int i = 0; i < Math.round(time / TICK); i++) {
+            clock.advance(TICK);
+            monitor.update(true, 0, current);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.team1251.frc.robotCore.logging;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryDataLoggerTest {
+
+    private static final long FILE_SIZE = 4096;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keepsOnlyTheNewestFiles() throws IOException {
+        File directory = folder.getRoot();
+        File oldest = createLog(directory, "data-1.tlog", 1000);
+        File older = createLog(directory, "data-2.tlog", 2000);
+        File newest = createLog(directory, "data-3.tlog", 3000);
+
+        new BinaryDataLogger(FILE_SIZE, 3).start(directory);
+
+        assertFalse(oldest.exists());
+        assertTrue(older.exists());
+        assertTrue(newest.exists());
+        assertEquals(3, countLogs(directory));
+    }
+
+    @Test
+    public void ordersFilesByModificationTime() throws IOException {
+        File directory = folder.getRoot();
+
+        // Written at boot, before the clock was set, so the name sorts first even though the file is newer.
+        File newest = createLog(directory, "data-1.tlog", 3000);
+        File oldest = createLog(directory, "data-2.tlog", 1000);
+
+        new BinaryDataLogger(FILE_SIZE, 2).start(directory);
+
+        assertFalse(oldest.exists());
+        assertTrue(newest.exists());
+        assertEquals(2, countLogs(directory));
+    }
+
+    @Test
+    public void leavesOtherFilesAlone() throws IOException {
+        File directory = folder.getRoot();
+        File other = createLog(directory, "notes.txt", 1000);
+        createLog(directory, "data-1.tlog", 2000);
+
+        new BinaryDataLogger(FILE_SIZE, 1).start(directory);
+
+        assertTrue(other.exists());
+        assertEquals(1, countLogs(directory));
+    }
+
+    @Test
+    public void decodesWhatWasLogged() throws IOException {
+        BinaryDataLogger logger = new BinaryDataLogger(FILE_SIZE, 1);
+        TestProvider provider = new TestProvider();
+        logger.add(provider);
+        logger.start(folder.getRoot());
+
+        provider.next(1.5, -2, true);
+        logger.logTick();
+        provider.next(Math.PI, 1e-9, false);
+        logger.logTick();
+        provider.next(-0.0, Double.NaN, false);
+        logger.logTick();
+
+        ByteBuffer log = readLog(folder.getRoot());
+        assertEquals(3, log.getInt(BinaryDataLogger.FIELD_COUNT_OFFSET));
+        assertEquals(8 + 3 * 8, log.getInt(BinaryDataLogger.RECORD_SIZE_OFFSET));
+        assertEquals(3, log.getInt(BinaryDataLogger.RECORD_COUNT_OFFSET));
+
+        String[][] rows = decode(log);
+        assertEquals("A header and one row per record.", 4, rows.length);
+        assertArrayEquals(new String[] {"timeSeconds", "test/speed", "test/error", "test/once\u00b0"}, rows[0]);
+
+        // Values are in registration order; a field which isn't set keeps its last value.
+        assertRow(rows[1], 1.5, -2, 7);
+        assertRow(rows[2], Math.PI, 1e-9, 7);
+        assertRow(rows[3], -0.0, Double.NaN, 7);
+
+        double lastTime = 0;
+        for (int i = 1; i < rows.length; i++) {
+            double time = Double.parseDouble(rows[i][0]);
+            assertTrue("Record times must not go backwards.", time >= lastTime);
+            lastTime = time;
+        }
+    }
+
+    @Test
+    public void dropsRecordsOnceTheFileIsFull() throws IOException {
+        // Room for the header (73 bytes with the field names, padded to 80) and two 32 byte records.
+        BinaryDataLogger logger = new BinaryDataLogger(80 + 2 * 32, 1);
+        TestProvider provider = new TestProvider();
+        logger.add(provider);
+        logger.start(folder.getRoot());
+
+        for (int i = 0; i < 5; i++) {
+            provider.next(i, i, false);
+            logger.logTick();
+        }
+
+        assertEquals(3, logger.getDroppedRecordCount());
+        String[][] rows = decode(readLog(folder.getRoot()));
+        assertEquals(3, rows.length);
+        assertRow(rows[1], 0, 0, 0);
+        assertRow(rows[2], 1, 1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresAtLeastOneFile() {
+        new BinaryDataLogger(FILE_SIZE, 0);
+    }
+
+    private static File createLog(File directory, String name, long lastModified) throws IOException {
+        File file = new File(directory, name);
+        assertTrue(file.createNewFile());
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+
+    private static int countLogs(File directory) {
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(".tlog"));
+        return logs == null ? 0 : logs.length;
+    }
+
+    /**
+     * Reads the one log file in a directory.
+     */
+    private static ByteBuffer readLog(File directory) throws IOException {
+        File[] logs = directory.listFiles((dir, name) -> name.endsWith(".tlog"));
+        assertEquals(1, logs == null ? 0 : logs.length);
+        return ByteBuffer.wrap(Files.readAllBytes(logs[0].toPath()));
+    }
+
+    /**
+     * Decodes a log and splits the CSV into rows of columns.
+     */
+    private static String[][] decode(ByteBuffer log) {
+        StringWriter csv = new StringWriter();
+        try (PrintWriter out = new PrintWriter(csv)) {
+            BinaryLogDecoder.decode(log, out);
+        }
+
+        String[] lines = csv.toString().split("\\R");
+        String[][] rows = new String[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            rows[i] = lines[i].split(",");
+        }
+        return rows;
+    }
+
+    /**
+     * Checks a decoded record's values (everything after the time).
+     */
+    private static void assertRow(String[] row, double... values) {
+        assertEquals(values.length + 1, row.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], Double.parseDouble(row[i + 1]), 0);
+        }
+    }
+
+    /**
+     * Logs three fields: two set on every tick, and one set only when asked.
+     */
+    private static class TestProvider implements IDataLogProvider {
+        private int speedField;
+        private int errorField;
+        private int onceField;
+
+        private double speed;
+        private double error;
+        private boolean setOnce;
+
+        void next(double speed, double error, boolean setOnce) {
+            this.speed = speed;
+            this.error = error;
+            this.setOnce = setOnce;
+        }
+
+        @Override
+        public void registerDataLogFields(BinaryDataLogger logger) {
+            speedField = logger.addField("test/speed");
+            errorField = logger.addField("test/error");
+            onceField = logger.addField("test/once\u00b0");
+        }
+
+        @Override
+        public void logData(BinaryDataLogger logger) {
+            logger.set(speedField, speed);
+            logger.set(errorField, error);
+            if (setOnce) {
+                logger.set(onceField, 7);
+            }
+        }
+    }
+}
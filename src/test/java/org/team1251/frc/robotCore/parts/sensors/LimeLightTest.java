@@ -0,0 +1,103 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Camera values are published into a local table, the way the simulated camera does. They reach the LimeLight on the
+ * NetworkTables listener thread, so each test waits (briefly) for the frame it expects.
+ */
+public class LimeLightTest {
+
+    /**
+     * How long (milliseconds) to wait for values to reach the listener.
+     */
+    private static final long WAIT_MS = 1000;
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+    }
+
+    @Test
+    public void latchesEverythingTheCameraPublished() throws InterruptedException {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("limelight-values");
+        LimeLight limeLight = new LimeLight("limelight-values");
+        limeLight.startListening();
+        assertFalse(limeLight.getLatestFrame().hasTarget());
+
+        table.getEntry("getpipe").setDouble(2);
+        table.getEntry("tv").setDouble(1);
+        table.getEntry("ty").setDouble(-3);
+        table.getEntry("ta").setDouble(.5);
+        table.getEntry("ts").setDouble(-10);
+        table.getEntry("tl").setDouble(9);
+        table.getEntry("tx").setDouble(12.5);
+
+        VisionFrame frame = waitForHorizontalOffset(limeLight, 12.5);
+        assertEquals(2, frame.getPipeline());
+        assertTrue(frame.hasTarget());
+        assertEquals(-3, frame.getVerticalOffset(), 0);
+        assertEquals(.5, frame.getTargetArea(), 0);
+        assertEquals(-10, frame.getTargetSkew(), 0);
+        assertEquals("The capture latency is added to the pipeline latency.", 20, frame.getLatency(), 0);
+
+        limeLight.stopListening();
+    }
+
+    @Test
+    public void reusesItsFrames() throws InterruptedException {
+        NetworkTable table = NetworkTableInstance.getDefault().getTable("limelight-frames");
+        LimeLight limeLight = new LimeLight("limelight-frames");
+        limeLight.startListening();
+
+        Set<VisionFrame> frames = Collections.newSetFromMap(new IdentityHashMap<>());
+        long lastSequence = 0;
+        for (int i = 1; i <= 20; i++) {
+            table.getEntry("tx").setDouble(i);
+            VisionFrame frame = waitForHorizontalOffset(limeLight, i);
+            assertTrue(frame.isNewerThan(lastSequence));
+            lastSequence = frame.getSequence();
+            frames.add(frame);
+        }
+
+        assertTrue("Frames are reused rather than allocated.", frames.size() <= 3);
+
+        // Nothing new has arrived, so the same frame stays latched.
+        VisionFrame frame = limeLight.getLatestFrame();
+        limeLight.latch();
+        assertSame(frame, limeLight.getLatestFrame());
+        assertFalse(limeLight.getLatestFrame().isNewerThan(lastSequence));
+
+        limeLight.stopListening();
+    }
+
+    /**
+     * Latches frames until one with the given horizontal offset arrives.
+     */
+    private static VisionFrame waitForHorizontalOffset(LimeLight limeLight, double horizontalOffset)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            limeLight.latch();
+            if (limeLight.getLatestFrame().getHorizontalOffset() == horizontalOffset) {
+                return limeLight.getLatestFrame();
+            }
+            Thread.sleep(1);
+        }
+
+        throw new AssertionError("No frame with a horizontal offset of " + horizontalOffset + " arrived.");
+    }
+}
@@ -0,0 +1,86 @@
+package org.team1251.frc.robotCore.parts.sensors;
+
+import org.junit.Test;
+import org.team1251.frc.robotCore.parts.controllers.SimMotorController;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The drive train's right side is inverted while both encoders keep their phase, so on the robot the right side's raw
+ * counts run backwards while it drives forward. The simulated controllers are set up the same way here.
+ */
+public class TalonMagEncoderTest {
+
+    private static final int COUNTS_PER_REVOLUTION = 4096;
+    private static final double DISTANCE_PER_REVOLUTION = 10;
+
+    @Test
+    public void countsForwardOnAnInvertedSide() {
+        SimMotorController left = new SimMotorController();
+        SimMotorController right = new SimMotorController();
+        right.setSimInverted(true);
+        TalonMagEncoder leftEncoder = new TalonMagEncoder(left, DISTANCE_PER_REVOLUTION, false);
+        TalonMagEncoder rightEncoder = new TalonMagEncoder(right, DISTANCE_PER_REVOLUTION, false);
+
+        // Both sides drive forward two revolutions.
+        left.addSimSensorMovement(2 * COUNTS_PER_REVOLUTION, 800);
+        right.addSimSensorMovement(2 * COUNTS_PER_REVOLUTION, 800);
+        leftEncoder.latch();
+        rightEncoder.latch();
+
+        assertEquals(2 * COUNTS_PER_REVOLUTION, left.getQuadraturePosition());
+        assertEquals("The raw counts ignore the inversion.", -2 * COUNTS_PER_REVOLUTION, right.getQuadraturePosition());
+        assertEquals(-800, right.getQuadratureVelocity());
+
+        assertEquals(20, leftEncoder.getDistance(), 1e-9);
+        assertEquals(20, rightEncoder.getDistance(), 1e-9);
+        assertEquals(20, rightEncoder.getLiveDistance(), 1e-9);
+        assertEquals(800, rightEncoder.getVelocity(), 0);
+        assertEquals("The average of both sides is how far the robot drove.", 20,
+                (leftEncoder.getLiveDistance() + rightEncoder.getLiveDistance()) / 2, 1e-9);
+    }
+
+    @Test
+    public void phaseCancelsTheInversion() {
+        SimMotorController controller = new SimMotorController();
+        controller.setSimInverted(true);
+        TalonMagEncoder encoder = new TalonMagEncoder(controller, DISTANCE_PER_REVOLUTION, true);
+
+        controller.addSimSensorMovement(COUNTS_PER_REVOLUTION, 400);
+        encoder.latch();
+
+        assertEquals(COUNTS_PER_REVOLUTION, controller.getQuadraturePosition());
+        assertEquals(10, encoder.getDistance(), 1e-9);
+    }
+
+    @Test
+    public void resetsAnInvertedSide() {
+        SimMotorController controller = new SimMotorController();
+        controller.setSimInverted(true);
+        TalonMagEncoder encoder = new TalonMagEncoder(controller, DISTANCE_PER_REVOLUTION, false);
+
+        controller.addSimSensorMovement(COUNTS_PER_REVOLUTION, 400);
+        encoder.reset();
+        controller.addSimSensorMovement(COUNTS_PER_REVOLUTION / 2, 400);
+        encoder.latch();
+
+        assertEquals(5, encoder.getDistance(), 1e-9);
+    }
+
+    @Test
+    public void drivesAnInvertedSideForwardInVelocityMode() {
+        SimMotorController controller = new SimMotorController();
+        controller.setSimInverted(true);
+        controller.setSimVelocityGains(1023.0 / 4000, .1);
+        new TalonMagEncoder(controller, DISTANCE_PER_REVOLUTION, false);
+
+        // Already moving forward at the target, so only the feed forward is left. Reading the raw (backwards)
+        // velocity would look like a large error instead.
+        controller.addSimSensorMovement(100, 2000);
+        assertTrue(controller.getQuadratureVelocity() < 0);
+
+        controller.setVelocity(2000);
+        assertEquals(.5, controller.getMotorOutputPercent(), 1e-3);
+    }
+}
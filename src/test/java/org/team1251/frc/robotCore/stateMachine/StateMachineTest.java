@@ -0,0 +1,209 @@
+package org.team1251.frc.robotCore.stateMachine;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.team1251.frc.robotCore.util.TickClock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StateMachineTest {
+
+    private static final double TICK = .02;
+
+    private enum Phase {
+        FIRST, SECOND, THIRD
+    }
+
+    private static final TickClock clock = TickClock.getInstance();
+
+    private boolean isReady = false;
+    private int firstActionCount = 0;
+    private int secondActionCount = 0;
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+    }
+
+    @Before
+    public void useVirtualTime() {
+        clock.useVirtualTime();
+    }
+
+    @After
+    public void useRealTime() {
+        clock.useRealTime();
+    }
+
+    @Test
+    public void doesNothingUntilStarted() {
+        StateMachine<Phase> machine = createMachine();
+
+        assertNull(machine.update());
+        assertNull(machine.getState());
+        assertFalse(machine.isRunning());
+        assertEquals(0, firstActionCount);
+    }
+
+    @Test
+    public void movesWhenAGuardIsSatisfied() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+
+        tick(machine, 3);
+        assertTrue(machine.isIn(Phase.FIRST));
+        assertEquals(3, firstActionCount);
+
+        isReady = true;
+        tick(machine, 1);
+
+        assertTrue(machine.isIn(Phase.SECOND));
+        assertEquals(Phase.FIRST, machine.getPreviousState());
+        assertEquals("The new state's action runs on the tick it is entered.", 1, secondActionCount);
+        assertEquals(3, firstActionCount);
+    }
+
+    @Test
+    public void checksGuardsInOrder() {
+        StateMachine<Phase> machine = new StateMachine<>(Phase.class)
+                .transition(Phase.FIRST, () -> true, Phase.THIRD)
+                .transition(Phase.FIRST, () -> true, Phase.SECOND);
+        machine.start(Phase.FIRST);
+
+        machine.update();
+
+        assertTrue(machine.isIn(Phase.THIRD));
+    }
+
+    @Test
+    public void timesOut() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+
+        clock.advance(.98);
+        machine.update();
+        assertTrue(machine.isIn(Phase.FIRST));
+
+        clock.advance(.03);
+        machine.update();
+        assertTrue(machine.isIn(Phase.THIRD));
+        assertEquals(1, machine.getTimeoutCount(Phase.FIRST));
+    }
+
+    @Test
+    public void recordsTimeSpentInEachState() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+
+        tick(machine, 5);
+        isReady = true;
+        tick(machine, 1);
+        isReady = false;
+        tick(machine, 3);
+
+        assertEquals(6 * TICK, machine.getTimeSpent(Phase.FIRST), 1e-9);
+        assertEquals(3 * TICK, machine.getTimeSpent(Phase.SECOND), 1e-9);
+        assertEquals(3 * TICK, machine.getTimeInState(), 1e-9);
+        assertEquals(1, machine.getEntryCount(Phase.SECOND));
+        assertEquals(0, machine.getEntryCount(Phase.THIRD));
+    }
+
+    @Test
+    public void recordsWhereEachStateWasLeftFor() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+        assertNull(machine.getNextState(Phase.FIRST));
+
+        isReady = true;
+        tick(machine, 3);
+
+        assertTrue(machine.isIn(Phase.THIRD));
+        assertEquals(Phase.SECOND, machine.getNextState(Phase.FIRST));
+        assertEquals(Phase.THIRD, machine.getNextState(Phase.SECOND));
+        assertNull("The current state has not been left.", machine.getNextState(Phase.THIRD));
+
+        machine.start(Phase.FIRST);
+        clock.advance(1.01);
+        machine.update();
+        assertEquals("A timeout is where the state was left for.", Phase.THIRD, machine.getNextState(Phase.FIRST));
+        assertNull("Restarting forgets the last run.", machine.getNextState(Phase.SECOND));
+    }
+
+    @Test
+    public void freezesTimingsWhenStopped() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+        tick(machine, 4);
+
+        machine.stop();
+        assertFalse(machine.isRunning());
+        clock.advance(10);
+
+        assertEquals(4 * TICK, machine.getTimeSpent(Phase.FIRST), 1e-9);
+        assertEquals(0, machine.getTimeInState(), 0);
+        assertEquals("The state the machine stopped in is kept.", Phase.FIRST, machine.getState());
+
+        isReady = true;
+        machine.update();
+        machine.forceTransition(Phase.THIRD);
+        assertTrue(machine.isIn(Phase.FIRST));
+        assertEquals(4, firstActionCount);
+        assertEquals(4 * TICK, machine.getTimeSpent(Phase.FIRST), 1e-9);
+    }
+
+    @Test
+    public void restartsWithFreshTimings() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+        tick(machine, 4);
+        machine.stop();
+
+        machine.start(Phase.SECOND);
+
+        assertTrue(machine.isRunning());
+        assertTrue(machine.isIn(Phase.SECOND));
+        assertEquals(0, machine.getTimeSpent(Phase.FIRST), 0);
+        assertEquals(0, machine.getEntryCount(Phase.FIRST));
+        assertNull(machine.getPreviousState());
+    }
+
+    @Test
+    public void forcesATransition() {
+        StateMachine<Phase> machine = createMachine();
+        machine.start(Phase.FIRST);
+
+        machine.forceTransition(Phase.THIRD);
+
+        assertTrue(machine.isIn(Phase.THIRD));
+        assertEquals(Phase.FIRST, machine.getPreviousState());
+    }
+
+    /**
+     * Creates a machine which goes from FIRST to SECOND once ready, or to THIRD after a second in FIRST, and from
+     * SECOND to THIRD once ready again.
+     */
+    private StateMachine<Phase> createMachine() {
+        return new StateMachine<>(Phase.class)
+                .whileIn(Phase.FIRST, () -> firstActionCount++)
+                .transition(Phase.FIRST, () -> isReady, Phase.SECOND)
+                .timeout(Phase.FIRST, 1, Phase.THIRD)
+                .whileIn(Phase.SECOND, () -> secondActionCount++)
+                .transition(Phase.SECOND, () -> isReady && secondActionCount > 1, Phase.THIRD);
+    }
+
+    /**
+     * Advances the clock by a tick and updates the machine, the given number of times.
+     */
+    private void tick(StateMachine<Phase> machine, int count) {
+        for (int i = 0; i < count; i++) {
+            clock.advance(TICK);
+            machine.update();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.team1251.frc.robotCore.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RobotConfigTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsSettings() throws IOException {
+        RobotConfig config = load("# A comment\ndrive.maxVelocity = 3850\ndrive.closedLoop = true\n");
+
+        assertEquals(3850, config.getDouble("drive.maxVelocity", 4000), 0);
+        assertTrue(config.getBoolean("drive.closedLoop", false));
+    }
+
+    @Test
+    public void usesDefaultsForMissingSettings() throws IOException {
+        RobotConfig config = load("other = 1\n");
+
+        assertEquals(4000, config.getDouble("drive.maxVelocity", 4000), 0);
+        assertFalse(config.getBoolean("drive.closedLoop", false));
+    }
+
+    @Test
+    public void usesDefaultsForUnreadableValues() throws IOException {
+        RobotConfig config = load("drive.maxVelocity = fast\ndrive.closedLoop = maybe\n");
+
+        assertEquals(4000, config.getDouble("drive.maxVelocity", 4000), 0);
+        assertTrue(config.getBoolean("drive.closedLoop", true));
+    }
+
+    @Test
+    public void usesDefaultsWithoutAFile() {
+        RobotConfig config = new RobotConfig(new File(folder.getRoot(), "missing.properties"));
+
+        assertEquals(4000, config.getDouble("drive.maxVelocity", 4000), 0);
+    }
+
+    private RobotConfig load(String contents) throws IOException {
+        File file = folder.newFile("robot.properties");
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return new RobotConfig(file);
+    }
+}
@@ -0,0 +1,96 @@
+package org.team1251.frc.robotCore.util;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.Timer;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The clock is a singleton, so every test which switches it to virtual time switches it back afterwards.
+ */
+public class TickClockTest {
+
+    private static TickClock clock;
+
+    @BeforeClass
+    public static void setUp() {
+        assertTrue("Failed to initialize the HAL.", HAL.initialize(500, 0));
+        clock = TickClock.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        clock.useRealTime();
+    }
+
+    @Test
+    public void realTimeOnlyMovesWhenLatched() throws InterruptedException {
+        assertFalse(clock.isVirtual());
+
+        clock.latch();
+        double time = clock.getTime();
+        Thread.sleep(20);
+        assertEquals("Time must not move during a tick.", time, clock.getTime(), 0);
+
+        double before = Timer.getFPGATimestamp();
+        clock.latch();
+        double after = Timer.getFPGATimestamp();
+        assertTrue(clock.getTime() >= before && clock.getTime() <= after);
+        assertTrue(clock.getElapsed(time) >= .02);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void realTimeCannotBeAdvanced() {
+        clock.advance(1);
+    }
+
+    @Test
+    public void virtualTimeOnlyMovesWhenAdvanced() throws InterruptedException {
+        clock.useVirtualTime();
+        assertTrue(clock.isVirtual());
+
+        double time = clock.getTime();
+        Thread.sleep(20);
+        clock.latch();
+        assertEquals("Latching must not move virtual time.", time, clock.getTime(), 0);
+
+        clock.advance(.02);
+        assertEquals(time + .02, clock.getTime(), 1e-9);
+    }
+
+    @Test
+    public void virtualTimeMeetsDeadlines() {
+        clock.useVirtualTime();
+
+        double start = clock.getTime();
+        double deadline = clock.getDeadline(.25);
+        assertFalse(clock.hasPassed(deadline));
+
+        clock.advance(.2);
+        assertFalse(clock.hasPassed(deadline));
+        assertEquals(.2, clock.getElapsed(start), 1e-9);
+
+        clock.advance(.05);
+        assertTrue("A deadline has passed as soon as it is reached.", clock.hasPassed(deadline));
+        assertEquals(.25, clock.getElapsed(start), 1e-9);
+    }
+
+    @Test
+    public void switchesBackToRealTime() throws InterruptedException {
+        clock.useVirtualTime();
+        clock.advance(1000);
+
+        Thread.sleep(20);
+        double before = Timer.getFPGATimestamp();
+        clock.useRealTime();
+
+        assertFalse(clock.isVirtual());
+        assertTrue("The real time is latched right away.", clock.getTime() >= before);
+        assertTrue(clock.getTime() <= Timer.getFPGATimestamp());
+    }
+}
@@ -0,0 +1,120 @@
+package org.team1251.frc.robotCore.util.filters;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KalmanFilter1DTest {
+
+    private static final double DT = .02;
+
+    @Test
+    public void takesTheFirstMeasurementAsIs() {
+        KalmanFilter1D filter = new KalmanFilter1D(.25, 1);
+        assertFalse(filter.isPrimed());
+
+        filter.predict(DT, 5);
+        filter.correct(12);
+
+        assertTrue(filter.isPrimed());
+        assertEquals(12, filter.getValue(), 0);
+        assertEquals(0, filter.getRate(), 0);
+        assertEquals(.25, filter.getVariance(), 0);
+    }
+
+    @Test
+    public void smoothsNoisyMeasurements() {
+        KalmanFilter1D filter = new KalmanFilter1D(1, .01);
+        Random random = new Random(1251);
+
+        double worstError = 0;
+        for (int i = 0; i < 500; i++) {
+            filter.predict(DT, 0);
+            filter.correct(10 + random.nextGaussian());
+            if (i >= 100) {
+                worstError = Math.max(worstError, Math.abs(filter.getValue() - 10));
+            }
+        }
+
+        // Single measurements are regularly a standard deviation (1) or more off.
+        assertTrue("Estimate strayed " + worstError + " from the true value.", worstError < .5);
+        assertTrue(filter.getVariance() < 1);
+    }
+
+    @Test
+    public void learnsAConstantRate() {
+        KalmanFilter1D filter = new KalmanFilter1D(.01, 1);
+
+        for (int i = 0; i < 200; i++) {
+            filter.predict(DT, 0);
+            filter.correct(3 * i * DT);
+        }
+
+        assertEquals(3, filter.getRate(), .05);
+        assertEquals(3 * 199 * DT, filter.getValue(), .05);
+
+        // With no more measurements, the estimate keeps moving at the learned rate.
+        double value = filter.getValue();
+        filter.predict(1, 0);
+        assertEquals(value + filter.getRate(), filter.getValue(), 1e-9);
+    }
+
+    @Test
+    public void appliesKnownChanges() {
+        KalmanFilter1D filter = new KalmanFilter1D(.25, 1);
+        filter.correct(4);
+
+        filter.predict(DT, -1.5);
+
+        assertEquals(2.5, filter.getValue(), 1e-9);
+    }
+
+    @Test
+    public void growsMoreUncertainWithoutMeasurements() {
+        KalmanFilter1D filter = new KalmanFilter1D(.25, 1);
+        filter.correct(0);
+
+        double variance = filter.getVariance();
+        filter.predict(DT, 0);
+        assertTrue(filter.getVariance() > variance);
+
+        variance = filter.getVariance();
+        filter.correct(0);
+        assertTrue(filter.getVariance() < variance);
+    }
+
+    @Test
+    public void measuresSurprise() {
+        KalmanFilter1D filter = new KalmanFilter1D(1, 1);
+        assertEquals(0, filter.getSurprise(100), 0);
+
+        filter.correct(0);
+
+        // Variance of the innovation is the estimate's variance (1) plus the measurement's (1).
+        assertEquals(.5, filter.getSurprise(1), 1e-9);
+        assertEquals(50, filter.getSurprise(10), 1e-9);
+        assertEquals(0, filter.getValue(), 0);
+    }
+
+    @Test
+    public void resetsToUnprimed() {
+        KalmanFilter1D filter = new KalmanFilter1D(.25, 1);
+        filter.correct(7);
+
+        filter.reset();
+
+        assertFalse(filter.isPrimed());
+        assertEquals(0, filter.getValue(), 0);
+        filter.correct(-2);
+        assertEquals(-2, filter.getValue(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresPositiveVariances() {
+        new KalmanFilter1D(0, 1);
+    }
+}
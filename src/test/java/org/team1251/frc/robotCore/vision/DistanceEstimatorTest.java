@@ -0,0 +1,104 @@
+package org.team1251.frc.robotCore.vision;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DistanceEstimatorTest {
+
+    /**
+     * The camera geometry used for uncalibrated pipelines.
+     */
+    private static final double TARGET_HEIGHT = 20;
+    private static final double CAMERA_PITCH = 0;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void interpolatesACalibratedPipeline() throws IOException {
+        DistanceEstimator estimator = load(
+                "1, 40, 20, 4",
+                "1, 80, 10, 1",
+                "1, 120, 0, .4444");
+
+        assertTrue(estimator.isCalibrated(1));
+        assertEquals(60, estimator.getDistance(1, 15, 2), .5);
+        assertEquals(100, estimator.getDistance(1, 5, 1), .5);
+    }
+
+    @Test
+    public void fallsBackToTheAreaOutsideOfTheVerticalOffsetRange() throws IOException {
+        DistanceEstimator estimator = load(
+                "1, 40, 20, 4",
+                "1, 80, 10, 1");
+
+        // The area table is keyed by 1 / sqrt(area): 3/4 for an area of 16/9, halfway between the two samples.
+        assertEquals(60, estimator.getDistance(1, 25, 16.0 / 9), .5);
+    }
+
+    @Test
+    public void skipsAPipelineWithTooFewSamples() throws IOException {
+        DistanceEstimator estimator = load(
+                "0, 50, 12, 3",
+                "1, 40, 20, 4",
+                "1, 80, 10, 1",
+                "2, 60, 15, 2",
+                "2, 70, 15, 1.5");
+
+        assertFalse("A single sample can't be interpolated.", estimator.isCalibrated(0));
+        assertFalse("Samples with the same offset can't be interpolated.", estimator.isCalibrated(2));
+        assertTrue("Pipelines after a bad one still load.", estimator.isCalibrated(1));
+
+        assertEquals(getGeometricDistance(12), estimator.getDistance(0, 12, 3), 1e-9);
+        assertEquals(getGeometricDistance(15), estimator.getDistance(2, 15, 2), 1e-9);
+        assertEquals(60, estimator.getDistance(1, 15, 2), .5);
+    }
+
+    @Test
+    public void fallsBackToTheCameraGeometryWithoutAFile() {
+        DistanceEstimator estimator = new DistanceEstimator(null, new File(folder.getRoot(), "missing.csv"),
+                TARGET_HEIGHT, CAMERA_PITCH);
+
+        assertFalse(estimator.isCalibrated(0));
+        assertEquals(getGeometricDistance(10), estimator.getDistance(0, 10, 1), 1e-9);
+        assertTrue("A target below the camera's line of sight can't be reached.",
+                Double.isNaN(estimator.getDistance(0, -5, 1)));
+    }
+
+    @Test
+    public void readsTheSamplesItAppends() throws IOException {
+        File file = new File(folder.getRoot(), "capture/vision-calibration.csv");
+        DistanceEstimator.appendSample(file, 3, 40, 20, 4);
+        DistanceEstimator.appendSample(file, 3, 80, 10, 1);
+
+        DistanceEstimator estimator = new DistanceEstimator(null, file, TARGET_HEIGHT, CAMERA_PITCH);
+
+        assertTrue(estimator.isCalibrated(3));
+        assertEquals(60, estimator.getDistance(3, 15, 2), .5);
+    }
+
+    /**
+     * Writes a calibration file with the given sample lines, and creates an estimator from it. No camera is needed
+     * unless telemetry is sent.
+     */
+    private DistanceEstimator load(String... samples) throws IOException {
+        File file = folder.newFile("vision-calibration.csv");
+        Files.write(file.toPath(), Arrays.asList(samples), StandardCharsets.UTF_8);
+        return new DistanceEstimator(null, file, TARGET_HEIGHT, CAMERA_PITCH);
+    }
+
+    private static double getGeometricDistance(double verticalOffset) {
+        return TARGET_HEIGHT / Math.tan(Math.toRadians(CAMERA_PITCH + verticalOffset));
+    }
+}